@@ -0,0 +1,100 @@
+package com.pathwise.backend.benchmark;
+
+import com.pathwise.backend.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the BigDecimal reductions the aggregation services used to run
+ * against the fils ({@link Money}) aggregation that replaced them.
+ *
+ * Rows mimic the grouped analytics scan: a category and a 3-decimal BHD amount,
+ * also held in fils as a row converted where it was read. The pure fils variants
+ * sum those, as the services do between their boundaries; byCategoryFils pays
+ * the {@link Money#toFils} conversion per row inside the measurement instead.
+ * Run with {@code mvn -Pjmh test-compile exec:exec}; the gc profiler reports
+ * gc.alloc.rate.norm (bytes allocated per op) next to throughput.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyAggregationBenchmark {
+
+    private static final String[] CATEGORIES = {
+            "Food & Dining", "Transport", "Shopping", "Utilities", "Entertainment", "Health", "Other"
+    };
+
+    record Row(String category, BigDecimal amount, long fils) {}
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private List<Row> data;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(500_000), Money.SCALE);
+            data.add(new Row(CATEGORIES[random.nextInt(CATEGORIES.length)], amount, Money.toFils(amount)));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal totalBigDecimal() {
+        return data.stream().map(Row::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal totalFils() {
+        long total = 0L;
+        for (Row row : data) total = Money.add(total, row.fils());
+        return Money.toBigDecimal(total);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> byCategoryBigDecimal() {
+        return data.stream().collect(Collectors.groupingBy(Row::category,
+                Collectors.reducing(BigDecimal.ZERO, Row::amount, BigDecimal::add)));
+    }
+
+    /** Converting each row as it is summed, for rows that only carry a BigDecimal. */
+    @Benchmark
+    public Map<String, BigDecimal> byCategoryFils() {
+        Map<String, Long> fils = data.stream().collect(Collectors.groupingBy(Row::category,
+                Money.summing(r -> Money.toFils(r.amount()))));
+        return Money.toAmounts(fils);
+    }
+
+    /** Rows already carrying fils, as {@code SpendTotal} does when built from a long. */
+    @Benchmark
+    public Map<String, BigDecimal> byCategoryPreconvertedFils() {
+        Map<String, Long> fils = data.stream().collect(Collectors.groupingBy(Row::category,
+                Money.summing(Row::fils)));
+        return Money.toAmounts(fils);
+    }
+}
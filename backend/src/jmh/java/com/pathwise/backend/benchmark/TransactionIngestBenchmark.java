@@ -0,0 +1,122 @@
+package com.pathwise.backend.benchmark;
+
+import com.pathwise.backend.PathWiseApplication;
+import com.pathwise.backend.config.PlaidStubServer;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.service.PlaidService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to ingest one Plaid sync of 100, 1k and 10k new transactions into an
+ * empty account, through {@link PlaidService#fetchAndStoreTransactions} against
+ * the Plaid stub server and the test profile's H2 database.
+ *
+ * Each invocation links a fresh account, so every row is new; rows/sec is
+ * rows divided by the reported time. The LLM endpoint points at the stub, which
+ * answers 404, so categorization takes the amount-based fallback and the figure
+ * is the database side of ingest. Run with
+ * {@code mvn -Pdev,jmh test-compile exec:exec -Djmh.benchmark=TransactionIngestBenchmark}
+ * (the dev profile puts H2 on the classpath).
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransactionIngestBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int rows;
+
+    private PlaidStubServer plaid;
+    private ConfigurableApplicationContext context;
+    private PlaidService plaidService;
+    private UserRepository userRepository;
+    private AccountRepository accountRepository;
+
+    private int accounts;
+    private Account account;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        plaid = new PlaidStubServer();
+        context = new SpringApplicationBuilder(PathWiseApplication.class)
+                .profiles("test")
+                // Arguments rather than default properties, so they win over the profile's yaml
+                .run("--plaid.base-url=" + plaid.baseUrl(),
+                        "--groq.url=" + plaid.baseUrl() + "/groq",
+                        "--groq.api.key=benchmark",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+        plaidService = context.getBean(PlaidService.class);
+        userRepository = context.getBean(UserRepository.class);
+        accountRepository = context.getBean(AccountRepository.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void linkAccount() {
+        int n = accounts++;
+        User user = userRepository.save(User.builder()
+                .fullName("Bench User")
+                .email("ingest-" + rows + "-" + n + "@bench.test")
+                .passwordHash("hashedPassword")
+                .phone(String.format("5%07d", n))
+                .monthlySalary(new BigDecimal("2000.000"))
+                .preferredCurrency("BHD")
+                .emailVerified(true)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        String token = "access-bench-" + rows + "-" + n;
+        account = accountRepository.save(Account.builder()
+                .user(user).plaidAccessToken(token)
+                .balance(BigDecimal.ZERO).totalExpensesToDate(BigDecimal.ZERO).currency("BHD")
+                .build());
+
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < rows; i++) {
+            plaid.add(token, token + "-" + i, "Merchant " + (i % 50),
+                    String.valueOf(1 + i % 90), today.minusDays(1 + i % 80).toString());
+        }
+    }
+
+    @Benchmark
+    public Account ingest() {
+        plaidService.fetchAndStoreTransactions(account.getPlaidAccessToken(), account);
+        return account;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+        plaid.close();
+    }
+}
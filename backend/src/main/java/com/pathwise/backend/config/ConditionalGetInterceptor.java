@@ -0,0 +1,52 @@
+package com.pathwise.backend.config;
+
+import com.pathwise.backend.controller.ConditionalGet;
+import com.pathwise.backend.security.AuthenticatedUser;
+import com.pathwise.backend.service.ResourceVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Conditional GET for handlers annotated with {@link ConditionalGet}.
+ *
+ * Emits the resource's strong ETag on every response and answers a matching
+ * If-None-Match with 304 before the controller runs, so no repository query or
+ * JSON serialization happens. The ETag comes from the versions loaded with the
+ * principal, before the handler: a change that lands while the handler runs only
+ * costs the client one extra full response.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    // Stored by the client, but revalidated on every use
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private final ResourceVersions resourceVersions;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method) || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        ConditionalGet conditionalGet = method.getMethodAnnotation(ConditionalGet.class);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (conditionalGet == null || authentication == null
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            return true;
+        }
+
+        String etag = resourceVersions.etag(user, conditionalGet.value());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        // Sets the ETag header, and the 304 status when If-None-Match matches
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
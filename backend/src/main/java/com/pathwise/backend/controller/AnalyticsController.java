@@ -1,11 +1,15 @@
 package com.pathwise.backend.controller;
 
 import com.pathwise.backend.dto.AnalyticsResponse;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.service.AnalyticsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+import java.util.Set;
+
 /**
  * REST controller for analytics operations.
  * Provides endpoints for retrieving financial analytics data including
@@ -28,8 +32,23 @@ public class AnalyticsController {
      * @return AnalyticsResponse containing financial metrics and breakdowns
      */
     @GetMapping
+    @ConditionalGet(VersionedResource.ANALYTICS)
     public ResponseEntity<AnalyticsResponse> getAnalytics(
             @RequestParam(defaultValue = "3") int months) {
         return ResponseEntity.ok(analyticsService.getAnalytics(months));
     }
+
+    /**
+     * Retrieves analytics for several windows at once, e.g. every range button
+     * of the dashboard, computed from one scan of the largest window.
+     *
+     * @param windows Numbers of months to analyze, e.g. 1,3,6,12
+     * @return Map of window (months) to its AnalyticsResponse
+     */
+    @GetMapping("/batch")
+    @ConditionalGet(VersionedResource.ANALYTICS)
+    public ResponseEntity<Map<Integer, AnalyticsResponse>> getAnalyticsBatch(
+            @RequestParam(defaultValue = "1,3,6,12") Set<Integer> windows) {
+        return ResponseEntity.ok(analyticsService.getAnalytics(windows));
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.pathwise.backend.controller;
 
 import com.pathwise.backend.dto.AnomalyResponse;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.service.AnomalyService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -25,13 +26,14 @@ public class AnomalyController {
 
     /**
      * Retrieves all active (undismissed) anomalies for the authenticated user.
-     * Triggers detection before returning results.
+     * Detection runs after transactions are ingested, not on this request.
      * 
      * @return List of active anomaly responses
      */
     @GetMapping
+    @ConditionalGet(VersionedResource.ANOMALIES)
     public ResponseEntity<List<AnomalyResponse>> getAnomalies() {
-        return ResponseEntity.ok(anomalyService.detectAndGetAnomalies());
+        return ResponseEntity.ok(anomalyService.getActiveAnomalies());
     }
 
     /**
@@ -0,0 +1,17 @@
+package com.pathwise.backend.controller;
+
+import com.pathwise.backend.enums.VersionedResource;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a GET handler whose response is tagged with the current user's version of
+ * the given resource. A matching If-None-Match is answered with 304 Not Modified
+ * before the handler runs (see ConditionalGetInterceptor).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalGet {
+    VersionedResource value();
+}
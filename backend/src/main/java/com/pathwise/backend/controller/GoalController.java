@@ -2,6 +2,7 @@ package com.pathwise.backend.controller;
 
 import com.pathwise.backend.dto.GoalRequest;
 import com.pathwise.backend.dto.GoalResponse;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.service.GoalService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,11 +26,13 @@ public class GoalController {
     }
 
     @GetMapping
+    @ConditionalGet(VersionedResource.GOALS)
     public ResponseEntity<List<GoalResponse>> getAllGoals() {
         return ResponseEntity.ok(goalService.getAllGoals());
     }
 
     @GetMapping("/snapshot")
+    @ConditionalGet(VersionedResource.GOALS)
     public ResponseEntity<FinancialSnapshot> getFinancialSnapshot() {
         return ResponseEntity.ok(goalService.getFinancialSnapshot());
     }
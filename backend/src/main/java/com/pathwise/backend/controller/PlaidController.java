@@ -1,11 +1,16 @@
 package com.pathwise.backend.controller;
 
 import com.pathwise.backend.dto.AccountResponse;
+import com.pathwise.backend.dto.CardLinkStatusResponse;
 import com.pathwise.backend.dto.LinkCardRequest;
 import com.pathwise.backend.dto.PlaidLinkResponse;
+import com.pathwise.backend.dto.TransactionCursorPage;
 import com.pathwise.backend.dto.TransactionResponse;
+import com.pathwise.backend.enums.AccountLinkStatus;
 import com.pathwise.backend.model.Account;
+import com.pathwise.backend.security.PlaidWebhookVerifier;
 import com.pathwise.backend.service.PlaidService;
+import com.pathwise.backend.service.PlaidWebhookService;
 import com.pathwise.backend.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,8 +20,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +40,8 @@ public class PlaidController {
 
     private final PlaidService plaidService;
     private final TransactionService transactionService;
+    private final PlaidWebhookVerifier webhookVerifier;
+    private final PlaidWebhookService webhookService;
 
     /**
      * Creates a link token for initializing Plaid Link in the frontend.
@@ -65,14 +74,49 @@ public class PlaidController {
 
     /**
      * Links a card manually without using Plaid Link flow.
+     * Linking continues in the background; poll the returned Location until the
+     * status is no longer PENDING.
      * 
      * @param request Card linking request containing card details
-     * @return Success message
+     * @return 202 with the link job's id and PENDING status
      */
     @PostMapping("/link-card")
-    public ResponseEntity<String> linkCard(@Valid @RequestBody LinkCardRequest request) {
-        plaidService.linkCard(request);
-        return ResponseEntity.ok("Bank card linked successfully!");
+    public ResponseEntity<CardLinkStatusResponse> linkCard(@Valid @RequestBody LinkCardRequest request) {
+        UUID jobId = plaidService.linkCard(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/plaid/link-card/" + jobId))
+                .body(CardLinkStatusResponse.builder()
+                        .jobId(jobId)
+                        .status(AccountLinkStatus.PENDING.name())
+                        .build());
+    }
+
+    /**
+     * Reports the progress of a card link started with POST /link-card.
+     * 
+     * @param jobId Job id returned when linking started
+     * @return PENDING, ACTIVE or FAILED with the reason
+     */
+    @GetMapping("/link-card/{jobId}")
+    public ResponseEntity<CardLinkStatusResponse> getLinkCardStatus(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(plaidService.getCardLinkStatus(jobId));
+    }
+
+    /**
+     * Receives Plaid webhooks. Public, but only requests signed by Plaid are
+     * accepted; new activity on an item is synced in the background.
+     * 
+     * @param body Raw webhook body, verified against the signature
+     * @param verification Plaid-Verification header
+     * @return 200 once the webhook is accepted, 401 when it is not signed by Plaid
+     */
+    @PostMapping("/webhook")
+    public ResponseEntity<Void> receiveWebhook(
+            @RequestBody byte[] body,
+            @RequestHeader(value = "Plaid-Verification", required = false) String verification) {
+        webhookVerifier.verify(body, verification);
+        webhookService.handle(body);
+        return ResponseEntity.ok().build();
     }
 
     /**
@@ -106,6 +150,48 @@ public class PlaidController {
                 transactionService.getTransactions(search, category, type, month, year, sortBy, sortDir, pageable));
     }
 
+    /**
+     * Retrieves transactions using keyset (cursor) pagination.
+     * Selected instead of the paged variant when a {@code cursor} parameter is present;
+     * pass an empty cursor for the first page and {@code nextCursor} afterwards.
+     * Only transactionDate and amount can be used as sort keys.
+     * 
+     * @param cursor Opaque cursor from the previous page (empty for the first page)
+     * @param size Page size
+     * @return Page content and the cursor of the next page
+     */
+    @GetMapping(value = "/transactions", params = "cursor")
+    public ResponseEntity<TransactionCursorPage> getTransactionsByCursor(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "8") int size) {
+
+        return ResponseEntity.ok(transactionService.getTransactionsAfter(
+                search, category, type, month, year, sortBy, sortDir, cursor, size));
+    }
+
+    /**
+     * Fuzzy merchant search over the user's transactions.
+     * Tolerates typos and ranks results by similarity to the query.
+     * 
+     * @param q Merchant search term
+     * @param limit Maximum number of results (capped at 50)
+     * @return Matching transactions, best match first
+     */
+    @GetMapping("/transactions/search")
+    public ResponseEntity<List<TransactionResponse>> searchTransactions(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        return ResponseEntity.ok(transactionService.searchByMerchant(q, limit));
+    }
+
     /**
      * Retrieves all linked accounts for the authenticated user.
      * 
@@ -137,6 +223,7 @@ public class PlaidController {
                 .expiryYear(account.getExpiryYear())
                 .balance(account.getBalance())
                 .currency(account.getCurrency())
+                .linkStatus(account.getLinkStatus().reported().name())
                 .build();
     }
 }
\ No newline at end of file
@@ -3,12 +3,14 @@ package com.pathwise.backend.controller;
 import com.pathwise.backend.dto.AccountResponse;
 import com.pathwise.backend.dto.RegisterRequest;
 import com.pathwise.backend.dto.UpdateProfileRequest;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.exception.UserNotFoundException;
 import com.pathwise.backend.model.Account;
 import com.pathwise.backend.model.User;
 import com.pathwise.backend.repository.AccountRepository;
 import com.pathwise.backend.repository.UserRepository;
 import com.pathwise.backend.service.FinancialProfileService;
+import com.pathwise.backend.service.ResourceVersions;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -29,6 +31,7 @@ public class ProfileController {
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
     private final FinancialProfileService financialProfileService;
+    private final ResourceVersions resourceVersions;
 
     /**
      * GET /api/profile
@@ -36,6 +39,7 @@ public class ProfileController {
      * Merges the original card/account info with the new financial profile data.
      */
     @GetMapping
+    @ConditionalGet(VersionedResource.PROFILE)
     public ResponseEntity<Map<String, Object>> getProfile() {
         User user = getCurrentUser();
         Optional<Account> account = accountRepository.findByUserId(user.getId());
@@ -112,6 +116,11 @@ public class ProfileController {
 
         user.setUpdatedAt(LocalDateTime.now());
         User saved = userRepository.save(user);
+        resourceVersions.bump(saved.getId(), VersionedResource.PROFILE);
+        if (request.getMonthlySalary() != null) {
+            // Salary feeds the analytics income and the goals' disposable income
+            resourceVersions.bump(saved.getId(), VersionedResource.ANALYTICS, VersionedResource.GOALS);
+        }
 
         return ResponseEntity.ok(Map.of(
                 "fullName",          saved.getFullName(),
@@ -1,6 +1,7 @@
 package com.pathwise.backend.controller;
 
 import com.pathwise.backend.model.Report;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.service.ReportService;
 import com.pathwise.backend.service.ReportService.ReportSummary;
 import lombok.RequiredArgsConstructor;
@@ -41,6 +42,7 @@ public class ReportController {
      * @return List of report summaries containing id, title, and date
      */
     @GetMapping
+    @ConditionalGet(VersionedResource.REPORTS)
     public ResponseEntity<List<ReportSummary>> getReportHistory() {
         return ResponseEntity.ok(reportService.getReportHistory());
     }
@@ -0,0 +1,68 @@
+package com.pathwise.backend.controller;
+
+import com.pathwise.backend.enums.ExportFormat;
+import com.pathwise.backend.service.TransactionExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * REST controller for exporting the full transaction history.
+ * The response is streamed while the rows are read, so exports of any size
+ * start downloading immediately and use constant memory on the server.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/plaid/transactions")
+@RequiredArgsConstructor
+public class TransactionExportController {
+
+    private final TransactionExportService transactionExportService;
+
+    /**
+     * Downloads all transactions of the authenticated user, newest first.
+     *
+     * @param format csv (default) or ndjson
+     * @param gzip Whether to gzip the file (adds .gz to the file name)
+     * @return Streaming file download
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        // The body is written on another thread, without the security context
+        UUID userId = transactionExportService.getCurrentUserId();
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192, true);
+                transactionExportService.writeTransactions(userId, exportFormat, gzipOut);
+                gzipOut.finish();
+            } else {
+                transactionExportService.writeTransactions(userId, exportFormat, out);
+            }
+        };
+
+        String fileName = "transactions-" + LocalDate.now() + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
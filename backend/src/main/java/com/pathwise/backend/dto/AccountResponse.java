@@ -18,4 +18,5 @@ public class AccountResponse {
     private Integer expiryYear;
     private BigDecimal balance;
     private String currency;
+    private String linkStatus;
 }
\ No newline at end of file
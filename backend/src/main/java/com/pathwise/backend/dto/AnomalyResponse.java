@@ -12,10 +12,12 @@ import java.util.UUID;
 public class AnomalyResponse {
     private UUID id;
     private String category;
+    private String kind;
     private String severity;
     private String message;
     private BigDecimal actualAmount;
     private BigDecimal baselineAmount;
     private boolean isDismissed;
     private LocalDateTime createdAt;
+    private UUID transactionId;     // Set for transaction-level anomalies
 }
\ No newline at end of file
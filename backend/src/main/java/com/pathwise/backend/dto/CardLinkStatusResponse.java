@@ -0,0 +1,14 @@
+package com.pathwise.backend.dto;
+
+import lombok.*;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CardLinkStatusResponse {
+    private UUID jobId;
+    private String status;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.pathwise.backend.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * One page of the transaction list in cursor (keyset) mode.
+ * Unlike Page, it carries no total count: pass nextCursor back to get the next page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionCursorPage {
+    private List<TransactionResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;   // null when this is the last page
+}
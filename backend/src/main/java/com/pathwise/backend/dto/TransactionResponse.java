@@ -1,5 +1,6 @@
 package com.pathwise.backend.dto;
 
+import com.pathwise.backend.enums.TransactionType;
 import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -19,4 +20,17 @@ public class TransactionResponse {
     private String category;
     private String categoryIcon;
     private String categoryColor;
-}
\ No newline at end of file
+
+    /**
+     * Constructor expression target for the projection queries in TransactionRepository.
+     * Category columns are null for uncategorized rows and fall back to "OTHER".
+     */
+    public TransactionResponse(UUID id, String merchantName, BigDecimal amount, TransactionType type,
+                               String currency, LocalDate transactionDate,
+                               String category, String categoryIcon, String categoryColor) {
+        this(id, merchantName, amount, type != null ? type.name() : null, currency, transactionDate,
+                category != null ? category : "OTHER",
+                category != null ? categoryIcon : "💳",
+                category != null ? categoryColor : "#95A5A6");
+    }
+}
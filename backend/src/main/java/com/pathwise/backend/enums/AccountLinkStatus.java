@@ -0,0 +1,25 @@
+package com.pathwise.backend.enums;
+
+/**
+ * Where an account is in the card linking flow, which runs in the background.
+ */
+public enum AccountLinkStatus {
+    /** Saved with the card details; the Plaid item and first sync are still in progress. */
+    PENDING,
+    /** A pending link claimed by the node that is connecting it; shown to clients as PENDING. */
+    LINKING,
+    /** Linked to a Plaid item with its transaction history stored. */
+    ACTIVE,
+    /** Linking gave up; the account can be linked again. */
+    FAILED;
+
+    /** Whether the link has not finished yet, claimed or not. */
+    public boolean isInProgress() {
+        return this == PENDING || this == LINKING;
+    }
+
+    /** The status reported to clients, for whom a claimed link is still PENDING. */
+    public AccountLinkStatus reported() {
+        return this == LINKING ? PENDING : this;
+    }
+}
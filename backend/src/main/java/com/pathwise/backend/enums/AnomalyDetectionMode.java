@@ -0,0 +1,11 @@
+package com.pathwise.backend.enums;
+
+/**
+ * How AnomalyService decides that a category's spending is unusual.
+ */
+public enum AnomalyDetectionMode {
+    /** This month's category total against fixed multiples of the previous two months' mean. */
+    THRESHOLD,
+    /** Each transaction's deviation from the category's running mean and EWMA, in standard deviations. */
+    STATISTICAL
+}
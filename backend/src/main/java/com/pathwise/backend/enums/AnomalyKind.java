@@ -0,0 +1,15 @@
+package com.pathwise.backend.enums;
+
+/**
+ * What an anomaly was raised for.
+ */
+public enum AnomalyKind {
+    /** A category's spending this month; at most one per category and month. */
+    CATEGORY_SPIKE,
+    /** A transaction far above the merchant's usual amount. */
+    AMOUNT_OUTLIER,
+    /** Same merchant and amount as a recent transaction, likely charged twice. */
+    DUPLICATE_CHARGE,
+    /** A large first transaction at a merchant never seen before. */
+    NEW_MERCHANT
+}
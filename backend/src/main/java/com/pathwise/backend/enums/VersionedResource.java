@@ -0,0 +1,12 @@
+package com.pathwise.backend.enums;
+
+/**
+ * Per-user read resources whose version is tracked for ETags and response caching.
+ */
+public enum VersionedResource {
+    ANALYTICS,
+    GOALS,
+    PROFILE,
+    ANOMALIES,
+    REPORTS
+}
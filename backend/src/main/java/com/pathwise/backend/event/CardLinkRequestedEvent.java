@@ -0,0 +1,11 @@
+package com.pathwise.backend.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a card was saved as a PENDING account and is waiting to be
+ * connected to Plaid.
+ *
+ * @param accountId The pending account, which is also the link job's id
+ */
+public record CardLinkRequestedEvent(UUID accountId) {}
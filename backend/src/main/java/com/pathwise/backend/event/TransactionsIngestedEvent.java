@@ -0,0 +1,12 @@
+package com.pathwise.backend.event;
+
+import java.util.UUID;
+
+/**
+ * Published when new transactions of a user have been stored.
+ * Listeners that react after commit see the transactions and the updated spend rollup.
+ *
+ * @param userId Owner of the transactions
+ * @param count  Number of transactions stored
+ */
+public record TransactionsIngestedEvent(UUID userId, int count) {}
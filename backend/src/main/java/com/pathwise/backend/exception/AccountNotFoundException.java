@@ -0,0 +1,4 @@
+package com.pathwise.backend.exception;
+public class AccountNotFoundException extends RuntimeException {
+    public AccountNotFoundException(String message) { super(message); }
+}
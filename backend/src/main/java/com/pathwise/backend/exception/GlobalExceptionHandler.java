@@ -79,6 +79,13 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.UNAUTHORIZED, "Unauthorized", ex.getMessage(), req, null);
     }
 
+    // ── 401 — Webhook not signed by Plaid ────────────────────────────────────
+    @ExceptionHandler(InvalidWebhookException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidWebhook(
+            InvalidWebhookException ex, HttpServletRequest req) {
+        return build(HttpStatus.UNAUTHORIZED, "Unauthorized", ex.getMessage(), req, null);
+    }
+
     // ── 403 — Email not verified (special error code for frontend redirect) ───
     @ExceptionHandler(EmailNotVerifiedException.class)
     public ResponseEntity<ErrorResponse> handleEmailNotVerified(
@@ -106,7 +113,7 @@ public class GlobalExceptionHandler {
     }
 
     // ── 404 — Goal or User not found ─────────────────────────────────────────
-    @ExceptionHandler({GoalNotFoundException.class, UserNotFoundException.class})
+    @ExceptionHandler({GoalNotFoundException.class, UserNotFoundException.class, AccountNotFoundException.class})
     public ResponseEntity<ErrorResponse> handleNotFound(
             RuntimeException ex, HttpServletRequest req) {
         return build(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage(), req, null);
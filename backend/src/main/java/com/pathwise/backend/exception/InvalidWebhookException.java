@@ -0,0 +1,4 @@
+package com.pathwise.backend.exception;
+public class InvalidWebhookException extends RuntimeException {
+    public InvalidWebhookException(String message) { super(message); }
+}
@@ -1,5 +1,6 @@
 package com.pathwise.backend.model;
 
+import com.pathwise.backend.enums.AccountLinkStatus;
 import com.pathwise.backend.enums.BahrainBank;
 import com.pathwise.backend.enums.CardType;
 import jakarta.persistence.*;
@@ -10,7 +11,13 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_accounts_user_id", columnList = "user_id"),
+        @Index(name = "idx_accounts_plaid_account_id", columnList = "plaid_account_id"),
+        @Index(name = "idx_accounts_next_sync_at", columnList = "next_sync_at"),
+        @Index(name = "idx_accounts_plaid_item_id", columnList = "plaid_item_id")
+})
+@NamedEntityGraph(name = "Account.user", attributeNodes = @NamedAttributeNode("user"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,13 +28,42 @@ public class Account {
     @GeneratedValue
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
     // Plaid fields
     private String plaidAccountId;
     private String plaidAccessToken;
+    // The Plaid item the access token belongs to; webhooks name the item, not the account
+    private String plaidItemId;
+
+    // PENDING until the background link job has connected the item and stored the first sync
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AccountLinkStatus linkStatus = AccountLinkStatus.ACTIVE;
+
+    // Why linking failed, shown to the user
+    @Column(columnDefinition = "TEXT")
+    private String linkError;
+
+    // When a node claimed the link (LINKING); a claim this old is taken to be from a node that died
+    private LocalDateTime linkClaimedAt;
+
+    // Position in the item's /transactions/sync stream; null until the first sync
+    @Column(columnDefinition = "TEXT")
+    private String plaidSyncCursor;
+
+    // Background sync: when the account is next due, and how many syncs in a row found nothing new
+    private LocalDateTime nextSyncAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int idleSyncs = 0;
+
+    // Set while one node runs the account's background sync; a claim past this time was abandoned
+    private LocalDateTime syncClaimedUntil;
 
     // Card details
     @Enumerated(EnumType.STRING)
@@ -1,14 +1,22 @@
 package com.pathwise.backend.model;
 
+import com.pathwise.backend.enums.AnomalyKind;
 import com.pathwise.backend.enums.SeverityLevel;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "anomalies")
+@Table(name = "anomalies", indexes = {
+        @Index(name = "idx_anomalies_user_dismissed_created", columnList = "user_id, is_dismissed, created_at desc")
+}, uniqueConstraints =
+        // One category anomaly per month, however many detections race to insert it
+        @UniqueConstraint(name = "uk_anomalies_user_category_kind_month",
+                columnNames = {"user_id", "category_id", "kind", "month_start"}))
+@NamedEntityGraph(name = "Anomaly.category", attributeNodes = @NamedAttributeNode("category"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,21 +27,26 @@ public class Anomaly {
     @GeneratedValue
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private TransactionCategory category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "transaction_id")
     private Transaction transaction;
 
     @Enumerated(EnumType.STRING)
     private SeverityLevel severity;
 
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AnomalyKind kind = AnomalyKind.CATEGORY_SPIKE;
+
     private String message;
     private BigDecimal actualAmount;
     private BigDecimal baselineAmount;
@@ -42,4 +55,8 @@ public class Anomaly {
     private Boolean isDismissed = false;
 
     private LocalDateTime createdAt;
+
+    // First day of the month a category anomaly is about; null for transaction-level ones,
+    // which may repeat within a month
+    private LocalDate monthStart;
 }
\ No newline at end of file
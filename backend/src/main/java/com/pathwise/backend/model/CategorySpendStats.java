@@ -0,0 +1,74 @@
+package com.pathwise.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Running statistics of a user's debit amounts in one category, updated in O(1)
+ * per stored transaction so anomaly scoring never rescans history.
+ *
+ * mean and m2 are Welford's running mean and sum of squared deviations over
+ * sampleCount amounts (variance = m2 / (sampleCount - 1)); ewma weights recent
+ * amounts more. The month fields cover monthStart only; monthPeak* is the
+ * transaction of that month that deviated most from the statistics before it.
+ */
+@Entity
+@Table(name = "category_spend_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_category_spend_stats", columnNames = {"user_id", "category"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorySpendStats {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false, length = 100)
+    private String category;
+
+    @Column(nullable = false)
+    private long sampleCount;
+
+    @Column(nullable = false)
+    private double mean;
+
+    @Column(nullable = false)
+    private double m2;
+
+    @Column(nullable = false)
+    private double ewma;
+
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+
+    @Column(nullable = false)
+    private int monthCount;
+
+    @Builder.Default
+    @Column(nullable = false, precision = 14, scale = 3)
+    private BigDecimal monthTotal = BigDecimal.ZERO;
+
+    private Double monthPeakScore;
+
+    @Column(precision = 14, scale = 3)
+    private BigDecimal monthPeakAmount;
+
+    private UUID monthPeakTransactionId;
+
+    private LocalDateTime updatedAt;
+
+    // Ingest and the weekly rebuild may touch the same row
+    @Version
+    private Long version;
+}
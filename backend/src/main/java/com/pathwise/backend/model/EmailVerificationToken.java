@@ -17,7 +17,7 @@ import java.util.UUID;
 @Entity
 @Table(name = "email_verification_tokens", indexes = {
         @Index(name = "idx_evt_user_purpose", columnList = "user_id, purpose"),
-        @Index(name = "idx_evt_email_purpose", columnList = "email, purpose")
+        @Index(name = "idx_evt_email_purpose_active", columnList = "email, purpose, used, expires_at")
 })
 @Data
 @NoArgsConstructor
@@ -0,0 +1,27 @@
+package com.pathwise.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Background sync budget of one institution, shared by all nodes. Kept as the time
+ * the institution's next sync becomes free were syncs spaced evenly at the allowed
+ * rate; a sync may start while that time is less than a minute ahead, which allows
+ * one minute's allowance at once and the rate after that.
+ */
+@Entity
+@Table(name = "institution_sync_budgets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InstitutionSyncBudget {
+
+    @Id
+    @Column(length = 50)
+    private String institution;
+
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+}
@@ -0,0 +1,104 @@
+package com.pathwise.backend.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Fixed-point BHD amounts held as a {@code long} of fils (1 BD = 1000 fils).
+ *
+ * BHD has exactly 3 decimal places, so every stored amount is an exact number of
+ * fils. Values cross to fils at the boundaries only: {@link #toFils} where a
+ * {@link BigDecimal} is read (a result row, a request field), {@link #toBigDecimal(long)}
+ * where an amount leaves through the API. In between, sums, comparisons and
+ * scaling work on primitive longs and allocate nothing; a running series such as
+ * a goal's monthly chart accumulates in fils and only its points are converted.
+ * Arithmetic that can overflow uses the {@code Math.*Exact} methods and throws
+ * {@link ArithmeticException} rather than wrapping.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+public final class Money {
+
+    /** Decimal places of BHD. */
+    public static final int SCALE = 3;
+
+    /** Fils in one BD. */
+    public static final long FILS_PER_BD = 1000L;
+
+    private Money() {}
+
+    /**
+     * Converts an amount to fils, rounding half-up past the third decimal.
+     * A null amount is zero. Allocates one intermediate BigDecimal for a stored
+     * (scale 3) amount, so call it once per value read, not inside a loop.
+     */
+    public static long toFils(BigDecimal amount) {
+        if (amount == null) return 0L;
+        // At scale 3 or less the moved value has scale 0 and setScale returns it as is
+        return amount.movePointRight(SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /** Converts fils back to a BD amount with scale 3. */
+    public static BigDecimal toBigDecimal(long fils) {
+        return BigDecimal.valueOf(fils, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    public static int compare(long a, long b) {
+        return Long.compare(a, b);
+    }
+
+    /**
+     * Multiplies an amount by numerator / denominator, rounding half-up to the fils.
+     * E.g. {@code scale(total, 1, months)} is a monthly average.
+     */
+    public static long scale(long fils, long numerator, long denominator) {
+        return divideHalfUp(Math.multiplyExact(fils, numerator), denominator);
+    }
+
+    /** Number of whole periods of {@code per} needed to cover {@code fils}, rounded up. */
+    public static long ceilDiv(long fils, long per) {
+        return Math.ceilDiv(fils, per);
+    }
+
+    /** a / b rounded half-up to 4 decimals, the precision of the anomaly ratios. */
+    public static double ratio(long a, long b) {
+        return divideHalfUp(Math.multiplyExact(a, 10_000L), b) / 10_000.0;
+    }
+
+    /**
+     * Sums a long-valued fils property. {@link Collectors#summingLong} keeps one
+     * long[] per group instead of a new BigDecimal per element.
+     */
+    public static <T> Collector<T, ?, Long> summing(ToLongFunction<? super T> fils) {
+        return Collectors.summingLong(fils);
+    }
+
+    /** Converts per-key fils totals to BD amounts for a response. */
+    public static <K> Map<K, BigDecimal> toAmounts(Map<K, Long> fils) {
+        return fils.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> toBigDecimal(e.getValue())));
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        // Round away from zero when the remainder is at least half the divisor
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+}
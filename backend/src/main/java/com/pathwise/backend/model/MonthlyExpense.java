@@ -14,7 +14,9 @@ import java.util.UUID;
  * disposableIncome = user.monthlySalary - SUM(this table for user)
  */
 @Entity
-@Table(name = "monthly_expenses")
+@Table(name = "monthly_expenses", indexes = {
+        @Index(name = "idx_monthly_expenses_user_id", columnList = "user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,55 @@
+package com.pathwise.backend.model;
+
+import com.pathwise.backend.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sum and count of a user's transactions for one month, category and type.
+ * Kept in step with the transactions table on ingest, so monthly analytics read
+ * O(months × categories) rows instead of every transaction.
+ *
+ * monthStart is the first day of the month; category is the category name,
+ * "OTHER" for uncategorized transactions.
+ */
+@Entity
+@Table(name = "monthly_spend_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_monthly_spend_rollup",
+                columnNames = {"user_id", "month_start", "category", "type"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MonthlySpendRollup {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false, length = 100)
+    private String category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TransactionType type;
+
+    @Column(nullable = false, precision = 14, scale = 3)
+    private BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    private int transactionCount;
+
+    private LocalDateTime updatedAt;
+}
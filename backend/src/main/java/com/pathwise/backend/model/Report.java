@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "reports")
+@Table(name = "reports", indexes = {
+        @Index(name = "idx_reports_user_created", columnList = "user_id, created_at desc")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -10,7 +10,9 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "simulations")
+@Table(name = "simulations", indexes = {
+        @Index(name = "idx_simulations_goal_id", columnList = "goal_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,11 +22,11 @@ public class Simulation {
     @GeneratedValue
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "goal_id")
     private Goal goal;
 
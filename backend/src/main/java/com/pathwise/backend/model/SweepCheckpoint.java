@@ -0,0 +1,46 @@
+package com.pathwise.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of a sweep over all users, which processes users in ascending id order.
+ * Every user with an id up to lastUserId has been processed in the run started at
+ * runStartedAt; completedAt is null while that run is unfinished. The node running
+ * the sweep holds it through claimedBy until claimedUntil, renewing the claim as it
+ * goes, so only one node sweeps at a time.
+ */
+@Entity
+@Table(name = "sweep_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SweepCheckpoint {
+
+    @Id
+    @Column(length = 50)
+    private String job;
+
+    @Column(nullable = false)
+    private LocalDateTime runStartedAt;
+
+    private UUID lastUserId;
+
+    @Column(nullable = false)
+    private long usersProcessed;
+
+    @Column(nullable = false)
+    private long anomaliesCreated;
+
+    private LocalDateTime completedAt;
+
+    private LocalDateTime updatedAt;
+
+    @Column(length = 64)
+    private String claimedBy;
+
+    private LocalDateTime claimedUntil;
+}
@@ -5,7 +5,9 @@ import lombok.*;
 import java.util.UUID;
 
 @Entity
-@Table(name = "categories")
+// The unique name is what makes concurrent creates in CategoryRegistry safe
+@Table(name = "categories", uniqueConstraints =
+        @UniqueConstraint(name = "uk_categories_name", columnNames = "name"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,7 +18,7 @@ public class TransactionCategory {
     @GeneratedValue
     private UUID id;
 
-    @Column(unique = true)
+    @Column(nullable = false)
     private String name;
 
     private String icon;
@@ -1,5 +1,6 @@
 package com.pathwise.backend.model;
 
+import com.pathwise.backend.enums.VersionedResource;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -52,10 +53,47 @@ public class User {
     @Builder.Default
     private boolean emailVerified = false;
 
+    // ── Resource versions ─────────────────────────────────────────────────────
+    // One counter per VersionedResource, raised by ResourceVersions in the transaction
+    // that changes the data; never written through the entity, so saving a user loaded
+    // earlier cannot put back an older version
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private long analyticsVersion = 0;
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private long goalsVersion = 0;
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private long profileVersion = 0;
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private long anomaliesVersion = 0;
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private long reportsVersion = 0;
+
     // ── Timestamps ────────────────────────────────────────────────────────────
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(nullable = false)
     private LocalDateTime updatedAt;
-}
\ No newline at end of file
+
+    /**
+     * Returns the stored version of one of this user's resources.
+     */
+    public long version(VersionedResource resource) {
+        return switch (resource) {
+            case ANALYTICS -> analyticsVersion;
+            case GOALS -> goalsVersion;
+            case PROFILE -> profileVersion;
+            case ANOMALIES -> anomaliesVersion;
+            case REPORTS -> reportsVersion;
+        };
+    }
+}
@@ -1,24 +1,147 @@
 package com.pathwise.backend.repository;
 
 import com.pathwise.backend.model.Account;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, UUID> {
-    Optional<Account> findByUserId(UUID userId);
+    // Explicit JPQL filters on the FK column; the derived query joins users first
+    @Query("SELECT a FROM Account a WHERE a.user.id = :userId")
+    Optional<Account> findByUserId(@Param("userId") UUID userId);
+
+    // Row lock held until the caller's transaction ends; syncs of one account write in turn
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") UUID id);
+
+    // The same lock on every account of a user, in id order; rebuilds of per-user totals wait out their syncs
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.user.id = :userId ORDER BY a.id")
+    List<Account> lockAllByUserId(@Param("userId") UUID userId);
+
+    // With its owner, for work that reads the user outside a transaction
+    @EntityGraph("Account.user")
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findWithUserById(@Param("id") UUID id);
+
     boolean existsByPlaidAccountId(String plaidAccountId);
+
+    @Query("SELECT DISTINCT a.user.id FROM Account a")
+    List<UUID> findAllUserIds();
+
+    // Next page of owner ids in ascending order after a given id; sweeps walk users in ranges
+    @Query("SELECT DISTINCT a.user.id FROM Account a WHERE a.user.id > :after ORDER BY a.user.id")
+    List<UUID> findUserIdsAfter(@Param("after") UUID after, Pageable pageable);
     
+    // Links nobody is working on: PENDING, or LINKING under a claim made before staleBefore
+    @Query("""
+        SELECT a.id FROM Account a
+        WHERE a.linkStatus = com.pathwise.backend.enums.AccountLinkStatus.PENDING
+           OR (a.linkStatus = com.pathwise.backend.enums.AccountLinkStatus.LINKING
+               AND a.linkClaimedAt < :staleBefore)
+    """)
+    List<UUID> findIdsOfUnclaimedLinks(@Param("staleBefore") LocalDateTime staleBefore);
+
+    // Claims a link for this node; 1 if it was PENDING (or its claim stale), 0 if another node holds it
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Account a
+        SET a.linkStatus = com.pathwise.backend.enums.AccountLinkStatus.LINKING, a.linkClaimedAt = :now
+        WHERE a.id = :id
+          AND (a.linkStatus = com.pathwise.backend.enums.AccountLinkStatus.PENDING
+               OR (a.linkStatus = com.pathwise.backend.enums.AccountLinkStatus.LINKING
+                   AND a.linkClaimedAt < :staleBefore))
+    """)
+    int claimLink(@Param("id") UUID id, @Param("now") LocalDateTime now,
+                  @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Hands a claimed link back, for a node that stops before finishing it
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Account a
+        SET a.linkStatus = com.pathwise.backend.enums.AccountLinkStatus.PENDING, a.linkClaimedAt = NULL
+        WHERE a.id = :id AND a.linkStatus = com.pathwise.backend.enums.AccountLinkStatus.LINKING
+    """)
+    int releaseLink(@Param("id") UUID id);
+    
+    // Linked accounts whose background sync is due and not claimed by a node, most overdue first
+    @Query("""
+        SELECT a FROM Account a
+        WHERE a.linkStatus = com.pathwise.backend.enums.AccountLinkStatus.ACTIVE
+          AND a.plaidAccessToken IS NOT NULL
+          AND a.nextSyncAt <= :now
+          AND (a.syncClaimedUntil IS NULL OR a.syncClaimedUntil < :now)
+        ORDER BY a.nextSyncAt
+    """)
+    List<Account> findDueForSync(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Claims a due account's background sync for one node; 0 if another node claimed it first
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Account a SET a.syncClaimedUntil = :until
+        WHERE a.id = :id AND a.nextSyncAt <= :now
+          AND (a.syncClaimedUntil IS NULL OR a.syncClaimedUntil < :now)
+    """)
+    int claimSync(@Param("id") UUID id, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    // Gives a claimed sync back without running it, leaving the account due
+    @Transactional
+    @Modifying
+    @Query("UPDATE Account a SET a.syncClaimedUntil = NULL WHERE a.id = :id")
+    int releaseSync(@Param("id") UUID id);
+
+    // The linked account of a Plaid item, for its webhooks
+    @Query("""
+        SELECT a FROM Account a
+        WHERE a.linkStatus = com.pathwise.backend.enums.AccountLinkStatus.ACTIVE
+          AND a.plaidAccessToken IS NOT NULL
+          AND a.plaidItemId = :itemId
+    """)
+    Optional<Account> findLinkedByPlaidItemId(@Param("itemId") String itemId);
+
+    // Linked accounts not yet on the background sync schedule
+    @Query("""
+        SELECT a.id FROM Account a
+        WHERE a.linkStatus = com.pathwise.backend.enums.AccountLinkStatus.ACTIVE
+          AND a.plaidAccessToken IS NOT NULL
+          AND a.nextSyncAt IS NULL
+    """)
+    List<UUID> findIdsWithoutSyncSchedule(Pageable pageable);
+
+    // Only the schedule columns, so a sync's balance and cursor are never overwritten with stale values;
+    // also ends the sync's claim
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Account a SET a.nextSyncAt = :nextSyncAt, a.idleSyncs = :idleSyncs, a.syncClaimedUntil = NULL
+        WHERE a.id = :id
+    """)
+    int updateSyncSchedule(@Param("id") UUID id, @Param("nextSyncAt") LocalDateTime nextSyncAt,
+                           @Param("idleSyncs") int idleSyncs);
+
     // Find accounts that need salary update (last update was before current month)
     @Query("SELECT a FROM Account a WHERE a.lastSalaryUpdate IS NULL OR a.lastSalaryUpdate < :firstDayOfMonth")
     List<Account> findAccountsNeedingSalaryUpdate(LocalDate firstDayOfMonth);
     
-    // Get all accounts for scheduled tasks
+    // Get all accounts for scheduled tasks (the salary job reads each owner's salary)
+    @EntityGraph("Account.user")
     List<Account> findAll();
 }
\ No newline at end of file
@@ -2,11 +2,14 @@ package com.pathwise.backend.repository;
 
 import com.pathwise.backend.model.AdviceHistory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface AdviceHistoryRepository extends JpaRepository<AdviceHistory, UUID> {
-    List<AdviceHistory> findTop10ByUserIdOrderByCreatedAtDesc(UUID userId);
+    @Query("SELECT a FROM AdviceHistory a WHERE a.user.id = :userId ORDER BY a.createdAt DESC LIMIT 10")
+    List<AdviceHistory> findTop10ByUserIdOrderByCreatedAtDesc(@Param("userId") UUID userId);
 }
\ No newline at end of file
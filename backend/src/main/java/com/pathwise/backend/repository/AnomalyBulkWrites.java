@@ -0,0 +1,25 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.model.Anomaly;
+
+import java.util.List;
+
+/**
+ * Set-based writes for anomaly detection, bypassing the persistence context.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+public interface AnomalyBulkWrites {
+
+    /**
+     * Inserts anomalies in JDBC batches, skipping any category anomaly already
+     * stored for its user, category, kind and month, so overlapping detections
+     * (the sweep on two nodes, or the sweep and detection after ingest) raise it
+     * once. Ids are assigned here; the rows do not become managed entities.
+     *
+     * @param anomalies New anomalies with their user and category set
+     * @return The anomalies actually inserted, with their ids
+     */
+    List<Anomaly> insertIgnoringDuplicates(List<Anomaly> anomalies);
+}
@@ -0,0 +1,114 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.model.Anomaly;
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link AnomalyBulkWrites}.
+ * On PostgreSQL duplicates are skipped with INSERT ... ON CONFLICT DO NOTHING against
+ * uk_anomalies_user_category_kind_month; elsewhere (H2 in dev and tests) with an
+ * INSERT ... SELECT guarded by NOT EXISTS. Runs on the connection of the surrounding
+ * JPA transaction, after flushing it.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+class AnomalyBulkWritesImpl implements AnomalyBulkWrites {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String COLUMNS = """
+        id, user_id, category_id, transaction_id, severity, kind, message,
+        actual_amount, baseline_amount, is_dismissed, created_at, month_start""";
+
+    private static final String POSTGRES_INSERT = "INSERT INTO anomalies (" + COLUMNS + """
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT DO NOTHING""";
+
+    // NULL category or month never matches, as neither does in the unique index
+    private static final String PORTABLE_INSERT = "INSERT INTO anomalies (" + COLUMNS + """
+        ) SELECT CAST(? AS UUID), CAST(? AS UUID), CAST(? AS UUID), CAST(? AS UUID),
+                 CAST(? AS VARCHAR(10)), CAST(? AS VARCHAR(20)), CAST(? AS VARCHAR(255)),
+                 CAST(? AS DECIMAL(38,2)), CAST(? AS DECIMAL(38,2)), CAST(? AS BOOLEAN),
+                 CAST(? AS TIMESTAMP), CAST(? AS DATE)
+        WHERE NOT EXISTS (SELECT 1 FROM anomalies
+                          WHERE user_id = ? AND category_id = ? AND kind = ? AND month_start = ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private volatile Boolean postgres;
+
+    AnomalyBulkWritesImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Anomaly> insertIgnoringDuplicates(List<Anomaly> anomalies) {
+        if (anomalies.isEmpty()) return List.of();
+        for (Anomaly a : anomalies) a.setId(UUID.randomUUID());
+        if (entityManager.isJoinedToTransaction()) entityManager.flush();
+
+        boolean portable = !isPostgres();
+        int[][] counts = jdbcTemplate.batchUpdate(portable ? PORTABLE_INSERT : POSTGRES_INSERT,
+                anomalies, BATCH_SIZE, (ps, a) -> bind(ps, a, portable));
+
+        List<Anomaly> inserted = new ArrayList<>(anomalies.size());
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                Anomaly a = anomalies.get(i++);
+                // Drivers that rewrite batches report SUCCESS_NO_INFO instead of a row count
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) inserted.add(a);
+            }
+        }
+        return inserted;
+    }
+
+    private static void bind(PreparedStatement ps, Anomaly a, boolean portable) throws SQLException {
+        UUID categoryId = a.getCategory() != null ? a.getCategory().getId() : null;
+        ps.setObject(1, a.getId());
+        ps.setObject(2, a.getUser().getId());
+        setNullable(ps, 3, categoryId);
+        setNullable(ps, 4, a.getTransaction() != null ? a.getTransaction().getId() : null);
+        ps.setString(5, a.getSeverity() != null ? a.getSeverity().name() : null);
+        ps.setString(6, a.getKind().name());
+        ps.setString(7, a.getMessage());
+        ps.setBigDecimal(8, a.getActualAmount());
+        ps.setBigDecimal(9, a.getBaselineAmount());
+        ps.setObject(10, a.getIsDismissed());
+        ps.setObject(11, a.getCreatedAt());
+        setNullable(ps, 12, a.getMonthStart());
+        if (portable) {
+            ps.setObject(13, a.getUser().getId());
+            setNullable(ps, 14, categoryId);
+            ps.setString(15, a.getKind().name());
+            setNullable(ps, 16, a.getMonthStart());
+        }
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value != null) ps.setObject(index, value);
+        else ps.setNull(index, Types.NULL);
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            result = postgres = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return result;
+    }
+}
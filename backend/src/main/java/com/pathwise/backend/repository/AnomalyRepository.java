@@ -1,13 +1,49 @@
 package com.pathwise.backend.repository;
 
 import com.pathwise.backend.model.Anomaly;
+import com.pathwise.backend.model.Transaction;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
-public interface AnomalyRepository extends JpaRepository<Anomaly, UUID> {
-    List<Anomaly> findByUserIdAndIsDismissedFalseOrderByCreatedAtDesc(UUID userId);
-    List<Anomaly> findByUserIdOrderByCreatedAtDesc(UUID userId);
-}
\ No newline at end of file
+public interface AnomalyRepository extends JpaRepository<Anomaly, UUID>, AnomalyBulkWrites {
+    // Category is rendered with every anomaly, so it is fetched in the same query
+    @EntityGraph("Anomaly.category")
+    @Query("SELECT a FROM Anomaly a WHERE a.user.id = :userId AND a.isDismissed = false ORDER BY a.createdAt DESC")
+    List<Anomaly> findByUserIdAndIsDismissedFalseOrderByCreatedAtDesc(@Param("userId") UUID userId);
+
+    // Categories already flagged since a date, dismissed or not, so detection never re-raises them
+    @Query("""
+        SELECT DISTINCT c.name FROM Anomaly a JOIN a.category c
+        WHERE a.user.id = :userId AND a.createdAt >= :since
+          AND a.kind = com.pathwise.backend.enums.AnomalyKind.CATEGORY_SPIKE
+    """)
+    Set<String> findFlaggedCategoryNamesSince(@Param("userId") UUID userId, @Param("since") LocalDateTime since);
+
+    @EntityGraph("Anomaly.category")
+    @Query("SELECT a FROM Anomaly a WHERE a.user.id = :userId ORDER BY a.createdAt DESC")
+    List<Anomaly> findByUserIdOrderByCreatedAtDesc(@Param("userId") UUID userId);
+
+    // Transaction-level anomalies about transactions the bank no longer reports
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        DELETE FROM Anomaly a
+        WHERE a.transaction IN :transactions
+          AND a.kind <> com.pathwise.backend.enums.AnomalyKind.CATEGORY_SPIKE
+    """)
+    int deleteTransactionLevelByTransactionIn(@Param("transactions") Collection<Transaction> transactions);
+
+    // Category anomalies keep their month's record but lose the link to a removed transaction
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Anomaly a SET a.transaction = null WHERE a.transaction IN :transactions")
+    int unlinkTransactions(@Param("transactions") Collection<Transaction> transactions);
+}
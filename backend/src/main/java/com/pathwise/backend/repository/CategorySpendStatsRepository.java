@@ -0,0 +1,32 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.model.CategorySpendStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CategorySpendStatsRepository extends JpaRepository<CategorySpendStats, UUID> {
+
+    @Query("SELECT s FROM CategorySpendStats s WHERE s.user.id = :userId")
+    List<CategorySpendStats> findByUserId(@Param("userId") UUID userId);
+
+    /** Categories with a scored transaction in the given month. */
+    @Query("""
+        SELECT s FROM CategorySpendStats s
+        WHERE s.user.id = :userId AND s.monthStart = :monthStart AND s.monthPeakScore IS NOT NULL
+    """)
+    List<CategorySpendStats> findScoredByUserIdAndMonthStart(
+        @Param("userId") UUID userId, @Param("monthStart") LocalDate monthStart
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CategorySpendStats s WHERE s.user.id = :userId")
+    void deleteByUserId(@Param("userId") UUID userId);
+}
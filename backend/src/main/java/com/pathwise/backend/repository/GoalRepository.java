@@ -13,8 +13,11 @@ import java.util.UUID;
 @Repository
 public interface GoalRepository extends JpaRepository<Goal, UUID> {
 
-    List<Goal> findByUserId(UUID userId);
-    List<Goal> findByUserIdAndStatus(UUID userId, GoalStatus status);
+    @Query("SELECT g FROM Goal g WHERE g.user.id = :userId")
+    List<Goal> findByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT g FROM Goal g WHERE g.user.id = :userId AND g.status = :status")
+    List<Goal> findByUserIdAndStatus(@Param("userId") UUID userId, @Param("status") GoalStatus status);
 
     /**
      * Sum of monthlySavingsTarget across all non-completed active goals.
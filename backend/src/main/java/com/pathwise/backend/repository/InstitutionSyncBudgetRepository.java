@@ -0,0 +1,32 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.model.InstitutionSyncBudget;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface InstitutionSyncBudgetRepository extends JpaRepository<InstitutionSyncBudget, String> {
+
+    // An institution's first budget row; fails if another node created it first
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO institution_sync_budgets (institution, available_at) VALUES (:institution, :availableAt)",
+            nativeQuery = true)
+    int insert(@Param("institution") String institution, @Param("availableAt") LocalDateTime availableAt);
+
+    // Spends from the budget unless another node spent from it since it was read
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE InstitutionSyncBudget b SET b.availableAt = :next
+        WHERE b.institution = :institution AND b.availableAt = :read
+    """)
+    int advance(@Param("institution") String institution, @Param("read") LocalDateTime read,
+                @Param("next") LocalDateTime next);
+}
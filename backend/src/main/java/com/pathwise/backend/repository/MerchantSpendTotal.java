@@ -0,0 +1,9 @@
+package com.pathwise.backend.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * A user's debits at one merchant: count, sum and sum of squares of the amounts,
+ * enough to seed a running mean and variance.
+ */
+public record MerchantSpendTotal(String merchant, Long count, BigDecimal total, BigDecimal totalOfSquares) {}
@@ -2,11 +2,14 @@ package com.pathwise.backend.repository;
 
 import com.pathwise.backend.model.Milestone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface MilestoneRepository extends JpaRepository<Milestone, UUID> {
-    List<Milestone> findByGoalId(UUID goalId);
+    @Query("SELECT m FROM Milestone m WHERE m.goal.id = :goalId")
+    List<Milestone> findByGoalId(@Param("goalId") UUID goalId);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.pathwise.backend.repository;
 
 import com.pathwise.backend.model.MonthlyExpense;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,9 +13,12 @@ import java.util.UUID;
 @Repository
 public interface MonthlyExpenseRepository extends JpaRepository<MonthlyExpense, UUID> {
 
-    List<MonthlyExpense> findByUserId(UUID userId);
+    @Query("SELECT e FROM MonthlyExpense e WHERE e.user.id = :userId")
+    List<MonthlyExpense> findByUserId(@Param("userId") UUID userId);
 
-    void deleteByUserId(UUID userId);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM MonthlyExpense e WHERE e.user.id = :userId")
+    void deleteByUserId(@Param("userId") UUID userId);
 
     @Query("SELECT COALESCE(SUM(e.amount), 0) FROM MonthlyExpense e WHERE e.user.id = :userId")
     BigDecimal sumByUserId(@Param("userId") UUID userId);
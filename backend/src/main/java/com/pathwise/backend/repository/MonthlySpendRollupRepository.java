@@ -0,0 +1,57 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.MonthlySpendRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MonthlySpendRollupRepository extends JpaRepository<MonthlySpendRollup, UUID> {
+
+    @Query("""
+        SELECT r FROM MonthlySpendRollup r
+        WHERE r.user.id = :userId AND r.monthStart BETWEEN :from AND :to
+    """)
+    List<MonthlySpendRollup> findByUserIdAndMonthStartBetween(
+        @Param("userId") UUID userId, @Param("from") LocalDate from, @Param("to") LocalDate to
+    );
+
+    @Query("""
+        SELECT r FROM MonthlySpendRollup r
+        WHERE r.user.id = :userId AND r.type = :type AND r.monthStart BETWEEN :from AND :to
+    """)
+    List<MonthlySpendRollup> findByUserIdAndTypeAndMonthStartBetween(
+        @Param("userId") UUID userId, @Param("type") TransactionType type,
+        @Param("from") LocalDate from, @Param("to") LocalDate to
+    );
+
+    /**
+     * Adds to an existing row. Returns 0 when the row does not exist yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE MonthlySpendRollup r
+        SET r.totalAmount = r.totalAmount + :amount,
+            r.transactionCount = r.transactionCount + :count,
+            r.updatedAt = :now
+        WHERE r.user.id = :userId AND r.monthStart = :monthStart
+          AND r.category = :category AND r.type = :type
+    """)
+    int increment(@Param("userId") UUID userId, @Param("monthStart") LocalDate monthStart,
+                  @Param("category") String category, @Param("type") TransactionType type,
+                  @Param("amount") BigDecimal amount, @Param("count") int count,
+                  @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM MonthlySpendRollup r WHERE r.user.id = :userId")
+    void deleteByUserId(@Param("userId") UUID userId);
+}
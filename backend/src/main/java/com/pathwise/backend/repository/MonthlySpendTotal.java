@@ -0,0 +1,18 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One group of the rollup rebuild query: the transactions of a user for one
+ * month, category and type.
+ */
+public record MonthlySpendTotal(Integer year, Integer month, String category,
+                                TransactionType type, BigDecimal total, Long count) {
+
+    public LocalDate monthStart() {
+        return LocalDate.of(year, month, 1);
+    }
+}
@@ -2,6 +2,8 @@ package com.pathwise.backend.repository;
 
 import com.pathwise.backend.model.Report;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
@@ -9,8 +11,11 @@ import java.util.UUID;
 
 @Repository
 public interface ReportRepository extends JpaRepository<Report, UUID> {
-    List<Report> findByUserIdOrderByCreatedAtDesc(UUID userId);
+    @Query("SELECT r FROM Report r WHERE r.user.id = :userId ORDER BY r.createdAt DESC")
+    List<Report> findByUserIdOrderByCreatedAtDesc(@Param("userId") UUID userId);
+
+    @Query("SELECT COUNT(r) FROM Report r WHERE r.user.id = :userId AND r.createdAt >= :from")
     long countByUserIdAndCreatedAtGreaterThanEqual(
-        UUID userId, java.time.LocalDateTime from
+        @Param("userId") UUID userId, @Param("from") java.time.LocalDateTime from
     );
 }
\ No newline at end of file
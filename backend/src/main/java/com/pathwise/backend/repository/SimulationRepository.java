@@ -2,11 +2,14 @@ package com.pathwise.backend.repository;
 
 import com.pathwise.backend.model.Simulation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface SimulationRepository extends JpaRepository<Simulation, UUID> {
-    List<Simulation> findByGoalId(UUID goalId);
+    @Query("SELECT s FROM Simulation s WHERE s.goal.id = :goalId")
+    List<Simulation> findByGoalId(@Param("goalId") UUID goalId);
 }
\ No newline at end of file
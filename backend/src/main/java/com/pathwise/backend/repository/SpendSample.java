@@ -0,0 +1,10 @@
+package com.pathwise.backend.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One debit of a user as replayed into the category statistics on rebuild.
+ */
+public record SpendSample(UUID transactionId, String category, BigDecimal amount, LocalDate date) {}
@@ -0,0 +1,21 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One group of the analytics aggregate query: a user's total for one category
+ * and type over a month (monthly, from the spend rollup) or a day (from the
+ * transactions). start is the first day of the month or the day itself. The
+ * total is held in fils (see {@link Money}).
+ */
+public record SpendTotal(boolean monthly, LocalDate start, String category, TransactionType type, long fils) {
+
+    /** Constructor expression target: converts the total once per row. */
+    public SpendTotal(boolean monthly, LocalDate start, String category, TransactionType type, BigDecimal total) {
+        this(monthly, start, category, type, Money.toFils(total));
+    }
+}
@@ -0,0 +1,45 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.model.SweepCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SweepCheckpointRepository extends JpaRepository<SweepCheckpoint, String> {
+
+    // A job's first row, for a node to claim; fails if another node created it first
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO sweep_checkpoints (job, run_started_at, users_processed, anomalies_created, updated_at)
+        VALUES (:job, :now, 0, 0, :now)
+    """, nativeQuery = true)
+    int insert(@Param("job") String job, @Param("now") LocalDateTime now);
+
+    // Claims a job's run for one node; 1 if nobody held it or the holder's claim has lapsed
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE SweepCheckpoint c SET c.claimedBy = :node, c.claimedUntil = :until
+        WHERE c.job = :job AND (c.claimedUntil IS NULL OR c.claimedUntil < :now)
+    """)
+    int claim(@Param("job") String job, @Param("node") String node,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    // Extends a claim the node still holds; 0 once another node has taken the run over
+    @Transactional
+    @Modifying
+    @Query("UPDATE SweepCheckpoint c SET c.claimedUntil = :until WHERE c.job = :job AND c.claimedBy = :node")
+    int renewClaim(@Param("job") String job, @Param("node") String node, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SweepCheckpoint c SET c.claimedUntil = NULL WHERE c.job = :job AND c.claimedBy = :node")
+    int releaseClaim(@Param("job") String job, @Param("node") String node);
+}
@@ -0,0 +1,24 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Set-based writes for ingest, bypassing the persistence context.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+public interface TransactionBulkWrites {
+
+    /**
+     * Inserts transactions in JDBC batches, skipping any whose Plaid transaction id
+     * is already stored, so a repeated or concurrent ingest of the same rows is a no-op.
+     * Ids are assigned here; the rows do not become managed entities.
+     *
+     * @param transactions New transactions with their account, category and Plaid id set
+     * @return The transactions actually inserted, with their ids
+     */
+    List<Transaction> insertIgnoringDuplicates(List<Transaction> transactions);
+}
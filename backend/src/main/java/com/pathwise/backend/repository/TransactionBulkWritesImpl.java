@@ -0,0 +1,101 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.model.Transaction;
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link TransactionBulkWrites}.
+ * On PostgreSQL duplicates are skipped with INSERT ... ON CONFLICT DO NOTHING against
+ * the unique index on plaid_transaction_id; elsewhere (H2 in dev and tests) with an
+ * INSERT ... SELECT guarded by NOT EXISTS. Runs on the connection of the surrounding
+ * JPA transaction, after flushing it so rows the batch refers to (such as a category
+ * created during the same sync) exist.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+class TransactionBulkWritesImpl implements TransactionBulkWrites {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String COLUMNS = """
+        id, account_id, category_id, plaid_transaction_id, merchant_name, amount,
+        type, currency, transaction_date, ai_category_raw, created_at""";
+
+    private static final String POSTGRES_INSERT = "INSERT INTO transactions (" + COLUMNS + """
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (plaid_transaction_id) DO NOTHING""";
+
+    private static final String PORTABLE_INSERT = "INSERT INTO transactions (" + COLUMNS + """
+        ) SELECT CAST(? AS UUID), CAST(? AS UUID), CAST(? AS UUID), CAST(? AS VARCHAR(100)),
+                 CAST(? AS VARCHAR(150)), CAST(? AS DECIMAL(12,3)), CAST(? AS VARCHAR(10)),
+                 CAST(? AS VARCHAR(3)), CAST(? AS DATE), CAST(? AS VARCHAR), CAST(? AS TIMESTAMP)
+        WHERE NOT EXISTS (SELECT 1 FROM transactions WHERE plaid_transaction_id = ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private volatile Boolean postgres;
+
+    TransactionBulkWritesImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Transaction> insertIgnoringDuplicates(List<Transaction> transactions) {
+        if (transactions.isEmpty()) return List.of();
+        for (Transaction t : transactions) t.setId(UUID.randomUUID());
+        if (entityManager.isJoinedToTransaction()) entityManager.flush();
+
+        boolean portable = !isPostgres();
+        int[][] counts = jdbcTemplate.batchUpdate(portable ? PORTABLE_INSERT : POSTGRES_INSERT,
+                transactions, BATCH_SIZE, (ps, t) -> bind(ps, t, portable));
+
+        List<Transaction> inserted = new ArrayList<>(transactions.size());
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                Transaction t = transactions.get(i++);
+                // Drivers that rewrite batches report SUCCESS_NO_INFO instead of a row count
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) inserted.add(t);
+            }
+        }
+        return inserted;
+    }
+
+    private static void bind(PreparedStatement ps, Transaction t, boolean portable) throws SQLException {
+        ps.setObject(1, t.getId());
+        ps.setObject(2, t.getAccount().getId());
+        if (t.getCategory() != null) ps.setObject(3, t.getCategory().getId());
+        else ps.setNull(3, Types.NULL);
+        ps.setString(4, t.getPlaidTransactionId());
+        ps.setString(5, t.getMerchantName());
+        ps.setBigDecimal(6, t.getAmount());
+        ps.setString(7, t.getType() != null ? t.getType().name() : null);
+        ps.setString(8, t.getCurrency());
+        ps.setObject(9, t.getTransactionDate());
+        ps.setString(10, t.getAiCategoryRaw());
+        ps.setObject(11, t.getCreatedAt());
+        if (portable) ps.setString(12, t.getPlaidTransactionId());
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            result = postgres = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return result;
+    }
+}
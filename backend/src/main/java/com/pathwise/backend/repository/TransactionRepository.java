@@ -1,14 +1,18 @@
 package com.pathwise.backend.repository;
 
+import com.pathwise.backend.dto.TransactionResponse;
 import com.pathwise.backend.model.Account;
 import com.pathwise.backend.model.Transaction;
 import com.pathwise.backend.enums.TransactionType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,19 +20,152 @@ import java.util.UUID;
 @Repository
 public interface TransactionRepository extends 
     JpaRepository<Transaction, UUID>, 
-    JpaSpecificationExecutor<Transaction> {
+    JpaSpecificationExecutor<Transaction>,
+    TransactionResponseQueries,
+    TransactionBulkWrites {
 
-    List<Transaction> findByAccountUserId(UUID userId);
+    /** Constructor expression shared by the TransactionResponse projection queries. */
+    String RESPONSE_SELECT = """
+        SELECT new com.pathwise.backend.dto.TransactionResponse(
+            t.id, t.merchantName, t.amount, t.type, t.currency, t.transactionDate,
+            c.name, c.icon, c.colorHex)
+        FROM Transaction t
+        LEFT JOIN t.category c
+        """;
 
+    @EntityGraph("Transaction.category")
+    @Query("SELECT t FROM Transaction t WHERE t.account.user.id = :userId")
+    List<Transaction> findByAccountUserId(@Param("userId") UUID userId);
+
+    @EntityGraph("Transaction.category")
+    @Query("""
+        SELECT t FROM Transaction t
+        WHERE t.account.user.id = :userId
+          AND t.transactionDate BETWEEN :start AND :end
+    """)
     List<Transaction> findByAccountUserIdAndTransactionDateBetween(
-        UUID userId, LocalDate start, LocalDate end
+        @Param("userId") UUID userId, @Param("start") LocalDate start, @Param("end") LocalDate end
+    );
+
+    /** Per month, category and type totals of a user; the source of the spend rollup rebuild. */
+    @Query("""
+        SELECT new com.pathwise.backend.repository.MonthlySpendTotal(
+            YEAR(t.transactionDate), MONTH(t.transactionDate), COALESCE(c.name, 'OTHER'),
+            t.type, SUM(t.amount), COUNT(t))
+        FROM Transaction t
+        LEFT JOIN t.category c
+        WHERE t.account.user.id = :userId
+        GROUP BY YEAR(t.transactionDate), MONTH(t.transactionDate), COALESCE(c.name, 'OTHER'), t.type
+    """)
+    List<MonthlySpendTotal> sumByUserIdGroupedByMonthCategoryAndType(@Param("userId") UUID userId);
+
+    /** Per merchant debit count, sum and sum of squares of a user; seeds the transaction anomaly detectors. */
+    @Query("""
+        SELECT new com.pathwise.backend.repository.MerchantSpendTotal(
+            LOWER(TRIM(t.merchantName)), COUNT(t), SUM(t.amount), SUM(t.amount * t.amount))
+        FROM Transaction t
+        WHERE t.account.user.id = :userId
+          AND t.type = com.pathwise.backend.enums.TransactionType.DEBIT
+          AND t.merchantName IS NOT NULL
+        GROUP BY LOWER(TRIM(t.merchantName))
+    """)
+    List<MerchantSpendTotal> sumDebitsByUserIdGroupedByMerchant(@Param("userId") UUID userId);
+
+    /** A user's debits oldest first; replayed to rebuild the category statistics. */
+    @Query("""
+        SELECT new com.pathwise.backend.repository.SpendSample(
+            t.id, COALESCE(c.name, 'OTHER'), t.amount, t.transactionDate)
+        FROM Transaction t
+        LEFT JOIN t.category c
+        WHERE t.account.user.id = :userId
+          AND t.type = com.pathwise.backend.enums.TransactionType.DEBIT
+        ORDER BY t.transactionDate, t.createdAt
+    """)
+    List<SpendSample> findDebitSamplesByUserId(@Param("userId") UUID userId);
+
+    /**
+     * The spend totals behind a user's analytics in one round trip: the spend
+     * rollup rows from monthsFrom to monthsTo (monthly) together with the per day,
+     * category and type totals from daysFrom to daysTo for the daily spending chart.
+     */
+    @Query("""
+        SELECT new com.pathwise.backend.repository.SpendTotal(
+            true, r.monthStart, r.category, r.type, r.totalAmount)
+        FROM MonthlySpendRollup r
+        WHERE r.user.id = :userId AND r.monthStart BETWEEN :monthsFrom AND :monthsTo
+        UNION ALL
+        SELECT new com.pathwise.backend.repository.SpendTotal(
+            false, t.transactionDate, COALESCE(c.name, 'OTHER'), t.type, SUM(t.amount))
+        FROM Transaction t
+        LEFT JOIN t.category c
+        WHERE t.account.user.id = :userId
+          AND t.transactionDate BETWEEN :daysFrom AND :daysTo
+        GROUP BY t.transactionDate, COALESCE(c.name, 'OTHER'), t.type
+    """)
+    List<SpendTotal> findSpendTotals(
+        @Param("userId") UUID userId, @Param("monthsFrom") LocalDate monthsFrom, @Param("monthsTo") LocalDate monthsTo,
+        @Param("daysFrom") LocalDate daysFrom, @Param("daysTo") LocalDate daysTo
     );
     
+    /**
+     * Fuzzy merchant search backed by the pg_trgm GIN index on lower(merchant_name)
+     * (V12). Matches names whose closest word span is similar to the query and
+     * returns the IDs ranked by that similarity. PostgreSQL only.
+     */
+    @Query(value = """
+        SELECT t.id FROM transactions t
+        JOIN accounts a ON a.id = t.account_id
+        WHERE a.user_id = :userId
+          AND lower(:query) <% lower(t.merchant_name)
+        ORDER BY word_similarity(lower(:query), lower(t.merchant_name)) DESC,
+                 t.transaction_date DESC, t.id DESC
+        LIMIT :limit
+    """, nativeQuery = true)
+    List<UUID> searchIdsByMerchantTrigram(
+        @Param("userId") UUID userId, @Param("query") String query, @Param("limit") int limit
+    );
+
+    @Query("SELECT DISTINCT t.merchantName FROM Transaction t WHERE t.account.user.id = :userId AND t.merchantName IS NOT NULL")
+    List<String> findDistinctMerchantNamesByUserId(@Param("userId") UUID userId);
+
+    @Query(RESPONSE_SELECT + "WHERE t.account.user.id = :userId AND t.merchantName IN :merchantNames")
+    List<TransactionResponse> findResponsesByUserIdAndMerchantNameIn(
+        @Param("userId") UUID userId, @Param("merchantNames") Collection<String> merchantNames
+    );
+
+    @Query(RESPONSE_SELECT + """
+        WHERE t.account.user.id = :userId
+          AND t.transactionDate BETWEEN :start AND :end
+    """)
+    List<TransactionResponse> findResponsesByUserIdAndTransactionDateBetween(
+        @Param("userId") UUID userId, @Param("start") LocalDate start, @Param("end") LocalDate end
+    );
+
+    @Query(RESPONSE_SELECT + "WHERE t.id IN :ids")
+    List<TransactionResponse> findResponsesByIdIn(@Param("ids") Collection<UUID> ids);
+
     List<Transaction> findByAccountAndTransactionDateBetween(
         Account account, LocalDate start, LocalDate end
     );
 
     boolean existsByPlaidTransactionId(String plaidTransactionId);
+
+    /** The subset of the given Plaid ids that is already stored; one round trip for an ingest batch. */
+    @Query("SELECT t.plaidTransactionId FROM Transaction t WHERE t.plaidTransactionId IN :plaidTransactionIds")
+    List<String> findExistingPlaidTransactionIds(@Param("plaidTransactionIds") Collection<String> plaidTransactionIds);
+
+    /**
+     * Stored rows of one account for Plaid ids reported as modified or removed by
+     * its sync. Scoped to the account so that a sync can only change its own rows.
+     */
+    @EntityGraph("Transaction.category")
+    @Query("""
+        SELECT t FROM Transaction t
+        WHERE t.account.id = :accountId AND t.plaidTransactionId IN :plaidTransactionIds
+    """)
+    List<Transaction> findByAccountIdAndPlaidTransactionIdIn(
+        @Param("accountId") UUID accountId, @Param("plaidTransactionIds") Collection<String> plaidTransactionIds
+    );
     
     boolean existsByAccountAndTypeAndTransactionDateBetween(
         Account account, TransactionType type, LocalDate startDate, LocalDate endDate
@@ -0,0 +1,40 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.dto.TransactionResponse;
+import com.pathwise.backend.model.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Specification queries that select TransactionResponse rows directly
+ * instead of loading Transaction entities and their eager associations.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+public interface TransactionResponseQueries {
+
+    /**
+     * Pages through the transactions matching a Specification.
+     * The sort is taken from the pageable; null handling is supported.
+     *
+     * @param spec Filter (see TransactionSpecifications)
+     * @param pageable Page request including the sort
+     * @return Page of response rows with the total count
+     */
+    Page<TransactionResponse> findResponses(Specification<Transaction> spec, Pageable pageable);
+
+    /**
+     * Returns the first rows matching a Specification, without a count query.
+     *
+     * @param spec Filter (see TransactionSpecifications)
+     * @param sort Sort order
+     * @param limit Maximum number of rows
+     * @return Response rows
+     */
+    List<TransactionResponse> findResponses(Specification<Transaction> spec, Sort sort, int limit);
+}
@@ -0,0 +1,84 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.dto.TransactionResponse;
+import com.pathwise.backend.model.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+/**
+ * Criteria implementation of {@link TransactionResponseQueries}.
+ * Selects only the columns of TransactionResponse with a single LEFT JOIN to the
+ * category, so no Transaction, Account or User entities enter the persistence context.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+class TransactionResponseQueriesImpl implements TransactionResponseQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<TransactionResponse> findResponses(Specification<Transaction> spec, Pageable pageable) {
+        List<TransactionResponse> content = select(spec, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<TransactionResponse> findResponses(Specification<Transaction> spec, Sort sort, int limit) {
+        return select(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    private TypedQuery<TransactionResponse> select(Specification<Transaction> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionResponse> query = cb.createQuery(TransactionResponse.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        // Created first so that hasCategory() reuses it instead of adding a second join
+        Join<Transaction, ?> category = TransactionSpecifications.categoryJoin(root);
+
+        query.select(cb.construct(TransactionResponse.class,
+                root.get("id"),
+                root.get("merchantName"),
+                root.get("amount"),
+                root.get("type"),
+                root.get("currency"),
+                root.get("transactionDate"),
+                category.get("name"),
+                category.get("icon"),
+                category.get("colorHex")));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+        query.orderBy(TransactionSpecifications.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Transaction> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Transaction> root = query.from(Transaction.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) query.where(predicate);
+        query.select(cb.count(root));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,188 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Transaction;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reusable JPA Specifications for querying transactions.
+ * Every filter of the transaction list API is expressed here so that
+ * filtering, ordering and paging are executed by the database.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+public final class TransactionSpecifications {
+
+    /** Category name reported for transactions that have no category. */
+    public static final String UNCATEGORIZED = "OTHER";
+
+    private TransactionSpecifications() {}
+
+    /**
+     * Restricts transactions to the accounts owned by a user.
+     *
+     * @param userId Owner user ID
+     * @return Specification matching the user's transactions
+     */
+    public static Specification<Transaction> belongsToUser(UUID userId) {
+        return (root, query, cb) -> cb.equal(root.get("account").get("user").get("id"), userId);
+    }
+
+    /**
+     * Restricts transactions to an inclusive date range.
+     *
+     * @param start First day of the range
+     * @param end Last day of the range
+     * @return Specification matching transactions in the range
+     */
+    public static Specification<Transaction> dateBetween(LocalDate start, LocalDate end) {
+        return (root, query, cb) -> cb.between(root.get("transactionDate"), start, end);
+    }
+
+    /**
+     * Case-insensitive "contains" match on the merchant name.
+     *
+     * @param search Search term (blank means no filter)
+     * @return Specification matching merchant names containing the term
+     */
+    public static Specification<Transaction> merchantContains(String search) {
+        if (search == null || search.trim().isEmpty()) return null;
+        String pattern = "%" + escapeLike(search.toLowerCase()) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("merchantName")), pattern, '\\');
+    }
+
+    /**
+     * Matches a category by name. "OTHER" also matches uncategorized transactions.
+     *
+     * @param category Category name (blank means no filter)
+     * @return Specification matching the category
+     */
+    public static Specification<Transaction> hasCategory(String category) {
+        if (category == null || category.trim().isEmpty()) return null;
+        return (root, query, cb) -> {
+            Join<Transaction, ?> join = categoryJoin(root);
+            if (UNCATEGORIZED.equals(category)) {
+                return cb.or(cb.isNull(join.get("id")), cb.equal(join.get("name"), category));
+            }
+            return cb.equal(join.get("name"), category);
+        };
+    }
+
+    /**
+     * Matches the transaction type (CREDIT = income, DEBIT = expense).
+     * Unknown values are ignored, mirroring the previous in-memory filter.
+     *
+     * @param type Transaction type name
+     * @return Specification matching the type
+     */
+    public static Specification<Transaction> hasType(String type) {
+        if (type == null || type.trim().isEmpty()) return null;
+        TransactionType parsed;
+        try {
+            parsed = TransactionType.valueOf(type);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("type"), parsed);
+    }
+
+    /**
+     * Builds the ORDER BY for the transaction list.
+     * The ID is always appended as a tie-breaker so that pages are stable.
+     * The orders carry no null handling, which Spring Data rejects for
+     * Specification queries; {@link #toOrders} adds the merchant name's.
+     *
+     * @param sortBy Field to sort by (transactionDate, amount, merchantName)
+     * @param sortDir Sort direction (ASC/DESC)
+     * @return Sort definition
+     */
+    public static Sort sortOf(String sortBy, String sortDir) {
+        if (sortBy == null || sortDir == null) {
+            return Sort.by(Sort.Order.desc("transactionDate"), Sort.Order.desc("id"));
+        }
+        Sort.Direction direction = sortDir.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        String primary = switch (sortBy) {
+            case "amount", "merchantName" -> sortBy;
+            default -> "transactionDate";
+        };
+        return Sort.by(new Sort.Order(direction, primary), new Sort.Order(direction, "id"));
+    }
+
+    /**
+     * Converts a Sort on Transaction attributes into Criteria orders. Missing
+     * merchant names sort as the largest value, as they always have: last
+     * ascending, first descending. The null check is a CASE sort key, which
+     * every database orders the same way.
+     *
+     * @param sort Sort from {@link #sortOf}
+     * @param root Query root
+     * @param cb Criteria builder
+     * @return Orders for {@code CriteriaQuery.orderBy}
+     */
+    public static List<Order> toOrders(Sort sort, Root<Transaction> root, CriteriaBuilder cb) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<?> path = root.get(order.getProperty());
+            if (order.getProperty().equals("merchantName")) {
+                Expression<Integer> isNull = cb.<Integer>selectCase().when(cb.isNull(path), 1).otherwise(0);
+                orders.add(order.isAscending() ? cb.asc(isNull) : cb.desc(isNull));
+            }
+            orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        return orders;
+    }
+
+    /**
+     * Keyset (seek) predicate: matches rows strictly after the given (key, id)
+     * position in the given direction, e.g. for DESC
+     * {@code key < :value OR (key = :value AND id < :id)}.
+     *
+     * @param sortBy Sort attribute name (transactionDate or amount)
+     * @param direction Sort direction of the listing
+     * @param value Sort key value of the last row already returned
+     * @param id ID of the last row already returned
+     * @return Specification matching the rows of the next page
+     */
+    public static <Y extends Comparable<? super Y>> Specification<Transaction> seekAfter(
+            String sortBy, Sort.Direction direction, Y value, UUID id) {
+        return (root, query, cb) -> {
+            Path<Y> key = root.get(sortBy);
+            Path<UUID> rowId = root.get("id");
+            if (direction.isDescending()) {
+                return cb.or(cb.lessThan(key, value),
+                        cb.and(cb.equal(key, value), cb.lessThan(rowId, id)));
+            }
+            return cb.or(cb.greaterThan(key, value),
+                    cb.and(cb.equal(key, value), cb.greaterThan(rowId, id)));
+        };
+    }
+
+    /**
+     * Returns the LEFT JOIN to the category, reusing it if one was already created.
+     */
+    static Join<Transaction, ?> categoryJoin(Root<Transaction> root) {
+        for (Join<Transaction, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals("category")) return join;
+        }
+        return root.join("category", JoinType.LEFT);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,37 @@
+package com.pathwise.backend.security;
+
+import com.pathwise.backend.enums.VersionedResource;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Security principal that also carries the user's ID and resource versions as
+ * loaded with it, so request paths that only need those (e.g. cache lookups and
+ * ETags) do not have to load the user again.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final UUID id;
+    private final Map<VersionedResource, Long> versions;
+
+    public AuthenticatedUser(UUID id, String email, String passwordHash,
+                             Collection<? extends GrantedAuthority> authorities,
+                             Map<VersionedResource, Long> versions) {
+        super(email, passwordHash, authorities);
+        this.id = id;
+        this.versions = versions;
+    }
+
+    /**
+     * Returns the version of one of the user's resources when the principal was loaded.
+     */
+    public long version(VersionedResource resource) {
+        return versions.getOrDefault(resource, 0L);
+    }
+}
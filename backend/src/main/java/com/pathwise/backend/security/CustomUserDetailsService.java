@@ -1,5 +1,6 @@
 package com.pathwise.backend.security;
 
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.model.User;
 import com.pathwise.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +11,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -22,10 +25,20 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return new org.springframework.security.core.userdetails.User(
+        return new AuthenticatedUser(
+                user.getId(),
                 user.getEmail(),
                 user.getPasswordHash(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")),
+                versions(user)
         );
     }
+
+    private static Map<VersionedResource, Long> versions(User user) {
+        Map<VersionedResource, Long> versions = new EnumMap<>(VersionedResource.class);
+        for (VersionedResource resource : VersionedResource.values()) {
+            versions.put(resource, user.version(resource));
+        }
+        return versions;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+package com.pathwise.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pathwise.backend.exception.InvalidWebhookException;
+import com.pathwise.backend.service.PlaidService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Checks that a webhook was sent by Plaid. The Plaid-Verification header is an
+ * ES256 JWT signed with the Plaid key named by its kid; it must have been issued
+ * at most pathwise.plaid.webhook.max-age ago, and its request_body_sha256 claim
+ * must be the SHA-256 of the exact body received.
+ *
+ * Keys come from /webhook_verification_key/get and are cached by kid for a day;
+ * a key Plaid reports as expired is never used. A kid Plaid does not know, or
+ * whose key is expired or unusable, is remembered for a minute, and at most
+ * pathwise.plaid.webhook.key-fetches-per-minute fetches are made, so webhooks
+ * with made-up kids cannot turn into a stream of calls to Plaid. A webhook whose
+ * key cannot be fetched is rejected like any other unverifiable one; Plaid
+ * retries it.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class PlaidWebhookVerifier {
+
+    private static final String ALGORITHM = "ES256";
+
+    // Plaid rotates keys rarely; a handful of kids covers any rotation in progress
+    private static final int MAX_KEYS = 16;
+    private static final Duration KEY_TTL = Duration.ofHours(24);
+
+    // Rejected kids, kept briefly so a key Plaid publishes later is still picked up
+    private static final int MAX_REJECTED_KEYS = 1024;
+    private static final Duration REJECTED_KEY_TTL = Duration.ofMinutes(1);
+
+    private static final long FETCH_WINDOW_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final PlaidService plaidService;
+    private final Duration maxAge;
+    private final int maxFetchesPerMinute;
+    private final Cache<String, PublicKey> keys;
+    private final Cache<String, String> rejectedKeys;
+
+    // Fetches made in the current one-minute window
+    private long fetchWindowStart = System.nanoTime();
+    private int fetchesInWindow;
+
+    public PlaidWebhookVerifier(PlaidService plaidService,
+                                @Value("${pathwise.plaid.webhook.max-age:5m}") Duration maxAge,
+                                @Value("${pathwise.plaid.webhook.key-fetches-per-minute:10}") int maxFetchesPerMinute) {
+        this.plaidService = plaidService;
+        this.maxAge = maxAge;
+        this.maxFetchesPerMinute = maxFetchesPerMinute;
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(MAX_KEYS)
+                .expireAfterWrite(KEY_TTL)
+                .build();
+        this.rejectedKeys = Caffeine.newBuilder()
+                .maximumSize(MAX_REJECTED_KEYS)
+                .expireAfterWrite(REJECTED_KEY_TTL)
+                .build();
+    }
+
+    /**
+     * Verifies a webhook request.
+     *
+     * @param body The raw request body
+     * @param verification The Plaid-Verification header
+     * @throws InvalidWebhookException when the request was not signed by Plaid, is too old, or was altered
+     */
+    public void verify(byte[] body, String verification) {
+        if (verification == null || verification.isBlank()) {
+            throw new InvalidWebhookException("Missing Plaid-Verification header");
+        }
+
+        Claims claims;
+        try {
+            claims = Jwts.parserBuilder()
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        @Override
+                        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                            // Only the algorithm Plaid signs with, so a forged header cannot pick another
+                            if (!ALGORITHM.equals(header.getAlgorithm())) {
+                                throw new InvalidWebhookException("Unexpected webhook algorithm " + header.getAlgorithm());
+                            }
+                            return key(header.getKeyId());
+                        }
+                    })
+                    .build()
+                    .parseClaimsJws(verification)
+                    .getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidWebhookException("Invalid webhook signature");
+        }
+
+        if (claims.getIssuedAt() == null
+                || claims.getIssuedAt().toInstant().isBefore(Instant.now().minus(maxAge))) {
+            throw new InvalidWebhookException("Webhook is too old");
+        }
+
+        String claimedHash = claims.get("request_body_sha256", String.class);
+        byte[] bodyHash = HexFormat.of().formatHex(sha256(body)).getBytes(StandardCharsets.US_ASCII);
+        if (claimedHash == null || !MessageDigest.isEqual(bodyHash,
+                claimedHash.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII))) {
+            throw new InvalidWebhookException("Webhook body does not match its signature");
+        }
+    }
+
+    private PublicKey key(String keyId) {
+        if (keyId == null) {
+            throw new InvalidWebhookException("Webhook key id missing");
+        }
+        String rejection = rejectedKeys.getIfPresent(keyId);
+        if (rejection != null) {
+            throw new InvalidWebhookException(rejection);
+        }
+        return keys.get(keyId, this::fetchKey);
+    }
+
+    /**
+     * Fetches a key and builds it from its JWK. Keys Plaid rejects are remembered
+     * for a short while; failures to reach Plaid are not.
+     */
+    private PublicKey fetchKey(String keyId) {
+        if (!takeFetch()) {
+            throw new InvalidWebhookException("Webhook key fetch limit reached, not fetching " + keyId);
+        }
+        Map<String, Object> jwk;
+        try {
+            jwk = plaidService.fetchWebhookVerificationKey(keyId);
+        } catch (HttpClientErrorException e) {
+            throw reject(keyId, "Unknown webhook key " + keyId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to fetch webhook key {}: {}", keyId, e.getMessage());
+            throw new InvalidWebhookException("Webhook key " + keyId + " could not be fetched");
+        }
+        if (jwk.get("expired_at") != null) {
+            throw reject(keyId, "Webhook key " + keyId + " has expired");
+        }
+        if (!"EC".equals(jwk.get("kty")) || !"P-256".equals(jwk.get("crv"))) {
+            throw reject(keyId, "Unsupported webhook key " + keyId);
+        }
+
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            ECPoint point = new ECPoint(coordinate(jwk, "x"), coordinate(jwk, "y"));
+            return KeyFactory.getInstance("EC").generatePublic(
+                    new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw reject(keyId, "Malformed webhook key " + keyId);
+        }
+    }
+
+    private InvalidWebhookException reject(String keyId, String reason) {
+        rejectedKeys.put(keyId, reason);
+        return new InvalidWebhookException(reason);
+    }
+
+    /** Counts a fetch against the per-minute limit; false when the limit is reached. */
+    private synchronized boolean takeFetch() {
+        long now = System.nanoTime();
+        if (now - fetchWindowStart >= FETCH_WINDOW_NANOS) {
+            fetchWindowStart = now;
+            fetchesInWindow = 0;
+        }
+        if (fetchesInWindow >= maxFetchesPerMinute) return false;
+        fetchesInWindow++;
+        return true;
+    }
+
+    private static BigInteger coordinate(Map<String, Object> jwk, String name) {
+        if (!(jwk.get(name) instanceof String encoded)) {
+            throw new IllegalArgumentException("Missing coordinate " + name);
+        }
+        return new BigInteger(1, Base64.getUrlDecoder().decode(encoded));
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
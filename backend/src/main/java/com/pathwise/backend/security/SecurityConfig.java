@@ -1,9 +1,11 @@
 package com.pathwise.backend.security;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -39,8 +41,12 @@ public class SecurityConfig {
                 })
             )
             .authorizeHttpRequests(auth -> auth
+                // Completion of streamed responses (exports) - already authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Public endpoints - Authentication
                 .requestMatchers("/api/auth/**").permitAll()
+                // Plaid webhooks - authenticated by their Plaid-Verification signature instead
+                .requestMatchers(HttpMethod.POST, "/api/plaid/webhook").permitAll()
                 // H2 Console - dev only
                 .requestMatchers("/h2-console/**").permitAll()
                 // Public endpoints - Swagger UI and OpenAPI
@@ -0,0 +1,277 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.InstitutionSyncBudget;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.InstitutionSyncBudgetRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps every linked account's transactions fresh in the background, instead of
+ * only when the user triggers {@link PlaidService#syncTransactions}.
+ *
+ * Each account carries its own next_sync_at. A sync that finds activity schedules
+ * the next one pathwise.plaid.sync.interval later; every sync in a row that finds
+ * nothing, or fails, doubles the wait up to pathwise.plaid.sync.max-interval. Each
+ * wait is jittered by pathwise.plaid.sync.jitter either way, and accounts without a
+ * schedule yet (new links, and all of them after the upgrade) start at a random
+ * point within one interval, so syncs spread evenly over the day.
+ *
+ * Every poll hands due accounts to a bounded pool: pathwise.plaid.sync.parallelism
+ * syncs at once and at most pathwise.plaid.sync.queue-capacity waiting. Every node
+ * polls, so an account is first claimed with a conditional UPDATE of its
+ * sync_claimed_until and only the node whose UPDATE matched syncs it; a claim not
+ * ended by its sync within pathwise.plaid.sync.claim-timeout was abandoned, and
+ * the account is due again. An institution gets at most
+ * pathwise.plaid.sync.institution-rate-per-minute syncs a minute across all nodes,
+ * spent from its {@link InstitutionSyncBudget} row; accounts over the limit stay
+ * due for a later poll.
+ *
+ * {@link #requestSync} runs an account's sync at once on the same pool, for
+ * Plaid webhooks reporting new activity; an account kept fresh that way keeps
+ * finding activity, so its scheduled syncs only serve as a safety net.
+ *
+ * Metrics on /actuator/metrics:
+ * pathwise.plaid.sync.queue (syncs waiting for a worker) and
+ * pathwise.plaid.sync.lag (how long after its due time each sync started).
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class AccountSyncScheduler {
+
+    // Unscheduled accounts placed per poll
+    private static final int SCHEDULE_BATCH = 500;
+
+    // Bound on the backoff exponent; max-interval normally caps the wait first
+    private static final int MAX_BACKOFF_STEPS = 16;
+
+    private final PlaidService plaidService;
+    private final AccountRepository accountRepository;
+    private final boolean enabled;
+    private final Duration interval;
+    private final Duration maxInterval;
+    private final double jitter;
+    private final Duration claimTimeout;
+    private final ThreadPoolExecutor executor;
+    private final InstitutionRateLimiter rateLimiter;
+    private final Timer lagTimer;
+
+    // Dispatched and not finished; still due in the database until their sync reschedules them
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    public AccountSyncScheduler(PlaidService plaidService, AccountRepository accountRepository,
+                                InstitutionSyncBudgetRepository budgetRepository, MeterRegistry meterRegistry,
+                                @Value("${pathwise.plaid.sync.enabled:true}") boolean enabled,
+                                @Value("${pathwise.plaid.sync.interval:6h}") Duration interval,
+                                @Value("${pathwise.plaid.sync.max-interval:48h}") Duration maxInterval,
+                                @Value("${pathwise.plaid.sync.jitter:0.2}") double jitter,
+                                @Value("${pathwise.plaid.sync.claim-timeout:15m}") Duration claimTimeout,
+                                @Value("${pathwise.plaid.sync.parallelism:4}") int parallelism,
+                                @Value("${pathwise.plaid.sync.queue-capacity:100}") int queueCapacity,
+                                @Value("${pathwise.plaid.sync.institution-rate-per-minute:30}") int institutionRate) {
+        this.plaidService = plaidService;
+        this.accountRepository = accountRepository;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.maxInterval = maxInterval;
+        this.jitter = jitter;
+        this.claimTimeout = claimTimeout;
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("account-sync-", 0).daemon().factory());
+        this.rateLimiter = new InstitutionRateLimiter(budgetRepository, institutionRate);
+        this.lagTimer = Timer.builder("pathwise.plaid.sync.lag")
+                .description("How long after its due time a background sync started")
+                .register(meterRegistry);
+        Gauge.builder("pathwise.plaid.sync.queue", executor, e -> e.getQueue().size())
+                .description("Background syncs waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Places newly linked accounts on the schedule, then claims and dispatches due
+     * accounts, most overdue first, while the queue has room.
+     */
+    @Scheduled(fixedDelayString = "${pathwise.plaid.sync.poll-interval-ms:60000}",
+               initialDelayString = "${pathwise.plaid.sync.poll-interval-ms:60000}")
+    public void dispatchDueSyncs() {
+        if (!enabled) return;
+        scheduleNewAccounts();
+
+        int room = executor.getQueue().remainingCapacity();
+        if (room == 0) {
+            log.warn("Background sync queue is full, {} accounts in flight", inFlight.size());
+            return;
+        }
+
+        // Webhook syncs in flight here are not claimed and still due; read past them
+        LocalDateTime now = LocalDateTime.now();
+        List<Account> due = accountRepository.findDueForSync(now, PageRequest.of(0, room + inFlight.size()));
+        int dispatched = 0;
+        for (Account account : due) {
+            if (dispatched == room) break;
+            if (inFlight.contains(account.getId())) continue;
+            // Another node may have claimed it since the read; the claim comes before the
+            // budget so that losing it costs none
+            if (accountRepository.claimSync(account.getId(), now, now.plus(claimTimeout)) == 0) continue;
+            if (!rateLimiter.tryAcquire(institutionOf(account))) {
+                accountRepository.releaseSync(account.getId());
+                continue;
+            }
+            // A webhook may have requested this account's sync since the read
+            if (!inFlight.add(account.getId())) {
+                accountRepository.releaseSync(account.getId());
+                continue;
+            }
+
+            try {
+                executor.execute(() -> sync(account, true));
+                dispatched++;
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(account.getId());
+                accountRepository.releaseSync(account.getId());
+                break;
+            }
+        }
+        if (dispatched > 0) {
+            log.debug("Dispatched {} background syncs, {} due", dispatched, due.size());
+        }
+    }
+
+    /**
+     * Syncs an account now rather than when it is due, e.g. because Plaid reported
+     * new activity. Not subject to the institution rate limit: Plaid itself asked
+     * for this sync. The sync reschedules the account like a scheduled one.
+     *
+     * @param account Linked account to sync
+     * @return false when the account is already syncing or the queue is full, for the caller to retry later
+     */
+    public boolean requestSync(Account account) {
+        if (!inFlight.add(account.getId())) return false;
+        try {
+            executor.execute(() -> sync(account, false));
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(account.getId());
+            return false;
+        }
+    }
+
+    /** Gives accounts without a next_sync_at a random start within one interval. */
+    private void scheduleNewAccounts() {
+        for (UUID accountId : accountRepository.findIdsWithoutSyncSchedule(PageRequest.of(0, SCHEDULE_BATCH))) {
+            long offset = ThreadLocalRandom.current().nextLong(interval.toMillis());
+            accountRepository.updateSyncSchedule(accountId, LocalDateTime.now().plus(Duration.ofMillis(offset)), 0);
+        }
+    }
+
+    /** Syncs one account and schedules its next sync by whether this one found anything. */
+    private void sync(Account account, boolean scheduled) {
+        UUID accountId = account.getId();
+        if (scheduled) {
+            lagTimer.record(Duration.between(account.getNextSyncAt(), LocalDateTime.now()));
+        }
+        int idleSyncs = account.getIdleSyncs();
+        try {
+            int changes = plaidService.fetchAndStoreTransactions(account.getPlaidAccessToken(), account);
+            idleSyncs = changes > 0 ? 0 : idleSyncs + 1;
+        } catch (Exception e) {
+            // Failing items back off like idle ones
+            log.warn("Background sync of account {} failed: {}", accountId, e.getMessage());
+            idleSyncs++;
+        } finally {
+            try {
+                accountRepository.updateSyncSchedule(accountId, LocalDateTime.now().plus(nextDelay(idleSyncs)),
+                        idleSyncs);
+            } finally {
+                inFlight.remove(accountId);
+            }
+        }
+    }
+
+    /** The interval doubled per idle sync, capped, then jittered. */
+    private Duration nextDelay(int idleSyncs) {
+        long millis = Math.min(interval.toMillis() << Math.min(idleSyncs, MAX_BACKOFF_STEPS), maxInterval.toMillis());
+        double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Duration.ofMillis((long) (millis * factor));
+    }
+
+    private static String institutionOf(Account account) {
+        return account.getBank() != null ? account.getBank().name() : String.valueOf(account.getBankName());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Unfinished syncs stay due and run, here or on another node, once their claims lapse
+        executor.shutdownNow();
+    }
+
+    /**
+     * Rate limit per institution shared by all nodes, as a token bucket holding one
+     * minute's allowance: each sync moves the institution's {@link InstitutionSyncBudget}
+     * one spacing (a minute over the rate) ahead of the later of its current value and
+     * now, and is allowed while that leaves it at most a minute ahead. The move is a
+     * compare-and-set, so concurrent nodes never spend the same allowance.
+     */
+    private static final class InstitutionRateLimiter {
+
+        // Compare-and-set rounds lost to other nodes before the account waits for a later poll
+        private static final int MAX_ATTEMPTS = 3;
+        private static final Duration WINDOW = Duration.ofMinutes(1);
+
+        private final InstitutionSyncBudgetRepository repository;
+        private final Duration spacing;
+
+        InstitutionRateLimiter(InstitutionSyncBudgetRepository repository, int perMinute) {
+            this.repository = repository;
+            this.spacing = WINDOW.dividedBy(perMinute);
+        }
+
+        boolean tryAcquire(String institution) {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                // Millisecond precision survives the round trip through every database, for the compare
+                LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+                InstitutionSyncBudget budget = repository.findById(institution).orElse(null);
+                if (budget == null) {
+                    try {
+                        repository.insert(institution, now.plus(spacing));
+                        return true;
+                    } catch (DataIntegrityViolationException e) {
+                        // Created by another node at the same moment; spend from its row
+                        continue;
+                    }
+                }
+                LocalDateTime from = budget.getAvailableAt().isAfter(now) ? budget.getAvailableAt() : now;
+                LocalDateTime next = from.plus(spacing);
+                if (next.isAfter(now.plus(WINDOW))) return false;
+                if (repository.advance(institution, budget.getAvailableAt(), next) == 1) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.pathwise.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pathwise.backend.dto.AnalyticsResponse;
+import com.pathwise.backend.enums.VersionedResource;
+import com.pathwise.backend.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of {@link AnalyticsResponse}, keyed by (user, months, data version, date).
+ *
+ * The version is the user's stored {@link VersionedResource#ANALYTICS} counter as
+ * loaded with the {@link AuthenticatedUser}, bumped through {@link ResourceVersions}
+ * by everything that changes the inputs of the analytics (ingested transactions,
+ * salary, balance) on any node. Entries of older versions are then never read
+ * again and age out through the size and TTL bounds. A response computed while a
+ * bump happens is stored under the version it started with, so it can never be
+ * served as current. The date is in the key because the windows end today: after
+ * midnight, and so after a month rollover, a window covers other days and is
+ * computed again.
+ *
+ * Hit, miss and eviction counts are published as the "analytics" cache metrics
+ * (cache.gets, cache.evictions) on /actuator/metrics.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Component
+public class AnalyticsCache {
+
+    private record Key(UUID userId, int months, long version, LocalDate day) {}
+
+    private final Cache<Key, AnalyticsResponse> responses;
+    private final Supplier<LocalDate> today;
+
+    @Autowired
+    public AnalyticsCache(MeterRegistry meterRegistry,
+                          @Value("${pathwise.analytics-cache.max-size:10000}") long maxSize,
+                          @Value("${pathwise.analytics-cache.ttl:10m}") Duration ttl) {
+        this(meterRegistry, maxSize, ttl, LocalDate::now);
+    }
+
+    AnalyticsCache(MeterRegistry meterRegistry, long maxSize, Duration ttl, Supplier<LocalDate> today) {
+        this.today = today;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "analytics");
+    }
+
+    /**
+     * Returns the cached response for the user's current data version, computing
+     * and storing it on a miss.
+     *
+     * @param user Owner of the analytics
+     * @param months Number of months analyzed
+     * @param loader Computes the response on a miss
+     * @return Analytics response
+     */
+    public AnalyticsResponse get(AuthenticatedUser user, int months, Supplier<AnalyticsResponse> loader) {
+        Key key = new Key(user.getId(), months, user.version(VersionedResource.ANALYTICS), today.get());
+        return responses.get(key, k -> loader.get());
+    }
+
+    /**
+     * Returns the responses for several windows of the user's current data version.
+     * The windows not cached are computed with a single call to the loader and stored.
+     *
+     * @param user Owner of the analytics
+     * @param windows Numbers of months analyzed
+     * @param loader Computes the responses of the missing windows, keyed by window
+     * @return Analytics response per window
+     */
+    public Map<Integer, AnalyticsResponse> getAll(AuthenticatedUser user, Set<Integer> windows,
+                                                  Function<Set<Integer>, Map<Integer, AnalyticsResponse>> loader) {
+        UUID userId = user.getId();
+        long version = user.version(VersionedResource.ANALYTICS);
+        LocalDate day = today.get();
+        List<Key> keys = windows.stream().map(months -> new Key(userId, months, version, day)).toList();
+        Map<Key, AnalyticsResponse> cached = responses.getAll(keys, missing -> {
+            Set<Integer> missingWindows = new HashSet<>();
+            missing.forEach(k -> missingWindows.add(k.months()));
+            Map<Key, AnalyticsResponse> loaded = new HashMap<>();
+            loader.apply(missingWindows).forEach((months, response) ->
+                    loaded.put(new Key(userId, months, version, day), response));
+            return loaded;
+        });
+        Map<Integer, AnalyticsResponse> byWindow = new HashMap<>();
+        cached.forEach((key, response) -> byWindow.put(key.months(), response));
+        return byWindow;
+    }
+}
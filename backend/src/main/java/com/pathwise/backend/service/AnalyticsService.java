@@ -5,11 +5,13 @@ import com.pathwise.backend.dto.AnalyticsResponse.MonthlyData;
 import com.pathwise.backend.enums.TransactionType;
 import com.pathwise.backend.exception.UserNotFoundException;
 import com.pathwise.backend.model.Account;
-import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.Money;
 import com.pathwise.backend.model.User;
 import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.SpendTotal;
 import com.pathwise.backend.repository.TransactionRepository;
 import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,7 +19,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -39,18 +40,48 @@ public class AnalyticsService {
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final AnalyticsCache analyticsCache;
 
     private static final DateTimeFormatter MONTH_FMT = DateTimeFormatter.ofPattern("MMM yyyy");
     private static final DateTimeFormatter SORT_FMT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final int MAX_WINDOWS = 12;
+    private static final int MAX_WINDOW_MONTHS = 60;
+    private static final int DAILY_SPENDING_DAYS = 30;
 
     /**
      * Retrieves analytics for the current authenticated user.
+     * Served from the analytics cache while the user's data version is unchanged;
+     * a hit needs no query beyond the authentication lookup.
      * 
-     * @param months Number of months to analyze
+     * @param months Number of months to analyze, 1 to 60
      * @return AnalyticsResponse containing all financial metrics
      */
     public AnalyticsResponse getAnalytics(int months) {
-        return getAnalyticsForUser(getCurrentUser(), months);
+        validateWindows(Set.of(months));
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (!(principal instanceof AuthenticatedUser authenticated)) {
+            return getAnalyticsForUser(getCurrentUser(), months);
+        }
+        return analyticsCache.get(authenticated, months,
+                () -> getAnalyticsForUser(getCurrentUser(), months));
+    }
+
+    /**
+     * Retrieves analytics for several windows of the current authenticated user.
+     * Windows already cached are served as is; the rest are computed together
+     * from one rollup read sized to the largest of them.
+     *
+     * @param windows Numbers of months to analyze
+     * @return Analytics per window, in ascending window order
+     */
+    public Map<Integer, AnalyticsResponse> getAnalytics(Set<Integer> windows) {
+        validateWindows(windows);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (!(principal instanceof AuthenticatedUser authenticated)) {
+            return getAnalyticsForUser(getCurrentUser(), windows);
+        }
+        return new TreeMap<>(analyticsCache.getAll(authenticated, windows,
+                missing -> getAnalyticsForUser(getCurrentUser(), missing)));
     }
 
     /**
@@ -61,18 +92,33 @@ public class AnalyticsService {
      * @return AnalyticsResponse containing all financial metrics
      */
     public AnalyticsResponse getAnalyticsForUser(User user, int months) {
-        LocalDate end = LocalDate.now();
-        LocalDate start = end.minusMonths(months);
+        return getAnalyticsForUser(user, Set.of(months)).get(months);
+    }
 
-        // Get transactions for the selected period (for bar chart)
-        List<Transaction> periodTransactions = transactionRepository
-                .findByAccountUserIdAndTransactionDateBetween(user.getId(), start, end);
+    /**
+     * Analytics for several windows of a specific user. The monthly spend rollup is
+     * read once, for the largest window, and each window is derived from it in
+     * memory, so the cost is O(months × categories) for the largest window however
+     * many transactions there are. Only the daily spending chart needs day totals,
+     * which are aggregated over its last 30 days in the same query.
+     *
+     * @param user User entity
+     * @param windows Numbers of months to analyze
+     * @return Analytics per window, in ascending window order
+     */
+    public Map<Integer, AnalyticsResponse> getAnalyticsForUser(User user, Set<Integer> windows) {
+        LocalDate end = LocalDate.now();
+        LocalDate currentMonth = end.withDayOfMonth(1);
+        int widest = Collections.max(windows);
 
-        // Get current month transactions (for pie chart when months=1)
-        LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
-        LocalDate monthEnd = LocalDate.now();
-        List<Transaction> currentMonthTransactions = transactionRepository
-                .findByAccountUserIdAndTransactionDateBetween(user.getId(), monthStart, monthEnd);
+        // Month/category/type totals of every month the widest window covers, and the
+        // day totals for the daily spending chart, which is the same for every window
+        Map<Boolean, List<SpendTotal>> totals = transactionRepository.findSpendTotals(
+                        user.getId(), firstMonth(end, widest), currentMonth, end.minusDays(DAILY_SPENDING_DAYS - 1), end)
+                .stream()
+                .collect(Collectors.partitioningBy(SpendTotal::monthly));
+        List<SpendTotal> monthlyTotals = totals.get(true);
+        List<SpendTotal> recentDays = totals.get(false);
 
         // Get account balance from Plaid
         BigDecimal plaidBalance = accountRepository.findByUserId(user.getId())
@@ -80,133 +126,104 @@ public class AnalyticsService {
                 .orElse(BigDecimal.ZERO);
 
         // Get monthly salary from user
-        BigDecimal monthlySalary = user.getMonthlySalary() != null ? user.getMonthlySalary() : BigDecimal.ZERO;
+        long monthlySalary = Money.toFils(user.getMonthlySalary());
+
+        Map<Integer, AnalyticsResponse> responses = new TreeMap<>();
+        for (int months : windows) {
+            responses.put(months, buildAnalytics(user, months, end, monthlyTotals, recentDays, plaidBalance, monthlySalary));
+        }
+        return responses;
+    }
+
+    /**
+     * Derives one window's analytics from month/category/type totals covering at
+     * least {@link #firstMonth(LocalDate, int)} to the current month, and the day
+     * totals of the last 30 days.
+     */
+    private AnalyticsResponse buildAnalytics(User user, int months, LocalDate end,
+                                             List<SpendTotal> monthlyTotals, List<SpendTotal> recentDays,
+                                             BigDecimal plaidBalance, long monthlySalary) {
+        LocalDate currentMonth = end.withDayOfMonth(1);
+        LocalDate periodStart = firstMonth(end, months);
+
+        List<SpendTotal> periodTotals = fromMonth(monthlyTotals, periodStart);
+        List<SpendTotal> currentMonthTotals = fromMonth(monthlyTotals, currentMonth);
 
         // ===== CALCULATIONS =====
+        // Sums are in fils (long) and become BigDecimal only in the response
 
         // 1. Current month income = salary + current month credit transactions
-        BigDecimal currentMonthIncome = calculateCurrentMonthIncome(currentMonthTransactions, monthlySalary);
+        long currentMonthIncome = Money.add(monthlySalary, sumOfType(currentMonthTotals, TransactionType.CREDIT));
 
         // 2. Current month expenses = current month debit transactions only
-        BigDecimal currentMonthExpenses = calculateCurrentMonthExpenses(currentMonthTransactions);
-
-        // Use appropriate transactions for pie chart based on selected months
-        List<Transaction> pieChartTransactions;
-        
-        if (months == 1) {
-            // For "This month" button, use ONLY current month transactions
-            pieChartTransactions = currentMonthTransactions;
-        } else {
-            // For other ranges (3, 6, 12 months), use the selected period
-            pieChartTransactions = periodTransactions;
-        }
+        long currentMonthExpenses = sumOfType(currentMonthTotals, TransactionType.DEBIT);
 
-        // Spending by category for pie chart
-        Map<String, BigDecimal> spendingByCategory = pieChartTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.DEBIT)
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory() != null ? t.getCategory().getName() : "OTHER",
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
-                ));
+        // Spending by category for pie chart: "This month" is the current month,
+        // other ranges (3, 6, 12 months) the same calendar months as the bar chart
+        Map<String, Long> spendingByCategory = periodTotals.stream()
+                .filter(r -> r.type() == TransactionType.DEBIT)
+                .collect(Collectors.groupingBy(SpendTotal::category, Money.summing(SpendTotal::fils)));
 
         log.debug("Analytics for user {} - Period: {} months, Income: {}, Expenses: {}", 
             user.getId(), months, currentMonthIncome, currentMonthExpenses);
 
         // Monthly breakdown for bar chart
-        List<MonthlyData> monthlyBreakdown = generateMonthlyBreakdown(user, months, monthlySalary);
+        List<MonthlyData> monthlyBreakdown = generateMonthlyBreakdown(periodTotals, months, monthlySalary);
 
         // Daily spending (for heatmap/line chart)
-        Map<String, BigDecimal> dailySpending = periodTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.DEBIT)
-                .filter(t -> t.getTransactionDate().isAfter(LocalDate.now().minusDays(30)))
-                .collect(Collectors.groupingBy(
-                        t -> t.getTransactionDate().toString(),
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
-                ));
+        Map<String, Long> dailySpending = recentDays.stream()
+                .filter(t -> t.type() == TransactionType.DEBIT)
+                .collect(Collectors.groupingBy(t -> t.start().toString(), Money.summing(SpendTotal::fils)));
 
         return AnalyticsResponse.builder()
-                .totalBalance(plaidBalance)                    // Just the Plaid balance
-                .totalIncome(currentMonthIncome)               // Salary + current month credits ONLY
-                .totalExpenses(currentMonthExpenses)           // Current month expenses only
-                .spendingByCategory(spendingByCategory)        // Dynamic based on selected months
+                .totalBalance(plaidBalance)                                   // Just the Plaid balance
+                .totalIncome(Money.toBigDecimal(currentMonthIncome))          // Salary + current month credits ONLY
+                .totalExpenses(Money.toBigDecimal(currentMonthExpenses))      // Current month expenses only
+                .spendingByCategory(Money.toAmounts(spendingByCategory))      // Dynamic based on selected months
                 .monthlyBreakdown(monthlyBreakdown)
-                .dailySpending(dailySpending)
+                .dailySpending(Money.toAmounts(dailySpending))
                 .build();
     }
 
-    /**
-     * Calculates total income for the current month.
-     * 
-     * @param transactions List of current month transactions
-     * @param monthlySalary User's monthly salary
-     * @return Total income (salary + credits)
-     */
-    private BigDecimal calculateCurrentMonthIncome(List<Transaction> transactions, BigDecimal monthlySalary) {
-        BigDecimal creditTotal = transactions.stream()
-                .filter(t -> t.getType() == TransactionType.CREDIT)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        return monthlySalary.add(creditTotal);
-    }
-
-    /**
-     * Calculates total expenses for the current month.
-     * 
-     * @param transactions List of current month transactions
-     * @return Total expenses (debits)
-     */
-    private BigDecimal calculateCurrentMonthExpenses(List<Transaction> transactions) {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.DEBIT)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     /**
      * Generates monthly breakdown data for bar charts.
      * 
-     * @param user User entity
+     * @param totals Month/category/type totals covering the breakdown months
      * @param months Number of months to include
-     * @param monthlySalary User's monthly salary
+     * @param monthlySalary User's monthly salary in fils
      * @return List of MonthlyData objects for charting
      */
-    private List<MonthlyData> generateMonthlyBreakdown(User user, int months, BigDecimal monthlySalary) {
+    private List<MonthlyData> generateMonthlyBreakdown(List<SpendTotal> totals, int months,
+                                                       long monthlySalary) {
         List<MonthlyData> breakdown = new ArrayList<>();
         LocalDate now = LocalDate.now();
+
+        Map<LocalDate, List<SpendTotal>> totalsByMonth = totals.stream()
+                .collect(Collectors.groupingBy(SpendTotal::start));
         
         for (int i = months - 1; i >= 0; i--) {
             LocalDate monthDate = now.minusMonths(i);
             
-            LocalDate monthStart = monthDate.withDayOfMonth(1);
-            LocalDate monthEnd = monthDate.withDayOfMonth(monthDate.lengthOfMonth());
-            
-            List<Transaction> monthTransactions = transactionRepository
-                    .findByAccountUserIdAndTransactionDateBetween(user.getId(), monthStart, monthEnd);
+            List<SpendTotal> monthTotals = totalsByMonth
+                    .getOrDefault(monthDate.withDayOfMonth(1), List.of());
             
             // Skip empty months for older periods
-            if (monthTransactions.isEmpty() && i > 2) continue;
+            if (monthTotals.isEmpty() && i > 2) continue;
             
             // Calculate income from credit transactions this month
-            BigDecimal creditIncome = monthTransactions.stream()
-                    .filter(t -> t.getType() == TransactionType.CREDIT)
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            long creditIncome = sumOfType(monthTotals, TransactionType.CREDIT);
             
             // For current month, add salary
-            BigDecimal income;
+            long income;
             if (i == 0) {
-                income = monthlySalary.add(creditIncome);
+                income = Money.add(monthlySalary, creditIncome);
                 log.debug("Current month {} - Credits: {}, Salary: {}, Total Income: {}", 
                     monthDate.format(MONTH_FMT), creditIncome, monthlySalary, income);
             } else {
                 income = creditIncome;
             }
             
-            BigDecimal expenses = monthTransactions.stream()
-                    .filter(t -> t.getType() == TransactionType.DEBIT)
-                    .map(Transaction::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            long expenses = sumOfType(monthTotals, TransactionType.DEBIT);
             
             String monthName = monthDate.format(MONTH_FMT);
             String sortKey = monthDate.format(SORT_FMT);
@@ -216,8 +233,8 @@ public class AnalyticsService {
             breakdown.add(MonthlyData.builder()
                     .month(monthName)
                     .sortKey(sortKey)
-                    .income(income)
-                    .expenses(expenses)
+                    .income(Money.toBigDecimal(income))
+                    .expenses(Money.toBigDecimal(expenses))
                     .savingsRate(savingsRate)
                     .build());
         }
@@ -226,19 +243,51 @@ public class AnalyticsService {
         return breakdown;
     }
 
+    /** First month of a window of {@code months}: the current month and the {@code months - 1} before it. */
+    private static LocalDate firstMonth(LocalDate end, int months) {
+        return end.minusMonths(months - 1).withDayOfMonth(1);
+    }
+
+    private static void validateWindows(Set<Integer> windows) {
+        if (windows == null || windows.isEmpty()) {
+            throw new IllegalArgumentException("At least one analytics window is required");
+        }
+        if (windows.size() > MAX_WINDOWS) {
+            throw new IllegalArgumentException("At most " + MAX_WINDOWS + " analytics windows can be requested at once");
+        }
+        for (int months : windows) {
+            if (months < 1 || months > MAX_WINDOW_MONTHS) {
+                throw new IllegalArgumentException("Analytics windows must be between 1 and " + MAX_WINDOW_MONTHS + " months");
+            }
+        }
+    }
+
+    private static List<SpendTotal> fromMonth(List<SpendTotal> totals, LocalDate from) {
+        return totals.stream()
+                .filter(r -> !r.start().isBefore(from))
+                .toList();
+    }
+
+    private static long sumOfType(List<SpendTotal> totals, TransactionType type) {
+        long sum = 0L;
+        for (SpendTotal r : totals) {
+            if (r.type() == type) sum = Money.add(sum, r.fils());
+        }
+        return sum;
+    }
+
     /**
      * Calculates savings rate percentage.
      * 
-     * @param income Total income
-     * @param expenses Total expenses
+     * @param income Total income in fils
+     * @param expenses Total expenses in fils
      * @return Savings rate as percentage
      */
-    private BigDecimal calculateSavingsRate(BigDecimal income, BigDecimal expenses) {
-        if (income.compareTo(BigDecimal.ZERO) == 0) return BigDecimal.ZERO;
-        return income.subtract(expenses)
-                .divide(income, 4, RoundingMode.HALF_UP)
-                .multiply(new BigDecimal("100"))
-                .setScale(1, RoundingMode.HALF_UP);
+    private BigDecimal calculateSavingsRate(long income, long expenses) {
+        if (income == 0) return BigDecimal.ZERO;
+        // Ratio rounded to 4 decimals (basis points), then to one decimal of a percent
+        long basisPoints = Money.scale(Money.subtract(income, expenses), 10_000, income);
+        return BigDecimal.valueOf(Money.scale(basisPoints, 1, 10), 1);
     }
 
     /**
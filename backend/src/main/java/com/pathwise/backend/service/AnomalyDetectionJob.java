@@ -0,0 +1,45 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.event.TransactionsIngestedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Runs anomaly detection outside the request path.
+ * Detection follows every ingest once its transaction has committed; the nightly
+ * {@link AnomalySweepJob} re-checks every user with a linked account, catching users
+ * whose ingest event was lost (e.g. a restart before the async run) and the month rollover.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnomalyDetectionJob {
+
+    private final AnomalyService anomalyService;
+
+    /**
+     * Detects anomalies for the user whose transactions were just ingested.
+     * Runs on the async executor after the ingest commits, or immediately when
+     * the event is published outside a transaction.
+     *
+     * @param event Ingest of new transactions
+     */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionsIngested(TransactionsIngestedEvent event) {
+        try {
+            int created = anomalyService.detectAnomalies(event.userId());
+            log.debug("Detected {} anomalies for user {} after ingesting {} transactions",
+                    created, event.userId(), event.count());
+        } catch (Exception e) {
+            // The nightly sweep retries this user
+            log.error("Anomaly detection failed for user {}: {}", event.userId(), e.getMessage());
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package com.pathwise.backend.service;
 
 import com.pathwise.backend.dto.AnomalyResponse;
+import com.pathwise.backend.enums.AnomalyDetectionMode;
 import com.pathwise.backend.enums.SeverityLevel;
 import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.exception.UserNotFoundException;
 import com.pathwise.backend.model.*;
 import com.pathwise.backend.repository.*;
+import com.pathwise.backend.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -21,8 +25,10 @@ import java.util.stream.Collectors;
 
 /**
  * Service responsible for detecting and managing spending anomalies.
- * Compares current month spending against historical averages to identify
- * unusual spending patterns and alert users.
+ * In THRESHOLD mode it compares current month spending against historical
+ * averages; in STATISTICAL mode it flags transactions that deviate from the
+ * category's running statistics (see {@link CategorySpendStatsService}).
+ * The mode is set with pathwise.anomalies.mode.
  * 
  * @author PathWise Team
  * @version 1.0
@@ -32,26 +38,41 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AnomalyService {
 
-    private final TransactionRepository transactionRepository;
+    private final MonthlySpendRollupRepository rollupRepository;
     private final AnomalyRepository anomalyRepository;
-    private final TransactionCategoryRepository categoryRepository;
+    private final CategoryRegistry categoryRegistry;
     private final UserRepository userRepository;
+    private final CategorySpendStatsRepository statsRepository;
+    private final TransactionRepository transactionRepository;
+    private final ResourceVersions resourceVersions;
+
+    @Value("${pathwise.anomalies.mode:THRESHOLD}")
+    private AnomalyDetectionMode mode = AnomalyDetectionMode.THRESHOLD;
 
     // Thresholds: spending ratio vs average that triggers an anomaly
     private static final double HIGH_THRESHOLD = 3.0;
     private static final double MEDIUM_THRESHOLD = 2.0;
     private static final double LOW_THRESHOLD = 1.5;
 
+    // Full months before the current one that form the baseline
+    private static final int HISTORICAL_MONTHS = 2;
+
+    // Statistical mode: deviation score (standard deviations) that triggers an anomaly
+    private static final double HIGH_SCORE = 4.0;
+    private static final double MEDIUM_SCORE = 3.0;
+    private static final double LOW_SCORE = 2.5;
+
     /**
-     * Detects anomalies for the current user and returns active ones.
+     * Returns the active anomalies of the current user.
+     * A pure read: detection runs after ingest and in the nightly sweep
+     * ({@link AnomalyDetectionJob}), never on this path.
      * 
      * @return List of active anomaly responses
      */
-    public List<AnomalyResponse> detectAndGetAnomalies() {
-        User user = getCurrentUser();
-        detectAnomalies(user);
+    @Transactional(readOnly = true)
+    public List<AnomalyResponse> getActiveAnomalies() {
         return anomalyRepository
-                .findByUserIdAndIsDismissedFalseOrderByCreatedAtDesc(user.getId())
+                .findByUserIdAndIsDismissedFalseOrderByCreatedAtDesc(getCurrentUserId())
                 .stream()
                 .map(this::toResponse)
                 .toList();
@@ -72,72 +93,100 @@ public class AnomalyService {
         }
         anomaly.setIsDismissed(true);
         anomalyRepository.save(anomaly);
+        resourceVersions.bump(user.getId(), VersionedResource.ANOMALIES);
     }
 
     /**
-     * Core anomaly detection logic.
-     * Compares current month spending by category against 3-month historical average.
-     * Creates anomalies when spending exceeds defined thresholds.
+     * Detects anomalies for a user in the configured mode and stores new ones,
+     * at most one per category and month, even when the earlier one was dismissed.
+     * Detections running at the same time on other threads or nodes are held to the
+     * same by the unique index on user, category, kind and month.
      * 
-     * @param user User to analyze
+     * @param userId User to analyze
+     * @return Number of anomalies created
+     */
+    @Transactional
+    public int detectAnomalies(UUID userId) {
+        return detectAnomalies(List.of(userId));
+    }
+
+    /**
+     * Detects anomalies for a range of users in one transaction and stores all
+     * new ones with a single batched write. Used by the nightly sweep.
+     *
+     * @param userIds Users to analyze
+     * @return Number of anomalies created
      */
-    private void detectAnomalies(User user) {
-        LocalDate now = LocalDate.now();
-        LocalDate thisMonthStart = now.withDayOfMonth(1);
-        LocalDate threeMonthsAgo = now.minusMonths(3);
-
-        List<Transaction> allTransactions = transactionRepository
-                .findByAccountUserIdAndTransactionDateBetween(user.getId(), threeMonthsAgo, now);
-
-        // Current month debits grouped by category
-        Map<String, BigDecimal> currentMonthByCategory = allTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.DEBIT
-                        && !t.getTransactionDate().isBefore(thisMonthStart))
+    @Transactional
+    public int detectAnomalies(Collection<UUID> userIds) {
+        LocalDate thisMonthStart = LocalDate.now().withDayOfMonth(1);
+        List<Anomaly> anomalies = new ArrayList<>();
+
+        for (UUID userId : userIds) {
+            // Categories already flagged this month, read once for all categories
+            Set<String> flagged = anomalyRepository.findFlaggedCategoryNamesSince(userId, thisMonthStart.atStartOfDay());
+            User user = userRepository.getReferenceById(userId);
+
+            List<Anomaly> found = mode == AnomalyDetectionMode.STATISTICAL
+                    ? detectByDeviation(user, thisMonthStart, flagged)
+                    : detectByThreshold(user, thisMonthStart, flagged);
+
+            anomalies.addAll(found);
+        }
+        // Rows a concurrent detection stored first are skipped
+        List<Anomaly> inserted = anomalyRepository.insertIgnoringDuplicates(anomalies);
+        inserted.stream().map(a -> a.getUser().getId()).distinct()
+                .forEach(userId -> resourceVersions.bump(userId, VersionedResource.ANOMALIES));
+        return inserted.size();
+    }
+
+    /**
+     * Threshold mode.
+     * Compares current month spending by category against the average of the
+     * two previous full months, read from the monthly spend rollup.
+     * Creates anomalies when spending exceeds defined thresholds.
+     */
+    private List<Anomaly> detectByThreshold(User user, LocalDate thisMonthStart, Set<String> flagged) {
+        List<MonthlySpendRollup> debitRows = rollupRepository.findByUserIdAndTypeAndMonthStartBetween(
+                user.getId(), TransactionType.DEBIT, thisMonthStart.minusMonths(HISTORICAL_MONTHS), thisMonthStart);
+
+        // Current month debits grouped by category, in fils
+        Map<String, Long> currentMonthByCategory = debitRows.stream()
+                .filter(r -> r.getMonthStart().equals(thisMonthStart))
                 .collect(Collectors.groupingBy(
-                        t -> t.getCategory() != null ? t.getCategory().getName() : "OTHER",
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
+                        MonthlySpendRollup::getCategory,
+                        Money.summing(r -> Money.toFils(r.getTotalAmount()))
                 ));
 
-        // Historical debits (excluding current month) grouped by category
-        Map<String, BigDecimal> historicalByCategory = allTransactions.stream()
-                .filter(t -> t.getType() == TransactionType.DEBIT
-                        && t.getTransactionDate().isBefore(thisMonthStart))
+        // Historical debits (excluding current month) grouped by category, in fils
+        Map<String, Long> historicalByCategory = debitRows.stream()
+                .filter(r -> r.getMonthStart().isBefore(thisMonthStart))
                 .collect(Collectors.groupingBy(
-                        t -> t.getCategory() != null ? t.getCategory().getName() : "OTHER",
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
+                        MonthlySpendRollup::getCategory,
+                        Money.summing(r -> Money.toFils(r.getTotalAmount()))
                 ));
 
-        long historicalMonths = Math.max(1, 3 - 1); // months of history (up to 2 full months)
+        List<Anomaly> anomalies = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : currentMonthByCategory.entrySet()) {
+            String categoryName = entry.getKey();
+            long currentFils = entry.getValue();
+            long historicalTotal = historicalByCategory.getOrDefault(categoryName, 0L);
+            long monthlyAvgFils = Money.scale(historicalTotal, 1, HISTORICAL_MONTHS);
 
-        currentMonthByCategory.forEach((categoryName, currentAmount) -> {
-            BigDecimal historicalTotal = historicalByCategory.getOrDefault(categoryName, BigDecimal.ZERO);
-            BigDecimal monthlyAvg = historicalTotal.divide(
-                    BigDecimal.valueOf(historicalMonths), 2, RoundingMode.HALF_UP);
+            if (monthlyAvgFils == 0) continue; // no baseline
 
-            if (monthlyAvg.compareTo(BigDecimal.ZERO) == 0) return; // no baseline
-
-            double ratio = currentAmount.divide(monthlyAvg, 4, RoundingMode.HALF_UP).doubleValue();
+            double ratio = Money.ratio(currentFils, monthlyAvgFils);
+            BigDecimal currentAmount = Money.toBigDecimal(currentFils);
+            BigDecimal monthlyAvg = Money.toBigDecimal(monthlyAvgFils);
 
             SeverityLevel severity = null;
             if (ratio >= HIGH_THRESHOLD) severity = SeverityLevel.HIGH;
             else if (ratio >= MEDIUM_THRESHOLD) severity = SeverityLevel.MEDIUM;
             else if (ratio >= LOW_THRESHOLD) severity = SeverityLevel.LOW;
 
-            if (severity == null) return;
-
-            // Check if anomaly already exists for this category this month
-            boolean exists = anomalyRepository
-                    .findByUserIdAndIsDismissedFalseOrderByCreatedAtDesc(user.getId())
-                    .stream()
-                    .anyMatch(a -> a.getCategory() != null
-                            && a.getCategory().getName().equals(categoryName)
-                            && a.getCreatedAt().getMonth() == LocalDateTime.now().getMonth());
+            if (severity == null || flagged.contains(categoryName)) continue;
 
-            if (exists) return;
-
-            TransactionCategory category = categoryRepository.findByName(categoryName).orElse(null);
             String ratioStr = String.format("%.1f", ratio);
-
             String message = switch (severity) {
                 case HIGH -> String.format("You spent %s× your usual amount this month. BD %.0f vs avg BD %.0f",
                         ratioStr, currentAmount, monthlyAvg);
@@ -147,19 +196,69 @@ public class AnomalyService {
                         ratioStr, monthlyAvg);
             };
 
-            anomalyRepository.save(Anomaly.builder()
-                    .user(user)
-                    .category(category)
-                    .severity(severity)
-                    .message(message)
-                    .actualAmount(currentAmount)
-                    .baselineAmount(monthlyAvg)
-                    .isDismissed(false)
-                    .createdAt(LocalDateTime.now())
-                    .build());
-
+            anomalies.add(anomaly(user, thisMonthStart, categoryName, severity, message,
+                    currentAmount, monthlyAvg, null));
             log.info("Anomaly detected: {} - {} severity, ratio {}", categoryName, severity, ratioStr);
-        });
+        }
+        return anomalies;
+    }
+
+    /**
+     * Statistical mode.
+     * Each transaction was scored against its category's running statistics when
+     * it was stored; this reads the month's highest score per category, one row
+     * per category, without touching transaction history.
+     */
+    private List<Anomaly> detectByDeviation(User user, LocalDate thisMonthStart, Set<String> flagged) {
+        List<Anomaly> anomalies = new ArrayList<>();
+        for (CategorySpendStats stats : statsRepository.findScoredByUserIdAndMonthStart(user.getId(), thisMonthStart)) {
+            SeverityLevel severity = severityOfScore(stats.getMonthPeakScore());
+            if (severity == null || flagged.contains(stats.getCategory())) continue;
+
+            BigDecimal amount = stats.getMonthPeakAmount();
+            BigDecimal usual = Money.toBigDecimal(Math.round(stats.getMean() * Money.FILS_PER_BD));
+            String scoreStr = String.format("%.1f", stats.getMonthPeakScore());
+            String message = String.format("BD %.3f in %s is %s standard deviations above your usual BD %.3f",
+                    amount, stats.getCategory(), scoreStr, usual);
+
+            Transaction transaction = stats.getMonthPeakTransactionId() != null
+                    ? transactionRepository.getReferenceById(stats.getMonthPeakTransactionId())
+                    : null;
+            anomalies.add(anomaly(user, thisMonthStart, stats.getCategory(), severity, message,
+                    amount, usual, transaction));
+            log.info("Anomaly detected: {} - {} severity, score {}", stats.getCategory(), severity, scoreStr);
+        }
+        return anomalies;
+    }
+
+    /**
+     * Maps a deviation score (standard deviations above the usual amount) to a severity.
+     *
+     * @param score Deviation score
+     * @return Severity, or null when the score is not anomalous
+     */
+    static SeverityLevel severityOfScore(double score) {
+        if (score >= HIGH_SCORE) return SeverityLevel.HIGH;
+        if (score >= MEDIUM_SCORE) return SeverityLevel.MEDIUM;
+        if (score >= LOW_SCORE) return SeverityLevel.LOW;
+        return null;
+    }
+
+    private Anomaly anomaly(User user, LocalDate monthStart, String categoryName, SeverityLevel severity,
+                            String message, BigDecimal actual, BigDecimal baseline, Transaction transaction) {
+        TransactionCategory category = categoryRegistry.find(categoryName).orElse(null);
+        return Anomaly.builder()
+                .user(user)
+                .category(category)
+                .transaction(transaction)
+                .severity(severity)
+                .message(message)
+                .actualAmount(actual)
+                .baselineAmount(baseline)
+                .isDismissed(false)
+                .createdAt(LocalDateTime.now())
+                .monthStart(monthStart)
+                .build();
     }
 
     /**
@@ -172,15 +271,30 @@ public class AnomalyService {
         return AnomalyResponse.builder()
                 .id(a.getId())
                 .category(a.getCategory() != null ? a.getCategory().getName() : "OTHER")
+                .kind(a.getKind().name())
                 .severity(a.getSeverity().name())
                 .message(a.getMessage())
                 .actualAmount(a.getActualAmount())
                 .baselineAmount(a.getBaselineAmount())
                 .isDismissed(a.getIsDismissed())
                 .createdAt(a.getCreatedAt())
+                .transactionId(a.getTransaction() != null ? a.getTransaction().getId() : null)
                 .build();
     }
 
+    /**
+     * Retrieves the current authenticated user's ID, from the principal when it carries it.
+     *
+     * @return User UUID
+     */
+    private UUID getCurrentUserId() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof AuthenticatedUser authenticated) {
+            return authenticated.getId();
+        }
+        return getCurrentUser().getId();
+    }
+
     /**
      * Retrieves the current authenticated user.
      * 
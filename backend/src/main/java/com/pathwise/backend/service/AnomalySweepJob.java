@@ -0,0 +1,295 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.model.SweepCheckpoint;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.SweepCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly anomaly sweep over every user with a linked account, the safety net
+ * behind detection after ingest ({@link AnomalyDetectionJob}).
+ *
+ * Users are walked in ascending id order in ranges of pathwise.anomalies.sweep.partition-size.
+ * Each range is one transaction with one batched insert, run on a virtual thread;
+ * at most pathwise.anomalies.sweep.parallelism ranges run at once, which must stay
+ * below the connection pool size. After each range, and every range before it,
+ * has finished, its last id is written to the sweep_checkpoints row, so a run cut
+ * short by a restart resumes after the last fully processed range.
+ *
+ * Every node fires the schedule, so a run is first claimed on that row with a
+ * conditional UPDATE and only the node whose UPDATE matched sweeps. The claim is
+ * renewed with every checkpoint and lapses after pathwise.anomalies.sweep.claim-timeout
+ * without one, when another node may take the run over from the checkpoint.
+ *
+ * Metrics on /actuator/metrics:
+ * pathwise.anomalies.sweep.users (users processed),
+ * pathwise.anomalies.sweep.throughput (users/sec of the current or last run) and
+ * pathwise.anomalies.sweep.lag (seconds since a run last completed).
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class AnomalySweepJob {
+
+    static final String JOB = "anomaly-sweep";
+
+    /** An unfinished run older than this is started over rather than resumed. */
+    private static final Duration MAX_RESUME_AGE = Duration.ofHours(20);
+
+    /** Lower than every generated id; the range before the first user. */
+    private static final UUID FIRST = new UUID(0, 0);
+
+    private final AnomalyService anomalyService;
+    private final AccountRepository accountRepository;
+    private final SweepCheckpointRepository checkpointRepository;
+    private final int partitionSize;
+    private final int parallelism;
+    private final Duration claimTimeout;
+
+    // This instance, as named in the checkpoint's claim
+    private final String node = UUID.randomUUID().toString();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter usersCounter;
+    private volatile double throughput;
+    private volatile LocalDateTime lastCompletedAt;
+
+    public AnomalySweepJob(AnomalyService anomalyService, AccountRepository accountRepository,
+                           SweepCheckpointRepository checkpointRepository, MeterRegistry meterRegistry,
+                           @Value("${pathwise.anomalies.sweep.partition-size:500}") int partitionSize,
+                           @Value("${pathwise.anomalies.sweep.parallelism:4}") int parallelism,
+                           @Value("${pathwise.anomalies.sweep.claim-timeout:10m}") Duration claimTimeout) {
+        this.anomalyService = anomalyService;
+        this.accountRepository = accountRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.partitionSize = partitionSize;
+        this.parallelism = parallelism;
+        this.claimTimeout = claimTimeout;
+        this.usersCounter = meterRegistry.counter("pathwise.anomalies.sweep.users");
+        Gauge.builder("pathwise.anomalies.sweep.throughput", () -> throughput)
+                .baseUnit("users/s").register(meterRegistry);
+        Gauge.builder("pathwise.anomalies.sweep.lag", this::lagSeconds)
+                .baseUnit("seconds").register(meterRegistry);
+    }
+
+    /** Resumes a run that the last shutdown interrupted. */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        SweepCheckpoint checkpoint = checkpointRepository.findById(JOB).orElse(null);
+        if (checkpoint == null) return;
+        if (checkpoint.getCompletedAt() != null) {
+            lastCompletedAt = checkpoint.getCompletedAt();
+        } else if (isResumable(checkpoint)) {
+            log.info("Resuming anomaly sweep started at {} after user {}",
+                    checkpoint.getRunStartedAt(), checkpoint.getLastUserId());
+            run();
+        }
+    }
+
+    /**
+     * Detects anomalies for every user with a linked account, resuming an
+     * interrupted run if there is one. Does nothing while another node holds the run.
+     * Runs daily at 04:00 Bahrain time.
+     */
+    @Scheduled(cron = "${pathwise.anomalies.sweep-cron:0 0 4 * * *}", zone = "Asia/Bahrain")
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Anomaly sweep already running, skipping");
+            return;
+        }
+        try {
+            if (!claim()) {
+                log.info("Anomaly sweep is running on another node, skipping");
+                return;
+            }
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                sweep(executor);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Anomaly sweep interrupted; the next run resumes from the checkpoint");
+            } catch (ClaimLostException e) {
+                log.warn("Anomaly sweep taken over by another node after user {}", e.lastUserId);
+            } finally {
+                checkpointRepository.releaseClaim(JOB, node);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Claims the run for this node, creating the checkpoint row on the very first run. */
+    private boolean claim() {
+        LocalDateTime now = LocalDateTime.now();
+        if (!checkpointRepository.existsById(JOB)) {
+            try {
+                checkpointRepository.insert(JOB, now);
+            } catch (DataIntegrityViolationException e) {
+                // Another node created it at the same moment; the claim below decides
+            }
+        }
+        return checkpointRepository.claim(JOB, node, now, now.plus(claimTimeout)) == 1;
+    }
+
+    private void sweep(ExecutorService executor) throws InterruptedException {
+        SweepCheckpoint checkpoint = startOrResume();
+        long startNanos = System.nanoTime();
+        long usersAtStart = checkpoint.getUsersProcessed();
+
+        Semaphore permits = new Semaphore(parallelism);
+        Deque<Partition> inFlight = new ArrayDeque<>();
+        UUID after = checkpoint.getLastUserId() != null ? checkpoint.getLastUserId() : FIRST;
+
+        List<UUID> userIds;
+        while (!(userIds = accountRepository.findUserIdsAfter(after, PageRequest.of(0, partitionSize))).isEmpty()) {
+            permits.acquire();
+            List<UUID> range = userIds;
+            CompletableFuture<Integer> result = CompletableFuture
+                    .supplyAsync(() -> detect(range), executor)
+                    .whenComplete((created, e) -> permits.release());
+            after = range.get(range.size() - 1);
+            inFlight.addLast(new Partition(after, range.size(), result));
+
+            if (advance(checkpoint, inFlight, false)) {
+                updateThroughput(checkpoint.getUsersProcessed() - usersAtStart, startNanos);
+            }
+        }
+        advance(checkpoint, inFlight, true);
+
+        LocalDateTime now = LocalDateTime.now();
+        checkpoint.setCompletedAt(now);
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setClaimedUntil(null);
+        checkpointRepository.save(checkpoint);
+        lastCompletedAt = now;
+        updateThroughput(checkpoint.getUsersProcessed() - usersAtStart, startNanos);
+
+        log.info("Anomaly sweep checked {} users, {} new anomalies, {} users/s",
+                checkpoint.getUsersProcessed(), checkpoint.getAnomaliesCreated(), String.format("%.0f", throughput));
+    }
+
+    /**
+     * Moves the checkpoint past the finished ranges at the head of the queue, so it
+     * never passes a range still running.
+     *
+     * @param wait Wait for every range instead of stopping at the first unfinished one
+     * @return Whether the checkpoint moved
+     * @throws ClaimLostException when another node took the run over meanwhile
+     */
+    private boolean advance(SweepCheckpoint checkpoint, Deque<Partition> inFlight, boolean wait) {
+        boolean moved = false;
+        while (!inFlight.isEmpty() && (wait || inFlight.peekFirst().result().isDone())) {
+            Partition partition = inFlight.pollFirst();
+            checkpoint.setLastUserId(partition.lastUserId());
+            checkpoint.setUsersProcessed(checkpoint.getUsersProcessed() + partition.users());
+            checkpoint.setAnomaliesCreated(checkpoint.getAnomaliesCreated() + partition.result().join());
+            usersCounter.increment(partition.users());
+            moved = true;
+        }
+        if (moved) {
+            LocalDateTime now = LocalDateTime.now();
+            // Renewed before the save, so the save cannot overwrite a node that took over
+            LocalDateTime until = now.plus(claimTimeout);
+            if (checkpointRepository.renewClaim(JOB, node, until) == 0) {
+                throw new ClaimLostException(checkpoint.getLastUserId());
+            }
+            checkpoint.setClaimedUntil(until);
+            checkpoint.setUpdatedAt(now);
+            checkpointRepository.save(checkpoint);
+        }
+        return moved;
+    }
+
+    /**
+     * Detects anomalies for one range of users in a single transaction. If the range
+     * fails as a whole, each user is retried on their own so one bad user does not
+     * hold back the rest.
+     */
+    private int detect(List<UUID> userIds) {
+        try {
+            return anomalyService.detectAnomalies(userIds);
+        } catch (Exception rangeFailure) {
+            log.warn("Anomaly detection failed for range ending {}, retrying per user: {}",
+                    userIds.get(userIds.size() - 1), rangeFailure.getMessage());
+            int created = 0;
+            for (UUID userId : userIds) {
+                try {
+                    created += anomalyService.detectAnomalies(userId);
+                } catch (Exception e) {
+                    log.error("Anomaly detection failed for user {}: {}", userId, e.getMessage());
+                }
+            }
+            return created;
+        }
+    }
+
+    /** Picks up the claimed row's unfinished run, or starts a new one on it. */
+    private SweepCheckpoint startOrResume() {
+        SweepCheckpoint checkpoint = checkpointRepository.findById(JOB).orElseThrow();
+        if (checkpoint.getCompletedAt() == null && isResumable(checkpoint)) {
+            return checkpoint;
+        }
+        if (checkpoint.getCompletedAt() != null) {
+            lastCompletedAt = checkpoint.getCompletedAt();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        checkpoint.setRunStartedAt(now);
+        checkpoint.setLastUserId(null);
+        checkpoint.setUsersProcessed(0);
+        checkpoint.setAnomaliesCreated(0);
+        checkpoint.setCompletedAt(null);
+        checkpoint.setUpdatedAt(now);
+        return checkpointRepository.save(checkpoint);
+    }
+
+    private static boolean isResumable(SweepCheckpoint checkpoint) {
+        return checkpoint.getRunStartedAt().isAfter(LocalDateTime.now().minus(MAX_RESUME_AGE));
+    }
+
+    private void updateThroughput(long users, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        throughput = seconds > 0 ? users / seconds : 0;
+    }
+
+    private double lagSeconds() {
+        LocalDateTime completed = lastCompletedAt;
+        return completed == null ? Double.NaN : Duration.between(completed, LocalDateTime.now()).toSeconds();
+    }
+
+    private record Partition(UUID lastUserId, int users, CompletableFuture<Integer> result) {}
+
+    /** Thrown when the claim could not be renewed; the ranges still running finish. */
+    private static final class ClaimLostException extends RuntimeException {
+
+        private final UUID lastUserId;
+
+        private ClaimLostException(UUID lastUserId) {
+            super(null, null, false, false);
+            this.lastUserId = lastUserId;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.enums.AccountLinkStatus;
+import com.pathwise.backend.event.CardLinkRequestedEvent;
+import com.pathwise.backend.repository.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Connects cards saved by {@link PlaidService#linkCard} to Plaid in the background,
+ * so the link request neither holds a request thread nor a database connection
+ * while Plaid prepares the item.
+ *
+ * The sandbox item is created first; fetching its account and waiting for its
+ * transactions to become ready are independent and run concurrently on virtual
+ * threads. The account turns ACTIVE together with its first sync, or FAILED if any
+ * step fails. Links cut short by a restart are picked up again at startup.
+ *
+ * Every node resumes links at startup, so a link is first claimed: one UPDATE
+ * moves it from PENDING to LINKING, and only the node whose UPDATE matched runs
+ * it. A claim older than pathwise.plaid.link.claim-timeout belongs to a node that
+ * died mid-link and may be taken over.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class CardLinkJob {
+
+    private static final String FAILURE_MESSAGE = "Could not connect the card to the bank, please try again";
+
+    private final PlaidService plaidService;
+    private final AccountRepository accountRepository;
+    private final Duration readinessTimeout;
+    private final Duration claimTimeout;
+
+    public CardLinkJob(PlaidService plaidService, AccountRepository accountRepository,
+                       @Value("${pathwise.plaid.link.readiness-timeout:60s}") Duration readinessTimeout,
+                       @Value("${pathwise.plaid.link.claim-timeout:10m}") Duration claimTimeout) {
+        this.plaidService = plaidService;
+        this.accountRepository = accountRepository;
+        this.readinessTimeout = readinessTimeout;
+        this.claimTimeout = claimTimeout;
+    }
+
+    /**
+     * Links the card once the request that saved it has committed.
+     *
+     * @param event Card saved as a PENDING account
+     */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCardLinkRequested(CardLinkRequestedEvent event) {
+        link(event.accountId());
+    }
+
+    /** Resumes links that the last shutdown interrupted. */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        for (UUID accountId : accountRepository.findIdsOfUnclaimedLinks(LocalDateTime.now().minus(claimTimeout))) {
+            log.info("Resuming card link for account {}", accountId);
+            link(accountId);
+        }
+    }
+
+    /**
+     * Runs one link unless another node has claimed it: creates the item, then
+     * fetches its account while waiting for its transactions, then stores both.
+     *
+     * @param accountId Pending account
+     */
+    void link(UUID accountId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (accountRepository.claimLink(accountId, now, now.minus(claimTimeout)) == 0) {
+            log.info("Card link for account {} is claimed elsewhere or no longer pending", accountId);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            PlaidService.SandboxItem item = plaidService.createSandboxItem();
+
+            Future<PlaidService.ItemAccount> itemAccount =
+                    executor.submit(() -> plaidService.fetchItemAccount(item.accessToken()));
+            Future<Boolean> ready =
+                    executor.submit(() -> plaidService.awaitTransactionsReady(item.accessToken(), readinessTimeout));
+
+            if (!ready.get()) {
+                // Whatever arrives later is picked up by the next sync
+                log.warn("Transactions for account {} not ready after {}, storing the first sync as is",
+                        accountId, readinessTimeout);
+            }
+            plaidService.completeCardLink(accountId, item, itemAccount.get());
+            log.info("Card link for account {} completed in {} ms", accountId, (System.nanoTime() - start) / 1_000_000);
+        } catch (InterruptedException e) {
+            // Back to PENDING; resumed at the next startup
+            Thread.currentThread().interrupt();
+            log.warn("Card link for account {} interrupted", accountId);
+            accountRepository.releaseLink(accountId);
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Card link for account {} failed: {}", accountId, cause.getMessage());
+            plaidService.markCardLinkFailed(accountId, FAILURE_MESSAGE);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.repository.TransactionCategoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transaction categories by name, held in memory so that categorizing a
+ * transaction or an anomaly needs no query. The table has about one row per
+ * category the LLM knows, loaded when the application starts.
+ *
+ * A name not held yet is read through from the database, since another node may
+ * have created it, and {@link #getOrCreate} creates it when it does not exist
+ * there either. A name {@link #find} does not find is remembered as missing for
+ * pathwise.categories.miss-ttl, so repeated lookups of it cost one query; a
+ * create on this node forgets the miss at once, one on another node is seen once
+ * the miss expires. The create commits in its own transaction, so a category is held
+ * only once its row is there to stay; when two threads or nodes create the same
+ * name at once, the unique constraint on the name keeps one row and the loser
+ * reads the winner's. Categories are never deleted, so held ones never go stale.
+ *
+ * Each held category carries its icon and color, assigned from the name when it
+ * is created. The entities are shared and must not be modified.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class CategoryRegistry {
+
+    // Names the LLM made up and nobody created; bounded, as they are not ours to choose
+    private static final int MAX_MISSES = 1000;
+
+    private final TransactionCategoryRepository categoryRepository;
+    private final TransactionTemplate newTransaction;
+    private final Map<String, TransactionCategory> byName = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> misses;
+
+    public CategoryRegistry(TransactionCategoryRepository categoryRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${pathwise.categories.miss-ttl:30s}") Duration missTtl) {
+        this.categoryRepository = categoryRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(MAX_MISSES)
+                .expireAfterWrite(missTtl)
+                .build();
+    }
+
+    /** Loads every category at startup. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (TransactionCategory category : categoryRepository.findAll()) {
+            byName.putIfAbsent(category.getName(), category);
+        }
+        log.info("Loaded {} transaction categories", byName.size());
+    }
+
+    /**
+     * Returns the category with this name, creating it if there is none. Call it
+     * outside write transactions where possible: a create takes a connection of
+     * its own.
+     *
+     * @param name Category name
+     * @return The category, or null for a null name
+     */
+    public TransactionCategory getOrCreate(String name) {
+        if (name == null) return null;
+        TransactionCategory held = byName.get(name);
+        if (held != null) return held;
+        held = hold(findOrCreate(name));
+        misses.invalidate(name);
+        return held;
+    }
+
+    /**
+     * Returns the category with this name, if it exists. A category created on
+     * another node after a miss shows up once the miss expires.
+     *
+     * @param name Category name
+     * @return The category
+     */
+    public Optional<TransactionCategory> find(String name) {
+        if (name == null) return Optional.empty();
+        TransactionCategory held = byName.get(name);
+        if (held != null) return Optional.of(held);
+        if (misses.getIfPresent(name) != null) return Optional.empty();
+        Optional<TransactionCategory> found = categoryRepository.findByName(name).map(this::hold);
+        if (found.isEmpty()) misses.put(name, Boolean.TRUE);
+        return found;
+    }
+
+    /** Holds a category unless another thread got there first, and returns the one held. */
+    private TransactionCategory hold(TransactionCategory category) {
+        TransactionCategory raced = byName.putIfAbsent(category.getName(), category);
+        return raced != null ? raced : category;
+    }
+
+    private TransactionCategory findOrCreate(String name) {
+        try {
+            return newTransaction.execute(status -> categoryRepository.findByName(name)
+                    .orElseGet(() -> {
+                        log.info("Creating transaction category {}", name);
+                        return categoryRepository.saveAndFlush(TransactionCategory.builder()
+                                .name(name)
+                                .icon(iconOf(name))
+                                .colorHex(colorOf(name))
+                                .build());
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently; the unique name kept the other row
+            return newTransaction.execute(status -> categoryRepository.findByName(name)).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Returns an emoji icon for a category.
+     *
+     * @param category Category name
+     * @return Emoji string
+     */
+    static String iconOf(String category) {
+        return switch (category.toUpperCase()) {
+            case "FOOD & DINING" -> "🍔";
+            case "TRANSPORT" -> "🚗";
+            case "SHOPPING" -> "🛍️";
+            case "ENTERTAINMENT" -> "🎬";
+            case "HEALTH" -> "🏥";
+            case "UTILITIES" -> "💡";
+            case "EDUCATION" -> "📚";
+            case "TRAVEL" -> "✈️";
+            default -> "💳";
+        };
+    }
+
+    /**
+     * Returns a color hex code for a category.
+     *
+     * @param category Category name
+     * @return Color hex string
+     */
+    static String colorOf(String category) {
+        return switch (category.toUpperCase()) {
+            case "FOOD & DINING" -> "#FF6B6B";
+            case "TRANSPORT" -> "#4ECDC4";
+            case "SHOPPING" -> "#45B7D1";
+            case "ENTERTAINMENT" -> "#96CEB4";
+            case "HEALTH" -> "#FFEAA7";
+            case "UTILITIES" -> "#DDA0DD";
+            case "EDUCATION" -> "#74B9FF";
+            case "TRAVEL" -> "#A29BFE";
+            default -> "#95A5A6";
+        };
+    }
+}
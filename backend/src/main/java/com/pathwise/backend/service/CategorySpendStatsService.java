@@ -0,0 +1,243 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.CategorySpendStats;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.CategorySpendStatsRepository;
+import com.pathwise.backend.repository.SpendSample;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the category_spend_stats table: running per user and category
+ * statistics of debit amounts (Welford mean/variance, EWMA, this month's count,
+ * total and peak deviation). Each transaction is scored against the statistics
+ * before it and then folded in, both in constant time; {@link #rebuild(UUID)}
+ * replays a user's debits from scratch.
+ *
+ * Transactions that Plaid modifies or removes are taken back out with
+ * {@link #removeTransactions}. Mean, variance and month totals are reversed
+ * exactly; the EWMA cannot be, and is left until the next rebuild.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategorySpendStatsService {
+
+    /** Weight of the newest amount in the EWMA. */
+    static final double EWMA_ALPHA = 0.2;
+
+    /** Amounts a category needs before its transactions are scored. */
+    static final int MIN_SAMPLES = 8;
+
+    /** Lower bound of the standard deviation as a fraction of the mean, so near-constant series still score. */
+    static final double MIN_RELATIVE_STD_DEV = 0.1;
+
+    private final CategorySpendStatsRepository statsRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Scores and folds newly stored debits into the user's statistics, oldest first.
+     * Joins the caller's transaction, like the spend rollup.
+     *
+     * @param user Owner of the transactions
+     * @param transactions Transactions that were just inserted
+     */
+    @Transactional
+    public void addTransactions(User user, Collection<Transaction> transactions) {
+        List<SpendSample> samples = debitSamples(transactions);
+        if (samples.isEmpty()) return;
+
+        statsRepository.saveAll(apply(user, statsByCategory(user.getId()), samples));
+    }
+
+    /**
+     * Takes stored debits back out of the user's statistics, with the amounts,
+     * dates and categories they were folded in with. Call it before a transaction
+     * is changed or deleted. Joins the caller's transaction.
+     *
+     * @param user Owner of the transactions
+     * @param transactions Transactions about to be modified or deleted
+     */
+    @Transactional
+    public void removeTransactions(User user, Collection<Transaction> transactions) {
+        List<SpendSample> samples = debitSamples(transactions);
+        if (samples.isEmpty()) return;
+
+        Map<String, CategorySpendStats> byCategory = statsByCategory(user.getId());
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, CategorySpendStats> touched = new HashMap<>();
+        for (SpendSample sample : samples) {
+            CategorySpendStats stats = byCategory.get(sample.category());
+            // Stored before the statistics existed; the rebuild left it out too
+            if (stats == null || stats.getSampleCount() == 0) continue;
+            remove(stats, sample);
+            stats.setUpdatedAt(now);
+            touched.put(sample.category(), stats);
+        }
+        statsRepository.saveAll(touched.values());
+    }
+
+    /**
+     * Replaces a user's statistics with ones replayed from all of their debits.
+     * Holds the user's account locks first, like the rollup rebuild.
+     *
+     * @param userId User to rebuild
+     * @return Number of category rows written
+     */
+    @Transactional
+    public int rebuild(UUID userId) {
+        accountRepository.lockAllByUserId(userId);
+        statsRepository.deleteByUserId(userId);
+
+        User user = userRepository.getReferenceById(userId);
+        Collection<CategorySpendStats> rows = apply(user, new HashMap<>(),
+                transactionRepository.findDebitSamplesByUserId(userId));
+        statsRepository.saveAll(rows);
+
+        log.debug("Rebuilt {} category statistics rows for user {}", rows.size(), userId);
+        return rows.size();
+    }
+
+    private Map<String, CategorySpendStats> statsByCategory(UUID userId) {
+        return statsRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(CategorySpendStats::getCategory, Function.identity()));
+    }
+
+    private static List<SpendSample> debitSamples(Collection<Transaction> transactions) {
+        return transactions.stream()
+                .filter(t -> t.getType() == TransactionType.DEBIT)
+                .sorted(Comparator.comparing(Transaction::getTransactionDate))
+                .map(t -> new SpendSample(t.getId(),
+                        t.getCategory() != null ? t.getCategory().getName() : MonthlySpendRollupService.UNCATEGORIZED,
+                        t.getAmount(), t.getTransactionDate()))
+                .toList();
+    }
+
+    private Collection<CategorySpendStats> apply(User user, Map<String, CategorySpendStats> byCategory,
+                                                 List<SpendSample> samples) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, CategorySpendStats> touched = new HashMap<>();
+        for (SpendSample sample : samples) {
+            CategorySpendStats stats = byCategory.computeIfAbsent(sample.category(), c ->
+                    CategorySpendStats.builder().user(user).category(c).build());
+            add(stats, sample);
+            stats.setUpdatedAt(now);
+            touched.put(sample.category(), stats);
+        }
+        return touched.values();
+    }
+
+    /**
+     * Scores a sample against the statistics, then folds it in.
+     */
+    static void add(CategorySpendStats stats, SpendSample sample) {
+        double amount = sample.amount().doubleValue();
+        double score = score(stats, amount);
+
+        // Month counters follow the latest month seen; late arrivals only feed the running statistics
+        LocalDate month = sample.date().withDayOfMonth(1);
+        if (stats.getMonthStart() == null || month.isAfter(stats.getMonthStart())) {
+            stats.setMonthStart(month);
+            stats.setMonthCount(0);
+            stats.setMonthTotal(BigDecimal.ZERO);
+            stats.setMonthPeakScore(null);
+            stats.setMonthPeakAmount(null);
+            stats.setMonthPeakTransactionId(null);
+        }
+        if (month.equals(stats.getMonthStart())) {
+            stats.setMonthCount(stats.getMonthCount() + 1);
+            stats.setMonthTotal(stats.getMonthTotal().add(sample.amount()));
+            if (!Double.isNaN(score) && (stats.getMonthPeakScore() == null || score > stats.getMonthPeakScore())) {
+                stats.setMonthPeakScore(score);
+                stats.setMonthPeakAmount(sample.amount());
+                stats.setMonthPeakTransactionId(sample.transactionId());
+            }
+        }
+
+        // Welford's update of the running mean and sum of squared deviations
+        long n = stats.getSampleCount() + 1;
+        double delta = amount - stats.getMean();
+        double mean = stats.getMean() + delta / n;
+        stats.setM2(stats.getM2() + delta * (amount - mean));
+        stats.setMean(mean);
+        stats.setSampleCount(n);
+        stats.setEwma(n == 1 ? amount : EWMA_ALPHA * amount + (1 - EWMA_ALPHA) * stats.getEwma());
+    }
+
+    /**
+     * Takes a sample that was folded in back out: the inverse of {@link #add} for
+     * the mean, variance and month counters. When the sample was the month's peak,
+     * the peak is cleared rather than pointing at a row that is going away; the
+     * month's other scores are not kept, so the next rebuild restores it.
+     */
+    static void remove(CategorySpendStats stats, SpendSample sample) {
+        LocalDate month = sample.date().withDayOfMonth(1);
+        if (month.equals(stats.getMonthStart())) {
+            stats.setMonthCount(Math.max(stats.getMonthCount() - 1, 0));
+            stats.setMonthTotal(stats.getMonthTotal().subtract(sample.amount()).max(BigDecimal.ZERO));
+        }
+        if (sample.transactionId() != null && sample.transactionId().equals(stats.getMonthPeakTransactionId())) {
+            stats.setMonthPeakScore(null);
+            stats.setMonthPeakAmount(null);
+            stats.setMonthPeakTransactionId(null);
+        }
+
+        // Welford's update run backwards
+        long n = stats.getSampleCount() - 1;
+        if (n == 0) {
+            stats.setSampleCount(0);
+            stats.setMean(0);
+            stats.setM2(0);
+            stats.setEwma(0);
+            return;
+        }
+        double amount = sample.amount().doubleValue();
+        double mean = (stats.getSampleCount() * stats.getMean() - amount) / n;
+        stats.setM2(Math.max(stats.getM2() - (amount - mean) * (amount - stats.getMean()), 0));
+        stats.setMean(mean);
+        stats.setSampleCount(n);
+    }
+
+    /**
+     * Deviation of an amount from the category's usual spending, in standard deviations:
+     * the smaller of its distance above the long-run mean and above the recent EWMA, so a
+     * category whose spending has settled at a higher level is not flagged for staying there.
+     *
+     * @return The score, or NaN while the category has fewer than {@link #MIN_SAMPLES} amounts
+     */
+    static double score(CategorySpendStats stats, double amount) {
+        if (stats.getSampleCount() < MIN_SAMPLES) return Double.NaN;
+        double stdDev = Math.max(Math.sqrt(variance(stats)), MIN_RELATIVE_STD_DEV * Math.abs(stats.getMean()));
+        if (stdDev == 0) return Double.NaN;
+        return Math.min(amount - stats.getMean(), amount - stats.getEwma()) / stdDev;
+    }
+
+    /** Sample variance of the amounts folded in so far. */
+    static double variance(CategorySpendStats stats) {
+        return stats.getSampleCount() < 2 ? 0 : stats.getM2() / (stats.getSampleCount() - 1);
+    }
+}
@@ -1,6 +1,7 @@
 package com.pathwise.backend.service;
 
 import com.pathwise.backend.dto.RegisterRequest;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.exception.UserNotFoundException;
 import com.pathwise.backend.model.MonthlyExpense;
 import com.pathwise.backend.model.User;
@@ -25,6 +26,7 @@ public class FinancialProfileService {
     private final MonthlyExpenseRepository expenseRepository;
     private final GoalRepository           goalRepository;
     private final UserRepository           userRepository;
+    private final ResourceVersions         resourceVersions;
 
     // ── Expense management ────────────────────────────────────────────────────
 
@@ -68,6 +70,8 @@ public class FinancialProfileService {
         }
         expenseRepository.deleteByUserId(userId);
         saveExpenses(userId, items);
+        // Expenses change the disposable income shown with the goals and on the profile
+        resourceVersions.bump(userId, VersionedResource.GOALS, VersionedResource.PROFILE);
     }
 
     // ── Disposable income helpers (used by GoalService to check limits) ───────
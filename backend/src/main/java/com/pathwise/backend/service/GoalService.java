@@ -3,6 +3,7 @@ package com.pathwise.backend.service;
 import com.pathwise.backend.dto.GoalRequest;
 import com.pathwise.backend.dto.GoalResponse;
 import com.pathwise.backend.enums.GoalStatus;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.exception.GoalNotFoundException;
 import com.pathwise.backend.exception.SavingsLimitExceededException;
 import com.pathwise.backend.exception.UnauthorizedAccessException;
@@ -31,6 +32,7 @@ public class GoalService {
     private final GoalRepository goalRepository;
     private final UserRepository userRepository;
     private final FinancialProfileService financialProfileService;
+    private final ResourceVersions resourceVersions;
 
     public FinancialSnapshot getFinancialSnapshot() {
         User user = getCurrentUser();
@@ -64,15 +66,19 @@ public class GoalService {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        return toResponse(goalRepository.save(goal), user);
+        Goal saved = goalRepository.save(goal);
+        bumpGoalVersions(user);
+        return toResponse(saved, user);
     }
 
     // ── Read ──────────────────────────────────────────────────────────────────
 
     public List<GoalResponse> getAllGoals() {
         User user = getCurrentUser();
+        // The snapshot is per user, not per goal: compute it once for the whole list
+        FinancialSnapshot snap = financialProfileService.getSnapshot(user);
         return goalRepository.findByUserId(user.getId()).stream()
-                .map(g -> toResponse(g, user))
+                .map(g -> toResponse(g, snap))
                 .collect(Collectors.toList());
     }
 
@@ -111,7 +117,9 @@ public class GoalService {
         goal.setStatus(calculateStatus(goal));
         goal.setUpdatedAt(LocalDateTime.now());
 
-        return toResponse(goalRepository.save(goal), user);
+        Goal saved = goalRepository.save(goal);
+        bumpGoalVersions(user);
+        return toResponse(saved, user);
     }
 
     // ── Delete ────────────────────────────────────────────────────────────────
@@ -119,6 +127,12 @@ public class GoalService {
     public void deleteGoal(UUID goalId) {
         User user = getCurrentUser();
         goalRepository.delete(getOwnedGoal(user, goalId));
+        bumpGoalVersions(user);
+    }
+
+    // Goals feed the goal list and, through the savings total, the profile snapshot
+    private void bumpGoalVersions(User user) {
+        resourceVersions.bump(user.getId(), VersionedResource.GOALS, VersionedResource.PROFILE);
     }
 
     // ── Savings limit check ───────────────────────────────────────────────────
@@ -191,6 +205,10 @@ public class GoalService {
     // ── Response mapping ──────────────────────────────────────────────────────
 
     private GoalResponse toResponse(Goal goal, User user) {
+        return toResponse(goal, financialProfileService.getSnapshot(user));
+    }
+
+    private GoalResponse toResponse(Goal goal, FinancialSnapshot snap) {
         double progress = 0.0;
         if (goal.getTargetAmount() != null
                 && goal.getTargetAmount().compareTo(BigDecimal.ZERO) > 0
@@ -204,8 +222,6 @@ public class GoalService {
             progress = Math.max(0.0, Math.min(100.0, progress));
         }
 
-        FinancialSnapshot snap = financialProfileService.getSnapshot(user);
-
         return GoalResponse.builder()
                 .id(goal.getId())
                 .name(goal.getName())
@@ -0,0 +1,179 @@
+package com.pathwise.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Plaid institutions supported for linking, indexed by id and shared by all
+ * requests; owned by {@link PlaidService}, which supplies the /institutions/get
+ * call.
+ *
+ * Reads never block once a list is held: a list older than the TTL is still
+ * served while one background refresh replaces it (stale-while-revalidate), and
+ * concurrent readers share that single refresh. Only the very first read, with
+ * nothing held and no snapshot on disk, waits for it. Every fetched list is
+ * written to a snapshot file, so a restarted node serves institutions at once
+ * and refreshes in the background. When Plaid fails, the list held (or the
+ * fallback list when there is none) is served and the refresh retried after
+ * {@link #RETRY_DELAY}.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+final class InstitutionRegistry {
+
+    /** How long after a failed refresh the next one is tried. */
+    static final Duration RETRY_DELAY = Duration.ofMinutes(5);
+
+    /** A Plaid institution with its products and countries. */
+    record Institution(String id, String name, List<String> products, List<String> countryCodes) {}
+
+    /** The snapshot file's content. */
+    private record Stored(Instant fetchedAt, List<Institution> institutions) {}
+
+    private record Snapshot(List<Institution> institutions, Map<String, Institution> byId, Instant refreshAfter) {
+
+        static Snapshot of(List<Institution> institutions, Instant refreshAfter) {
+            return new Snapshot(List.copyOf(institutions),
+                    institutions.stream().collect(Collectors.toUnmodifiableMap(Institution::id,
+                            Function.identity(), (first, second) -> first)),
+                    refreshAfter);
+        }
+
+        boolean isStale() {
+            return Instant.now().isAfter(refreshAfter);
+        }
+    }
+
+    private final Supplier<List<Institution>> loader;
+    private final Supplier<List<Institution>> fallback;
+    private final Path snapshotFile;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Snapshot>> refreshing = new AtomicReference<>();
+
+    /**
+     * @param loader Fetches the institutions from Plaid; may throw
+     * @param fallback Institutions to serve when Plaid fails and nothing is held
+     * @param snapshotFile Where the last fetched list is kept across restarts
+     * @param ttl How long a fetched list is served before it is refreshed
+     */
+    InstitutionRegistry(Supplier<List<Institution>> loader, Supplier<List<Institution>> fallback,
+                        Path snapshotFile, ObjectMapper objectMapper, Duration ttl) {
+        this.loader = loader;
+        this.fallback = fallback;
+        this.snapshotFile = snapshotFile;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        readSnapshotFile();
+    }
+
+    /** All supported institutions. */
+    List<Institution> all() {
+        return snapshot().institutions();
+    }
+
+    /** The institution with this id, if supported. */
+    Optional<Institution> byId(String institutionId) {
+        return Optional.ofNullable(snapshot().byId().get(institutionId));
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            // Nothing to serve yet; concurrent first readers wait for the same fetch
+            return refresh().join();
+        }
+        if (snapshot.isStale()) {
+            refresh();
+        }
+        return snapshot;
+    }
+
+    /** Starts a refresh unless one is running, and returns the running one. */
+    private CompletableFuture<Snapshot> refresh() {
+        while (true) {
+            CompletableFuture<Snapshot> running = refreshing.get();
+            if (running != null) return running;
+
+            CompletableFuture<Snapshot> refresh = new CompletableFuture<>();
+            if (refreshing.compareAndSet(null, refresh)) {
+                Thread.ofVirtual().name("institutions-refresh").start(() -> {
+                    try {
+                        refresh.complete(load());
+                    } catch (Throwable e) {
+                        refresh.completeExceptionally(e);
+                    } finally {
+                        refreshing.set(null);
+                    }
+                });
+                return refresh;
+            }
+        }
+    }
+
+    private Snapshot load() {
+        Snapshot held = current.get();
+        // A refresh that finished just before this one started already did the work
+        if (held != null && !held.isStale()) return held;
+
+        Snapshot loaded;
+        try {
+            List<Institution> institutions = loader.get();
+            Instant fetchedAt = Instant.now();
+            loaded = Snapshot.of(institutions, fetchedAt.plus(ttl));
+            writeSnapshotFile(new Stored(fetchedAt, loaded.institutions()));
+            log.info("Refreshed {} Plaid institutions", institutions.size());
+        } catch (Exception e) {
+            log.error("Failed to fetch institutions: {}", e.getMessage());
+            List<Institution> institutions = held != null ? held.institutions() : fallback.get();
+            loaded = Snapshot.of(institutions, Instant.now().plus(RETRY_DELAY));
+        }
+        current.set(loaded);
+        return loaded;
+    }
+
+    private void readSnapshotFile() {
+        if (!Files.isRegularFile(snapshotFile)) return;
+        try {
+            Stored stored = objectMapper.readValue(snapshotFile.toFile(), Stored.class);
+            // An old snapshot is served as stale and refreshed by the first read
+            current.set(Snapshot.of(stored.institutions(), stored.fetchedAt().plus(ttl)));
+            log.info("Loaded {} Plaid institutions fetched at {} from {}",
+                    stored.institutions().size(), stored.fetchedAt(), snapshotFile);
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable institution snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    private void writeSnapshotFile(Stored stored) {
+        try {
+            Path directory = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            // Written aside and moved into place, so a crash never leaves half a file behind
+            Path temp = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(temp.toFile(), stored);
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write institution snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+}
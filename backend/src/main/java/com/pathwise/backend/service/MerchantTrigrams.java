@@ -0,0 +1,76 @@
+package com.pathwise.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * In-memory port of PostgreSQL pg_trgm word similarity.
+ * Used by the merchant search when the database has no trigram support (H2 dev/test),
+ * so fuzzy results match what {@code word_similarity()} returns in production.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+final class MerchantTrigrams {
+
+    /** Same default as pg_trgm.word_similarity_threshold. */
+    static final double WORD_SIMILARITY_THRESHOLD = 0.6;
+
+    private MerchantTrigrams() {}
+
+    /**
+     * Greatest similarity between the trigrams of the query and any
+     * continuous extent of the trigrams of the target, like
+     * {@code word_similarity(query, target)}.
+     *
+     * @param query Search term typed by the user
+     * @param target Merchant name
+     * @return Similarity between 0 and 1
+     */
+    static double wordSimilarity(String query, String target) {
+        Set<String> queryTrigrams = new HashSet<>(trigrams(query));
+        List<String> targetTrigrams = trigrams(target);
+        if (queryTrigrams.isEmpty() || targetTrigrams.isEmpty()) return 0;
+
+        double best = 0;
+        for (int start = 0; start < targetTrigrams.size(); start++) {
+            // Extents must start on a shared trigram to score anything
+            if (!queryTrigrams.contains(targetTrigrams.get(start))) continue;
+
+            Set<String> extent = new HashSet<>();
+            int shared = 0;
+            for (int end = start; end < targetTrigrams.size(); end++) {
+                String trigram = targetTrigrams.get(end);
+                if (extent.add(trigram) && queryTrigrams.contains(trigram)) shared++;
+                double similarity = (double) shared / (queryTrigrams.size() + extent.size() - shared);
+                if (similarity > best) best = similarity;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Splits text into trigrams the way pg_trgm does: lower-cased
+     * alphanumeric words, each padded with two leading spaces and one trailing space.
+     * Trigrams are returned in order of appearance without duplicates within a word.
+     */
+    static List<String> trigrams(String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) return result;
+
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            String padded = "  " + word + " ";
+            Set<String> wordTrigrams = new LinkedHashSet<>();
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                wordTrigrams.add(padded.substring(i, i + 3));
+            }
+            result.addAll(wordTrigrams);
+        }
+        return result;
+    }
+}
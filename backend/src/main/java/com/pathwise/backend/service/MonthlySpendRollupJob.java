@@ -0,0 +1,87 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.CategorySpendStatsRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Backfills and reconciles the monthly spend rollup and the category spend statistics.
+ * On startup an empty table is built from existing transactions; a weekly
+ * run rebuilds every user to correct any drift from the incremental updates,
+ * each under the account locks ingest takes, so a user's syncs wait for it.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonthlySpendRollupJob {
+
+    private final MonthlySpendRollupService rollupService;
+    private final MonthlySpendRollupRepository rollupRepository;
+    private final CategorySpendStatsService statsService;
+    private final CategorySpendStatsRepository statsRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+
+    /**
+     * Builds the rollup and the statistics once when their table is empty but
+     * transactions exist, e.g. right after the V13 and V14 migrations.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (transactionRepository.count() == 0) return;
+        if (rollupRepository.count() == 0) {
+            log.info("Spend rollup is empty, backfilling from transactions");
+            rebuildAll();
+        } else if (statsRepository.count() == 0) {
+            log.info("Category spend statistics are empty, backfilling from transactions");
+            rebuildAllStats();
+        }
+    }
+
+    /**
+     * Rebuilds the rollup and the statistics of every user with a linked account,
+     * one transaction per user and table.
+     * Runs Sundays at 03:30 Bahrain time.
+     */
+    @Scheduled(cron = "${pathwise.rollup.rebuild-cron:0 30 3 * * SUN}", zone = "Asia/Bahrain")
+    public void rebuildAll() {
+        int users = 0;
+        int rows = 0;
+        for (UUID userId : accountRepository.findAllUserIds()) {
+            try {
+                rows += rollupService.rebuild(userId);
+                users++;
+            } catch (Exception e) {
+                log.error("Failed to rebuild spend rollup for user {}: {}", userId, e.getMessage());
+            }
+        }
+        log.info("Rebuilt spend rollup for {} users ({} rows)", users, rows);
+        rebuildAllStats();
+    }
+
+    private void rebuildAllStats() {
+        int users = 0;
+        int rows = 0;
+        for (UUID userId : accountRepository.findAllUserIds()) {
+            try {
+                rows += statsService.rebuild(userId);
+                users++;
+            } catch (Exception e) {
+                log.error("Failed to rebuild category spend statistics for user {}: {}", userId, e.getMessage());
+            }
+        }
+        log.info("Rebuilt category spend statistics for {} users ({} rows)", users, rows);
+    }
+}
@@ -0,0 +1,134 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.MonthlySpendRollup;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the monthly_spend_rollup table: per user, month, category and type
+ * totals of the transactions table. Ingest adds to it incrementally inside the
+ * ingest transaction; {@link #rebuild(UUID)} recomputes a user's rows from scratch.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonthlySpendRollupService {
+
+    /** Category name used for transactions without a category. */
+    public static final String UNCATEGORIZED = "OTHER";
+
+    private final MonthlySpendRollupRepository rollupRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+
+    private record Key(LocalDate monthStart, String category, TransactionType type) {}
+
+    /**
+     * Adds newly stored transactions to the user's rollup rows. Joins the caller's
+     * transaction, so the rollup commits or rolls back together with the rows.
+     *
+     * @param user Owner of the transactions
+     * @param transactions Transactions that were just inserted
+     */
+    @Transactional
+    public void addTransactions(User user, Collection<Transaction> transactions) {
+        apply(user, transactions, 1);
+    }
+
+    /**
+     * Takes transactions out of the user's rollup rows, before they are deleted or
+     * changed. Joins the caller's transaction like {@link #addTransactions}.
+     *
+     * @param user Owner of the transactions
+     * @param transactions Transactions as they were added to the rollup
+     */
+    @Transactional
+    public void removeTransactions(User user, Collection<Transaction> transactions) {
+        apply(user, transactions, -1);
+    }
+
+    private void apply(User user, Collection<Transaction> transactions, int sign) {
+        Map<Key, List<Transaction>> groups = transactions.stream()
+                .collect(Collectors.groupingBy(t -> new Key(
+                        t.getTransactionDate().withDayOfMonth(1),
+                        t.getCategory() != null ? t.getCategory().getName() : UNCATEGORIZED,
+                        t.getType())));
+
+        LocalDateTime now = LocalDateTime.now();
+        groups.forEach((key, group) -> {
+            BigDecimal amount = group.stream()
+                    .map(Transaction::getAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            if (sign < 0) amount = amount.negate();
+
+            int updated = rollupRepository.increment(user.getId(), key.monthStart(), key.category(),
+                    key.type(), amount, sign * group.size(), now);
+            if (updated == 0 && sign > 0) {
+                rollupRepository.save(MonthlySpendRollup.builder()
+                        .user(user)
+                        .monthStart(key.monthStart())
+                        .category(key.category())
+                        .type(key.type())
+                        .totalAmount(amount)
+                        .transactionCount(group.size())
+                        .updatedAt(now)
+                        .build());
+            }
+        });
+    }
+
+    /**
+     * Replaces a user's rollup rows with totals recomputed from the transactions table.
+     * Holds the user's account locks first, the ones ingest takes, so no sync adds
+     * to the rows while they are deleted and written again.
+     *
+     * @param userId User to rebuild
+     * @return Number of rollup rows written
+     */
+    @Transactional
+    public int rebuild(UUID userId) {
+        accountRepository.lockAllByUserId(userId);
+        rollupRepository.deleteByUserId(userId);
+
+        User user = userRepository.getReferenceById(userId);
+        LocalDateTime now = LocalDateTime.now();
+        List<MonthlySpendRollup> rows = transactionRepository
+                .sumByUserIdGroupedByMonthCategoryAndType(userId).stream()
+                .map(total -> MonthlySpendRollup.builder()
+                        .user(user)
+                        .monthStart(total.monthStart())
+                        .category(total.category())
+                        .type(total.type())
+                        .totalAmount(total.total())
+                        .transactionCount(total.count().intValue())
+                        .updatedAt(now)
+                        .build())
+                .toList();
+        rollupRepository.saveAll(rows);
+
+        log.debug("Rebuilt {} spend rollup rows for user {}", rows.size(), userId);
+        return rows.size();
+    }
+}
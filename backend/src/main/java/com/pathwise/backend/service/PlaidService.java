@@ -1,27 +1,36 @@
 package com.pathwise.backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pathwise.backend.dto.CardLinkStatusResponse;
 import com.pathwise.backend.dto.LinkCardRequest;
+import com.pathwise.backend.enums.AccountLinkStatus;
+import com.pathwise.backend.enums.VersionedResource;
+import com.pathwise.backend.event.CardLinkRequestedEvent;
+import com.pathwise.backend.exception.AccountNotFoundException;
 import com.pathwise.backend.exception.UserNotFoundException;
 import com.pathwise.backend.model.*;
 import com.pathwise.backend.repository.*;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.*;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -39,10 +48,11 @@ public class PlaidService {
 
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
-    private final TransactionRepository transactionRepository;
-    private final TransactionCategoryRepository categoryRepository;
     private final RestTemplate restTemplate;
-    private final AICategorizationService aiCategorizationService;
+    private final TransactionIngestPipeline ingestPipeline;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
 
     @Value("${plaid.client-id}")
     private String clientId;
@@ -53,105 +63,74 @@ public class PlaidService {
     @Value("${plaid.env}")
     private String plaidEnv;
 
-    /**
-     * Inner class representing a Plaid institution with its capabilities.
-     */
-    private static class PlaidInstitution {
-        private final String id;
-        private final String name;
-        private final List<String> products;
-        private final List<String> countryCodes;
-
-        public PlaidInstitution(String id, String name, List<String> products, List<String> countryCodes) {
-            this.id = id;
-            this.name = name;
-            this.products = products != null ? products : List.of();
-            this.countryCodes = countryCodes != null ? countryCodes : List.of();
-        }
+    // Overrides the environment's host, e.g. to point at a stub server
+    @Value("${plaid.base-url:}")
+    private String plaidBaseUrl;
 
-        public String getId() { return id; }
-        public String getName() { return name; }
-        public List<String> getProducts() { return products; }
-        public List<String> getCountryCodes() { return countryCodes; }
-    }
+    // Institution registry: how long a fetched list is served and where it is kept across restarts
+    @Value("${pathwise.plaid.institutions.ttl:24h}")
+    private Duration institutionsTtl;
 
-    // Cache for institution data to minimize API calls
-    private List<PlaidInstitution> supportedInstitutions = new ArrayList<>();
-    private Instant lastFetchTime = null;
-    private static final Duration CACHE_DURATION = Duration.ofHours(24);
-    
-    // USD to BHD conversion rate (1 USD = 0.376 BHD)
-    private static final BigDecimal USD_TO_BHD = new BigDecimal("0.376");
-    
-    // Fallback institutions when Plaid API is unavailable
-    private static final List<String> FALLBACK_INSTITUTIONS = Arrays.asList(
-        "ins_39",  // Chase
-        "ins_56",  // Wells Fargo
-        "ins_3",   // Bank of America
-        "ins_109512" // Capital One
-    );
+    @Value("${pathwise.plaid.institutions.snapshot-file:${java.io.tmpdir}/pathwise/plaid-institutions.json}")
+    private Path institutionsSnapshotFile;
+
+    private InstitutionRegistry institutions;
+
+    // Where Plaid sends item webhooks; blank registers none and leaves syncing to the schedule
+    @Value("${pathwise.plaid.webhook.url:}")
+    private String webhookUrl;
+
+    // Transactions per /transactions/sync page (Plaid's maximum) and restarts after a mid-pagination change
+    private static final int SYNC_PAGE_SIZE = 500;
+    private static final int SYNC_MAX_RESTARTS = 3;
+
+    // Backoff between probes while a new item's transactions are not ready
+    private static final long READINESS_FIRST_DELAY_MS = 500;
+    private static final long READINESS_MAX_DELAY_MS = 8000;
 
     // ── INSTITUTION MANAGEMENT ──
 
-    /**
-     * Retrieves supported institutions, either from cache or by refreshing.
-     *
-     * @return List of supported Plaid institutions
-     */
-    private List<PlaidInstitution> getSupportedInstitutions() {
-        if (!supportedInstitutions.isEmpty() && lastFetchTime != null && 
-            Duration.between(lastFetchTime, Instant.now()).compareTo(CACHE_DURATION) < 0) {
-            log.debug("Returning {} cached institutions", supportedInstitutions.size());
-            return supportedInstitutions;
-        }
-        return refreshInstitutionsCache();
+    /** Loads the institution snapshot kept on disk, so institutions are served before Plaid answers. */
+    @PostConstruct
+    void initInstitutions() {
+        institutions = new InstitutionRegistry(this::fetchInstitutions, this::createFallbackInstitutions,
+                institutionsSnapshotFile, objectMapper, institutionsTtl);
     }
 
     /**
-     * Fetches the latest list of supported institutions from Plaid API.
+     * Fetches the institutions that support transactions from Plaid API.
      *
-     * @return Updated list of supported institutions
+     * @return Supported institutions
      */
-    private List<PlaidInstitution> refreshInstitutionsCache() {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("client_id", clientId);
-            requestBody.put("secret", plaidSecret);
-            requestBody.put("count", 500);
-            requestBody.put("offset", 0);
-            requestBody.put("country_codes", List.of("US"));
-
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
-            Map<String, Object> response = restTemplate.postForObject(
-                getPlaidBaseUrl() + "/institutions/get",
-                request,
-                Map.class
-            );
+    private List<InstitutionRegistry.Institution> fetchInstitutions() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
 
-            if (response == null || !response.containsKey("institutions")) {
-                throw new RuntimeException("Invalid response from Plaid");
-            }
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("client_id", clientId);
+        requestBody.put("secret", plaidSecret);
+        requestBody.put("count", 500);
+        requestBody.put("offset", 0);
+        requestBody.put("country_codes", List.of("US"));
 
-            List<Map<String, Object>> institutions = (List<Map<String, Object>>) response.get("institutions");
-            
-            supportedInstitutions = institutions.stream()
-                .map(this::mapToPlaidInstitution)
-                .filter(inst -> inst.getProducts().contains("transactions"))
-                .collect(Collectors.toList());
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
 
-            lastFetchTime = Instant.now();
+        Map<String, Object> response = restTemplate.postForObject(
+            getPlaidBaseUrl() + "/institutions/get",
+            request,
+            Map.class
+        );
 
-        } catch (Exception e) {
-            log.error("Failed to fetch institutions: {}", e.getMessage());
-            supportedInstitutions = createFallbackInstitutions();
-            lastFetchTime = Instant.now();
+        if (response == null || !response.containsKey("institutions")) {
+            throw new RuntimeException("Invalid response from Plaid");
         }
 
-        return supportedInstitutions;
+        List<Map<String, Object>> institutions = (List<Map<String, Object>>) response.get("institutions");
+
+        return institutions.stream()
+            .map(this::mapToPlaidInstitution)
+            .filter(inst -> inst.products().contains("transactions"))
+            .collect(Collectors.toList());
     }
 
     /**
@@ -159,7 +138,7 @@ public class PlaidService {
      *
      * @return Hardcoded list of common institutions
      */
-    private List<PlaidInstitution> createFallbackInstitutions() {
+    private List<InstitutionRegistry.Institution> createFallbackInstitutions() {
         log.warn("Creating fallback institutions list");
         
         Map<String, String> fallbackMap = Map.of(
@@ -170,7 +149,7 @@ public class PlaidService {
         );
 
         return fallbackMap.entrySet().stream()
-            .map(entry -> new PlaidInstitution(
+            .map(entry -> new InstitutionRegistry.Institution(
                 entry.getKey(),
                 entry.getValue(),
                 List.of("transactions"),
@@ -180,12 +159,12 @@ public class PlaidService {
     }
 
     /**
-     * Maps raw API response data to a PlaidInstitution object.
+     * Maps raw API response data to an institution.
      *
      * @param data Raw institution data from Plaid
-     * @return Structured PlaidInstitution object
+     * @return Structured institution
      */
-    private PlaidInstitution mapToPlaidInstitution(Map<String, Object> data) {
+    private InstitutionRegistry.Institution mapToPlaidInstitution(Map<String, Object> data) {
         String id = (String) data.get("institution_id");
         String name = (String) data.get("name");
         
@@ -198,34 +177,20 @@ public class PlaidService {
 
         List<String> countryCodes = (List<String>) data.getOrDefault("country_codes", List.of());
 
-        return new PlaidInstitution(id, name, products, countryCodes);
+        return new InstitutionRegistry.Institution(id, name, List.copyOf(products), List.copyOf(countryCodes));
     }
 
     /**
      * Selects a random institution from the supported list.
      *
-     * @return Randomly selected PlaidInstitution
+     * @return Randomly selected institution
      */
-    private PlaidInstitution getRandomInstitution() {
-        List<PlaidInstitution> institutions = getSupportedInstitutions();
-        
-        if (institutions.isEmpty()) {
-            institutions = createFallbackInstitutions();
+    private InstitutionRegistry.Institution getRandomInstitution() {
+        List<InstitutionRegistry.Institution> supported = institutions.all();
+        if (supported.isEmpty()) {
+            supported = createFallbackInstitutions();
         }
-        
-        List<PlaidInstitution> validInstitutions = institutions.stream()
-            .filter(inst -> inst.getProducts().contains("transactions"))
-            .collect(Collectors.toList());
-        
-        if (validInstitutions.isEmpty()) {
-            validInstitutions = institutions;
-        }
-
-        PlaidInstitution selected = validInstitutions.get(
-            new Random().nextInt(validInstitutions.size())
-        );
-        
-        return selected;
+        return supported.get(ThreadLocalRandom.current().nextInt(supported.size()));
     }
 
     /**
@@ -234,10 +199,8 @@ public class PlaidService {
      * @param institutionId The Plaid institution ID
      * @return Optional containing the institution if found
      */
-    private Optional<PlaidInstitution> getInstitutionById(String institutionId) {
-        return getSupportedInstitutions().stream()
-            .filter(inst -> inst.getId().equals(institutionId))
-            .findFirst();
+    private Optional<InstitutionRegistry.Institution> getInstitutionById(String institutionId) {
+        return institutions.byId(institutionId);
     }
 
     /**
@@ -246,6 +209,7 @@ public class PlaidService {
      * @return Plaid API endpoint URL
      */
     private String getPlaidBaseUrl() {
+        if (!plaidBaseUrl.isBlank()) return plaidBaseUrl;
         return switch (plaidEnv) {
             case "production" -> "https://production.plaid.com";
             case "development" -> "https://development.plaid.com";
@@ -319,6 +283,9 @@ public class PlaidService {
                     account.setBalance(currentBalance.add(monthlySalary));
                     account.setLastSalaryUpdate(now);
                     accountRepository.save(account);
+                    // Balance feeds the analytics and profile; goals are planned from the same month's income
+                    resourceVersions.bump(user.getId(),
+                            VersionedResource.ANALYTICS, VersionedResource.PROFILE, VersionedResource.GOALS);
                     
                     log.info("Added monthly salary {} to account {}. New balance: {}", 
                         monthlySalary, account.getId(), account.getBalance());
@@ -350,6 +317,7 @@ public class PlaidService {
         body.put("language", "en");
         body.put("user", Map.of("client_user_id", user.getId().toString()));
         body.put("products", List.of("transactions"));
+        if (!webhookUrl.isBlank()) body.put("webhook", webhookUrl);
 
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, headers);
 
@@ -366,12 +334,13 @@ public class PlaidService {
 
     /**
      * Exchanges a public token for an access token and saves the account.
+     * Not transactional: the Plaid calls run without a database connection held,
+     * and the account and its first sync are each saved in a short transaction.
      *
      * @param publicToken Plaid public token
      * @param bankId Bahrain bank ID
      * @param institutionName Name of the institution
      */
-    @Transactional
     public void exchangeTokenAndSave(String publicToken, String bankId, String institutionName) {
         User user = getCurrentUser();
 
@@ -426,6 +395,7 @@ public class PlaidService {
                 .user(user)
                 .plaidAccountId((String) plaidAccount.get("account_id"))
                 .plaidAccessToken(accessToken)
+                .plaidItemId((String) response.get("item_id"))
                 .bank(bank)
                 .bankName(bank.getDisplayName())
                 .accountType((String) plaidAccount.get("type"))
@@ -439,76 +409,220 @@ public class PlaidService {
 
         accountRepository.save(account);
         log.info("Account saved for user {} with bank: {}", user.getId(), bank.getDisplayName());
+        // The new balance shows even when the item has no transactions to ingest
+        resourceVersions.bump(user.getId(), VersionedResource.PROFILE, VersionedResource.ANALYTICS);
 
         fetchAndStoreTransactions(accessToken, account);
     }
 
     /**
      * Links a card manually without using Plaid Link.
+     * Saves the card as a PENDING account and returns at once; {@link CardLinkJob}
+     * connects a sandbox item and stores its first sync in the background, and
+     * {@link #getCardLinkStatus} reports how far it got. A card whose earlier link
+     * FAILED is linked again in place.
      *
      * @param request Card linking request containing card details
+     * @return Id of the pending account, which is also the link job's id
      */
     @Transactional
-    public void linkCard(LinkCardRequest request) {
+    public UUID linkCard(LinkCardRequest request) {
         User user = getCurrentUser();
 
-        if (accountRepository.findByUserId(user.getId()).isPresent()) {
+        Optional<Account> existing = accountRepository.findByUserId(user.getId());
+        if (existing.isPresent() && existing.get().getLinkStatus() != AccountLinkStatus.FAILED) {
             throw new IllegalStateException("Account already linked");
         }
 
-        PlaidInstitution randomInstitution = getRandomInstitution();
-        
-        String publicToken = createSandboxPublicToken(randomInstitution.getId());
-        String accessToken = exchangePublicToken(publicToken);
+        Account account = existing.orElseGet(() -> Account.builder().user(user).build());
+        account.setBank(request.getBank());
+        account.setCardType(request.getCardType());
+        account.setCardHolderName(request.getCardHolderName());
+        account.setMaskedNumber("****" + request.getLastFourDigits());
+        account.setExpiryMonth(request.getExpiryMonth());
+        account.setExpiryYear(request.getExpiryYear());
+        account.setBankName(request.getBank().getDisplayName());
+        account.setAccountType(request.getCardType().name().toLowerCase());
+        account.setBalance(BigDecimal.ZERO);
+        account.setCurrency("BHD");
+        // The first month's salary is added with the Plaid balance when the link completes
+        account.setLastSalaryUpdate(LocalDate.now());
+        account.setTotalExpensesToDate(BigDecimal.ZERO);
+        account.setCreatedAt(LocalDateTime.now());
+        account.setLinkStatus(AccountLinkStatus.PENDING);
+        account.setLinkError(null);
+        account.setLinkClaimedAt(null);
+        accountRepository.save(account);
+        // After commit: the profile shows the new card, analytics its reset balance
+        resourceVersions.bump(user.getId(), VersionedResource.PROFILE, VersionedResource.ANALYTICS);
+
+        // Picked up by CardLinkJob once this transaction commits
+        eventPublisher.publishEvent(new CardLinkRequestedEvent(account.getId()));
+        log.info("Card link requested for user {}: {}", user.getId(), request.getBank().getDisplayName());
+        return account.getId();
+    }
+
+    /**
+     * Reports the state of a card link job started by {@link #linkCard}.
+     *
+     * @param jobId Id returned by linkCard
+     * @return PENDING, ACTIVE or FAILED with the reason
+     */
+    @Transactional(readOnly = true)
+    public CardLinkStatusResponse getCardLinkStatus(UUID jobId) {
+        UUID userId = getCurrentUserId();
+        Account account = accountRepository.findById(jobId)
+                .filter(a -> a.getUser().getId().equals(userId))
+                .orElseThrow(() -> new AccountNotFoundException("Card link job not found"));
+        return CardLinkStatusResponse.builder()
+                .jobId(account.getId())
+                .status(account.getLinkStatus().reported().name())
+                .error(account.getLinkError())
+                .build();
+    }
+
+    /** A sandbox Plaid item created for a card link. */
+    public record SandboxItem(String institutionId, String institutionName, String accessToken, String itemId) {}
+
+    /** An item's credentials, as returned by /item/public_token/exchange. */
+    private record ExchangedItem(String accessToken, String itemId) {}
+
+    /** The first account of a Plaid item, as reported by /accounts/get. */
+    public record ItemAccount(String plaidAccountId, BigDecimal currentBalance) {}
+
+    /**
+     * Creates a sandbox item at a random supported institution and exchanges its
+     * public token; the two calls depend on each other and run in sequence.
+     *
+     * @return The item's institution, access token and item id
+     */
+    public SandboxItem createSandboxItem() {
+        InstitutionRegistry.Institution institution = getRandomInstitution();
+        String publicToken = createSandboxPublicToken(institution.id());
+        ExchangedItem item = exchangePublicToken(publicToken);
+        return new SandboxItem(institution.id(), institution.name(), item.accessToken(), item.itemId());
+    }
 
+    /**
+     * Retrieves the id and current balance of an item's account.
+     *
+     * @param accessToken Plaid access token
+     * @return The item's first account
+     */
+    public ItemAccount fetchItemAccount(String accessToken) {
         Map<String, Object> plaidAccount = getPlaidAccount(accessToken);
         Map<String, Object> balances = (Map<String, Object>) plaidAccount.get("balances");
-        BigDecimal plaidBalance = extractAmount(balances.get("current"));
-        
-        // Get monthly salary
-        BigDecimal monthlySalary = user.getMonthlySalary() != null ? user.getMonthlySalary() : BigDecimal.ZERO;
-        
-        // Initial balance = Plaid balance + first month's salary
-        BigDecimal initialBalance = plaidBalance.add(monthlySalary);
+        return new ItemAccount((String) plaidAccount.get("account_id"), extractAmount(balances.get("current")));
+    }
 
-        Account account = Account.builder()
-                .user(user)
-                .plaidAccountId((String) plaidAccount.get("account_id"))
-                .plaidAccessToken(accessToken)
-                .bank(request.getBank())
-                .cardType(request.getCardType())
-                .cardHolderName(request.getCardHolderName())
-                .maskedNumber("****" + request.getLastFourDigits())
-                .expiryMonth(request.getExpiryMonth())
-                .expiryYear(request.getExpiryYear())
-                .bankName(request.getBank().getDisplayName())
-                .accountType(request.getCardType().name().toLowerCase())
-                .initialPlaidBalance(plaidBalance)
-                .balance(initialBalance)
-                .currency("BHD")
-                .lastSalaryUpdate(LocalDate.now())
-                .totalExpensesToDate(BigDecimal.ZERO)
-                .createdAt(LocalDateTime.now())
-                .build();
+    /**
+     * Waits until Plaid has pulled a new item's initial transactions. Until then
+     * /transactions/sync reports transactions_update_status NOT_READY (the older
+     * endpoints fail with PRODUCT_NOT_READY); probes back off exponentially from
+     * half a second up to eight seconds apart.
+     *
+     * @param accessToken Plaid access token
+     * @param timeout How long to wait at most
+     * @return Whether the transactions became ready in time
+     */
+    public boolean awaitTransactionsReady(String accessToken, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long delayMillis = READINESS_FIRST_DELAY_MS;
+        while (!transactionsReady(accessToken)) {
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) return false;
+            Thread.sleep(Math.min(delayMillis, remainingMillis));
+            delayMillis = Math.min(delayMillis * 2, READINESS_MAX_DELAY_MS);
+        }
+        return true;
+    }
 
-        accountRepository.save(account);
-        log.info("Card linked for user {}: {} (using random Plaid institution: {} - {})", 
-                user.getId(), request.getBank().getDisplayName(), 
-                randomInstitution.getId(), randomInstitution.getName());
+    /**
+     * Probes /transactions/sync with a one-row page; the page itself is discarded
+     * and the first real sync starts from the beginning.
+     */
+    private boolean transactionsReady(String accessToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Map<String, Object> body = Map.of(
+                "client_id", clientId,
+                "secret", plaidSecret,
+                "access_token", accessToken,
+                "count", 1
+        );
 
         try {
-            Thread.sleep(5000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            Map<String, Object> response = restTemplate.postForObject(
+                    getPlaidBaseUrl() + "/transactions/sync",
+                    new HttpEntity<>(body, headers), Map.class);
+            return !"NOT_READY".equals(response.get("transactions_update_status"));
+        } catch (HttpClientErrorException e) {
+            if (e.getResponseBodyAsString().contains("PRODUCT_NOT_READY")) return false;
+            throw e;
         }
+    }
 
-        fetchAndStoreTransactions(accessToken, account);
+    /**
+     * Connects a claimed account to its Plaid item, then stores the first sync.
+     * The account stays LINKING until the transaction that stores its history
+     * turns it ACTIVE (see {@link TransactionIngestWriter}); the sync's Plaid and
+     * LLM calls run without a database connection held. Does nothing if the
+     * account is no longer being linked.
+     *
+     * @param accountId Pending account
+     * @param item Item created for it
+     * @param itemAccount The item's account
+     */
+    public void completeCardLink(UUID accountId, SandboxItem item, ItemAccount itemAccount) {
+        Account account = accountRepository.findWithUserById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        if (account.getLinkStatus() != AccountLinkStatus.LINKING) {
+            log.warn("Account {} is {}, not completing its link", accountId, account.getLinkStatus());
+            return;
+        }
+
+        User user = account.getUser();
+
+        // Get monthly salary
+        BigDecimal monthlySalary = user.getMonthlySalary() != null ? user.getMonthlySalary() : BigDecimal.ZERO;
+
+        // Initial balance = Plaid balance + first month's salary
+        account.setPlaidAccountId(itemAccount.plaidAccountId());
+        account.setPlaidAccessToken(item.accessToken());
+        account.setPlaidItemId(item.itemId());
+        account.setInitialPlaidBalance(itemAccount.currentBalance());
+        account.setBalance(itemAccount.currentBalance().add(monthlySalary));
+        accountRepository.save(account);
+        resourceVersions.bump(user.getId(), VersionedResource.PROFILE, VersionedResource.ANALYTICS);
+        log.info("Card linked for user {}: {} (using random Plaid institution: {} - {})",
+                user.getId(), account.getBankName(), item.institutionId(), item.institutionName());
+
+        fetchAndStoreTransactions(item.accessToken(), account);
     }
 
     /**
-     * Manually triggers transaction sync for the current user.
+     * Marks an unfinished card link as failed so the user can try again.
+     *
+     * @param accountId Pending or claimed account
+     * @param reason Message shown to the user
      */
     @Transactional
+    public void markCardLinkFailed(UUID accountId, String reason) {
+        accountRepository.findById(accountId)
+                .filter(account -> account.getLinkStatus().isInProgress())
+                .ifPresent(account -> {
+                    account.setLinkStatus(AccountLinkStatus.FAILED);
+                    account.setLinkError(reason);
+                    account.setLinkClaimedAt(null);
+                    accountRepository.save(account);
+                    resourceVersions.bump(account.getUser().getId(), VersionedResource.PROFILE);
+                });
+    }
+
+    /**
+     * Manually triggers transaction sync for the current user.
+     */
     public void syncTransactions() {
         User user = getCurrentUser();
         Account account = accountRepository.findByUserId(user.getId())
@@ -530,12 +644,12 @@ public class PlaidService {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
 
-        Map<String, Object> body = Map.of(
-                "client_id", clientId,
-                "secret", plaidSecret,
-                "institution_id", institutionId,
-                "initial_products", List.of("transactions")
-        );
+        Map<String, Object> body = new HashMap<>();
+        body.put("client_id", clientId);
+        body.put("secret", plaidSecret);
+        body.put("institution_id", institutionId);
+        body.put("initial_products", List.of("transactions"));
+        if (!webhookUrl.isBlank()) body.put("options", Map.of("webhook", webhookUrl));
 
         try {
             Map<String, Object> response = restTemplate.postForObject(
@@ -552,9 +666,9 @@ public class PlaidService {
      * Exchanges a public token for an access token.
      *
      * @param publicToken Plaid public token
-     * @return Plaid access token
+     * @return Plaid access token and item id
      */
-    private String exchangePublicToken(String publicToken) {
+    private ExchangedItem exchangePublicToken(String publicToken) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
 
@@ -567,7 +681,32 @@ public class PlaidService {
         Map<String, Object> response = restTemplate.postForObject(
                 getPlaidBaseUrl() + "/item/public_token/exchange",
                 new HttpEntity<>(body, headers), Map.class);
-        return (String) response.get("access_token");
+        return new ExchangedItem((String) response.get("access_token"), (String) response.get("item_id"));
+    }
+
+    /**
+     * Retrieves the public key Plaid signs webhooks with.
+     *
+     * @param keyId The key id (kid) from the webhook's Plaid-Verification header
+     * @return The key as a JWK: kty, crv, x, y, alg, plus created_at and expired_at
+     */
+    public Map<String, Object> fetchWebhookVerificationKey(String keyId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Map<String, Object> body = Map.of(
+                "client_id", clientId,
+                "secret", plaidSecret,
+                "key_id", keyId
+        );
+
+        Map<String, Object> response = restTemplate.postForObject(
+                getPlaidBaseUrl() + "/webhook_verification_key/get",
+                new HttpEntity<>(body, headers), Map.class);
+        if (response == null || !(response.get("key") instanceof Map)) {
+            throw new RuntimeException("Invalid response from Plaid");
+        }
+        return (Map<String, Object>) response.get("key");
     }
 
     /**
@@ -598,197 +737,21 @@ public class PlaidService {
     }
 
     /**
-     * Fetches and stores transactions from Plaid for a given account.
-     * Updates account balance based on net transaction changes.
+     * Applies the account's new Plaid activity since its sync cursor through
+     * {@link TransactionIngestPipeline}: Plaid and the LLM are called outside any
+     * transaction, and the changes are stored in one short write transaction.
+     * The first sync of an account (no cursor) receives its whole history.
      *
      * @param accessToken Plaid access token
      * @param account Account entity to associate transactions with
+     * @return Number of new, modified and removed transactions Plaid reported
      */
-    @Transactional
-    public void fetchAndStoreTransactions(String accessToken, Account account) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        LocalDate end = LocalDate.now();
-        LocalDate start = end.minusMonths(3);
-
-        Map<String, Object> body = Map.of(
-                "client_id", clientId,
-                "secret", plaidSecret,
-                "access_token", accessToken,
-                "start_date", start.toString(),
-                "end_date", end.toString()
-        );
-
+    public int fetchAndStoreTransactions(String accessToken, Account account) {
         try {
-            Map<String, Object> response = restTemplate.postForObject(
-                    getPlaidBaseUrl() + "/transactions/get",
-                    new HttpEntity<>(body, headers), Map.class);
-
-            List<Map<String, Object>> transactions = (List<Map<String, Object>>) response.get("transactions");
-            
-            // Track net balance change from ALL transactions
-            BigDecimal totalBalanceChange = BigDecimal.ZERO;
-            LocalDate now = LocalDate.now();
-            
-            // Prepare transactions for batch processing
-            List<Map<String, Object>> batchForAI = new ArrayList<>();
-            Map<String, Map<String, Object>> rawTransactions = new HashMap<>();
-            Map<String, BigDecimal> bhdAmounts = new HashMap<>();
-            
-            for (Map<String, Object> txn : transactions) {
-                String plaidTxnId = (String) txn.get("transaction_id");
-                
-                // Skip if transaction already exists
-                if (transactionRepository.existsByPlaidTransactionId(plaidTxnId)) {
-                    continue;
-                }
-
-                String merchantName = (String) txn.get("merchant_name");
-                
-                // Convert amount from USD to BHD
-                BigDecimal usdAmount = extractAmount(txn.get("amount"));
-                BigDecimal bhdAmount = usdAmount.multiply(USD_TO_BHD).setScale(3, RoundingMode.HALF_UP);
-                
-                // Store data for later use
-                bhdAmounts.put(plaidTxnId, bhdAmount);
-                
-                if (merchantName != null && !merchantName.trim().isEmpty()) {
-                    Map<String, Object> txnInfo = new HashMap<>();
-                    txnInfo.put("id", plaidTxnId);
-                    txnInfo.put("merchantName", merchantName);
-                    txnInfo.put("amount", bhdAmount);
-                    batchForAI.add(txnInfo);
-                }
-                
-                rawTransactions.put(plaidTxnId, txn);
-            }
-            
-            if (rawTransactions.isEmpty()) {
-                log.info("No new transactions to process");
-                return;
-            }
-            
-            Map<String, String> aiCategories = new HashMap<>();
-            
-            if (!batchForAI.isEmpty()) {
-                int batchSize = 15;
-                for (int i = 0; i < batchForAI.size(); i += batchSize) {
-                    int endIdx = Math.min(i + batchSize, batchForAI.size());
-                    List<Map<String, Object>> batch = batchForAI.subList(i, endIdx);
-                    
-                    try {
-                        Map<String, String> batchResults = aiCategorizationService.categorizeBatch(batch);
-                        aiCategories.putAll(batchResults);
-                    } catch (Exception e) {
-                        log.error("Batch processing failed, falling back to individual categorization", e);
-                        for (Map<String, Object> txnInfo : batch) {
-                            String id = (String) txnInfo.get("id");
-                            BigDecimal amount = (BigDecimal) txnInfo.get("amount");
-                            aiCategories.put(id, fallbackByAmount(amount));
-                        }
-                    }
-                }
-            }
-            
-            int saved = 0;
-            for (Map.Entry<String, Map<String, Object>> entry : rawTransactions.entrySet()) {
-                String plaidTxnId = entry.getKey();
-                Map<String, Object> txn = entry.getValue();
-                
-                String merchantName = (String) txn.get("merchant_name");
-                BigDecimal bhdAmount = bhdAmounts.get(plaidTxnId);
-                
-                String finalMerchantName;
-                String categoryName;
-                
-                if (merchantName == null || merchantName.trim().isEmpty()) {
-                    categoryName = fallbackByAmount(bhdAmount);
-                    finalMerchantName = aiCategorizationService.generateMerchantName(
-                        categoryName, bhdAmount, null
-                    );
-                } else {
-                    categoryName = aiCategories.getOrDefault(plaidTxnId, fallbackByAmount(bhdAmount));
-                    finalMerchantName = merchantName;
-                }
-
-                // Determine transaction type
-                String transactionType = "DEBIT"; // Default to expense
-                
-                // Income indicators based on merchant name
-                if (merchantName != null) {
-                    String upperName = merchantName.toUpperCase();
-                    if (upperName.contains("SALARY") || 
-                        upperName.contains("PAYROLL") || 
-                        upperName.contains("DEPOSIT") ||
-                        upperName.contains("INTEREST") || 
-                        upperName.contains("DIVIDEND") ||
-                        upperName.contains("REFUND") || 
-                        upperName.contains("REIMBURSEMENT") ||
-                        upperName.contains("TRANSFER FROM") ||
-                        upperName.contains("DIRECT DEPOSIT") ||
-                        upperName.contains("PAYCHECK") ||
-                        upperName.contains("BONUS") ||
-                        upperName.contains("INCOME")) {
-                        transactionType = "CREDIT";
-                    }
-                }
-
-                // Check for negative amounts
-                BigDecimal originalAmount = extractAmount(txn.get("amount"));
-                if (originalAmount.compareTo(BigDecimal.ZERO) < 0) {
-                    transactionType = "CREDIT";
-                    bhdAmount = bhdAmount.abs();
-                }
-
-                LocalDate txnDate = LocalDate.parse((String) txn.get("date"));
-                
-                TransactionCategory category = getOrCreateCategory(categoryName);
-
-                transactionRepository.save(Transaction.builder()
-                        .account(account)
-                        .category(category)
-                        .plaidTransactionId(plaidTxnId)
-                        .merchantName(finalMerchantName)
-                        .amount(bhdAmount.abs())
-                        .type(com.pathwise.backend.enums.TransactionType.valueOf(transactionType))
-                        .currency("BHD")
-                        .transactionDate(txnDate)
-                        .aiCategoryRaw(categoryName)
-                        .createdAt(LocalDateTime.now())
-                        .build());
-                
-                // Track balance change for BOTH income and expenses
-                if (transactionType.equals("DEBIT")) {
-                    // Expense - subtract from balance
-                    totalBalanceChange = totalBalanceChange.subtract(bhdAmount.abs());
-                } else if (transactionType.equals("CREDIT")) {
-                    // Income - add to balance
-                    totalBalanceChange = totalBalanceChange.add(bhdAmount.abs());
-                }
-                
-                saved++;
-            }
-            
-            // Update account balance with net change from ALL transactions
-            if (totalBalanceChange.compareTo(BigDecimal.ZERO) != 0) {
-                BigDecimal currentBalance = account.getBalance();
-                BigDecimal newBalance = currentBalance.add(totalBalanceChange);
-                account.setBalance(newBalance);
-                
-                // Update total expenses to date
-                if (totalBalanceChange.compareTo(BigDecimal.ZERO) < 0) {
-                    BigDecimal expenseAmount = totalBalanceChange.abs();
-                    BigDecimal currentTotalExpenses = account.getTotalExpensesToDate() != null ? 
-                        account.getTotalExpensesToDate() : BigDecimal.ZERO;
-                    account.setTotalExpensesToDate(currentTotalExpenses.add(expenseAmount));
-                }
-                
-                accountRepository.save(account);
-            }
-            
-            log.info("Saved {} transactions for account {}", saved, account.getId());
-            
+            return ingestPipeline.run(account, (cursor, sink) -> fetchTransactionPages(accessToken, cursor, sink));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to fetch transactions");
         } catch (Exception e) {
             log.error("Failed to fetch transactions: {}", e.getMessage());
             throw new RuntimeException("Failed to fetch transactions");
@@ -796,32 +759,54 @@ public class PlaidService {
     }
 
     /**
-     * Determines a fallback category based on transaction amount.
+     * Pages through /transactions/sync from a cursor until has_more is false,
+     * handing each page on as it arrives. If the item changes mid-pagination Plaid
+     * rejects the next page, and the run restarts from the original cursor as
+     * Plaid requires.
      *
-     * @param amount Transaction amount
-     * @return Category name
+     * @param accessToken Plaid access token
+     * @param cursor Cursor of the last applied sync, or null for the full history
+     * @param sink Receives the pages, and a restart before a run starts over
      */
-    private String fallbackByAmount(BigDecimal amount) {
-        if (amount.compareTo(new BigDecimal("500")) > 0) return "SHOPPING";
-        if (amount.compareTo(new BigDecimal("100")) > 0) return "FOOD & DINING";
-        if (amount.compareTo(new BigDecimal("50")) > 0) return "TRANSPORT";
-        if (amount.compareTo(new BigDecimal("20")) > 0) return "ENTERTAINMENT";
-        return "OTHER";
-    }
+    private void fetchTransactionPages(String accessToken, String cursor,
+                                       TransactionIngestPipeline.PageSink sink) throws InterruptedException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
 
-    /**
-     * Retrieves or creates a transaction category by name.
-     *
-     * @param name Category name
-     * @return TransactionCategory entity
-     */
-    private TransactionCategory getOrCreateCategory(String name) {
-        return categoryRepository.findByName(name)
-                .orElseGet(() -> categoryRepository.save(TransactionCategory.builder()
-                        .name(name)
-                        .icon(getCategoryIcon(name))
-                        .colorHex(getCategoryColor(name))
-                        .build()));
+        for (int attempt = 0; ; attempt++) {
+            String next = cursor;
+            try {
+                boolean hasMore;
+                do {
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("client_id", clientId);
+                    body.put("secret", plaidSecret);
+                    body.put("access_token", accessToken);
+                    body.put("count", SYNC_PAGE_SIZE);
+                    if (next != null) body.put("cursor", next);
+
+                    Map<String, Object> response = restTemplate.postForObject(
+                            getPlaidBaseUrl() + "/transactions/sync",
+                            new HttpEntity<>(body, headers), Map.class);
+
+                    next = (String) response.get("next_cursor");
+                    hasMore = Boolean.TRUE.equals(response.get("has_more"));
+                    sink.page(new TransactionIngestPipeline.SyncPage(
+                            (List<Map<String, Object>>) response.get("added"),
+                            (List<Map<String, Object>>) response.get("modified"),
+                            (List<Map<String, Object>>) response.get("removed"),
+                            next));
+                } while (hasMore);
+                return;
+            } catch (HttpClientErrorException e) {
+                if (attempt >= SYNC_MAX_RESTARTS
+                        || !e.getResponseBodyAsString().contains("TRANSACTIONS_SYNC_MUTATION_DURING_PAGINATION")) {
+                    throw e;
+                }
+                log.warn("Transactions changed during sync pagination, restarting from the previous cursor");
+                sink.restart();
+            }
+        }
     }
 
     /**
@@ -835,44 +820,4 @@ public class PlaidService {
         if (obj instanceof Number n) return BigDecimal.valueOf(n.doubleValue());
         return new BigDecimal(obj.toString());
     }
-
-    /**
-     * Returns an emoji icon for a category.
-     *
-     * @param category Category name
-     * @return Emoji string
-     */
-    private String getCategoryIcon(String category) {
-        return switch (category.toUpperCase()) {
-            case "FOOD & DINING" -> "🍔";
-            case "TRANSPORT" -> "🚗";
-            case "SHOPPING" -> "🛍️";
-            case "ENTERTAINMENT" -> "🎬";
-            case "HEALTH" -> "🏥";
-            case "UTILITIES" -> "💡";
-            case "EDUCATION" -> "📚";
-            case "TRAVEL" -> "✈️";
-            default -> "💳";
-        };
-    }
-
-    /**
-     * Returns a color hex code for a category.
-     *
-     * @param category Category name
-     * @return Color hex string
-     */
-    private String getCategoryColor(String category) {
-        return switch (category.toUpperCase()) {
-            case "FOOD & DINING" -> "#FF6B6B";
-            case "TRANSPORT" -> "#4ECDC4";
-            case "SHOPPING" -> "#45B7D1";
-            case "ENTERTAINMENT" -> "#96CEB4";
-            case "HEALTH" -> "#FFEAA7";
-            case "UTILITIES" -> "#DDA0DD";
-            case "EDUCATION" -> "#74B9FF";
-            case "TRAVEL" -> "#A29BFE";
-            default -> "#95A5A6";
-        };
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package com.pathwise.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns verified Plaid webhooks into syncs, so new transactions land seconds
+ * after Plaid has them instead of at the account's next scheduled sync.
+ *
+ * Only TRANSACTIONS / SYNC_UPDATES_AVAILABLE is acted on. Plaid can send several
+ * of those for one item in quick succession (and retries any it thinks were not
+ * delivered), so the first one for an item waits pathwise.plaid.webhook.coalesce-window
+ * and the rest arriving meanwhile are folded into it. The item's account is then
+ * synced from its cursor through {@link AccountSyncScheduler#requestSync}; when
+ * the account is already syncing, the request waits another window, since the
+ * running sync may have read its pages before the new activity.
+ *
+ * Metrics on /actuator/metrics: pathwise.plaid.webhooks.received and
+ * pathwise.plaid.webhooks.coalesced.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class PlaidWebhookService {
+
+    private static final String TRANSACTIONS = "TRANSACTIONS";
+    private static final String SYNC_UPDATES_AVAILABLE = "SYNC_UPDATES_AVAILABLE";
+
+    private final AccountRepository accountRepository;
+    private final AccountSyncScheduler syncScheduler;
+    private final ObjectMapper objectMapper;
+    private final Duration coalesceWindow;
+    private final Counter receivedCounter;
+    private final Counter coalescedCounter;
+
+    // Items with a sync waiting for its window to close
+    private final Set<String> pendingItems = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("plaid-webhooks").daemon().factory());
+
+    public PlaidWebhookService(AccountRepository accountRepository, AccountSyncScheduler syncScheduler,
+                               ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                               @Value("${pathwise.plaid.webhook.coalesce-window:2s}") Duration coalesceWindow) {
+        this.accountRepository = accountRepository;
+        this.syncScheduler = syncScheduler;
+        this.objectMapper = objectMapper;
+        this.coalesceWindow = coalesceWindow;
+        this.receivedCounter = meterRegistry.counter("pathwise.plaid.webhooks.received");
+        this.coalescedCounter = meterRegistry.counter("pathwise.plaid.webhooks.coalesced");
+    }
+
+    /**
+     * Handles a verified webhook. Returns at once; the sync runs in the background.
+     *
+     * @param body The webhook's JSON body
+     */
+    public void handle(byte[] body) {
+        JsonNode webhook;
+        try {
+            webhook = objectMapper.readTree(body);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable Plaid webhook: {}", e.getMessage());
+            return;
+        }
+        receivedCounter.increment();
+
+        String type = webhook.path("webhook_type").asText();
+        String code = webhook.path("webhook_code").asText();
+        String itemId = webhook.path("item_id").asText(null);
+        if (!TRANSACTIONS.equals(type) || !SYNC_UPDATES_AVAILABLE.equals(code) || itemId == null) {
+            log.debug("Ignoring Plaid webhook {} / {} for item {}", type, code, itemId);
+            return;
+        }
+
+        if (!schedule(itemId)) {
+            coalescedCounter.increment();
+            log.debug("Coalesced Plaid webhook for item {}", itemId);
+        }
+    }
+
+    /** Schedules the item's sync after one window, unless one is already waiting. */
+    private boolean schedule(String itemId) {
+        if (!pendingItems.add(itemId)) return false;
+        timer.schedule(() -> dispatch(itemId), coalesceWindow.toMillis(), TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private void dispatch(String itemId) {
+        // Webhooks from here on belong to the next sync
+        pendingItems.remove(itemId);
+        try {
+            Optional<Account> account = accountRepository.findLinkedByPlaidItemId(itemId);
+            if (account.isEmpty()) {
+                log.warn("Plaid webhook for item {} matches no linked account", itemId);
+                return;
+            }
+            if (!syncScheduler.requestSync(account.get())) {
+                log.debug("Account {} is already syncing, retrying its webhook sync", account.get().getId());
+                schedule(itemId);
+            }
+        } catch (Exception e) {
+            // The account stays on its background schedule
+            log.error("Failed to start webhook sync of item {}: {}", itemId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Pending items are caught up by their scheduled syncs
+        timer.shutdownNow();
+    }
+}
@@ -2,11 +2,13 @@ package com.pathwise.backend.service;
 
 import com.pathwise.backend.dto.ProjectionResponse;
 import com.pathwise.backend.enums.GoalStatus;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.exception.GoalNotFoundException;
 import com.pathwise.backend.exception.SavingsLimitExceededException;
 import com.pathwise.backend.exception.UnauthorizedAccessException;
 import com.pathwise.backend.exception.UserNotFoundException;
 import com.pathwise.backend.model.Goal;
+import com.pathwise.backend.model.Money;
 import com.pathwise.backend.model.User;
 import com.pathwise.backend.repository.GoalRepository;
 import com.pathwise.backend.repository.UserRepository;
@@ -31,6 +33,7 @@ public class ProjectionService {
     private final GoalRepository goalRepository;
     private final UserRepository userRepository;
     private final FinancialProfileService financialProfileService;
+    private final ResourceVersions resourceVersions;
 
     public ProjectionResponse getProjection(UUID goalId, BigDecimal monthlySavingsRate) {
         User user = getCurrentUser();
@@ -59,14 +62,16 @@ public class ProjectionService {
 
         // ── Chart data ────────────────────────────────────────────────────────
         List<ProjectionResponse.ChartPoint> chart = new ArrayList<>();
-        BigDecimal cumulative = goal.getSavedAmount() != null ? goal.getSavedAmount() : BigDecimal.ZERO;
+        long cumulative = Money.toFils(goal.getSavedAmount());
+        long target     = Money.toFils(goal.getTargetAmount());
+        long step       = Money.toFils(monthlySavingsRate);
         int points = (int) Math.min(monthsNeeded + 1, 37);
         for (int i = 0; i < points; i++) {
             YearMonth chartMonth = YearMonth.now().plusMonths(i);
             chart.add(new ProjectionResponse.ChartPoint(
                     chartMonth.toString(),  // YYYY-MM format
-                    cumulative.min(goal.getTargetAmount())));
-            cumulative = cumulative.add(monthlySavingsRate);
+                    Money.toBigDecimal(Math.min(cumulative, target))));
+            cumulative = Money.add(cumulative, step);
         }
 
         // ── Affordability note ────────────────────────────────────────────────
@@ -89,6 +94,7 @@ public class ProjectionService {
         goal.setStatus(isOnTrack ? GoalStatus.ON_TRACK : GoalStatus.AT_RISK);
         goal.setUpdatedAt(LocalDateTime.now());
         goalRepository.save(goal);
+        resourceVersions.bump(user.getId(), VersionedResource.GOALS, VersionedResource.PROFILE);
 
         return ProjectionResponse.builder()
                 .goalId(goalId)
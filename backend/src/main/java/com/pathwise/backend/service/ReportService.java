@@ -1,6 +1,7 @@
 package com.pathwise.backend.service;
 
 import com.pathwise.backend.dto.AnalyticsResponse;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.exception.UserNotFoundException;
 import com.pathwise.backend.model.Report;
 import com.pathwise.backend.model.User;
@@ -43,6 +44,7 @@ public class ReportService {
     private final AnalyticsService analyticsService;
     private final UserRepository userRepository;
     private final RestTemplate restTemplate;
+    private final ResourceVersions resourceVersions;
 
     @Value("${groq.api-key}")
     private String groqApiKey;
@@ -162,6 +164,7 @@ public class ReportService {
                 .build();
 
         Report saved = reportRepository.save(report);
+        resourceVersions.bump(user.getId(), VersionedResource.REPORTS);
         log.info("Report saved: {}", saved.getTitle());
         return saved;
     }
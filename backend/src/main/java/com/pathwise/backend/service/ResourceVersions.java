@@ -0,0 +1,67 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.enums.VersionedResource;
+import com.pathwise.backend.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Version counters per user and {@link VersionedResource}, stored on the user's
+ * row so that every node and every restart sees the same versions.
+ *
+ * Services that change the data behind a resource call {@link #bump}; readers use
+ * the version loaded with the {@link AuthenticatedUser} as a cache key
+ * ({@link AnalyticsCache}) or as a strong ETag ({@link #etag}). The bump joins the
+ * writing transaction, so the new version becomes visible together with the data
+ * it describes. Readers take the version before they read the data: a change that
+ * commits in between is labelled with the old version and never served as current.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResourceVersions {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Returns a strong ETag for a user's resource. It also changes with the date,
+     * since some responses (current month totals, goal timelines) depend on it.
+     */
+    public String etag(AuthenticatedUser user, VersionedResource resource) {
+        return "\"" + resource.name().toLowerCase() + "-" + user.version(resource) + "-" + LocalDate.now() + "\"";
+    }
+
+    /**
+     * Marks the given resources of a user as changed, in the caller's transaction
+     * if there is one.
+     *
+     * @param userId User whose data changed
+     * @param resources Resources whose responses are affected
+     */
+    @Transactional
+    public void bump(UUID userId, VersionedResource... resources) {
+        // Column names come from the enum, never from input
+        String increments = Arrays.stream(resources).distinct()
+                .map(resource -> column(resource) + " = " + column(resource) + " + 1")
+                .collect(Collectors.joining(", "));
+        entityManager.createNativeQuery("UPDATE users SET " + increments + " WHERE id = :id")
+                .setParameter("id", userId)
+                .executeUpdate();
+        log.debug("Bumped {} versions of user {}", Arrays.toString(resources), userId);
+    }
+
+    private static String column(VersionedResource resource) {
+        return resource.name().toLowerCase() + "_version";
+    }
+}
@@ -6,6 +6,7 @@ import com.pathwise.backend.exception.GoalNotFoundException;
 import com.pathwise.backend.exception.UnauthorizedAccessException;
 import com.pathwise.backend.exception.UserNotFoundException;
 import com.pathwise.backend.model.Goal;
+import com.pathwise.backend.model.Money;
 import com.pathwise.backend.model.Simulation;
 import com.pathwise.backend.model.User;
 import com.pathwise.backend.repository.GoalRepository;
@@ -53,11 +54,13 @@ public class SimulationService {
         // ── Simulated ─────────────────────────────────────────────────────────
         // adjustments = { "FOOD": 80.00, "TRANSPORT": 50.00 }
         // Each value = BD freed up per month by cutting that category.
-        BigDecimal totalAdjustment = request.getSpendingAdjustments().values().stream()
-                .filter(v -> v != null && v.compareTo(BigDecimal.ZERO) > 0)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long totalAdjustmentFils = 0L;
+        for (BigDecimal v : request.getSpendingAdjustments().values()) {
+            if (v != null && v.signum() > 0) totalAdjustmentFils = Money.add(totalAdjustmentFils, Money.toFils(v));
+        }
+        BigDecimal totalAdjustment = Money.toBigDecimal(totalAdjustmentFils);
 
-        BigDecimal simulatedMonthly = currentMonthly.add(totalAdjustment);
+        BigDecimal simulatedMonthly = Money.toBigDecimal(Money.add(Money.toFils(currentMonthly), totalAdjustmentFils));
         long       simulatedMonths  = ceildiv(remaining, simulatedMonthly);
         LocalDate  simulatedDate    = LocalDate.now().plusMonths(simulatedMonths);
         long       monthsSaved      = baselineMonths - simulatedMonths;
@@ -81,14 +84,17 @@ public class SimulationService {
         int chartLen = (int) Math.min(baselineMonths + 1, 37);
         List<SimulationResponse.ChartPoint> baselineChart  = new ArrayList<>();
         List<SimulationResponse.ChartPoint> simulatedChart = new ArrayList<>();
-        BigDecimal bCum = savedAmount;
-        BigDecimal sCum = savedAmount;
+        long target     = Money.toFils(goal.getTargetAmount());
+        long bStep      = Money.toFils(currentMonthly);
+        long sStep      = Money.toFils(simulatedMonthly);
+        long bCum       = Money.toFils(savedAmount);
+        long sCum       = bCum;
         for (int i = 0; i < chartLen; i++) {
             String month = LocalDate.now().plusMonths(i).toString();
-            baselineChart .add(new SimulationResponse.ChartPoint(month, bCum.min(goal.getTargetAmount())));
-            simulatedChart.add(new SimulationResponse.ChartPoint(month, sCum.min(goal.getTargetAmount())));
-            bCum = bCum.add(currentMonthly);
-            sCum = sCum.add(simulatedMonthly);
+            baselineChart .add(new SimulationResponse.ChartPoint(month, Money.toBigDecimal(Math.min(bCum, target))));
+            simulatedChart.add(new SimulationResponse.ChartPoint(month, Money.toBigDecimal(Math.min(sCum, target))));
+            bCum = Money.add(bCum, bStep);
+            sCum = Money.add(sCum, sStep);
         }
 
         // ── Persist simulation ────────────────────────────────────────────────
@@ -135,7 +141,7 @@ public class SimulationService {
 
     private long ceildiv(BigDecimal num, BigDecimal den) {
         if (num.compareTo(BigDecimal.ZERO) == 0) return 0;
-        return num.divide(den, 0, RoundingMode.CEILING).longValue();
+        return Money.ceilDiv(Money.toFils(num), Money.toFils(den));
     }
 
     private User getCurrentUser() {
@@ -0,0 +1,276 @@
+package com.pathwise.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.pathwise.backend.dto.TransactionResponse;
+import com.pathwise.backend.enums.AnomalyKind;
+import com.pathwise.backend.enums.SeverityLevel;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Anomaly;
+import com.pathwise.backend.model.Money;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.MerchantSpendTotal;
+import com.pathwise.backend.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Per-transaction anomaly detectors run in the ingest stream:
+ * <ul>
+ *   <li>AMOUNT_OUTLIER — far above the merchant's running mean, in standard deviations</li>
+ *   <li>DUPLICATE_CHARGE — same merchant and amount within the duplicate window</li>
+ *   <li>NEW_MERCHANT — first debit at a merchant, above a minimum amount</li>
+ * </ul>
+ * Each user's merchant history is held in memory: running count/mean/M2 per merchant
+ * (whose keys double as the set of seen merchants) and a short window of recent
+ * charges. It is loaded from the transactions table on first use, e.g. after a
+ * restart or an eviction, with one grouped query and one short range read, and
+ * dropped again if the ingest that updated it rolls back.
+ *
+ * Nothing tells a node about charges another node ingested for the same user
+ * (their accounts may sync on different nodes), so a history is reloaded once it
+ * is history-ttl old, counted from its load. Until then another node's charges can
+ * be missed: a duplicate across accounts goes unflagged, or a merchant paid from
+ * another account is reported as new. The in-memory updates of this node's own
+ * ingests do not extend that age.
+ *
+ * Plaid reports dates without times, so the duplicate window is in days.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class TransactionAnomalyDetector {
+
+    /** Days of recent charges kept per user. */
+    private static final int RECENT_DAYS = 30;
+
+    /** Amounts a merchant needs before outliers are scored. */
+    private static final int MIN_MERCHANT_SAMPLES = 5;
+
+    /** Lower bound of the standard deviation as a fraction of the mean, as in the category statistics. */
+    private static final double MIN_RELATIVE_STD_DEV = 0.1;
+
+    private final TransactionRepository transactionRepository;
+    private final Cache<UUID, MerchantActivity> activities;
+    private final int duplicateWindowDays;
+    private final long newMerchantMinFils;
+
+    @Autowired
+    public TransactionAnomalyDetector(TransactionRepository transactionRepository,
+                                      @Value("${pathwise.anomalies.transaction.max-users:10000}") long maxUsers,
+                                      @Value("${pathwise.anomalies.transaction.duplicate-window-days:1}") int duplicateWindowDays,
+                                      @Value("${pathwise.anomalies.transaction.new-merchant-min-amount:50}") BigDecimal newMerchantMinAmount,
+                                      @Value("${pathwise.anomalies.transaction.history-ttl:10m}") Duration historyTtl) {
+        this(transactionRepository, maxUsers, duplicateWindowDays, newMerchantMinAmount, historyTtl, Ticker.systemTicker());
+    }
+
+    TransactionAnomalyDetector(TransactionRepository transactionRepository, long maxUsers, int duplicateWindowDays,
+                               BigDecimal newMerchantMinAmount, Duration historyTtl, Ticker ticker) {
+        this.transactionRepository = transactionRepository;
+        this.duplicateWindowDays = duplicateWindowDays;
+        this.newMerchantMinFils = Money.toFils(newMerchantMinAmount);
+        this.activities = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                // Counted from the load, as updates happen in place: bounds how long other nodes' charges are missed
+                .expireAfterWrite(historyTtl)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Loads the user's merchant history if it is not in memory. Call before the
+     * new transactions are written, so the history does not already contain them.
+     *
+     * @param userId User about to ingest
+     */
+    public void prepare(UUID userId) {
+        activities.get(userId, this::load);
+    }
+
+    /**
+     * Runs the detectors over newly stored transactions, oldest first, each against
+     * the history before it, and folds them into the history.
+     *
+     * @param user Owner of the transactions
+     * @param transactions Transactions that were just inserted
+     * @return Unsaved anomalies, each linked to its transaction
+     */
+    public List<Anomaly> detect(User user, Collection<Transaction> transactions) {
+        MerchantActivity activity = activities.get(user.getId(), this::load);
+        List<Transaction> debits = transactions.stream()
+                .filter(t -> t.getType() == TransactionType.DEBIT && t.getMerchantName() != null)
+                .sorted(Comparator.comparing(Transaction::getTransactionDate))
+                .toList();
+        if (debits.isEmpty()) return List.of();
+
+        List<Anomaly> anomalies = new ArrayList<>();
+        synchronized (activity) {
+            for (Transaction t : debits) {
+                String merchant = normalize(t.getMerchantName());
+                long fils = Money.toFils(t.getAmount());
+                Anomaly anomaly = evaluate(user, t, activity, merchant, fils);
+                if (anomaly != null) anomalies.add(anomaly);
+                activity.add(merchant, fils, t.getTransactionDate());
+            }
+        }
+        forgetOnRollback(user.getId());
+        return anomalies;
+    }
+
+    /** Duplicate charge first, then outlier, then new merchant: at most one anomaly per transaction. */
+    private Anomaly evaluate(User user, Transaction t, MerchantActivity activity, String merchant, long fils) {
+        String name = t.getMerchantName();
+        BigDecimal amount = t.getAmount();
+
+        if (activity.hasRecentCharge(merchant, fils, t.getTransactionDate(), duplicateWindowDays)) {
+            return anomaly(user, t, AnomalyKind.DUPLICATE_CHARGE, SeverityLevel.MEDIUM,
+                    String.format("Possible double charge: BD %.3f at %s, same as a charge on or near %s",
+                            amount, name, t.getTransactionDate()), amount);
+        }
+
+        MerchantStats stats = activity.merchants.get(merchant);
+        if (stats == null) {
+            if (fils < newMerchantMinFils) return null;
+            return anomaly(user, t, AnomalyKind.NEW_MERCHANT, SeverityLevel.LOW,
+                    String.format("First payment to %s: BD %.3f", name, amount), null);
+        }
+
+        if (stats.count < MIN_MERCHANT_SAMPLES) return null;
+        double stdDev = Math.max(Math.sqrt(stats.variance()), MIN_RELATIVE_STD_DEV * stats.mean);
+        if (stdDev == 0) return null;
+        double score = (fils - stats.mean) / stdDev;
+        SeverityLevel severity = AnomalyService.severityOfScore(score);
+        if (severity == null) return null;
+
+        BigDecimal usual = Money.toBigDecimal(Math.round(stats.mean));
+        return anomaly(user, t, AnomalyKind.AMOUNT_OUTLIER, severity,
+                String.format("BD %.3f at %s is %.1f standard deviations above your usual BD %.3f there",
+                        amount, name, score, usual), usual);
+    }
+
+    private static Anomaly anomaly(User user, Transaction t, AnomalyKind kind, SeverityLevel severity,
+                                   String message, BigDecimal baseline) {
+        return Anomaly.builder()
+                .user(user)
+                .category(t.getCategory())
+                .transaction(t)
+                .kind(kind)
+                .severity(severity)
+                .message(message)
+                .actualAmount(t.getAmount())
+                .baselineAmount(baseline)
+                .isDismissed(false)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private MerchantActivity load(UUID userId) {
+        MerchantActivity activity = new MerchantActivity();
+        for (MerchantSpendTotal total : transactionRepository.sumDebitsByUserIdGroupedByMerchant(userId)) {
+            activity.merchants.put(total.merchant(), MerchantStats.of(total));
+        }
+        LocalDate today = LocalDate.now();
+        transactionRepository.findResponsesByUserIdAndTransactionDateBetween(userId, today.minusDays(RECENT_DAYS), today)
+                .stream()
+                .filter(r -> TransactionType.DEBIT.name().equals(r.getType()) && r.getMerchantName() != null)
+                .sorted(Comparator.comparing(TransactionResponse::getTransactionDate))
+                .forEach(r -> activity.addRecent(normalize(r.getMerchantName()), Money.toFils(r.getAmount()),
+                        r.getTransactionDate()));
+        log.debug("Loaded merchant history of user {}: {} merchants, {} recent charges",
+                userId, activity.merchants.size(), activity.recent.size());
+        return activity;
+    }
+
+    /** The in-memory history ran ahead of the database if the ingest rolls back; reload it next time. */
+    private void forgetOnRollback(UUID userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) activities.invalidate(userId);
+            }
+        });
+    }
+
+    /** Drops a user's in-memory history; the next ingest reloads it. */
+    public void forget(UUID userId) {
+        activities.invalidate(userId);
+    }
+
+    static String normalize(String merchantName) {
+        return merchantName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Charge(String merchant, long fils, LocalDate date) {}
+
+    /** One user's merchant history. Guarded by its own monitor. */
+    static final class MerchantActivity {
+        final Map<String, MerchantStats> merchants = new HashMap<>();
+        final Deque<Charge> recent = new ArrayDeque<>();
+
+        void add(String merchant, long fils, LocalDate date) {
+            MerchantStats stats = merchants.get(merchant);
+            if (stats == null) merchants.put(merchant, stats = new MerchantStats());
+            stats.add(fils);
+            addRecent(merchant, fils, date);
+        }
+
+        void addRecent(String merchant, long fils, LocalDate date) {
+            recent.addLast(new Charge(merchant, fils, date));
+            LocalDate cutoff = date.minusDays(RECENT_DAYS);
+            while (!recent.isEmpty() && recent.peekFirst().date().isBefore(cutoff)) recent.pollFirst();
+        }
+
+        boolean hasRecentCharge(String merchant, long fils, LocalDate date, int windowDays) {
+            for (Charge c : recent) {
+                if (c.fils() == fils && c.merchant().equals(merchant)
+                        && Math.abs(c.date().toEpochDay() - date.toEpochDay()) <= windowDays) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** Welford running count, mean and M2 of a merchant's amounts in fils. */
+    static final class MerchantStats {
+        long count;
+        double mean;
+        double m2;
+
+        static MerchantStats of(MerchantSpendTotal total) {
+            MerchantStats stats = new MerchantStats();
+            stats.count = total.count();
+            double sum = total.total().doubleValue() * Money.FILS_PER_BD;
+            double squares = total.totalOfSquares().doubleValue() * Money.FILS_PER_BD * Money.FILS_PER_BD;
+            stats.mean = sum / stats.count;
+            stats.m2 = Math.max(0, squares - sum * sum / stats.count);
+            return stats;
+        }
+
+        void add(long fils) {
+            count++;
+            double delta = fils - mean;
+            mean += delta / count;
+            m2 += delta * (fils - mean);
+        }
+
+        double variance() {
+            return count < 2 ? 0 : m2 / (count - 1);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.pathwise.backend.service;
+
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in the transaction list for keyset (seek) pagination.
+ * Encoded as an opaque URL-safe string holding the sort key, the direction
+ * and the (value, id) of the last row returned.
+ *
+ * @param sortBy    Sort key, either "transactionDate" or "amount"
+ * @param direction Sort direction
+ * @param value     Sort key value of the last row, in its string form
+ * @param id        ID of the last row, used as tie-breaker
+ */
+public record TransactionCursor(String sortBy, Sort.Direction direction, String value, UUID id) {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Encodes the cursor into its opaque string form.
+     *
+     * @return URL-safe cursor string
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sortBy, direction.name(), value, id.toString());
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param cursor Opaque cursor string
+     * @return Decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed, including a value
+     *         that does not parse as its sort key's type
+     */
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            TransactionCursor decoded = new TransactionCursor(
+                    parts[1], Sort.Direction.valueOf(parts[2]), parts[3], UUID.fromString(parts[4]));
+            // Parsed here so that a tampered value fails as an invalid cursor, not later in the query
+            decoded.keyValue();
+            return decoded;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Returns the sort key value in its type: a BigDecimal for amount, a LocalDate
+     * for transactionDate.
+     *
+     * @return Typed sort key value
+     */
+    @SuppressWarnings("unchecked")
+    public <Y extends Comparable<? super Y>> Y keyValue() {
+        return switch (sortBy) {
+            case "amount" -> (Y) new BigDecimal(value);
+            case "transactionDate" -> (Y) LocalDate.parse(value);
+            default -> throw new IllegalArgumentException("Invalid cursor");
+        };
+    }
+}
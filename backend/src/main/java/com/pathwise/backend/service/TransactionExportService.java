@@ -0,0 +1,144 @@
+package com.pathwise.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pathwise.backend.dto.TransactionResponse;
+import com.pathwise.backend.enums.ExportFormat;
+import com.pathwise.backend.exception.UserNotFoundException;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.TransactionSpecifications;
+import com.pathwise.backend.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes full transaction histories as CSV or NDJSON.
+ * Rows are read as DTO projections in keyset pages of pathwise.export.page-size,
+ * each page a query of its own, so memory use does not depend on the size of the
+ * history and a connection is held only while a page is read, not while a slow
+ * client downloads it.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class TransactionExportService {
+
+    private static final String CSV_HEADER = "id,date,merchant,category,type,amount,currency";
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "transactionDate", "id");
+
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+
+    public TransactionExportService(TransactionRepository transactionRepository, UserRepository userRepository,
+                                    ObjectMapper objectMapper,
+                                    @Value("${pathwise.export.page-size:500}") int pageSize) {
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Resolves the authenticated user. Must be called on the request thread:
+     * the export itself is written from an async thread without a security context.
+     *
+     * @return ID of the current user
+     */
+    public UUID getCurrentUserId() {
+        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        return userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UserNotFoundException("User not found"))
+                .getId();
+    }
+
+    /**
+     * Writes all transactions of a user, newest first. The header (CSV) is flushed
+     * before the first row is read so the client starts receiving data immediately.
+     * The stream is not closed. Runs outside a transaction: rows committed while
+     * the export runs may or may not be included.
+     *
+     * @param userId Owner of the transactions
+     * @param format Output format
+     * @param out Destination stream
+     * @return Number of transactions written
+     * @throws IOException if writing to the client fails
+     */
+    public long writeTransactions(UUID userId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        writer.flush();
+
+        long count = 0;
+        Specification<Transaction> owned = TransactionSpecifications.belongsToUser(userId);
+        List<TransactionResponse> page = transactionRepository.findResponses(owned, NEWEST_FIRST, pageSize);
+        while (!page.isEmpty()) {
+            for (TransactionResponse t : page) {
+                writer.write(format == ExportFormat.CSV ? toCsvLine(t) : objectMapper.writeValueAsString(t));
+                writer.write('\n');
+            }
+            count += page.size();
+            // Sent before the next page is read, so the client never waits on more than one page
+            writer.flush();
+            if (page.size() < pageSize) break;
+
+            TransactionResponse last = page.getLast();
+            page = transactionRepository.findResponses(
+                    owned.and(TransactionSpecifications.seekAfter("transactionDate", Sort.Direction.DESC,
+                            last.getTransactionDate(), last.getId())),
+                    NEWEST_FIRST, pageSize);
+        }
+        writer.flush();
+
+        log.info("Exported {} transactions for user {} as {}", count, userId, format);
+        return count;
+    }
+
+    private static String toCsvLine(TransactionResponse t) {
+        return String.join(",",
+                t.getId().toString(),
+                t.getTransactionDate() != null ? t.getTransactionDate().toString() : "",
+                csvText(t.getMerchantName()),
+                csvText(t.getCategory()),
+                t.getType() != null ? t.getType() : "",
+                t.getAmount() != null ? t.getAmount().toPlainString() : "",
+                csvText(t.getCurrency()));
+    }
+
+    /**
+     * Quotes a free-text CSV field (RFC 4180) and neutralises values that
+     * spreadsheets would evaluate as formulas, including those behind a leading
+     * tab or carriage return, which some spreadsheets skip before parsing.
+     */
+    static String csvText(String value) {
+        if (value == null || value.isEmpty()) return "";
+        if ("=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
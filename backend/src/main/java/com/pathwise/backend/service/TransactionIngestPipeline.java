@@ -0,0 +1,440 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.enums.AccountLinkStatus;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ingests one Plaid sync run in stages, so that no database connection is held
+ * while Plaid or the LLM is called:
+ *
+ * 1. fetch: /transactions/sync pages, on their own virtual thread, handed over
+ *    through a bounded queue that lets fetching run at most
+ *    pathwise.ingest.page-queue-capacity pages ahead;
+ * 2. normalize: new rows are converted to BHD and classified, and rows already
+ *    stored are dropped (one id lookup per page, outside any transaction);
+ * 3. categorize: LLM batches run concurrently, at most
+ *    pathwise.ingest.categorize-parallelism at a time across all runs on this
+ *    node; a page waits for a free slot, which in turn holds back the fetch;
+ * 4. persist: categories seen for the first time are created through
+ *    {@link CategoryRegistry}, then one short write transaction in
+ *    {@link TransactionIngestWriter}.
+ *
+ * Stage durations are recorded under pathwise.ingest.stage (tag stage); how long
+ * connections are held shows in Hikari's hikaricp.connections.usage.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class TransactionIngestPipeline {
+
+    // Transactions per LLM request
+    private static final int CATEGORIZE_BATCH_SIZE = 15;
+
+    // Plaid ids per existence query
+    private static final int ID_LOOKUP_CHUNK = 1000;
+
+    // USD to BHD conversion rate (1 USD = 0.376 BHD)
+    private static final BigDecimal USD_TO_BHD = new BigDecimal("0.376");
+
+    /** One /transactions/sync page: its deltas and the cursor after it. */
+    public record SyncPage(List<Map<String, Object>> added, List<Map<String, Object>> modified,
+                           List<Map<String, Object>> removed, String nextCursor) {}
+
+    /** Receives the pages of a sync run in order, as they are fetched. */
+    public interface PageSink {
+
+        void page(SyncPage page) throws InterruptedException;
+
+        /** The run starts over from its first cursor; the pages received so far no longer count. */
+        void restart() throws InterruptedException;
+    }
+
+    /** Fetches a sync run from a cursor, or the full history for null, into a sink. */
+    @FunctionalInterface
+    public interface PageSource {
+        void fetch(String cursor, PageSink sink) throws InterruptedException;
+    }
+
+    /**
+     * A Plaid transaction converted to BHD and classified. Added transactions
+     * carry their category; modified ones keep the stored category and carry none.
+     *
+     * @param merchantName Plaid merchant name, or a generated one for added rows without it
+     * @param amount Absolute BHD amount
+     */
+    public record StagedTransaction(String plaidTransactionId, String merchantName, BigDecimal amount,
+                                    TransactionType type, LocalDate date, String category) {
+
+        StagedTransaction withCategory(String category) {
+            return new StagedTransaction(plaidTransactionId, merchantName, amount, type, date, category);
+        }
+    }
+
+    // Hand-over from the fetch thread besides pages
+    private static final Object RESTART = new Object();
+    private static final Object END = new Object();
+    private record FetchFailed(Throwable cause) {}
+
+    private final TransactionRepository transactionRepository;
+    private final AICategorizationService aiCategorizationService;
+    private final TransactionIngestWriter writer;
+    private final CategoryRegistry categoryRegistry;
+    private final int pageQueueCapacity;
+    // LLM batch slots shared by every run, so concurrent syncs together stay within the limit
+    private final Semaphore categorizeSlots;
+    private final Timer fetchTimer;
+    private final Timer normalizeTimer;
+    private final Timer categorizeTimer;
+    private final Timer persistTimer;
+
+    public TransactionIngestPipeline(TransactionRepository transactionRepository,
+                                     AICategorizationService aiCategorizationService,
+                                     TransactionIngestWriter writer, CategoryRegistry categoryRegistry,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${pathwise.ingest.page-queue-capacity:2}") int pageQueueCapacity,
+                                     @Value("${pathwise.ingest.categorize-parallelism:4}") int categorizeParallelism) {
+        this.transactionRepository = transactionRepository;
+        this.aiCategorizationService = aiCategorizationService;
+        this.writer = writer;
+        this.categoryRegistry = categoryRegistry;
+        this.pageQueueCapacity = pageQueueCapacity;
+        this.categorizeSlots = new Semaphore(categorizeParallelism);
+        this.fetchTimer = stageTimer(meterRegistry, "fetch");
+        this.normalizeTimer = stageTimer(meterRegistry, "normalize");
+        this.categorizeTimer = stageTimer(meterRegistry, "categorize");
+        this.persistTimer = stageTimer(meterRegistry, "persist");
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("pathwise.ingest.stage")
+                .description("Time spent in one stage of a Plaid sync ingest")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies the account's new Plaid activity since its sync cursor, then copies
+     * the stored cursor, balance and link status back onto the given account. A run
+     * with nothing new for an account that is already linked writes nothing.
+     *
+     * @param account Account to sync, read for its id, cursor and link status
+     * @param source Plaid pages for the account
+     * @return Number of new, modified and removed transactions Plaid reported
+     */
+    public int run(Account account, PageSource source) throws InterruptedException, ExecutionException {
+        BlockingQueue<Object> pages = new ArrayBlockingQueue<>(pageQueueCapacity);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> fetching = executor.submit(() -> fetch(account.getPlaidSyncCursor(), source, pages));
+            Staging staging = new Staging(executor);
+            try {
+                Object item;
+                while ((item = pages.take()) != END) {
+                    if (item instanceof FetchFailed failed) {
+                        if (failed.cause() instanceof Error error) throw error;
+                        throw (RuntimeException) failed.cause();
+                    }
+                    if (item == RESTART) {
+                        staging.cancel();
+                        staging = new Staging(executor);
+                        continue;
+                    }
+                    staging.accept((SyncPage) item);
+                }
+                staging.awaitCategories();
+            } finally {
+                // Unblocks the fetch thread and drops pending batches when a stage failed
+                fetching.cancel(true);
+                staging.cancel();
+            }
+
+            String nextCursor = staging.nextCursor != null ? staging.nextCursor : account.getPlaidSyncCursor();
+            if (staging.isEmpty() && Objects.equals(nextCursor, account.getPlaidSyncCursor())
+                    && !account.getLinkStatus().isInProgress()) {
+                log.debug("Nothing new for account {}", account.getId());
+                return 0;
+            }
+
+            long start = System.nanoTime();
+            // New categories commit on their own, before the write transaction takes its connection
+            staging.added.values().forEach(txn -> categoryRegistry.getOrCreate(txn.category()));
+            Account stored = writer.write(account.getId(), List.copyOf(staging.added.values()),
+                    staging.modified, staging.removed, nextCursor);
+            persistTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            account.setPlaidSyncCursor(stored.getPlaidSyncCursor());
+            account.setBalance(stored.getBalance());
+            account.setTotalExpensesToDate(stored.getTotalExpensesToDate());
+            account.setLinkStatus(stored.getLinkStatus());
+            return staging.changes();
+        }
+    }
+
+    /** The fetch stage: runs the source and queues its pages, then END or the failure. */
+    private void fetch(String cursor, PageSource source, BlockingQueue<Object> pages) {
+        long start = System.nanoTime();
+        Object last = END;
+        try {
+            source.fetch(cursor, new PageSink() {
+                @Override
+                public void page(SyncPage page) throws InterruptedException {
+                    pages.put(page);
+                }
+
+                @Override
+                public void restart() throws InterruptedException {
+                    pages.put(RESTART);
+                }
+            });
+        } catch (InterruptedException e) {
+            // The run was given up
+            return;
+        } catch (RuntimeException | Error e) {
+            last = new FetchFailed(e);
+        } finally {
+            fetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        try {
+            pages.put(last);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** An LLM batch in flight and whether it still holds its categorize slot. */
+    private record Batch(Future<Map<String, String>> result, AtomicBoolean slotHeld) {}
+
+    /** Gives a batch's slot back once, whether the batch finished or was cancelled. */
+    private void releaseSlot(AtomicBoolean slotHeld) {
+        if (slotHeld.compareAndSet(true, false)) categorizeSlots.release();
+    }
+
+    /** The normalize and categorize stages over one pass of the pages. */
+    private final class Staging {
+
+        private final ExecutorService executor;
+        private final Map<String, StagedTransaction> added = new LinkedHashMap<>();
+        private final List<StagedTransaction> modified = new ArrayList<>();
+        private final List<String> removed = new ArrayList<>();
+        private final List<Batch> batches = new ArrayList<>();
+        private long categorizeStart;
+        private String nextCursor;
+
+        private Staging(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        void accept(SyncPage page) throws InterruptedException {
+            long start = System.nanoTime();
+
+            // Ids already stored, e.g. on a resync from the start; one query per chunk instead of per row
+            Set<String> known = findStoredPlaidTransactionIds(page.added());
+            List<Map<String, Object>> forAI = new ArrayList<>();
+            for (Map<String, Object> txn : page.added()) {
+                String plaidTxnId = (String) txn.get("transaction_id");
+                // Skip if transaction already exists or repeats within the run
+                if (known.contains(plaidTxnId) || added.containsKey(plaidTxnId)) {
+                    continue;
+                }
+
+                BigDecimal usdAmount = extractAmount(txn.get("amount"));
+                BigDecimal bhdAmount = toBhd(usdAmount);
+                StagedTransaction staged = normalize(txn, usdAmount);
+                String categoryName = fallbackByAmount(bhdAmount);
+
+                if (staged.merchantName() == null || staged.merchantName().trim().isEmpty()) {
+                    staged = new StagedTransaction(plaidTxnId,
+                            aiCategorizationService.generateMerchantName(categoryName, bhdAmount, null),
+                            staged.amount(), staged.type(), staged.date(), categoryName);
+                } else {
+                    // The amount-based category stands until the LLM answers
+                    staged = staged.withCategory(categoryName);
+                    Map<String, Object> txnInfo = new HashMap<>();
+                    txnInfo.put("id", plaidTxnId);
+                    txnInfo.put("merchantName", staged.merchantName());
+                    txnInfo.put("amount", bhdAmount);
+                    forAI.add(txnInfo);
+                }
+                added.put(plaidTxnId, staged);
+            }
+            for (Map<String, Object> txn : page.modified()) {
+                modified.add(normalize(txn, extractAmount(txn.get("amount"))));
+            }
+            for (Map<String, Object> txn : page.removed()) {
+                removed.add((String) txn.get("transaction_id"));
+            }
+            nextCursor = page.nextCursor();
+            normalizeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            for (int i = 0; i < forAI.size(); i += CATEGORIZE_BATCH_SIZE) {
+                List<Map<String, Object>> batch = forAI.subList(i, Math.min(i + CATEGORIZE_BATCH_SIZE, forAI.size()));
+                categorizeSlots.acquire();
+                if (batches.isEmpty()) categorizeStart = System.nanoTime();
+                AtomicBoolean slotHeld = new AtomicBoolean(true);
+                batches.add(new Batch(executor.submit(() -> {
+                    try {
+                        return categorize(batch);
+                    } finally {
+                        releaseSlot(slotHeld);
+                    }
+                }), slotHeld));
+            }
+        }
+
+        /** Waits for the LLM batches and applies their categories. */
+        void awaitCategories() throws InterruptedException, ExecutionException {
+            if (batches.isEmpty()) return;
+            for (Batch batch : batches) {
+                batch.result().get().forEach((id, category) -> {
+                    if (category != null) added.computeIfPresent(id, (key, txn) -> txn.withCategory(category));
+                });
+            }
+            categorizeTimer.record(System.nanoTime() - categorizeStart, TimeUnit.NANOSECONDS);
+        }
+
+        void cancel() {
+            // A batch cancelled before it started never reaches its finally, so its slot is given back here
+            for (Batch batch : batches) {
+                batch.result().cancel(true);
+                releaseSlot(batch.slotHeld());
+            }
+        }
+
+        boolean isEmpty() {
+            return changes() == 0;
+        }
+
+        int changes() {
+            return added.size() + modified.size() + removed.size();
+        }
+    }
+
+    /** One LLM batch; the amount-based fallback if the call fails. */
+    private Map<String, String> categorize(List<Map<String, Object>> batch) {
+        try {
+            return aiCategorizationService.categorizeBatch(batch);
+        } catch (Exception e) {
+            log.error("Batch processing failed, falling back to individual categorization", e);
+            Map<String, String> fallback = new HashMap<>();
+            for (Map<String, Object> txnInfo : batch) {
+                fallback.put((String) txnInfo.get("id"), fallbackByAmount((BigDecimal) txnInfo.get("amount")));
+            }
+            return fallback;
+        }
+    }
+
+    /**
+     * Returns which of the Plaid transactions are already stored, querying the ids
+     * in chunks to keep the IN list bounded.
+     */
+    private Set<String> findStoredPlaidTransactionIds(List<Map<String, Object>> transactions) {
+        List<String> ids = transactions.stream().map(t -> (String) t.get("transaction_id")).toList();
+        Set<String> stored = new HashSet<>();
+        for (int i = 0; i < ids.size(); i += ID_LOOKUP_CHUNK) {
+            stored.addAll(transactionRepository.findExistingPlaidTransactionIds(
+                    ids.subList(i, Math.min(i + ID_LOOKUP_CHUNK, ids.size()))));
+        }
+        return stored;
+    }
+
+    /** Converts a Plaid transaction, keeping its merchant name as reported. */
+    private static StagedTransaction normalize(Map<String, Object> txn, BigDecimal usdAmount) {
+        String merchantName = (String) txn.get("merchant_name");
+        return new StagedTransaction(
+                (String) txn.get("transaction_id"),
+                merchantName,
+                toBhd(usdAmount).abs(),
+                transactionTypeOf(merchantName, usdAmount),
+                LocalDate.parse((String) txn.get("date")),
+                null);
+    }
+
+    private static BigDecimal toBhd(BigDecimal usdAmount) {
+        return usdAmount.multiply(USD_TO_BHD).setScale(3, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Classifies a Plaid transaction as income or expense: income when the merchant
+     * name reads like one, or when Plaid reports money flowing into the account
+     * (negative amount).
+     *
+     * @param merchantName Plaid merchant name, may be null
+     * @param originalAmount Plaid amount, positive for money out
+     * @return CREDIT or DEBIT
+     */
+    private static TransactionType transactionTypeOf(String merchantName, BigDecimal originalAmount) {
+        if (merchantName != null) {
+            String upperName = merchantName.toUpperCase();
+            if (upperName.contains("SALARY") ||
+                upperName.contains("PAYROLL") ||
+                upperName.contains("DEPOSIT") ||
+                upperName.contains("INTEREST") ||
+                upperName.contains("DIVIDEND") ||
+                upperName.contains("REFUND") ||
+                upperName.contains("REIMBURSEMENT") ||
+                upperName.contains("TRANSFER FROM") ||
+                upperName.contains("DIRECT DEPOSIT") ||
+                upperName.contains("PAYCHECK") ||
+                upperName.contains("BONUS") ||
+                upperName.contains("INCOME")) {
+                return TransactionType.CREDIT;
+            }
+        }
+        return originalAmount.compareTo(BigDecimal.ZERO) < 0 ? TransactionType.CREDIT : TransactionType.DEBIT;
+    }
+
+    /**
+     * Determines a fallback category based on transaction amount.
+     *
+     * @param amount Transaction amount
+     * @return Category name
+     */
+    private static String fallbackByAmount(BigDecimal amount) {
+        if (amount.compareTo(new BigDecimal("500")) > 0) return "SHOPPING";
+        if (amount.compareTo(new BigDecimal("100")) > 0) return "FOOD & DINING";
+        if (amount.compareTo(new BigDecimal("50")) > 0) return "TRANSPORT";
+        if (amount.compareTo(new BigDecimal("20")) > 0) return "ENTERTAINMENT";
+        return "OTHER";
+    }
+
+    /**
+     * Extracts a BigDecimal amount from various object types.
+     *
+     * @param obj Amount object from Plaid response
+     * @return Extracted BigDecimal amount
+     */
+    private static BigDecimal extractAmount(Object obj) {
+        if (obj == null) return BigDecimal.ZERO;
+        if (obj instanceof Number n) return BigDecimal.valueOf(n.doubleValue());
+        return new BigDecimal(obj.toString());
+    }
+}
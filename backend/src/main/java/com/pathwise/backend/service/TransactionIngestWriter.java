@@ -0,0 +1,221 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.enums.AccountLinkStatus;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.enums.VersionedResource;
+import com.pathwise.backend.event.TransactionsIngestedEvent;
+import com.pathwise.backend.exception.AccountNotFoundException;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.AnomalyRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.service.TransactionIngestPipeline.StagedTransaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persist stage of {@link TransactionIngestPipeline}: applies one staged sync run
+ * in a single write transaction that makes no remote calls. Inserts, rollups,
+ * statistics, anomalies, the balance and the new cursor commit together.
+ *
+ * @author PathWise Team
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionIngestWriter {
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategoryRegistry categoryRegistry;
+    private final MonthlySpendRollupService rollupService;
+    private final CategorySpendStatsService statsService;
+    private final TransactionAnomalyDetector anomalyDetector;
+    private final AnomalyRepository anomalyRepository;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Inserts added transactions, updates modified ones and deletes removed ones,
+     * keeping the spend rollup and the account balance in step, then stores the
+     * new cursor. An account still PENDING its card link turns ACTIVE here, with
+     * its first sync.
+     *
+     * @param accountId Account the run belongs to
+     * @param added New transactions, with their categories
+     * @param modified Changed transactions
+     * @param removed Plaid ids of removed transactions
+     * @param nextCursor Cursor after the run
+     * @return The account as stored
+     */
+    @Transactional
+    public Account write(UUID accountId, List<StagedTransaction> added, List<StagedTransaction> modified,
+                         List<String> removed, String nextCursor) {
+        // Locked until commit, so concurrent syncs of one account apply their balance changes in turn
+        Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        User user = account.getUser();
+
+        // Merchant history has to be loaded before this batch is inserted
+        anomalyDetector.prepare(user.getId());
+
+        List<Transaction> toInsert = new ArrayList<>(added.size());
+        for (StagedTransaction txn : added) {
+            toInsert.add(Transaction.builder()
+                    .account(account)
+                    // Held in memory; the pipeline created any new ones before this transaction
+                    .category(categoryRegistry.getOrCreate(txn.category()))
+                    .plaidTransactionId(txn.plaidTransactionId())
+                    .merchantName(txn.merchantName())
+                    .amount(txn.amount())
+                    .type(txn.type())
+                    .currency("BHD")
+                    .transactionDate(txn.date())
+                    .aiCategoryRaw(txn.category())
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+
+        // Batched insert that skips rows a concurrent sync stored in the meantime
+        List<Transaction> saved = transactionRepository.insertIgnoringDuplicates(toInsert);
+
+        // Track balance change for BOTH income and expenses
+        BigDecimal totalBalanceChange = saved.stream()
+                .map(TransactionIngestWriter::balanceEffect)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Same transaction as the inserts above: rollup and statistics never run ahead of or behind them
+        rollupService.addTransactions(user, saved);
+        statsService.addTransactions(user, saved);
+        anomalyRepository.saveAll(anomalyDetector.detect(user, saved));
+
+        BigDecimal modifiedChange = applyModified(account, modified);
+        BigDecimal removedChange = applyRemoved(account, removed);
+        totalBalanceChange = totalBalanceChange.add(modifiedChange).add(removedChange);
+        if (!modified.isEmpty() || !removed.isEmpty()) {
+            // Merchant history no longer matches the table
+            anomalyDetector.forget(user.getId());
+        }
+
+        // Update account balance with net change from ALL transactions
+        if (totalBalanceChange.compareTo(BigDecimal.ZERO) != 0) {
+            account.setBalance(account.getBalance().add(totalBalanceChange));
+
+            // Update total expenses to date
+            if (totalBalanceChange.compareTo(BigDecimal.ZERO) < 0) {
+                BigDecimal currentTotalExpenses = account.getTotalExpensesToDate() != null ?
+                    account.getTotalExpensesToDate() : BigDecimal.ZERO;
+                account.setTotalExpensesToDate(currentTotalExpenses.add(totalBalanceChange.abs()));
+            }
+        }
+
+        // Committed with the rows it covers, so a failed sync is fetched again
+        account.setPlaidSyncCursor(nextCursor);
+        boolean activated = account.getLinkStatus().isInProgress();
+        if (activated) {
+            account.setLinkStatus(AccountLinkStatus.ACTIVE);
+            account.setLinkClaimedAt(null);
+        }
+        accountRepository.save(account);
+
+        int changes = saved.size() + modified.size() + removed.size();
+        if (changes > 0) {
+            resourceVersions.bump(user.getId(),
+                    VersionedResource.ANALYTICS, VersionedResource.ANOMALIES, VersionedResource.PROFILE);
+            // Anomaly detection runs once this transaction has committed
+            eventPublisher.publishEvent(new TransactionsIngestedEvent(user.getId(), changes));
+        } else if (activated) {
+            // A card linked with no history still changes the profile's linked card
+            resourceVersions.bump(user.getId(), VersionedResource.PROFILE);
+        }
+        log.info("Synced account {}: {} added, {} modified, {} removed",
+                account.getId(), saved.size(), modified.size(), removed.size());
+        return account;
+    }
+
+    /**
+     * Updates stored transactions that Plaid reports as modified, moving them
+     * between rollup rows and category statistics when their amount, date or
+     * type changed.
+     *
+     * @return Net change of the account balance
+     */
+    private BigDecimal applyModified(Account account, List<StagedTransaction> modified) {
+        if (modified.isEmpty()) return BigDecimal.ZERO;
+
+        User user = account.getUser();
+        Map<String, StagedTransaction> byId = modified.stream()
+                .collect(Collectors.toMap(StagedTransaction::plaidTransactionId, Function.identity(), (a, b) -> b));
+        List<Transaction> stored = transactionRepository.findByAccountIdAndPlaidTransactionIdIn(
+                account.getId(), byId.keySet());
+        if (stored.isEmpty()) return BigDecimal.ZERO;
+
+        rollupService.removeTransactions(user, stored);
+        statsService.removeTransactions(user, stored);
+        BigDecimal change = BigDecimal.ZERO;
+        for (Transaction transaction : stored) {
+            StagedTransaction txn = byId.get(transaction.getPlaidTransactionId());
+
+            change = change.subtract(balanceEffect(transaction));
+            transaction.setAmount(txn.amount());
+            transaction.setType(txn.type());
+            transaction.setTransactionDate(txn.date());
+            if (txn.merchantName() != null && !txn.merchantName().trim().isEmpty()) {
+                transaction.setMerchantName(txn.merchantName());
+            }
+            change = change.add(balanceEffect(transaction));
+        }
+        rollupService.addTransactions(user, stored);
+        statsService.addTransactions(user, stored);
+        return change;
+    }
+
+    /**
+     * Deletes stored transactions that Plaid reports as removed, e.g. a pending
+     * charge replaced by its posted one, together with their rollup share, their
+     * share of the category statistics and the transaction-level anomalies about them.
+     *
+     * @return Net change of the account balance
+     */
+    private BigDecimal applyRemoved(Account account, List<String> removed) {
+        if (removed.isEmpty()) return BigDecimal.ZERO;
+
+        User user = account.getUser();
+        List<Transaction> stored = transactionRepository.findByAccountIdAndPlaidTransactionIdIn(
+                account.getId(), removed);
+        if (stored.isEmpty()) return BigDecimal.ZERO;
+
+        rollupService.removeTransactions(user, stored);
+        statsService.removeTransactions(user, stored);
+        anomalyRepository.deleteTransactionLevelByTransactionIn(stored);
+        anomalyRepository.unlinkTransactions(stored);
+        transactionRepository.deleteAll(stored);
+
+        return stored.stream()
+                .map(TransactionIngestWriter::balanceEffect)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .negate();
+    }
+
+    /** A transaction's effect on the account balance: debits subtract, credits add. */
+    private static BigDecimal balanceEffect(Transaction transaction) {
+        return transaction.getType() == TransactionType.CREDIT
+                ? transaction.getAmount()
+                : transaction.getAmount().negate();
+    }
+}
@@ -1,24 +1,33 @@
 package com.pathwise.backend.service;
 
+import com.pathwise.backend.dto.TransactionCursorPage;
 import com.pathwise.backend.dto.TransactionResponse;
-import com.pathwise.backend.enums.TransactionType;
 import com.pathwise.backend.exception.UserNotFoundException;
 import com.pathwise.backend.model.Transaction;
 import com.pathwise.backend.model.User;
 import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.TransactionSpecifications;
 import com.pathwise.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,6 +38,13 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
 
+    /** Maximum number of results returned by the merchant search. */
+    private static final int MAX_SEARCH_RESULTS = 50;
+
+    /** Enabled where the pg_trgm index from V12 exists (PostgreSQL). */
+    @Value("${pathwise.search.trigram-enabled:false}")
+    private boolean trigramSearchEnabled;
+
     public Page<TransactionResponse> getTransactions(
             String search, 
             String category, 
@@ -41,113 +57,176 @@ public class TransactionService {
 
         User user = getCurrentUser();
 
-        // Get all transactions for the user
-        List<Transaction> allTransactions;
+        Specification<Transaction> spec = buildFilter(user.getId(), search, category, type, month, year);
+        Pageable sortedPage = PageRequest.of(
+                pageable.getPageNumber(), pageable.getPageSize(),
+                TransactionSpecifications.sortOf(sortBy, sortDir));
 
-        if (month != null && year != null) {
-            LocalDate start = LocalDate.of(year, month, 1);
-            LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
-            allTransactions = transactionRepository
-                    .findByAccountUserIdAndTransactionDateBetween(user.getId(), start, end);
-        } else {
-            allTransactions = transactionRepository.findByAccountUserId(user.getId());
+        // Filtering, ordering and LIMIT/OFFSET run in SQL, with a separate COUNT query.
+        // Rows are selected straight into TransactionResponse, no entities are loaded.
+        Page<TransactionResponse> page = transactionRepository.findResponses(spec, sortedPage);
+
+        log.debug("Transactions page {} for user {} - {} of {} matching (type filter: {})",
+                pageable.getPageNumber(), user.getId(), page.getNumberOfElements(),
+                page.getTotalElements(), type);
+
+        return page;
+    }
+
+    /**
+     * Keyset (seek) variant of {@link #getTransactions}. Instead of an OFFSET it
+     * resumes after the row encoded in the cursor, so every page costs the same
+     * regardless of how deep the user has scrolled. No total count is computed.
+     *
+     * @param cursor Cursor returned by the previous page (null/blank for the first page)
+     * @param size Page size
+     * @return Page content with the cursor of the next page
+     * @throws IllegalArgumentException if the sort key is not supported or the cursor is invalid
+     */
+    public TransactionCursorPage getTransactionsAfter(
+            String search,
+            String category,
+            String type,
+            Integer month,
+            Integer year,
+            String sortBy,
+            String sortDir,
+            String cursor,
+            int size) {
+
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
         }
 
-        log.info("Before filtering - total transactions: {}", allTransactions.size());
-        
-        // Count by type for debugging
-        long creditCount = allTransactions.stream()
-            .filter(t -> t.getType() == TransactionType.CREDIT).count();
-        long debitCount = allTransactions.stream()
-            .filter(t -> t.getType() == TransactionType.DEBIT).count();
-        log.info("Available in all transactions - CREDIT (Income): {}, DEBIT (Expense): {}", creditCount, debitCount);
-
-        // Apply filters
-        List<Transaction> filtered = allTransactions.stream()
-                .filter(t -> {
-                    // Search filter
-                    if (search != null && !search.trim().isEmpty()) {
-                        String merchant = t.getMerchantName() != null ? t.getMerchantName().toLowerCase() : "";
-                        if (!merchant.contains(search.toLowerCase())) {
-                            return false;
-                        }
-                    }
-                    // Category filter
-                    if (category != null && !category.trim().isEmpty()) {
-                        String txnCategory = t.getCategory() != null ? t.getCategory().getName() : "OTHER";
-                        if (!txnCategory.equals(category)) {
-                            return false;
-                        }
-                    }
-                    // Type filter (CREDIT = Income, DEBIT = Expense)
-                    if (type != null && !type.trim().isEmpty()) {
-                        if (type.equals("CREDIT") && t.getType() != TransactionType.CREDIT) {
-                            return false;
-                        }
-                        if (type.equals("DEBIT") && t.getType() != TransactionType.DEBIT) {
-                            return false;
-                        }
-                    }
-                    return true;
-                })
-                .collect(Collectors.toList());
-
-        log.info("After filtering - filtered transactions: {}, type filter: {}", filtered.size(), type);
-
-        // Apply sorting
-        if (sortBy != null && sortDir != null) {
-            Comparator<Transaction> comparator = getComparator(sortBy, sortDir);
-            filtered.sort(comparator);
-        } else {
-            // Default sort by date desc
-            filtered.sort((a, b) -> b.getTransactionDate().compareTo(a.getTransactionDate()));
+        User user = getCurrentUser();
+
+        String key = "amount".equals(sortBy) ? "amount" : "transactionDate";
+        if (sortBy != null && !sortBy.equals(key)) {
+            throw new IllegalArgumentException("Cursor pagination supports sortBy=transactionDate or sortBy=amount");
+        }
+        Sort.Direction direction = sortBy == null || sortDir == null || sortDir.equalsIgnoreCase("DESC")
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        Specification<Transaction> spec = buildFilter(user.getId(), search, category, type, month, year);
+
+        if (cursor != null && !cursor.isBlank()) {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            if (!position.sortBy().equals(key) || position.direction() != direction) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            spec = spec.and(key.equals("amount")
+                    ? TransactionSpecifications.seekAfter(key, direction, position.<BigDecimal>keyValue(), position.id())
+                    : TransactionSpecifications.seekAfter(key, direction, position.<LocalDate>keyValue(), position.id()));
         }
 
-        // Apply pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), filtered.size());
-        List<Transaction> pageContent = start > filtered.size() ?
-                List.of() : filtered.subList(start, end);
+        Sort sort = Sort.by(new Sort.Order(direction, key), new Sort.Order(direction, "id"));
 
-        List<TransactionResponse> responses = pageContent.stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        // Fetch one extra row to know whether another page exists
+        List<TransactionResponse> rows = transactionRepository.findResponses(spec, sort, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<TransactionResponse> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            TransactionResponse last = pageRows.get(pageRows.size() - 1);
+            String value = key.equals("amount")
+                    ? last.getAmount().toPlainString()
+                    : last.getTransactionDate().toString();
+            nextCursor = new TransactionCursor(key, direction, value, last.getId()).encode();
+        }
 
-        return new PageImpl<>(responses, pageable, filtered.size());
+        return TransactionCursorPage.builder()
+                .content(List.copyOf(pageRows))
+                .size(pageRows.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
     }
 
-    private Comparator<Transaction> getComparator(String sortBy, String sortDir) {
-        Comparator<Transaction> comparator;
-
-        switch (sortBy) {
-            case "amount":
-                comparator = Comparator.comparing(Transaction::getAmount);
-                break;
-            case "merchantName":
-                comparator = Comparator.comparing(Transaction::getMerchantName,
-                        Comparator.nullsLast(String::compareTo));
-                break;
-            case "transactionDate":
-            default:
-                comparator = Comparator.comparing(Transaction::getTransactionDate);
-                break;
+    /**
+     * Typo-tolerant merchant search ranked by trigram word similarity,
+     * e.g. "starbuks" finds "STARBUCKS COFFEE". On PostgreSQL this runs against the
+     * pg_trgm GIN index; elsewhere the user's distinct merchant names are scored in memory.
+     *
+     * @param query Search term
+     * @param limit Maximum number of results (capped at 50)
+     * @return Matching transactions, best match first, newest first within a match
+     * @throws IllegalArgumentException if the query is blank
+     */
+    public List<TransactionResponse> searchByMerchant(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
         }
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        String term = query.trim();
+
+        User user = getCurrentUser();
+
+        List<TransactionResponse> matches = trigramSearchEnabled
+                ? searchByMerchantTrigram(user.getId(), term, cappedLimit)
+                : searchByMerchantInMemory(user.getId(), term, cappedLimit);
 
-        return sortDir.equalsIgnoreCase("DESC") ? comparator.reversed() : comparator;
+        log.debug("Merchant search '{}' for user {} - {} matches", term, user.getId(), matches.size());
+
+        return matches;
     }
 
-    private TransactionResponse toResponse(Transaction t) {
-        return TransactionResponse.builder()
-                .id(t.getId())
-                .merchantName(t.getMerchantName())
-                .amount(t.getAmount())
-                .type(t.getType().name())
-                .currency(t.getCurrency())
-                .transactionDate(t.getTransactionDate())
-                .category(t.getCategory() != null ? t.getCategory().getName() : "OTHER")
-                .categoryIcon(t.getCategory() != null ? t.getCategory().getIcon() : "💳")
-                .categoryColor(t.getCategory() != null ? t.getCategory().getColorHex() : "#95A5A6")
-                .build();
+    /**
+     * Ranks IDs with the trigram index, then loads the rows as projections
+     * and restores the ranking.
+     */
+    private List<TransactionResponse> searchByMerchantTrigram(UUID userId, String query, int limit) {
+        List<UUID> rankedIds = transactionRepository.searchIdsByMerchantTrigram(userId, query, limit);
+        if (rankedIds.isEmpty()) return List.of();
+
+        Map<UUID, TransactionResponse> rows = transactionRepository.findResponsesByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(TransactionResponse::getId, Function.identity()));
+        return rankedIds.stream().map(rows::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Fallback for databases without pg_trgm. Scoring runs per distinct merchant
+     * name, so only the matching merchants' transactions are loaded.
+     */
+    private List<TransactionResponse> searchByMerchantInMemory(UUID userId, String query, int limit) {
+        Map<String, Double> scores = transactionRepository.findDistinctMerchantNamesByUserId(userId).stream()
+                .collect(Collectors.toMap(Function.identity(), name -> MerchantTrigrams.wordSimilarity(query, name)));
+        scores.values().removeIf(score -> score < MerchantTrigrams.WORD_SIMILARITY_THRESHOLD);
+        if (scores.isEmpty()) return List.of();
+
+        return transactionRepository.findResponsesByUserIdAndMerchantNameIn(userId, scores.keySet()).stream()
+                .sorted(Comparator.comparing((TransactionResponse t) -> scores.get(t.getMerchantName())).reversed()
+                        .thenComparing(TransactionResponse::getTransactionDate, Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Combines the list API filters into a single Specification.
+     *
+     * @param userId Owner of the transactions
+     * @param search Merchant name search term
+     * @param category Category name filter
+     * @param type Transaction type filter (CREDIT/DEBIT)
+     * @param month Month filter (used together with year)
+     * @param year Year filter (used together with month)
+     * @return Combined Specification
+     */
+    private Specification<Transaction> buildFilter(
+            UUID userId, String search, String category, String type, Integer month, Integer year) {
+
+        Specification<Transaction> spec = TransactionSpecifications.belongsToUser(userId);
+
+        if (month != null && year != null) {
+            LocalDate start = LocalDate.of(year, month, 1);
+            LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
+            spec = spec.and(TransactionSpecifications.dateBetween(start, end));
+        }
+
+        return spec
+                .and(TransactionSpecifications.merchantContains(search))
+                .and(TransactionSpecifications.hasCategory(category))
+                .and(TransactionSpecifications.hasType(type));
     }
 
     private User getCurrentUser() {
@@ -0,0 +1,23 @@
+-- Duplicate rows left by concurrent syncs, removed before V11 makes
+-- plaid_transaction_id unique. Each duplicate was also applied to its account's
+-- balance and expenses when it was ingested, so both are given back in the same
+-- transaction as the delete.
+WITH removed AS (
+    DELETE FROM transactions t
+    USING transactions d
+    WHERE t.plaid_transaction_id = d.plaid_transaction_id
+      AND t.ctid > d.ctid
+    RETURNING t.account_id, t.amount, t.type
+),
+per_account AS (
+    SELECT account_id,
+           SUM(CASE WHEN type = 'CREDIT' THEN amount ELSE -amount END) AS balance_effect,
+           SUM(CASE WHEN type = 'CREDIT' THEN 0 ELSE amount END) AS expenses
+    FROM removed
+    GROUP BY account_id
+)
+UPDATE accounts a
+SET balance = a.balance - p.balance_effect,
+    total_expenses_to_date = GREATEST(COALESCE(a.total_expenses_to_date, 0) - p.expenses, 0)
+FROM per_account p
+WHERE a.id = p.account_id;
@@ -0,0 +1,44 @@
+-- Secondary indexes for the hot repository queries.
+-- Each index mirrors an @Index declared on the matching entity.
+-- Built CONCURRENTLY so that writes to these tables go on during the build, which
+-- cannot run inside a transaction (see V11__add_query_indexes.sql.conf). A build
+-- that fails leaves an INVALID index behind; drop it before re-running.
+
+-- TransactionRepository: findByAccountUserId*, findByAccountAndTransactionDateBetween
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_accounts_user_id ON accounts (user_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_accounts_plaid_account_id ON accounts (plaid_account_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_account_date ON transactions (account_id, transaction_date);
+
+-- TransactionRepository.existsByPlaidTransactionId (one lookup per ingested row).
+-- Duplicates left by concurrent syncs were removed by V10_1.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uq_transactions_plaid_transaction_id ON transactions (plaid_transaction_id);
+
+-- AnomalyRepository.findByUserIdAndIsDismissedFalseOrderByCreatedAtDesc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_anomalies_user_dismissed_created ON anomalies (user_id, is_dismissed, created_at DESC);
+
+-- AdviceHistoryRepository.findTop10ByUserIdOrderByCreatedAtDesc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_advice_history_user_created ON advice_history (user_id, created_at DESC);
+
+-- GoalRepository.findByUserId, sumMonthlySavingsTargetByUserId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_goals_user_id ON goals (user_id);
+
+-- ReportRepository, SimulationRepository, MilestoneRepository
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reports_user_created ON reports (user_id, created_at DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_simulations_goal_id ON simulations (goal_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_milestones_goal_id ON milestones (goal_id);
+
+-- EmailVerificationTokenRepository and MonthlyExpenseRepository.
+-- These tables are created by Hibernate, so they may not exist yet on a fresh
+-- database; in that case the indexes are created from the entity mappings instead.
+-- CONCURRENTLY is not allowed inside a DO block; both tables hold a few rows per user.
+DO $$
+BEGIN
+    IF to_regclass('email_verification_tokens') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_evt_email_purpose_active
+            ON email_verification_tokens (email, purpose, used, expires_at);
+    END IF;
+    IF to_regclass('monthly_expenses') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_monthly_expenses_user_id
+            ON monthly_expenses (user_id);
+    END IF;
+END $$;
@@ -0,0 +1,7 @@
+-- Trigram index for merchant search.
+-- Serves both the fuzzy search (<% / word_similarity) and the
+-- existing lower(merchant_name) LIKE '%term%' filter of the transaction list.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_merchant_trgm
+    ON transactions USING gin (lower(merchant_name) gin_trgm_ops);
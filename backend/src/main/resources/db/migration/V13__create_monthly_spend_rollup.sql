@@ -0,0 +1,15 @@
+-- Per-user monthly totals by category and transaction type.
+-- Maintained by PlaidService on ingest and rebuilt by MonthlySpendRollupJob.
+-- month_start is the first day of the month; category is the category name,
+-- 'OTHER' for uncategorized transactions.
+CREATE TABLE IF NOT EXISTS monthly_spend_rollup (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id),
+    month_start DATE NOT NULL,
+    category VARCHAR(100) NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    total_amount DECIMAL(14,3) NOT NULL DEFAULT 0,
+    transaction_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT NOW(),
+    CONSTRAINT uq_monthly_spend_rollup UNIQUE (user_id, month_start, category, type)
+);
@@ -0,0 +1,24 @@
+-- Running per-user, per-category statistics of debit amounts.
+-- Updated by CategorySpendStatsService on ingest and rebuilt by MonthlySpendRollupJob.
+-- mean/m2 are Welford's running mean and sum of squared deviations over sample_count
+-- transactions; ewma is the exponentially weighted moving average. The month_* columns
+-- cover month_start only and reset when a later month's transaction arrives; month_peak_*
+-- is the transaction with the highest deviation score in that month.
+CREATE TABLE IF NOT EXISTS category_spend_stats (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id),
+    category VARCHAR(100) NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+    m2 DOUBLE PRECISION NOT NULL DEFAULT 0,
+    ewma DOUBLE PRECISION NOT NULL DEFAULT 0,
+    month_start DATE,
+    month_count INTEGER NOT NULL DEFAULT 0,
+    month_total DECIMAL(14,3) NOT NULL DEFAULT 0,
+    month_peak_score DOUBLE PRECISION,
+    month_peak_amount DECIMAL(14,3),
+    month_peak_transaction_id UUID,
+    updated_at TIMESTAMP DEFAULT NOW(),
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uq_category_spend_stats UNIQUE (user_id, category)
+);
@@ -0,0 +1,4 @@
+-- Transaction-level anomalies (outlier amount, duplicate charge, new merchant) live next
+-- to the category-month ones; kind tells them apart and transaction_id links the former.
+ALTER TABLE anomalies ADD COLUMN IF NOT EXISTS kind VARCHAR(20) NOT NULL DEFAULT 'CATEGORY_SPIKE';
+CREATE INDEX IF NOT EXISTS idx_anomalies_transaction_id ON anomalies (transaction_id);
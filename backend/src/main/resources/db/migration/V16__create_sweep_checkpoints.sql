@@ -0,0 +1,12 @@
+-- Progress of the nightly sweeps, one row per job. last_user_id is the highest user id
+-- below which every user has been processed in the run started at run_started_at;
+-- completed_at stays NULL until the run finishes, so an interrupted run resumes after it.
+CREATE TABLE IF NOT EXISTS sweep_checkpoints (
+    job VARCHAR(50) PRIMARY KEY,
+    run_started_at TIMESTAMP NOT NULL,
+    last_user_id UUID,
+    users_processed BIGINT NOT NULL DEFAULT 0,
+    anomalies_created BIGINT NOT NULL DEFAULT 0,
+    completed_at TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT NOW()
+);
@@ -0,0 +1,3 @@
+-- Cursor of the last /transactions/sync page applied to the account.
+-- NULL means the next sync starts from the beginning of the item's history.
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS plaid_sync_cursor TEXT;
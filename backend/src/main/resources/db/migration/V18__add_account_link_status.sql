@@ -0,0 +1,6 @@
+-- Card linking runs in the background: the account is saved as PENDING and becomes
+-- ACTIVE once its Plaid item is connected and the first sync is stored, or FAILED
+-- with the reason in link_error. Accounts linked before this are all ACTIVE.
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS link_status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE';
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS link_error TEXT;
+CREATE INDEX IF NOT EXISTS idx_accounts_link_status ON accounts (link_status) WHERE link_status <> 'ACTIVE';
@@ -0,0 +1,6 @@
+-- Background sync: each linked account is synced again at next_sync_at, further
+-- apart the more syncs in a row found nothing new (idle_syncs). Existing accounts
+-- start unscheduled and are spread over the first interval by the scheduler.
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS next_sync_at TIMESTAMP;
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS idle_syncs INTEGER NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS idx_accounts_next_sync_at ON accounts (next_sync_at);
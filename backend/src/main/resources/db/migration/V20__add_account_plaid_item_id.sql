@@ -0,0 +1,6 @@
+-- Plaid webhooks identify the item, not the account: keep each account's item id
+-- so a SYNC_UPDATES_AVAILABLE webhook can find the account to sync. Accounts
+-- linked before this migration have none until they are linked again, and keep
+-- being synced by the background schedule.
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS plaid_item_id VARCHAR(255);
+CREATE INDEX IF NOT EXISTS idx_accounts_plaid_item_id ON accounts (plaid_item_id);
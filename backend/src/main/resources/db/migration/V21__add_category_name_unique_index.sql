@@ -0,0 +1,28 @@
+-- CategoryRegistry creates categories concurrently and relies on a unique name to
+-- keep one row per category. The categories table is created by Hibernate, so on a
+-- new database there is nothing to do here. Where it already exists without a
+-- unique index on the name, duplicates from the old check-then-insert are first
+-- merged into the row with the lowest id.
+DO $$
+BEGIN
+    IF to_regclass('categories') IS NULL
+       OR EXISTS (SELECT 1 FROM pg_indexes
+                  WHERE tablename = 'categories'
+                    AND indexdef LIKE 'CREATE UNIQUE INDEX % (name)') THEN
+        RETURN;
+    END IF;
+
+    CREATE TEMP TABLE category_duplicates ON COMMIT DROP AS
+        SELECT c.id AS duplicate_id, k.id AS keep_id
+        FROM categories c
+        JOIN (SELECT name, MIN(id::text)::uuid AS id FROM categories GROUP BY name) k ON k.name = c.name
+        WHERE c.id <> k.id;
+
+    UPDATE transactions t SET category_id = d.keep_id
+    FROM category_duplicates d WHERE t.category_id = d.duplicate_id;
+    UPDATE anomalies a SET category_id = d.keep_id
+    FROM category_duplicates d WHERE a.category_id = d.duplicate_id;
+    DELETE FROM categories c USING category_duplicates d WHERE c.id = d.duplicate_id;
+
+    CREATE UNIQUE INDEX uk_categories_name ON categories (name);
+END $$;
@@ -0,0 +1,4 @@
+-- A PENDING card link is claimed by the node that runs it (link_status LINKING), so
+-- nodes resuming links at startup do not link one account twice. link_claimed_at
+-- lets a claim left by a node that died mid-link be taken over.
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS link_claimed_at TIMESTAMP;
@@ -0,0 +1,36 @@
+-- The name's uniqueness is declared once, as uk_categories_name (see V21). Tables
+-- created while the entity marked the column itself unique carry Hibernate's
+-- auto-named constraint instead; V21 accepted that one, and Hibernate would then add
+-- uk_categories_name beside it. Here the first unique index on the name takes that
+-- name and any other is dropped.
+DO $$
+DECLARE
+    kept BOOLEAN := to_regclass('uk_categories_name') IS NOT NULL;
+    duplicate RECORD;
+BEGIN
+    IF to_regclass('categories') IS NULL THEN
+        RETURN;
+    END IF;
+
+    FOR duplicate IN
+        SELECT ci.relname AS index_name, c.conname
+        FROM pg_index i
+        JOIN pg_class ci ON ci.oid = i.indexrelid
+        JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attname = 'name'
+        LEFT JOIN pg_constraint c ON c.conindid = i.indexrelid AND c.conrelid = i.indrelid
+        WHERE i.indrelid = 'categories'::regclass
+          AND i.indisunique AND NOT i.indisprimary AND i.indpred IS NULL
+          AND i.indkey::int2[] = ARRAY[a.attnum]
+          AND ci.relname <> 'uk_categories_name'
+    LOOP
+        IF NOT kept THEN
+            -- Renaming a constraint's index renames the constraint too
+            EXECUTE format('ALTER INDEX %I RENAME TO uk_categories_name', duplicate.index_name);
+            kept := TRUE;
+        ELSIF duplicate.conname IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE categories DROP CONSTRAINT %I', duplicate.conname);
+        ELSE
+            EXECUTE format('DROP INDEX %I', duplicate.index_name);
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,27 @@
+-- Category anomalies are unique per user, category, kind and month, so detections that
+-- overlap (the sweep on several nodes, or the sweep and detection after ingest) insert
+-- with ON CONFLICT DO NOTHING instead of each adding a row. month_start stays NULL for
+-- transaction-level anomalies, which may repeat within a month.
+ALTER TABLE anomalies ADD COLUMN IF NOT EXISTS month_start DATE;
+UPDATE anomalies SET month_start = CAST(date_trunc('month', created_at) AS DATE)
+WHERE kind = 'CATEGORY_SPIKE' AND month_start IS NULL;
+
+-- Duplicates raised before this keep one row per month: a dismissed one if the user
+-- dismissed any, else the first
+DELETE FROM anomalies a
+USING (
+    SELECT id, ROW_NUMBER() OVER (
+        PARTITION BY user_id, category_id, kind, month_start
+        ORDER BY is_dismissed DESC NULLS LAST, created_at, id) AS position
+    FROM anomalies
+    WHERE month_start IS NOT NULL
+) ranked
+WHERE a.id = ranked.id AND ranked.position > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_anomalies_user_category_kind_month
+    ON anomalies (user_id, category_id, kind, month_start);
+
+-- The node running a sweep claims its row until claimed_until, renewing the claim with
+-- every checkpoint, so only one node sweeps at a time
+ALTER TABLE sweep_checkpoints ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(64);
+ALTER TABLE sweep_checkpoints ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP;
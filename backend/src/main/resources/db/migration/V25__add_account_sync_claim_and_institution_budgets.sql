@@ -0,0 +1,8 @@
+-- The node syncing an account holds it until this time; a lapsed claim was abandoned
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS sync_claimed_until TIMESTAMP;
+
+-- Per-institution sync rate shared by all nodes: the time up to which the budget is spent
+CREATE TABLE IF NOT EXISTS institution_sync_budgets (
+    institution VARCHAR(50) PRIMARY KEY,
+    available_at TIMESTAMP NOT NULL
+);
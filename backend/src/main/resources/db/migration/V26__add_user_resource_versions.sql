@@ -0,0 +1,7 @@
+-- Version counters per VersionedResource, raised in the transaction that changes the
+-- data so that every node derives the same ETags and analytics cache keys, across restarts
+ALTER TABLE users ADD COLUMN IF NOT EXISTS analytics_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS goals_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS profile_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS anomalies_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS reports_version BIGINT NOT NULL DEFAULT 0;
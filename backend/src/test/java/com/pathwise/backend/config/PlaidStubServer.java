@@ -0,0 +1,287 @@
+package com.pathwise.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for Plaid's /transactions/sync, started on a free port.
+ * Each access token has an append-only log of added, modified and removed
+ * transactions; a cursor is a position in that log, so a sync returns exactly
+ * the changes made since the cursor was issued.
+ *
+ * Also creates sandbox items for card linking (/sandbox/public_token/create,
+ * /item/public_token/exchange, /accounts/get). A new item starts with the history
+ * set by {@link #onNewItem} and reports NOT_READY for its first syncs.
+ *
+ * Simulates Plaid webhooks too: {@link #syncUpdatesAvailable} and {@link #webhook}
+ * build a body and its Plaid-Verification header, signed with a key of the stub's
+ * own that /webhook_verification_key/get serves under {@link #WEBHOOK_KEY_ID}.
+ */
+public class PlaidStubServer implements AutoCloseable {
+
+    public static final String WEBHOOK_KEY_ID = "stub-webhook-key";
+
+    /** A webhook as Plaid would POST it. */
+    public record SignedWebhook(byte[] body, String verification) {}
+
+    private record Change(String kind, Map<String, Object> transaction) {}
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, List<Change>> changesByToken = new ConcurrentHashMap<>();
+    private final AtomicInteger rowsServed = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger items = new AtomicInteger();
+    private final AtomicInteger keyRequests = new AtomicInteger();
+    private final KeyPair webhookKey;
+    private final Map<String, AtomicInteger> notReadyByToken = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> failuresByPath = new ConcurrentHashMap<>();
+    private volatile int newItemHistory;
+    private volatile int newItemNotReadySyncs;
+
+    public PlaidStubServer() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.createContext("/transactions/sync", this::sync);
+        server.createContext("/sandbox/public_token/create", this::createPublicToken);
+        server.createContext("/item/public_token/exchange", this::exchangePublicToken);
+        server.createContext("/accounts/get", this::getAccounts);
+        server.createContext("/webhook_verification_key/get", this::getWebhookVerificationKey);
+        server.start();
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            webhookKey = generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void add(String accessToken, String transactionId, String merchant, String amount, String date) {
+        log(accessToken).add(new Change("added", transaction(transactionId, merchant, amount, date)));
+    }
+
+    public void modify(String accessToken, String transactionId, String merchant, String amount, String date) {
+        log(accessToken).add(new Change("modified", transaction(transactionId, merchant, amount, date)));
+    }
+
+    public void remove(String accessToken, String transactionId) {
+        log(accessToken).add(new Change("removed", Map.of("transaction_id", transactionId)));
+    }
+
+    /**
+     * Sets up items created from now on.
+     *
+     * @param history Transactions each new item starts with
+     * @param notReadySyncs Syncs answered with NOT_READY before the history is served
+     */
+    public void onNewItem(int history, int notReadySyncs) {
+        newItemHistory = history;
+        newItemNotReadySyncs = notReadySyncs;
+    }
+
+    /** Answers the next {@code times} requests to the path with a 500. */
+    public void failNext(String path, int times) {
+        failuresByPath.put(path, new AtomicInteger(times));
+    }
+
+    /** A TRANSACTIONS / SYNC_UPDATES_AVAILABLE webhook for the item, signed now. */
+    public SignedWebhook syncUpdatesAvailable(String itemId) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("webhook_type", "TRANSACTIONS");
+        body.put("webhook_code", "SYNC_UPDATES_AVAILABLE");
+        body.put("item_id", itemId);
+        body.put("initial_update_complete", true);
+        body.put("historical_update_complete", true);
+        body.put("environment", "sandbox");
+        return webhook(body, Instant.now());
+    }
+
+    /** A webhook with this body, signed as if issued at the given time. */
+    public SignedWebhook webhook(Map<String, Object> body, Instant issuedAt) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            String verification = Jwts.builder()
+                    .setHeaderParam("kid", WEBHOOK_KEY_ID)
+                    .setIssuedAt(Date.from(issuedAt))
+                    .claim("request_body_sha256",
+                            HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json)))
+                    .signWith(webhookKey.getPrivate(), SignatureAlgorithm.ES256)
+                    .compact();
+            return new SignedWebhook(json, verification);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Calls to /webhook_verification_key/get. */
+    public int keyRequests() {
+        return keyRequests.get();
+    }
+
+    /** Transactions returned across all sync responses since the last reset. */
+    public int rowsServed() {
+        return rowsServed.get();
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public void resetCounters() {
+        rowsServed.set(0);
+        requests.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private List<Change> log(String accessToken) {
+        return changesByToken.computeIfAbsent(accessToken, t -> new CopyOnWriteArrayList<>());
+    }
+
+    private static Map<String, Object> transaction(String id, String merchant, String amount, String date) {
+        Map<String, Object> transaction = new HashMap<>();
+        transaction.put("transaction_id", id);
+        transaction.put("account_id", "stub-account");
+        transaction.put("merchant_name", merchant);
+        transaction.put("amount", Double.valueOf(amount));
+        transaction.put("date", date);
+        return transaction;
+    }
+
+    private void createPublicToken(HttpExchange exchange) throws IOException {
+        if (failed(exchange)) return;
+        respond(exchange, Map.of("public_token", "public-sandbox-" + items.incrementAndGet()));
+    }
+
+    private void exchangePublicToken(HttpExchange exchange) throws IOException {
+        if (failed(exchange)) return;
+        Map<String, Object> request = objectMapper.readValue(exchange.getRequestBody(), Map.class);
+        String accessToken = "access-" + request.get("public_token");
+        String today = LocalDate.now().toString();
+        for (int i = 0; i < newItemHistory; i++) {
+            add(accessToken, accessToken + "-" + i, "Merchant " + (i % 10), "8.00", today);
+        }
+        notReadyByToken.put(accessToken, new AtomicInteger(newItemNotReadySyncs));
+        respond(exchange, Map.of("access_token", accessToken, "item_id", "item-" + accessToken));
+    }
+
+    private void getAccounts(HttpExchange exchange) throws IOException {
+        if (failed(exchange)) return;
+        respond(exchange, Map.of("accounts", List.of(Map.of(
+                "account_id", "stub-account",
+                "type", "depository",
+                "balances", Map.of("current", 1000.0)))));
+    }
+
+    private void getWebhookVerificationKey(HttpExchange exchange) throws IOException {
+        keyRequests.incrementAndGet();
+        Map<String, Object> request = objectMapper.readValue(exchange.getRequestBody(), Map.class);
+        if (!WEBHOOK_KEY_ID.equals(request.get("key_id"))) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+        ECPublicKey publicKey = (ECPublicKey) webhookKey.getPublic();
+        Map<String, Object> key = new HashMap<>();
+        key.put("kid", WEBHOOK_KEY_ID);
+        key.put("alg", "ES256");
+        key.put("kty", "EC");
+        key.put("crv", "P-256");
+        key.put("use", "sig");
+        key.put("x", coordinate(publicKey.getW().getAffineX()));
+        key.put("y", coordinate(publicKey.getW().getAffineY()));
+        key.put("created_at", Instant.now().getEpochSecond());
+        key.put("expired_at", null);
+        respond(exchange, Map.of("key", key));
+    }
+
+    /** A P-256 coordinate as a JWK encodes it: 32 big-endian bytes, base64url. */
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] padded = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, padded, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+    }
+
+    private boolean failed(HttpExchange exchange) throws IOException {
+        AtomicInteger failures = failuresByPath.get(exchange.getHttpContext().getPath());
+        if (failures == null || failures.getAndDecrement() <= 0) return false;
+        exchange.sendResponseHeaders(500, -1);
+        exchange.close();
+        return true;
+    }
+
+    private void sync(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        Map<String, Object> request = objectMapper.readValue(exchange.getRequestBody(), Map.class);
+        AtomicInteger notReady = notReadyByToken.get((String) request.get("access_token"));
+        if (notReady != null && notReady.getAndDecrement() > 0) {
+            respond(exchange, Map.of("added", List.of(), "modified", List.of(), "removed", List.of(),
+                    "next_cursor", "0", "has_more", false, "transactions_update_status", "NOT_READY"));
+            return;
+        }
+        List<Change> changes = List.copyOf(log((String) request.get("access_token")));
+        int from = request.get("cursor") != null ? Integer.parseInt((String) request.get("cursor")) : 0;
+        int count = request.get("count") != null ? ((Number) request.get("count")).intValue() : 100;
+        int to = Math.min(from + count, changes.size());
+
+        Map<String, List<Map<String, Object>>> page = new HashMap<>();
+        for (String kind : List.of("added", "modified", "removed")) page.put(kind, new ArrayList<>());
+        for (Change change : changes.subList(from, to)) page.get(change.kind()).add(change.transaction());
+        rowsServed.addAndGet(to - from);
+
+        Map<String, Object> response = new HashMap<>(page);
+        response.put("next_cursor", String.valueOf(to));
+        response.put("has_more", to < changes.size());
+        respond(exchange, response);
+    }
+
+    private void respond(HttpExchange exchange, Map<String, ?> response) throws IOException {
+        byte[] json = objectMapper.writeValueAsString(response).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+}
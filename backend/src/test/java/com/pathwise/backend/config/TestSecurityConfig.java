@@ -2,6 +2,7 @@
 package com.pathwise.backend.config;
 
 import jakarta.servlet.http.HttpServletResponse;
+import org.mockito.Mockito;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,6 +17,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import com.pathwise.backend.security.JwtAuthFilter;
 import org.springframework.context.annotation.Import;
 import com.pathwise.backend.security.JwtUtil;
+import com.pathwise.backend.service.ResourceVersions;
 
 @TestConfiguration
 @EnableWebSecurity
@@ -50,6 +52,13 @@ public class TestSecurityConfig {
         return http.build();
     }
 
+    // ConditionalGetInterceptor is picked up by @WebMvcTest and needs the version store;
+    // the in-memory principals here are not AuthenticatedUsers, so it is never asked
+    @Bean
+    public ResourceVersions resourceVersions() {
+        return Mockito.mock(ResourceVersions.class);
+    }
+
     @Bean
     public UserDetailsService testUserDetailsService() {
         return new InMemoryUserDetailsManager(
@@ -0,0 +1,211 @@
+package com.pathwise.backend.integration;
+
+import com.pathwise.backend.config.PlaidStubServer;
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.BahrainBank;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.AnomalyRepository;
+import com.pathwise.backend.repository.CategorySpendStatsRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.service.AICategorizationService;
+import com.pathwise.backend.service.AccountSyncScheduler;
+import com.pathwise.backend.service.AnomalyDetectionJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Background sync: due accounts are synced and rescheduled with jitter, idle
+ * ones back off, new ones are spread over the first interval, an account claimed
+ * by another node is left to it, and an institution's rate limit leaves the excess
+ * due for a later poll.
+ */
+@SpringBootTest(properties = {
+        "pathwise.plaid.sync.enabled=true",
+        // Polled by the tests only
+        "pathwise.plaid.sync.poll-interval-ms=3600000",
+        "pathwise.plaid.sync.interval=1h",
+        "pathwise.plaid.sync.max-interval=12h",
+        "pathwise.plaid.sync.jitter=0.2",
+        "pathwise.plaid.sync.institution-rate-per-minute=3"
+})
+@ActiveProfiles("test")
+class AccountSyncSchedulerTest {
+
+    private static final PlaidStubServer plaid = new PlaidStubServer();
+
+    @DynamicPropertySource
+    static void plaidProperties(DynamicPropertyRegistry registry) {
+        registry.add("plaid.base-url", plaid::baseUrl);
+    }
+
+    @AfterAll
+    static void stopPlaid() {
+        plaid.close();
+    }
+
+    @MockitoBean private AICategorizationService aiCategorizationService;
+    @MockitoBean private AnomalyDetectionJob anomalyDetectionJob;
+
+    @Autowired private AccountSyncScheduler scheduler;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+    @Autowired private CategorySpendStatsRepository statsRepository;
+    @Autowired private AnomalyRepository anomalyRepository;
+
+    private final List<User> users = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (User u : users) {
+            anomalyRepository.deleteAll(anomalyRepository.findByUserIdOrderByCreatedAtDesc(u.getId()));
+            rollupRepository.deleteAll(rollupRepository.findByUserIdAndMonthStartBetween(
+                    u.getId(), LocalDate.now().minusYears(1), LocalDate.now()));
+            statsRepository.deleteAll(statsRepository.findByUserId(u.getId()));
+            transactionRepository.deleteAllInBatch(transactionRepository.findByAccountUserId(u.getId()));
+            accountRepository.findByUserId(u.getId()).ifPresent(accountRepository::delete);
+            userRepository.delete(u);
+        }
+        users.clear();
+    }
+
+    @Test
+    void dueAccount_IsSyncedAndRescheduledAboutOneIntervalAhead() throws Exception {
+        Account account = account("due", BahrainBank.values()[0], LocalDateTime.now().minusMinutes(5), 0);
+        for (int i = 0; i < 3; i++) {
+            plaid.add(account.getPlaidAccessToken(), account.getPlaidAccessToken() + "-" + i,
+                    "Cafe", "4.00", LocalDate.now().toString());
+        }
+        long lagged = meterRegistry.find("pathwise.plaid.sync.lag").timer().count();
+
+        scheduler.dispatchDueSyncs();
+
+        Account synced = awaitRescheduled(account);
+        assertEquals(3, transactionRepository.findByAccountUserId(account.getUser().getId()).size());
+        assertEquals(0, synced.getIdleSyncs());
+        assertWithin(synced.getNextSyncAt(), Duration.ofMinutes(48), Duration.ofMinutes(72));
+        assertEquals(lagged + 1, meterRegistry.find("pathwise.plaid.sync.lag").timer().count());
+        assertNotNull(meterRegistry.find("pathwise.plaid.sync.queue").gauge());
+    }
+
+    @Test
+    void idleAccount_BacksOffExponentially() throws Exception {
+        Account account = account("idle", BahrainBank.values()[0], LocalDateTime.now().minusMinutes(5), 2);
+
+        scheduler.dispatchDueSyncs();
+
+        Account synced = awaitRescheduled(account);
+        assertEquals(3, synced.getIdleSyncs());
+        // 1h doubled three times, +/- 20%
+        assertWithin(synced.getNextSyncAt(), Duration.ofMinutes(384), Duration.ofMinutes(576));
+    }
+
+    @Test
+    void unscheduledAccount_IsSpreadOverOneIntervalWithoutSyncing() {
+        Account account = account("new", BahrainBank.values()[0], null, 0);
+        plaid.resetCounters();
+
+        scheduler.dispatchDueSyncs();
+
+        Account scheduled = accountRepository.findById(account.getId()).orElseThrow();
+        assertWithin(scheduled.getNextSyncAt(), Duration.ZERO, Duration.ofHours(1));
+        assertEquals(0, plaid.requests());
+    }
+
+    @Test
+    void institutionRateLimit_LeavesTheExcessDue() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accounts.add(account("rate-" + i, BahrainBank.values()[1], LocalDateTime.now().minusMinutes(10 - i), 0));
+        }
+
+        scheduler.dispatchDueSyncs();
+
+        for (Account account : accounts.subList(0, 3)) {
+            awaitRescheduled(account);
+        }
+        // The least overdue account waits for the institution's next tokens
+        Account limited = accountRepository.findById(accounts.get(3).getId()).orElseThrow();
+        assertTrue(limited.getNextSyncAt().isBefore(LocalDateTime.now()));
+    }
+
+    @Test
+    void accountClaimedByAnotherNode_IsNotSyncedUntilTheClaimLapses() throws Exception {
+        Account account = account("claimed", BahrainBank.values()[0], LocalDateTime.now().minusMinutes(5), 0);
+        LocalDateTime now = LocalDateTime.now();
+        // Another node's claim, as its dispatch would make it
+        assertEquals(1, accountRepository.claimSync(account.getId(), now, now.plusMinutes(15)));
+        assertEquals(0, accountRepository.claimSync(account.getId(), now, now.plusMinutes(15)));
+        plaid.resetCounters();
+
+        scheduler.dispatchDueSyncs();
+
+        assertEquals(0, plaid.requests());
+        assertTrue(accountRepository.findById(account.getId()).orElseThrow().getNextSyncAt().isBefore(LocalDateTime.now()));
+
+        // That node died mid-sync: once its claim lapses, this one syncs the account
+        assertEquals(1, accountRepository.releaseSync(account.getId()));
+        assertEquals(1, accountRepository.claimSync(account.getId(), now, now.minusSeconds(1)));
+
+        scheduler.dispatchDueSyncs();
+
+        Account synced = awaitRescheduled(account);
+        assertNull(synced.getSyncClaimedUntil());
+    }
+
+    private Account account(String name, BahrainBank bank, LocalDateTime nextSyncAt, int idleSyncs) {
+        User user = TestDataFactory.createTestUser();
+        user.setId(null);
+        user.setEmail("sched-" + name + "@test.com");
+        user.setPhone(String.format("3998%04d", users.size()));
+        user = userRepository.save(user);
+        users.add(user);
+
+        return accountRepository.save(Account.builder()
+                .user(user).plaidAccessToken("access-sched-" + name + "-" + System.nanoTime())
+                .bank(bank).bankName(bank.getDisplayName())
+                .balance(BigDecimal.ZERO).totalExpensesToDate(BigDecimal.ZERO).currency("BHD")
+                .nextSyncAt(nextSyncAt).idleSyncs(idleSyncs)
+                .build());
+    }
+
+    private Account awaitRescheduled(Account account) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        Account current = accountRepository.findById(account.getId()).orElseThrow();
+        while (!current.getNextSyncAt().isAfter(LocalDateTime.now()) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            current = accountRepository.findById(account.getId()).orElseThrow();
+        }
+        assertTrue(current.getNextSyncAt().isAfter(LocalDateTime.now()), "not rescheduled");
+        return current;
+    }
+
+    private static void assertWithin(LocalDateTime at, Duration from, Duration to) {
+        LocalDateTime now = LocalDateTime.now();
+        assertTrue(at.isAfter(now.plus(from).minusMinutes(1)) && at.isBefore(now.plus(to)),
+                at + " not " + from + " to " + to + " after " + now);
+    }
+}
@@ -0,0 +1,201 @@
+package com.pathwise.backend.integration;
+
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.event.TransactionsIngestedEvent;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.Anomaly;
+import com.pathwise.backend.model.MonthlySpendRollup;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.AnomalyRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.TransactionCategoryRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.security.JwtUtil;
+import com.pathwise.backend.service.AnomalyService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Anomaly detection runs after ingest and in the sweep; GET /api/anomalies only reads.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AnomalyDetectionIntegrationTest {
+
+    private static final String EMAIL = "anomalies@test.com";
+    private static final String CATEGORY = "ANOMALY-FOOD";
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private TransactionCategoryRepository categoryRepository;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+    @Autowired private AnomalyRepository anomalyRepository;
+    @Autowired private AnomalyService anomalyService;
+    @Autowired private ApplicationEventPublisher eventPublisher;
+    @Autowired private JwtUtil jwtUtil;
+
+    private Statistics statistics;
+    private String authToken;
+    private User user;
+    private Account account;
+    private TransactionCategory food;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = TestDataFactory.createTestUser();
+        user.setId(null);
+        user.setEmail(EMAIL);
+        user.setPhone("39990002");
+        user = userRepository.save(user);
+        account = accountRepository.save(Account.builder()
+                .user(user).balance(BigDecimal.ZERO).currency("BHD").build());
+        food = categoryRepository.findByName(CATEGORY).orElseGet(() -> categoryRepository.save(
+                TransactionCategory.builder().name(CATEGORY).icon("*").colorHex("#000000").build()));
+
+        // 100 BD in each of the two baseline months, 400 BD this month: 4x, HIGH
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        saveRollup(thisMonth.minusMonths(2), "100.000");
+        saveRollup(thisMonth.minusMonths(1), "100.000");
+        saveRollup(thisMonth, "400.000");
+
+        authToken = jwtUtil.generateToken(EMAIL);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.findByEmail(EMAIL).ifPresent(u -> {
+            anomalyRepository.deleteAll(anomalyRepository.findByUserIdOrderByCreatedAtDesc(u.getId()));
+            rollupRepository.deleteAll(rollupRepository.findByUserIdAndMonthStartBetween(
+                    u.getId(), LocalDate.now().minusYears(1), LocalDate.now()));
+            transactionRepository.deleteAllInBatch(transactionRepository.findByAccountUserId(u.getId()));
+            accountRepository.findByUserId(u.getId()).ifPresent(accountRepository::delete);
+            userRepository.delete(u);
+        });
+    }
+
+    @Test
+    void getAnomalies_DoesNotRunDetection() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/anomalies").header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertTrue(anomalyRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).isEmpty());
+    }
+
+    @Test
+    void detectAnomalies_FlagsACategoryOncePerMonth_EvenAfterDismissal() {
+        assertEquals(1, anomalyService.detectAnomalies(user.getId()));
+        assertEquals(0, anomalyService.detectAnomalies(user.getId()));
+
+        Anomaly anomaly = anomalyRepository.findByUserIdAndIsDismissedFalseOrderByCreatedAtDesc(user.getId()).get(0);
+        assertEquals("HIGH", anomaly.getSeverity().name());
+        anomaly.setIsDismissed(true);
+        anomalyRepository.save(anomaly);
+
+        assertEquals(0, anomalyService.detectAnomalies(user.getId()));
+    }
+
+    @Test
+    void ingestEvent_RunsDetectionInTheBackground() throws Exception {
+        eventPublisher.publishEvent(new TransactionsIngestedEvent(user.getId(), 1));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (anomalyRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).isEmpty()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        mockMvc.perform(get("/api/anomalies").header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].category").value(CATEGORY))
+                .andExpect(jsonPath("$[0].severity").value("HIGH"));
+    }
+
+    @Test
+    void getAnomalies_P99LatencyDoesNotDependOnTransactionVolume() throws Exception {
+        anomalyService.detectAnomalies(user.getId());
+
+        Measurement few = measureGets();
+
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 5_000; i++) {
+            transactions.add(Transaction.builder()
+                    .account(account).category(food).merchantName("Merchant " + i)
+                    .amount(new BigDecimal("3.250")).type(TransactionType.DEBIT).currency("BHD")
+                    .transactionDate(today.minusDays(i % 90)).createdAt(LocalDateTime.now())
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+
+        Measurement many = measureGets();
+
+        System.out.printf("GET /api/anomalies p99: %.2f ms (no transactions), %.2f ms (5000 transactions)%n",
+                few.p99Millis(), many.p99Millis());
+        // The read touches the same statements and rows regardless of volume
+        assertEquals(few.statementsPerRequest(), many.statementsPerRequest());
+        // Generous bound so scheduler noise on a shared machine does not fail the build
+        assertTrue(many.p99Millis() <= Math.max(3 * few.p99Millis(), few.p99Millis() + 25),
+                "p99 grew from " + few.p99Millis() + " ms to " + many.p99Millis() + " ms");
+    }
+
+    private record Measurement(double p99Millis, long statementsPerRequest) {}
+
+    private Measurement measureGets() throws Exception {
+        int warmup = 30;
+        int samples = 200;
+        long[] nanos = new long[samples];
+        for (int i = 0; i < warmup + samples; i++) {
+            if (i == warmup) statistics.clear();
+            long start = System.nanoTime();
+            mockMvc.perform(get("/api/anomalies").header("Authorization", "Bearer " + authToken))
+                    .andExpect(status().isOk());
+            if (i >= warmup) nanos[i - warmup] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double p99 = nanos[(int) Math.ceil(samples * 0.99) - 1] / 1_000_000.0;
+        return new Measurement(p99, statistics.getPrepareStatementCount() / samples);
+    }
+
+    private void saveRollup(LocalDate monthStart, String amount) {
+        rollupRepository.save(MonthlySpendRollup.builder()
+                .user(user).monthStart(monthStart).category(CATEGORY).type(TransactionType.DEBIT)
+                .totalAmount(new BigDecimal(amount)).transactionCount(1).updatedAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,214 @@
+package com.pathwise.backend.integration;
+
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.Anomaly;
+import com.pathwise.backend.model.MonthlySpendRollup;
+import com.pathwise.backend.model.SweepCheckpoint;
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.AnomalyRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.SweepCheckpointRepository;
+import com.pathwise.backend.repository.TransactionCategoryRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.service.AnomalySweepJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The nightly anomaly sweep: ranges of users in parallel, checkpointed so an
+ * interrupted run resumes where it stopped, claimed so one node sweeps at a time,
+ * and never raising a category anomaly twice in a month.
+ */
+@SpringBootTest(properties = {
+        "pathwise.anomalies.sweep.partition-size=7",
+        "pathwise.anomalies.sweep.parallelism=3"
+})
+@ActiveProfiles("test")
+class AnomalySweepIntegrationTest {
+
+    private static final int USERS = 30;
+    private static final String CATEGORY = "SWEEP-FOOD";
+
+    @Autowired private AnomalySweepJob sweepJob;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionCategoryRepository categoryRepository;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+    @Autowired private AnomalyRepository anomalyRepository;
+    @Autowired private SweepCheckpointRepository checkpointRepository;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        categoryRepository.findByName(CATEGORY).orElseGet(() -> categoryRepository.save(
+                TransactionCategory.builder().name(CATEGORY).icon("*").colorHex("#000000").build()));
+
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i < USERS; i++) {
+            User user = TestDataFactory.createTestUser();
+            user.setId(null);
+            user.setEmail("sweep" + i + "@test.com");
+            user.setPhone(String.format("3997%04d", i));
+            user = userRepository.save(user);
+            accountRepository.save(Account.builder().user(user).balance(BigDecimal.ZERO).currency("BHD").build());
+            // 100 BD in each baseline month, 400 BD this month: one HIGH anomaly per user
+            saveRollup(user, thisMonth.minusMonths(2), "100.000");
+            saveRollup(user, thisMonth.minusMonths(1), "100.000");
+            saveRollup(user, thisMonth, "400.000");
+            users.add(user);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        checkpointRepository.deleteAll();
+        for (int i = 0; i < USERS; i++) {
+            userRepository.findByEmail("sweep" + i + "@test.com").ifPresent(u -> {
+                anomalyRepository.deleteAll(anomalyRepository.findByUserIdOrderByCreatedAtDesc(u.getId()));
+                rollupRepository.deleteAll(rollupRepository.findByUserIdAndMonthStartBetween(
+                        u.getId(), LocalDate.now().minusYears(1), LocalDate.now()));
+                accountRepository.findByUserId(u.getId()).ifPresent(accountRepository::delete);
+                userRepository.delete(u);
+            });
+        }
+        users.clear();
+    }
+
+    @Test
+    void run_DetectsEveryUserAcrossRangesAndCompletesTheCheckpoint() {
+        double usersBefore = meterRegistry.counter("pathwise.anomalies.sweep.users").count();
+
+        sweepJob.run();
+
+        for (User user : users) {
+            assertEquals(1, anomalyRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).size());
+        }
+        SweepCheckpoint checkpoint = checkpointRepository.findAll().get(0);
+        assertNotNull(checkpoint.getCompletedAt());
+        assertTrue(checkpoint.getUsersProcessed() >= USERS);
+        assertTrue(checkpoint.getAnomaliesCreated() >= USERS);
+
+        assertEquals(checkpoint.getUsersProcessed(),
+                meterRegistry.counter("pathwise.anomalies.sweep.users").count() - usersBefore, 0.0);
+        assertTrue(meterRegistry.get("pathwise.anomalies.sweep.throughput").gauge().value() > 0);
+        assertTrue(meterRegistry.get("pathwise.anomalies.sweep.lag").gauge().value() >= 0);
+    }
+
+    @Test
+    void run_ResumesAnInterruptedRunAfterItsCheckpoint() {
+        Set<UUID> ours = new HashSet<>(users.stream().map(User::getId).toList());
+        List<UUID> ordered = accountRepository.findUserIdsAfter(new UUID(0, 0), PageRequest.of(0, 10_000))
+                .stream().filter(ours::contains).toList();
+        UUID resumeAfter = ordered.get(USERS / 2 - 1);
+        checkpointRepository.save(SweepCheckpoint.builder()
+                .job("anomaly-sweep").runStartedAt(LocalDateTime.now().minusHours(1))
+                .lastUserId(resumeAfter).usersProcessed(USERS / 2).updatedAt(LocalDateTime.now())
+                .build());
+
+        sweepJob.run();
+
+        for (int i = 0; i < USERS; i++) {
+            int expected = i < USERS / 2 ? 0 : 1;
+            assertEquals(expected, anomalyRepository.findByUserIdOrderByCreatedAtDesc(ordered.get(i)).size(),
+                    "user #" + i + " in id order");
+        }
+        assertNotNull(checkpointRepository.findById("anomaly-sweep").orElseThrow().getCompletedAt());
+    }
+
+    @Test
+    void run_StartsOverWhenTheLastRunCompleted() {
+        checkpointRepository.save(SweepCheckpoint.builder()
+                .job("anomaly-sweep").runStartedAt(LocalDateTime.now().minusDays(1))
+                .lastUserId(new UUID(-1, -1)).completedAt(LocalDateTime.now().minusHours(20))
+                .build());
+
+        sweepJob.run();
+
+        for (User user : users) {
+            assertEquals(1, anomalyRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).size());
+        }
+    }
+
+    @Test
+    void run_SkipsWhileAnotherNodeHoldsTheRun() {
+        checkpointRepository.save(SweepCheckpoint.builder()
+                .job("anomaly-sweep").runStartedAt(LocalDateTime.now().minusMinutes(1))
+                .updatedAt(LocalDateTime.now())
+                .claimedBy("other-node").claimedUntil(LocalDateTime.now().plusMinutes(5))
+                .build());
+
+        sweepJob.run();
+
+        for (User user : users) {
+            assertTrue(anomalyRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).isEmpty());
+        }
+        assertEquals("other-node", checkpointRepository.findById("anomaly-sweep").orElseThrow().getClaimedBy());
+    }
+
+    @Test
+    void run_TakesOverAClaimThatLapsed() {
+        checkpointRepository.save(SweepCheckpoint.builder()
+                .job("anomaly-sweep").runStartedAt(LocalDateTime.now().minusMinutes(30))
+                .updatedAt(LocalDateTime.now().minusMinutes(20))
+                .claimedBy("dead-node").claimedUntil(LocalDateTime.now().minusMinutes(10))
+                .build());
+
+        sweepJob.run();
+
+        for (User user : users) {
+            assertEquals(1, anomalyRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).size());
+        }
+        SweepCheckpoint checkpoint = checkpointRepository.findById("anomaly-sweep").orElseThrow();
+        assertNotNull(checkpoint.getCompletedAt());
+        assertNull(checkpoint.getClaimedUntil());
+    }
+
+    @Test
+    void overlappingDetection_StoresOneAnomalyPerCategoryAndMonth() {
+        sweepJob.run();
+        User user = users.get(0);
+        Anomaly stored = anomalyRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).get(0);
+
+        // What a detection that read before the sweep's commit would insert
+        List<Anomaly> inserted = anomalyRepository.insertIgnoringDuplicates(List.of(Anomaly.builder()
+                .user(user).category(stored.getCategory()).severity(stored.getSeverity())
+                .message("again").actualAmount(stored.getActualAmount()).baselineAmount(stored.getBaselineAmount())
+                .isDismissed(false).createdAt(LocalDateTime.now()).monthStart(stored.getMonthStart())
+                .build()));
+
+        assertTrue(inserted.isEmpty());
+        assertEquals(1, anomalyRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).size());
+        assertEquals(LocalDate.now().withDayOfMonth(1), stored.getMonthStart());
+    }
+
+    private void saveRollup(User user, LocalDate monthStart, String amount) {
+        rollupRepository.save(MonthlySpendRollup.builder()
+                .user(user).monthStart(monthStart).category(CATEGORY).type(TransactionType.DEBIT)
+                .totalAmount(new BigDecimal(amount)).transactionCount(1).updatedAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,276 @@
+package com.pathwise.backend.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pathwise.backend.config.PlaidStubServer;
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.dto.LinkCardRequest;
+import com.pathwise.backend.enums.AccountLinkStatus;
+import com.pathwise.backend.enums.BahrainBank;
+import com.pathwise.backend.enums.CardType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.AnomalyRepository;
+import com.pathwise.backend.repository.CategorySpendStatsRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.security.JwtUtil;
+import com.pathwise.backend.service.AICategorizationService;
+import com.pathwise.backend.service.AnomalyDetectionJob;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Card linking as a background job: POST /link-card answers 202 at once and the
+ * status endpoint follows the account from PENDING to ACTIVE or FAILED.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CardLinkIntegrationTest {
+
+    private static final String EMAIL = "cardlink@test.com";
+    private static final PlaidStubServer plaid = new PlaidStubServer();
+
+    @DynamicPropertySource
+    static void plaidProperties(DynamicPropertyRegistry registry) {
+        registry.add("plaid.base-url", plaid::baseUrl);
+    }
+
+    @AfterAll
+    static void stopPlaid() {
+        plaid.close();
+    }
+
+    // No LLM calls; categories come from the amount-based fallback
+    @MockitoBean private AICategorizationService aiCategorizationService;
+    @MockitoBean private AnomalyDetectionJob anomalyDetectionJob;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+    @Autowired private CategorySpendStatsRepository statsRepository;
+    @Autowired private AnomalyRepository anomalyRepository;
+
+    private User user;
+    private String authToken;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        user = TestDataFactory.createTestUser();
+        user.setId(null);
+        user.setEmail(EMAIL);
+        user.setPhone("39950001");
+        user = userRepository.save(user);
+        authToken = jwtUtil.generateToken(EMAIL);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.findByEmail(EMAIL).ifPresent(u -> {
+            anomalyRepository.deleteAll(anomalyRepository.findByUserIdOrderByCreatedAtDesc(u.getId()));
+            rollupRepository.deleteAll(rollupRepository.findByUserIdAndMonthStartBetween(
+                    u.getId(), LocalDate.now().minusYears(1), LocalDate.now()));
+            statsRepository.deleteAll(statsRepository.findByUserId(u.getId()));
+            transactionRepository.deleteAllInBatch(transactionRepository.findByAccountUserId(u.getId()));
+            accountRepository.findByUserId(u.getId()).ifPresent(accountRepository::delete);
+            userRepository.delete(u);
+        });
+    }
+
+    @Test
+    void linkCard_AcceptsAtOnceAndCompletesWhenTransactionsAreReady() throws Exception {
+        // Two NOT_READY probes keep the job waiting for about 1.5 s of backoff
+        plaid.onNewItem(40, 2);
+
+        String jobId = requestLink();
+        // The request returned while the item was still not ready
+        assertEquals("PENDING", linkStatus(jobId).path("status").asText());
+
+        JsonNode done = awaitCompletion(jobId);
+        assertEquals("ACTIVE", done.path("status").asText());
+
+        Account account = accountRepository.findByUserId(user.getId()).orElseThrow();
+        assertEquals(jobId, account.getId().toString());
+        assertEquals(40, transactionRepository.findByAccountUserId(user.getId()).size());
+        // 1000 Plaid balance + 2000 salary - 40 debits of 8 USD at 0.376
+        assertEquals(0, new BigDecimal("2879.680").compareTo(account.getBalance()));
+        assertNotNull(account.getPlaidSyncCursor());
+        // Kept so the item's webhooks find the account
+        assertEquals("item-" + account.getPlaidAccessToken(), account.getPlaidItemId());
+    }
+
+    @Test
+    void linkCard_FailedLinkCanBeRetried() throws Exception {
+        plaid.onNewItem(5, 0);
+        plaid.failNext("/accounts/get", 1);
+
+        String jobId = requestLink();
+        JsonNode failed = awaitCompletion(jobId);
+        assertEquals("FAILED", failed.path("status").asText());
+        assertFalse(failed.path("error").asText().isBlank());
+        assertTrue(transactionRepository.findByAccountUserId(user.getId()).isEmpty());
+
+        String retryId = requestLink();
+        assertEquals(jobId, retryId);
+        assertEquals("ACTIVE", awaitCompletion(retryId).path("status").asText());
+        assertEquals(5, transactionRepository.findByAccountUserId(user.getId()).size());
+    }
+
+    @Test
+    void linkCard_RejectedWhileALinkIsPendingOrActive() throws Exception {
+        plaid.onNewItem(0, 0);
+        awaitCompletion(requestLink());
+
+        mockMvc.perform(post("/api/plaid/link-card")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cardRequest())))
+                .andExpect(result -> assertNotEquals(202, result.getResponse().getStatus()));
+        assertEquals(AccountLinkStatus.ACTIVE,
+                accountRepository.findByUserId(user.getId()).orElseThrow().getLinkStatus());
+    }
+
+    @Test
+    void linkCard_EveryStepChangesTheProfileAndAnalyticsEtags() throws Exception {
+        // No history, so the first sync stores nothing and only the link status changes
+        plaid.onNewItem(0, 2);
+        String profileEtag = etag("/api/profile", null);
+        String analyticsEtag = etag("/api/analytics?months=1", null);
+
+        String jobId = requestLink();
+        String pendingProfileEtag = etag("/api/profile", profileEtag);
+        etag("/api/analytics?months=1", analyticsEtag);
+
+        assertEquals("ACTIVE", awaitCompletion(jobId).path("status").asText());
+        etag("/api/profile", pendingProfileEtag);
+    }
+
+    @Test
+    void linkCard_FailureChangesTheProfileEtag() throws Exception {
+        plaid.onNewItem(0, 2);
+        plaid.failNext("/accounts/get", 1);
+
+        String jobId = requestLink();
+        String pendingProfileEtag = etag("/api/profile", null);
+
+        assertEquals("FAILED", awaitCompletion(jobId).path("status").asText());
+        etag("/api/profile", pendingProfileEtag);
+    }
+
+    @Test
+    void pendingLink_IsClaimedByOneNodeOnly() {
+        Account account = accountRepository.save(Account.builder()
+                .user(user).plaidAccessToken("pending-" + UUID.randomUUID())
+                .bank(BahrainBank.values()[0]).bankName(BahrainBank.values()[0].getDisplayName())
+                .balance(BigDecimal.ZERO).totalExpensesToDate(BigDecimal.ZERO).currency("BHD")
+                .linkStatus(AccountLinkStatus.PENDING)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusMinutes(10);
+
+        assertEquals(1, accountRepository.claimLink(account.getId(), now, staleBefore));
+        assertEquals(0, accountRepository.claimLink(account.getId(), now, staleBefore));
+        assertFalse(accountRepository.findIdsOfUnclaimedLinks(staleBefore).contains(account.getId()));
+        // Still PENDING to the user
+        assertEquals(AccountLinkStatus.LINKING,
+                accountRepository.findById(account.getId()).orElseThrow().getLinkStatus());
+
+        // A claim older than the timeout is abandoned and may be taken over
+        LocalDateTime later = now.plusMinutes(11);
+        assertTrue(accountRepository.findIdsOfUnclaimedLinks(later.minusMinutes(10)).contains(account.getId()));
+        assertEquals(1, accountRepository.claimLink(account.getId(), later, later.minusMinutes(10)));
+
+        assertEquals(1, accountRepository.releaseLink(account.getId()));
+        assertEquals(1, accountRepository.claimLink(account.getId(), later, later.minusMinutes(10)));
+    }
+
+    @Test
+    void linkStatus_UnknownJobIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/plaid/link-card/" + UUID.randomUUID())
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isNotFound());
+    }
+
+    private String requestLink() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/plaid/link-card")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cardRequest())))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("jobId").asText();
+    }
+
+    /** Reads a conditional resource, expecting a full response whose ETag differs from a previous one. */
+    private String etag(String url, String previous) throws Exception {
+        var request = get(url).header("Authorization", "Bearer " + authToken);
+        if (previous != null) request.header(HttpHeaders.IF_NONE_MATCH, previous);
+        String etag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertNotEquals(previous, etag);
+        return etag;
+    }
+
+    private JsonNode linkStatus(String jobId) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/plaid/link-card/" + jobId)
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private JsonNode awaitCompletion(String jobId) throws Exception {
+        long deadline = System.nanoTime() + 20_000_000_000L;
+        JsonNode status = linkStatus(jobId);
+        while ("PENDING".equals(status.path("status").asText()) && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+            status = linkStatus(jobId);
+        }
+        return status;
+    }
+
+    private static LinkCardRequest cardRequest() {
+        return LinkCardRequest.builder()
+                .bank(BahrainBank.values()[0])
+                .cardType(CardType.values()[0])
+                .cardHolderName("Test User")
+                .lastFourDigits("4242")
+                .expiryMonth(12)
+                .expiryYear(LocalDate.now().getYear() + 3)
+                .build();
+    }
+}
@@ -0,0 +1,214 @@
+package com.pathwise.backend.integration;
+
+import com.pathwise.backend.config.PlaidStubServer;
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.BahrainBank;
+import com.pathwise.backend.enums.VersionedResource;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.security.AuthenticatedUser;
+import com.pathwise.backend.security.JwtUtil;
+import com.pathwise.backend.service.PlaidService;
+import com.pathwise.backend.service.ResourceVersions;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ETag / If-None-Match handling of the dashboard read endpoints.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetIntegrationTest {
+
+    private static final String EMAIL = "etag@test.com";
+
+    private static final PlaidStubServer plaid = new PlaidStubServer();
+
+    @DynamicPropertySource
+    static void plaidProperties(DynamicPropertyRegistry registry) {
+        registry.add("plaid.base-url", plaid::baseUrl);
+    }
+
+    @AfterAll
+    static void stopPlaid() {
+        plaid.close();
+    }
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private PlaidService plaidService;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+    @Autowired private ResourceVersions resourceVersions;
+
+    private Statistics statistics;
+    private String authToken;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User user = TestDataFactory.createTestUser();
+        user.setId(null);
+        user.setEmail(EMAIL);
+        user.setPhone("39990001");
+        userRepository.save(user);
+
+        authToken = jwtUtil.generateToken(EMAIL);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.findByEmail(EMAIL).ifPresent(user -> {
+            accountRepository.findByUserId(user.getId()).ifPresent(accountRepository::delete);
+            userRepository.delete(user);
+        });
+    }
+
+    @Test
+    void matchingIfNoneMatch_Returns304WithoutRunningTheHandler() throws Exception {
+        String etag = getEtag("/api/goals");
+
+        statistics.clear();
+        mockMvc.perform(get("/api/goals")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        // Only the JWT filter's user lookup
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void mutation_ChangesTheEtag() throws Exception {
+        String goalsEtag = getEtag("/api/goals/snapshot");
+        String reportsEtag = getEtag("/api/reports");
+
+        mockMvc.perform(put("/api/profile/expenses")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/goals/snapshot")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, goalsEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(goalsEtag)));
+
+        // Unrelated resources keep their version
+        mockMvc.perform(get("/api/reports")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, reportsEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void salaryCredit_ChangesEveryAffectedEtag() throws Exception {
+        User user = userRepository.findByEmail(EMAIL).orElseThrow();
+        accountRepository.save(Account.builder()
+                .user(user).balance(BigDecimal.ZERO).currency("BHD").build());
+        String analyticsEtag = getEtag("/api/analytics?months=1");
+        String profileEtag = getEtag("/api/profile");
+        String goalsEtag = getEtag("/api/goals/snapshot");
+
+        plaidService.addMonthlySalaryToAllAccounts();
+
+        for (String[] read : new String[][] {
+                {"/api/analytics?months=1", analyticsEtag},
+                {"/api/profile", profileEtag},
+                {"/api/goals/snapshot", goalsEtag}}) {
+            mockMvc.perform(get(read[0])
+                            .header("Authorization", "Bearer " + authToken)
+                            .header(HttpHeaders.IF_NONE_MATCH, read[1]))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, not(read[1])));
+        }
+    }
+
+    @Test
+    void version_IsStoredWithTheUserSoEveryNodeIssuesTheSameEtag() throws Exception {
+        String etag = getEtag("/api/goals/snapshot");
+        long stored = userRepository.findByEmail(EMAIL).orElseThrow().getGoalsVersion();
+
+        mockMvc.perform(put("/api/profile/expenses")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isNoContent());
+
+        assertEquals(stored + 1, userRepository.findByEmail(EMAIL).orElseThrow().getGoalsVersion());
+        // Derived from the user's row alone, so any node, or this one after a restart, issues it
+        AuthenticatedUser principal = (AuthenticatedUser) userDetailsService.loadUserByUsername(EMAIL);
+        String newEtag = getEtag("/api/goals/snapshot");
+        assertNotEquals(etag, newEtag);
+        assertEquals(newEtag, resourceVersions.etag(principal, VersionedResource.GOALS));
+    }
+
+    @Test
+    void linkingAnItemWithoutHistory_ChangesTheProfileEtag() throws Exception {
+        String profileEtag = getEtag("/api/profile");
+
+        mockMvc.perform(post("/api/plaid/exchange-token")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"publicToken\":\"public-etag\",\"bankId\":\"" + BahrainBank.values()[0].name() + "\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/profile")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, profileEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(profileEtag)));
+    }
+
+    @Test
+    void staleIfNoneMatch_ReturnsFullResponse() throws Exception {
+        getEtag("/api/profile");
+
+        mockMvc.perform(get("/api/profile")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"profile-stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(EMAIL));
+    }
+
+    private String getEtag(String url) throws Exception {
+        String etag = mockMvc.perform(get(url).header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, url + " returned no ETag");
+        return etag;
+    }
+}
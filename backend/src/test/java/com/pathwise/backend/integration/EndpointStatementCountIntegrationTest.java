@@ -0,0 +1,330 @@
+package com.pathwise.backend.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.SeverityLevel;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.enums.VersionedResource;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.Anomaly;
+import com.pathwise.backend.model.Goal;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.AnomalyRepository;
+import com.pathwise.backend.repository.GoalRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.SimulationRepository;
+import com.pathwise.backend.repository.TransactionCategoryRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.security.JwtUtil;
+import com.pathwise.backend.service.MonthlySpendRollupService;
+import com.pathwise.backend.service.ResourceVersions;
+import com.pathwise.backend.service.TransactionCursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Guards the number of SQL statements each read endpoint issues.
+ * A failure here usually means an association is loaded row by row (N+1):
+ * fetch it with an entity graph or a projection instead of raising the budget.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointStatementCountIntegrationTest {
+
+    private static final String EMAIL = "statements@test.com";
+    private static final int TRANSACTIONS = 60;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private TransactionCategoryRepository categoryRepository;
+    @Autowired private GoalRepository goalRepository;
+    @Autowired private SimulationRepository simulationRepository;
+    @Autowired private AnomalyRepository anomalyRepository;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private ResourceVersions resourceVersions;
+    @Autowired private MonthlySpendRollupService rollupService;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+    @Autowired private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private String authToken;
+    private Goal goal;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User user = TestDataFactory.createTestUser();
+        user.setId(null);
+        user.setEmail(EMAIL);
+        user = userRepository.save(user);
+
+        Account account = accountRepository.save(Account.builder()
+                .user(user).balance(new BigDecimal("1000.000")).currency("BHD").build());
+
+        List<TransactionCategory> categories = Stream.of("STMT-FOOD", "STMT-TRANSPORT", "STMT-SHOPPING")
+                .map(name -> categoryRepository.findByName(name).orElseGet(() -> categoryRepository.save(
+                        TransactionCategory.builder().name(name).icon("*").colorHex("#000000").build())))
+                .toList();
+
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            transactionRepository.save(Transaction.builder()
+                    .account(account)
+                    .category(categories.get(i % categories.size()))
+                    .merchantName("Merchant " + i)
+                    .amount(new BigDecimal("5.000"))
+                    .type(i % 6 == 0 ? TransactionType.CREDIT : TransactionType.DEBIT)
+                    .currency("BHD")
+                    .transactionDate(today.minusDays(i))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        rollupService.rebuild(user.getId());
+
+        for (TransactionCategory category : categories) {
+            anomalyRepository.save(Anomaly.builder()
+                    .user(user).category(category).severity(SeverityLevel.LOW)
+                    .message("test").actualAmount(BigDecimal.TEN).baselineAmount(BigDecimal.ONE)
+                    .isDismissed(false).createdAt(LocalDateTime.now())
+                    .build());
+        }
+
+        goal = TestDataFactory.createTestGoal(user);
+        goal.setId(null);
+        goal = goalRepository.save(goal);
+        Goal second = TestDataFactory.createTestGoal(user);
+        second.setId(null);
+        second.setName("Car");
+        goalRepository.save(second);
+        for (int i = 0; i < 3; i++) {
+            var simulation = TestDataFactory.createTestSimulation(user, goal);
+            simulation.setId(null);
+            simulationRepository.save(simulation);
+        }
+
+        authToken = jwtUtil.generateToken(EMAIL);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.findByEmail(EMAIL).ifPresent(user -> {
+            anomalyRepository.deleteAll(anomalyRepository.findByUserIdOrderByCreatedAtDesc(user.getId()));
+            goalRepository.findByUserId(user.getId()).forEach(g -> {
+                simulationRepository.deleteAll(simulationRepository.findByGoalId(g.getId()));
+                goalRepository.delete(g);
+            });
+            rollupRepository.deleteAll(rollupRepository.findByUserIdAndMonthStartBetween(
+                    user.getId(), LocalDate.now().minusYears(1), LocalDate.now()));
+            transactionRepository.deleteAll(transactionRepository.findByAccountUserId(user.getId()));
+            accountRepository.findByUserId(user.getId()).ifPresent(accountRepository::delete);
+            userRepository.delete(user);
+        });
+    }
+
+    @Test
+    void listGoals() throws Exception {
+        // user (filter) + user (service) + goals + 2 snapshot sums, independent of the goal count
+        assertStatements(5, "/api/goals");
+    }
+
+    @Test
+    void getGoal_OwnershipCheckDoesNotLoadOwner() throws Exception {
+        assertStatements(5, "/api/goals/" + goal.getId());
+    }
+
+    @Test
+    void listSimulations() throws Exception {
+        assertStatements(4, "/api/simulations/" + goal.getId());
+    }
+
+    @Test
+    void listAnomalies_IsAPureRead() throws Exception {
+        // user (filter) + anomalies with their categories; detection runs after ingest, not here
+        assertStatements(2, "/api/anomalies");
+    }
+
+    @Test
+    void listTransactions() throws Exception {
+        assertStatements(4, "/api/plaid/transactions?size=20");
+    }
+
+    @Test
+    void listAccounts() throws Exception {
+        assertStatements(3, "/api/plaid/accounts");
+    }
+
+    @Test
+    void analytics() throws Exception {
+        // user (filter) + user (service) + rollup months with the last 30 days' totals + account balance
+        assertStatements(4, "/api/analytics?months=3");
+    }
+
+    @Test
+    void analytics_CacheHitOnlyRunsTheAuthenticationLookup() throws Exception {
+        assertStatements(4, "/api/analytics?months=12");
+        assertStatements(1, "/api/analytics?months=12");
+    }
+
+    @Test
+    void analyticsBatch_ComputesEveryWindowFromOneScan() throws Exception {
+        // Same budget as a single window: one totals read and one balance read for all four
+        assertStatements(4, "/api/analytics/batch?windows=1,3,6,12");
+    }
+
+    @Test
+    void analyticsBatch_OnlyComputesUncachedWindows() throws Exception {
+        assertStatements(4, "/api/analytics?months=3");
+        assertStatements(4, "/api/analytics/batch?windows=1,3,12");
+        assertStatements(1, "/api/analytics/batch?windows=1,3,12");
+    }
+
+    @Test
+    void analyticsBatch_MatchesSingleWindowResponses() throws Exception {
+        JsonNode single1 = getJson("/api/analytics?months=1");
+        JsonNode single6 = getJson("/api/analytics?months=6");
+        // New data version, so the batch is computed rather than read from the cache
+        resourceVersions.bump(userRepository.findByEmail(EMAIL).orElseThrow().getId(), VersionedResource.ANALYTICS);
+
+        JsonNode batch = getJson("/api/analytics/batch?windows=6,1");
+
+        assertEquals(single1, batch.get("1"));
+        assertEquals(single6, batch.get("6"));
+    }
+
+    @Test
+    void analytics_MonthlyFiguresMatchTheTransactions() throws Exception {
+        JsonNode analytics = getJson("/api/analytics?months=3");
+
+        LocalDate today = LocalDate.now();
+        BigDecimal expenses = BigDecimal.ZERO;
+        BigDecimal currentMonthExpenses = BigDecimal.ZERO;
+        BigDecimal recentExpenses = BigDecimal.ZERO;
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            if (i % 6 == 0) continue;
+            LocalDate date = today.minusDays(i);
+            BigDecimal amount = new BigDecimal("5.000");
+            if (!date.isBefore(today.minusMonths(2).withDayOfMonth(1))) expenses = expenses.add(amount);
+            if (!date.isBefore(today.withDayOfMonth(1))) currentMonthExpenses = currentMonthExpenses.add(amount);
+            if (i < 30) recentExpenses = recentExpenses.add(amount);
+        }
+
+        BigDecimal breakdownExpenses = BigDecimal.ZERO;
+        for (JsonNode month : analytics.get("monthlyBreakdown")) {
+            breakdownExpenses = breakdownExpenses.add(month.get("expenses").decimalValue());
+        }
+        BigDecimal pieExpenses = BigDecimal.ZERO;
+        for (JsonNode category : analytics.get("spendingByCategory")) {
+            pieExpenses = pieExpenses.add(category.decimalValue());
+        }
+        BigDecimal dailyExpenses = BigDecimal.ZERO;
+        for (JsonNode day : analytics.get("dailySpending")) {
+            dailyExpenses = dailyExpenses.add(day.decimalValue());
+        }
+
+        assertEquals(0, expenses.compareTo(breakdownExpenses));
+        assertEquals(0, expenses.compareTo(pieExpenses));
+        assertEquals(0, currentMonthExpenses.compareTo(analytics.get("totalExpenses").decimalValue()));
+        assertEquals(0, recentExpenses.compareTo(dailyExpenses));
+    }
+
+    @Test
+    void analytics_PieChartCoversCalendarMonths() throws Exception {
+        LocalDate today = LocalDate.now();
+        for (int months : List.of(1, 2)) {
+            // The current month and the months - 1 before it, from their first day; not the last months × 30 days
+            LocalDate from = today.minusMonths(months - 1).withDayOfMonth(1);
+            BigDecimal expected = BigDecimal.ZERO;
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                if (i % 6 != 0 && !today.minusDays(i).isBefore(from)) expected = expected.add(new BigDecimal("5.000"));
+            }
+
+            BigDecimal pieExpenses = BigDecimal.ZERO;
+            for (JsonNode category : getJson("/api/analytics?months=" + months).get("spendingByCategory")) {
+                pieExpenses = pieExpenses.add(category.decimalValue());
+            }
+
+            assertEquals(0, expected.compareTo(pieExpenses), months + " month(s): " + pieExpenses);
+        }
+    }
+
+    @Test
+    void analyticsBatch_RejectsOutOfRangeWindows() throws Exception {
+        mockMvc.perform(get("/api/analytics/batch?windows=0,3").header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void analytics_RejectsOutOfRangeMonths() throws Exception {
+        for (String months : List.of("0", "-3", "61")) {
+            mockMvc.perform(get("/api/analytics").param("months", months)
+                            .header("Authorization", "Bearer " + authToken))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("between 1 and 60 months")));
+        }
+    }
+
+    @Test
+    void listTransactions_RejectsTamperedCursors() throws Exception {
+        String badDate = new TransactionCursor("transactionDate", Sort.Direction.DESC, "not-a-date", UUID.randomUUID()).encode();
+        String badAmount = new TransactionCursor("amount", Sort.Direction.ASC, "1e", UUID.randomUUID()).encode();
+        for (String cursor : List.of(badDate, badAmount, "garbage")) {
+            mockMvc.perform(get("/api/plaid/transactions").param("cursor", cursor)
+                            .header("Authorization", "Bearer " + authToken))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("Invalid cursor")));
+        }
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        String body = mockMvc.perform(get(url).header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    /**
+     * Performs an authenticated GET and checks the number of prepared statements,
+     * including the user lookup done by the JWT filter.
+     */
+    private void assertStatements(long budget, String url) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url).header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+        long statements = statistics.getPrepareStatementCount();
+        System.out.printf("%-40s %d statements (budget %d)%n", url, statements, budget);
+        assertTrue(statements <= budget, url + " issued " + statements + " statements, budget is " + budget);
+    }
+}
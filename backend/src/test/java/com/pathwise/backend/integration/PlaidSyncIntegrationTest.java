@@ -0,0 +1,277 @@
+package com.pathwise.backend.integration;
+
+import com.pathwise.backend.config.PlaidStubServer;
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.CategorySpendStats;
+import com.pathwise.backend.model.MonthlySpendRollup;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.AnomalyRepository;
+import com.pathwise.backend.repository.CategorySpendStatsRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.service.AICategorizationService;
+import com.pathwise.backend.service.AnomalyDetectionJob;
+import com.pathwise.backend.service.PlaidService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cursor-based Plaid sync against the stub server: a sync costs the same number
+ * of rows and statements whatever the size of the account's history.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class PlaidSyncIntegrationTest {
+
+    private static final PlaidStubServer plaid = new PlaidStubServer();
+
+    @DynamicPropertySource
+    static void plaidProperties(DynamicPropertyRegistry registry) {
+        registry.add("plaid.base-url", plaid::baseUrl);
+    }
+
+    @AfterAll
+    static void stopPlaid() {
+        plaid.close();
+    }
+
+    // No LLM calls; categories come from the amount-based fallback
+    @MockitoBean private AICategorizationService aiCategorizationService;
+    // Keeps background detection out of the statement counts
+    @MockitoBean private AnomalyDetectionJob anomalyDetectionJob;
+
+    @Autowired private PlaidService plaidService;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+    @Autowired private CategorySpendStatsRepository statsRepository;
+    @Autowired private AnomalyRepository anomalyRepository;
+
+    private Statistics statistics;
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (User u : users) {
+            anomalyRepository.deleteAll(anomalyRepository.findByUserIdOrderByCreatedAtDesc(u.getId()));
+            rollupRepository.deleteAll(rollupRepository.findByUserIdAndMonthStartBetween(
+                    u.getId(), LocalDate.now().minusYears(2), LocalDate.now()));
+            statsRepository.deleteAll(statsRepository.findByUserId(u.getId()));
+            transactionRepository.deleteAllInBatch(transactionRepository.findByAccountUserId(u.getId()));
+            accountRepository.findByUserId(u.getId()).ifPresent(accountRepository::delete);
+            userRepository.delete(u);
+        }
+        users.clear();
+    }
+
+    @Test
+    void sync_CostDependsOnNewActivityNotOnHistorySize() {
+        Account small = linkAccount("small", 50);
+        Account large = linkAccount("large", 400);
+        assertEquals(50, transactionRepository.findByAccountUserId(small.getUser().getId()).size());
+        assertEquals(400, transactionRepository.findByAccountUserId(large.getUser().getId()).size());
+
+        Sync smallSync = syncWithNewActivity(small);
+        Sync largeSync = syncWithNewActivity(large);
+
+        assertEquals(3, smallSync.rows());
+        assertEquals(3, largeSync.rows());
+        assertEquals(smallSync.statements(), largeSync.statements());
+        assertEquals(403, transactionRepository.findByAccountUserId(large.getUser().getId()).size());
+    }
+
+    @Test
+    void sync_WithNothingNew_ServesNoRowsAndWritesNothing() {
+        Account account = linkAccount("idle", 20);
+
+        plaid.resetCounters();
+        statistics.clear();
+        plaidService.fetchAndStoreTransactions(account.getPlaidAccessToken(), account);
+
+        assertEquals(1, plaid.requests());
+        assertEquals(0, plaid.rowsServed());
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void sync_AppliesModifiedAndRemovedTransactions() {
+        Account account = linkAccount("changes", 0);
+        String token = account.getPlaidAccessToken();
+        String date = LocalDate.now().toString();
+        plaid.add(token, "changes-a", "Cafe", "10.00", date);
+        plaid.add(token, "changes-b", "Grocer", "20.00", date);
+        plaid.add(token, "changes-c", "Pharmacy", "30.00", date);
+        plaidService.fetchAndStoreTransactions(token, account);
+
+        plaid.modify(token, "changes-a", "Cafe", "15.00", date);
+        plaid.remove(token, "changes-b");
+        plaidService.fetchAndStoreTransactions(token, account);
+
+        List<Transaction> stored = transactionRepository.findByAccountUserId(account.getUser().getId());
+        assertEquals(2, stored.size());
+        Transaction modified = stored.stream()
+                .filter(t -> t.getPlaidTransactionId().equals("changes-a")).findFirst().orElseThrow();
+        // 15 USD at 0.376
+        assertEquals(0, new BigDecimal("5.640").compareTo(modified.getAmount()));
+
+        // Rollup and balance reflect 15 + 30 USD of debits, as if only those had ever been synced
+        BigDecimal expected = new BigDecimal("16.920");
+        BigDecimal rolledUp = rollupRepository.findByUserIdAndTypeAndMonthStartBetween(
+                        account.getUser().getId(), TransactionType.DEBIT,
+                        LocalDate.now().withDayOfMonth(1), LocalDate.now().withDayOfMonth(1)).stream()
+                .map(MonthlySpendRollup::getTotalAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, expected.compareTo(rolledUp));
+        Account reloaded = accountRepository.findByUserId(account.getUser().getId()).orElseThrow();
+        assertEquals(0, expected.negate().compareTo(reloaded.getBalance()));
+        assertEquals("5", reloaded.getPlaidSyncCursor());
+
+        // Category statistics hold the two remaining debits and no peak points at the removed row
+        List<CategorySpendStats> stats = statsRepository.findByUserId(account.getUser().getId());
+        assertEquals(2, stats.stream().mapToLong(CategorySpendStats::getSampleCount).sum());
+        assertEquals(0, expected.compareTo(stats.stream()
+                .map(CategorySpendStats::getMonthTotal).reduce(BigDecimal.ZERO, BigDecimal::add)));
+        Set<UUID> storedIds = stored.stream().map(Transaction::getId).collect(Collectors.toSet());
+        stats.stream().map(CategorySpendStats::getMonthPeakTransactionId).filter(Objects::nonNull)
+                .forEach(peak -> assertTrue(storedIds.contains(peak), "peak " + peak + " was removed"));
+    }
+
+    @Test
+    void sync_OnlyChangesTheSyncedAccountsTransactions() {
+        Account victim = linkAccount("victim", 0);
+        plaid.add(victim.getPlaidAccessToken(), "victim-a", "Cafe", "10.00", LocalDate.now().toString());
+        plaid.add(victim.getPlaidAccessToken(), "victim-b", "Grocer", "20.00", LocalDate.now().toString());
+        plaidService.fetchAndStoreTransactions(victim.getPlaidAccessToken(), victim);
+        BigDecimal victimBalance = accountRepository.findById(victim.getId()).orElseThrow().getBalance();
+
+        // Another item reports the victim's ids as its own modified and removed rows
+        Account other = linkAccount("other", 0);
+        String date = LocalDate.now().toString();
+        plaid.modify(other.getPlaidAccessToken(), "victim-a", "Cafe", "99.00", date);
+        plaid.remove(other.getPlaidAccessToken(), "victim-b");
+        plaidService.fetchAndStoreTransactions(other.getPlaidAccessToken(), other);
+
+        List<Transaction> victimRows = transactionRepository.findByAccountUserId(victim.getUser().getId());
+        assertEquals(2, victimRows.size());
+        Transaction untouched = victimRows.stream()
+                .filter(t -> t.getPlaidTransactionId().equals("victim-a")).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("3.760").compareTo(untouched.getAmount()));
+        assertEquals(0, victimBalance.compareTo(
+                accountRepository.findById(victim.getId()).orElseThrow().getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(
+                accountRepository.findById(other.getId()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void resync_FromTheStart_SkipsStoredRowsWithoutPerRowQueries() {
+        Account account = linkAccount("resync", 300);
+
+        account.setPlaidSyncCursor(null);
+        statistics.clear();
+        plaidService.fetchAndStoreTransactions(account.getPlaidAccessToken(), account);
+
+        assertEquals(300, transactionRepository.findByAccountUserId(account.getUser().getId()).size());
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < 10,
+                statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Test
+    void insertIgnoringDuplicates_SkipsIdsAlreadyStored() {
+        Account account = linkAccount("bulk", 2);
+        User user = account.getUser();
+        String token = account.getPlaidAccessToken();
+
+        List<Transaction> inserted = transactionRepository.insertIgnoringDuplicates(List.of(
+                bulkRow(account, token + "-0"),
+                bulkRow(account, token + "-bulk-1"),
+                bulkRow(account, token + "-1"),
+                bulkRow(account, token + "-bulk-2")));
+
+        assertEquals(List.of(token + "-bulk-1", token + "-bulk-2"),
+                inserted.stream().map(Transaction::getPlaidTransactionId).toList());
+        assertEquals(4, transactionRepository.findByAccountUserId(user.getId()).size());
+        assertTrue(transactionRepository.findById(inserted.get(0).getId()).isPresent());
+    }
+
+    private static Transaction bulkRow(Account account, String plaidId) {
+        return Transaction.builder()
+                .account(account).plaidTransactionId(plaidId).merchantName("Bulk")
+                .amount(new BigDecimal("1.500")).type(TransactionType.DEBIT).currency("BHD")
+                .transactionDate(LocalDate.now()).createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private record Sync(int rows, long statements) {}
+
+    private Sync syncWithNewActivity(Account account) {
+        String token = account.getPlaidAccessToken();
+        String date = LocalDate.now().toString();
+        plaid.add(token, token + "-new-1", "Bakery", "4.00", date);
+        plaid.add(token, token + "-new-2", "Bookshop", "12.00", date);
+        plaid.add(token, token + "-new-3", "Cinema", "9.00", date);
+
+        plaid.resetCounters();
+        statistics.clear();
+        plaidService.fetchAndStoreTransactions(token, account);
+        return new Sync(plaid.rowsServed(), statistics.getPrepareStatementCount());
+    }
+
+    private Account linkAccount(String name, int historySize) {
+        User user = TestDataFactory.createTestUser();
+        user.setId(null);
+        user.setEmail("sync-" + name + "@test.com");
+        user.setPhone(String.format("3996%04d", users.size()));
+        user = userRepository.save(user);
+        users.add(user);
+
+        String token = "access-sync-" + name;
+        Account account = accountRepository.save(Account.builder()
+                .user(user).plaidAccessToken(token)
+                .balance(BigDecimal.ZERO).totalExpensesToDate(BigDecimal.ZERO).currency("BHD")
+                .build());
+
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < historySize; i++) {
+            plaid.add(token, token + "-" + i, "Merchant " + (i % 10), "8.00", today.minusDays(1 + i % 80).toString());
+        }
+        plaidService.fetchAndStoreTransactions(token, account);
+        return account;
+    }
+}
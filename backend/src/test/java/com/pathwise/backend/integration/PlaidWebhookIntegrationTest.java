@@ -0,0 +1,252 @@
+package com.pathwise.backend.integration;
+
+import com.pathwise.backend.config.PlaidStubServer;
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.BahrainBank;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.AnomalyRepository;
+import com.pathwise.backend.repository.CategorySpendStatsRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.service.AICategorizationService;
+import com.pathwise.backend.service.AnomalyDetectionJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Plaid webhooks: a signed SYNC_UPDATES_AVAILABLE syncs the item's account within
+ * seconds, a burst for one item costs a single sync, and unsigned, altered or
+ * stale webhooks are rejected. Webhooks are signed by {@link PlaidStubServer}.
+ */
+// A window far longer than a burst of posts takes, so the burst always falls inside one
+@SpringBootTest(properties = "pathwise.plaid.webhook.coalesce-window=3s")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PlaidWebhookIntegrationTest {
+
+    private static final Duration COALESCE_WINDOW = Duration.ofSeconds(3);
+    private static final PlaidStubServer plaid = new PlaidStubServer();
+
+    @DynamicPropertySource
+    static void plaidProperties(DynamicPropertyRegistry registry) {
+        registry.add("plaid.base-url", plaid::baseUrl);
+    }
+
+    @AfterAll
+    static void stopPlaid() {
+        plaid.close();
+    }
+
+    @MockitoBean private AICategorizationService aiCategorizationService;
+    @MockitoBean private AnomalyDetectionJob anomalyDetectionJob;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+    @Autowired private CategorySpendStatsRepository statsRepository;
+    @Autowired private AnomalyRepository anomalyRepository;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final List<User> users = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (User u : users) {
+            anomalyRepository.deleteAll(anomalyRepository.findByUserIdOrderByCreatedAtDesc(u.getId()));
+            rollupRepository.deleteAll(rollupRepository.findByUserIdAndMonthStartBetween(
+                    u.getId(), LocalDate.now().minusYears(1), LocalDate.now()));
+            statsRepository.deleteAll(statsRepository.findByUserId(u.getId()));
+            transactionRepository.deleteAllInBatch(transactionRepository.findByAccountUserId(u.getId()));
+            accountRepository.findByUserId(u.getId()).ifPresent(accountRepository::delete);
+            userRepository.delete(u);
+        }
+        users.clear();
+    }
+
+    @Test
+    void syncUpdatesAvailable_SyncsTheItemsAccount() throws Exception {
+        Account account = account("single");
+        addTransactions(account, 3);
+        plaid.resetCounters();
+
+        send(plaid.syncUpdatesAvailable(account.getPlaidItemId())).andExpect(status().isOk());
+
+        awaitTransactions(account, 3);
+        assertEquals(1, plaid.requests());
+        Account synced = awaitRescheduled(account);
+        assertEquals("3", synced.getPlaidSyncCursor());
+        // The push sync also moves the scheduled one a full interval out
+        assertTrue(synced.getNextSyncAt().isAfter(LocalDateTime.now().plusHours(1)));
+    }
+
+    @Test
+    void burstOfWebhooks_IsCoalescedIntoOneSync() throws Exception {
+        Account account = account("burst");
+        addTransactions(account, 2);
+        // Fetches the verification key up front, so the burst is only verification and queueing
+        send(plaid.syncUpdatesAvailable("item-warm-up")).andExpect(status().isOk());
+        plaid.resetCounters();
+        double received = meterRegistry.counter("pathwise.plaid.webhooks.received").count();
+        double coalesced = meterRegistry.counter("pathwise.plaid.webhooks.coalesced").count();
+
+        for (int i = 0; i < 5; i++) {
+            send(plaid.syncUpdatesAvailable(account.getPlaidItemId())).andExpect(status().isOk());
+        }
+
+        // Four folded into the first, so one sync is scheduled and none is left after it
+        assertEquals(5, meterRegistry.counter("pathwise.plaid.webhooks.received").count() - received);
+        assertEquals(4, meterRegistry.counter("pathwise.plaid.webhooks.coalesced").count() - coalesced);
+        awaitTransactions(account, 2);
+        assertEquals(1, plaid.requests());
+    }
+
+    @Test
+    void laterWebhook_SyncsOnlyTheNewActivity() throws Exception {
+        Account account = account("incremental");
+        addTransactions(account, 2);
+        send(plaid.syncUpdatesAvailable(account.getPlaidItemId())).andExpect(status().isOk());
+        awaitTransactions(account, 2);
+
+        plaid.add(account.getPlaidAccessToken(), account.getPlaidAccessToken() + "-new",
+                "Bakery", "3.00", LocalDate.now().toString());
+        plaid.resetCounters();
+        send(plaid.syncUpdatesAvailable(account.getPlaidItemId())).andExpect(status().isOk());
+
+        awaitTransactions(account, 3);
+        assertEquals(1, plaid.rowsServed());
+    }
+
+    @Test
+    void alteredBody_IsRejected() throws Exception {
+        Account account = account("altered");
+        addTransactions(account, 1);
+        PlaidStubServer.SignedWebhook signed = plaid.syncUpdatesAvailable("item-someone-else");
+        byte[] altered = new String(signed.body(), StandardCharsets.UTF_8)
+                .replace("item-someone-else", account.getPlaidItemId())
+                .getBytes(StandardCharsets.UTF_8);
+
+        double received = meterRegistry.counter("pathwise.plaid.webhooks.received").count();
+
+        send(new PlaidStubServer.SignedWebhook(altered, signed.verification())).andExpect(status().isUnauthorized());
+
+        // Rejected before it was handled, so no sync was ever scheduled
+        assertEquals(received, meterRegistry.counter("pathwise.plaid.webhooks.received").count());
+        assertEquals(0, transactionRepository.findByAccountUserId(account.getUser().getId()).size());
+    }
+
+    @Test
+    void unsignedOrStaleWebhooks_AreRejected() throws Exception {
+        PlaidStubServer.SignedWebhook signed = plaid.syncUpdatesAvailable("item-any");
+        mockMvc.perform(post("/api/plaid/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(signed.body()))
+                .andExpect(status().isUnauthorized());
+
+        send(new PlaidStubServer.SignedWebhook(signed.body(), "not-a-jwt")).andExpect(status().isUnauthorized());
+
+        PlaidStubServer.SignedWebhook stale = plaid.webhook(Map.of(
+                "webhook_type", "TRANSACTIONS",
+                "webhook_code", "SYNC_UPDATES_AVAILABLE",
+                "item_id", "item-any"), Instant.now().minusSeconds(600));
+        send(stale).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void otherWebhooks_AreAcknowledgedWithoutSyncing() throws Exception {
+        Account account = account("other");
+        addTransactions(account, 1);
+        plaid.resetCounters();
+
+        send(plaid.webhook(Map.of(
+                "webhook_type", "ITEM",
+                "webhook_code", "PENDING_EXPIRATION",
+                "item_id", account.getPlaidItemId()), Instant.now())).andExpect(status().isOk());
+        send(plaid.syncUpdatesAvailable("item-unknown")).andExpect(status().isOk());
+
+        // Past the window, when a sync would have started
+        Thread.sleep(COALESCE_WINDOW.plusSeconds(1).toMillis());
+        assertEquals(0, plaid.requests());
+    }
+
+    private ResultActions send(PlaidStubServer.SignedWebhook webhook) throws Exception {
+        return mockMvc.perform(post("/api/plaid/webhook")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Plaid-Verification", webhook.verification())
+                .content(webhook.body()));
+    }
+
+    private Account account(String name) {
+        User user = TestDataFactory.createTestUser();
+        user.setId(null);
+        user.setEmail("webhook-" + name + "@test.com");
+        user.setPhone(String.format("3997%04d", users.size()));
+        user = userRepository.save(user);
+        users.add(user);
+
+        String accessToken = "access-webhook-" + name + "-" + System.nanoTime();
+        BahrainBank bank = BahrainBank.values()[0];
+        return accountRepository.save(Account.builder()
+                .user(user).plaidAccessToken(accessToken).plaidItemId("item-" + accessToken)
+                .bank(bank).bankName(bank.getDisplayName())
+                .balance(BigDecimal.ZERO).totalExpensesToDate(BigDecimal.ZERO).currency("BHD")
+                .build());
+    }
+
+    private void addTransactions(Account account, int count) {
+        for (int i = 0; i < count; i++) {
+            plaid.add(account.getPlaidAccessToken(), account.getPlaidAccessToken() + "-" + i,
+                    "Cafe", "4.00", LocalDate.now().toString());
+        }
+    }
+
+    private Account awaitRescheduled(Account account) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        Account current = accountRepository.findById(account.getId()).orElseThrow();
+        while (current.getNextSyncAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            current = accountRepository.findById(account.getId()).orElseThrow();
+        }
+        assertNotNull(current.getNextSyncAt(), "not rescheduled");
+        return current;
+    }
+
+    private void awaitTransactions(Account account, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (transactionRepository.findByAccountUserId(account.getUser().getId()).size() < expected
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, transactionRepository.findByAccountUserId(account.getUser().getId()).size());
+    }
+}
@@ -0,0 +1,195 @@
+package com.pathwise.backend.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.TransactionCategoryRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Pages smaller than the history, so every export reads more than one
+@SpringBootTest(properties = "pathwise.export.page-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TransactionExportIntegrationTest {
+
+    private static final String EMAIL = "export@test.com";
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private TransactionCategoryRepository categoryRepository;
+    @Autowired private JwtUtil jwtUtil;
+
+    private User user;
+    private Account account;
+    private String authToken;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        user = TestDataFactory.createTestUser();
+        user.setId(null);
+        user.setEmail(EMAIL);
+        user = userRepository.save(user);
+
+        account = accountRepository.save(Account.builder()
+                .user(user).balance(BigDecimal.ZERO).currency("BHD").build());
+
+        TransactionCategory food = categoryRepository.findByName("FOOD & DINING")
+                .orElseGet(() -> categoryRepository.save(TransactionCategory.builder()
+                        .name("FOOD & DINING").icon("🍔").colorHex("#FF6B6B").build()));
+
+        save("Talabat, Seef", food, "12.500", TransactionType.DEBIT, LocalDate.of(2025, 3, 2));
+        save("=HYPERLINK(\"x\")", null, "1.000", TransactionType.DEBIT, LocalDate.of(2025, 3, 1));
+        save("Payroll", null, "800.000", TransactionType.CREDIT, LocalDate.of(2025, 2, 28));
+
+        authToken = jwtUtil.generateToken(EMAIL);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        userRepository.findByEmail(EMAIL).ifPresent(existing -> {
+            transactionRepository.deleteAll(transactionRepository.findByAccountUserId(existing.getId()));
+            accountRepository.findByUserId(existing.getId()).ifPresent(accountRepository::delete);
+            userRepository.delete(existing);
+        });
+    }
+
+    @Test
+    void exportCsv_StreamsAllRowsNewestFirst() throws Exception {
+        String body = export("/api/plaid/transactions/export", "text/csv;charset=UTF-8").getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("id,date,merchant,category,type,amount,currency", lines[0]);
+        assertTrue(lines[1].contains(",2025-03-02,\"Talabat, Seef\",FOOD & DINING,DEBIT,12.5"), lines[1]);
+        // Formula-like merchant names are neutralised for spreadsheets
+        assertTrue(lines[2].contains(",\"'=HYPERLINK(\"\"x\"\")\",OTHER,"), lines[2]);
+        assertTrue(lines[3].contains(",Payroll,OTHER,CREDIT,800."), lines[3]);
+    }
+
+    @Test
+    void exportCsv_NeutralisesFormulasBehindLeadingWhitespace() throws Exception {
+        save("\t=cmd", null, "3.000", TransactionType.DEBIT, LocalDate.of(2025, 1, 10));
+        save("\r=cmd", null, "4.000", TransactionType.DEBIT, LocalDate.of(2025, 1, 9));
+
+        String body = export("/api/plaid/transactions/export", "text/csv;charset=UTF-8").getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertTrue(body.contains(",'\t=cmd,OTHER,"), body);
+        // Quoted too, since it holds a carriage return
+        assertTrue(body.contains(",\"'\r=cmd\",OTHER,"), body);
+    }
+
+    @Test
+    void exportNdjson_WritesOneJsonObjectPerLine() throws Exception {
+        String body = export("/api/plaid/transactions/export?format=ndjson", "application/x-ndjson")
+                .getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Talabat, Seef", first.get("merchantName").asText());
+        assertEquals("2025-03-02", first.get("transactionDate").asText());
+        assertEquals("FOOD & DINING", first.get("category").asText());
+    }
+
+    @Test
+    void exportCsv_PagesThroughRowsSharingADate() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            save("Same day " + i, null, "2.000", TransactionType.DEBIT, LocalDate.of(2025, 1, 15));
+        }
+
+        String body = export("/api/plaid/transactions/export", "text/csv;charset=UTF-8").getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        List<String> rows = Arrays.asList(lines).subList(1, lines.length);
+        assertEquals(8, rows.size());
+        assertEquals(8, rows.stream().map(line -> line.substring(0, line.indexOf(','))).distinct().count());
+        assertEquals(5, rows.stream().filter(line -> line.contains(",2025-01-15,Same day ")).count());
+    }
+
+    @Test
+    void exportGzip_ProducesValidGzipFile() throws Exception {
+        MvcResult result = export("/api/plaid/transactions/export?format=csv&gzip=true", "application/gzip");
+
+        assertTrue(result.getResponse().getHeader("Content-Disposition").contains(".csv.gz"));
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(4, body.split("\n").length);
+        }
+    }
+
+    @Test
+    void export_UnknownFormat_Returns400() throws Exception {
+        mockMvc.perform(get("/api/plaid/transactions/export?format=xml")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void export_WithoutToken_Returns401() throws Exception {
+        mockMvc.perform(get("/api/plaid/transactions/export"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private MvcResult export(String url, String contentType) throws Exception {
+        MvcResult started = mockMvc.perform(get(url).header("Authorization", "Bearer " + authToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", contentType))
+                .andReturn();
+    }
+
+    private void save(String merchant, TransactionCategory category, String amount,
+                      TransactionType type, LocalDate date) {
+        transactionRepository.save(Transaction.builder()
+                .account(account)
+                .category(category)
+                .merchantName(merchant)
+                .amount(new BigDecimal(amount))
+                .type(type)
+                .currency("BHD")
+                .transactionDate(date)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,217 @@
+package com.pathwise.backend.integration;
+
+import com.pathwise.backend.config.PlaidStubServer;
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.AnomalyRepository;
+import com.pathwise.backend.repository.CategorySpendStatsRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import com.pathwise.backend.service.AICategorizationService;
+import com.pathwise.backend.service.AnomalyDetectionJob;
+import com.pathwise.backend.service.PlaidService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Staged ingest: Plaid and the LLM are called with no database connection
+ * checked out, LLM batches run concurrently up to the configured limit, which
+ * concurrent syncs share, and each stage's duration is recorded.
+ */
+@SpringBootTest(properties = "pathwise.ingest.categorize-parallelism=2")
+@ActiveProfiles("test")
+class TransactionIngestPipelineTest {
+
+    private static final String EMAIL = "ingest-pipeline@test.com";
+    private static final String OTHER_EMAIL = "ingest-pipeline-other@test.com";
+    private static final PlaidStubServer plaid = new PlaidStubServer();
+
+    @DynamicPropertySource
+    static void plaidProperties(DynamicPropertyRegistry registry) {
+        registry.add("plaid.base-url", plaid::baseUrl);
+    }
+
+    @AfterAll
+    static void stopPlaid() {
+        plaid.close();
+    }
+
+    @MockitoBean private AICategorizationService aiCategorizationService;
+    @MockitoBean private AnomalyDetectionJob anomalyDetectionJob;
+
+    @Autowired private PlaidService plaidService;
+    @Autowired private DataSource dataSource;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private UserRepository userRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+    @Autowired private CategorySpendStatsRepository statsRepository;
+    @Autowired private AnomalyRepository anomalyRepository;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        User user = TestDataFactory.createTestUser();
+        user.setId(null);
+        user.setEmail(EMAIL);
+        user.setPhone("39970001");
+        user = userRepository.save(user);
+        account = accountRepository.save(Account.builder()
+                .user(user).plaidAccessToken("access-pipeline-" + System.nanoTime())
+                .balance(BigDecimal.ZERO).totalExpensesToDate(BigDecimal.ZERO).currency("BHD")
+                .build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (String email : List.of(EMAIL, OTHER_EMAIL)) {
+            userRepository.findByEmail(email).ifPresent(u -> {
+                anomalyRepository.deleteAll(anomalyRepository.findByUserIdOrderByCreatedAtDesc(u.getId()));
+                rollupRepository.deleteAll(rollupRepository.findByUserIdAndMonthStartBetween(
+                        u.getId(), LocalDate.now().minusYears(1), LocalDate.now()));
+                statsRepository.deleteAll(statsRepository.findByUserId(u.getId()));
+                transactionRepository.deleteAllInBatch(transactionRepository.findByAccountUserId(u.getId()));
+                accountRepository.findByUserId(u.getId()).ifPresent(accountRepository::delete);
+                userRepository.delete(u);
+            });
+        }
+    }
+
+    @Test
+    void ingest_CategorizesConcurrentlyWithoutHoldingAConnection() {
+        HikariDataSource pool = (HikariDataSource) dataSource;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger maxActiveConnections = new AtomicInteger();
+        when(aiCategorizationService.categorizeBatch(anyList())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            maxActiveConnections.accumulateAndGet(pool.getHikariPoolMXBean().getActiveConnections(), Math::max);
+            Thread.sleep(200);
+            inFlight.decrementAndGet();
+            List<Map<String, Object>> batch = invocation.getArgument(0);
+            Map<String, String> categories = new HashMap<>();
+            batch.forEach(txn -> categories.put((String) txn.get("id"), "TRAVEL"));
+            return categories;
+        });
+
+        String token = account.getPlaidAccessToken();
+        // 90 rows are six LLM batches of 15
+        for (int i = 0; i < 90; i++) {
+            plaid.add(token, token + "-" + i, "Airline " + (i % 5), "12.00", LocalDate.now().toString());
+        }
+        plaidService.fetchAndStoreTransactions(token, account);
+
+        List<Transaction> stored = transactionRepository.findByAccountUserId(account.getUser().getId());
+        assertEquals(90, stored.size());
+        assertTrue(stored.stream().allMatch(t -> "TRAVEL".equals(t.getAiCategoryRaw())));
+        assertEquals(2, maxInFlight.get());
+        assertEquals(0, maxActiveConnections.get());
+        assertEquals("90", account.getPlaidSyncCursor());
+    }
+
+    @Test
+    void concurrentSyncs_ShareTheCategorizeLimit() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(aiCategorizationService.categorizeBatch(anyList())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(200);
+            inFlight.decrementAndGet();
+            return Map.of();
+        });
+
+        User other = TestDataFactory.createTestUser();
+        other.setId(null);
+        other.setEmail(OTHER_EMAIL);
+        other.setPhone("39970002");
+        other = userRepository.save(other);
+        Account otherAccount = accountRepository.save(Account.builder()
+                .user(other).plaidAccessToken("access-pipeline-other-" + System.nanoTime())
+                .balance(BigDecimal.ZERO).totalExpensesToDate(BigDecimal.ZERO).currency("BHD")
+                .build());
+
+        // Each account has four LLM batches of 15; alone, either run would fill both slots
+        for (Account synced : List.of(account, otherAccount)) {
+            String token = synced.getPlaidAccessToken();
+            for (int i = 0; i < 60; i++) {
+                plaid.add(token, token + "-" + i, "Airline " + (i % 5), "12.00", LocalDate.now().toString());
+            }
+        }
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> first = executor.submit(() -> plaidService.fetchAndStoreTransactions(
+                    account.getPlaidAccessToken(), account));
+            Future<?> second = executor.submit(() -> plaidService.fetchAndStoreTransactions(
+                    otherAccount.getPlaidAccessToken(), otherAccount));
+            first.get();
+            second.get();
+        }
+
+        assertEquals(60, transactionRepository.findByAccountUserId(account.getUser().getId()).size());
+        assertEquals(60, transactionRepository.findByAccountUserId(other.getId()).size());
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void ingest_RecordsStageTimingsAndPoolHoldTime() {
+        String token = account.getPlaidAccessToken();
+        plaid.add(token, token + "-0", "Cafe", "5.00", LocalDate.now().toString());
+        long persisted = stageCount("persist");
+
+        plaidService.fetchAndStoreTransactions(token, account);
+
+        for (String stage : List.of("fetch", "normalize", "categorize")) {
+            assertTrue(stageCount(stage) > 0, stage);
+        }
+        assertEquals(persisted + 1, stageCount("persist"));
+        assertNotNull(meterRegistry.find("hikaricp.connections.usage").timer());
+    }
+
+    @Test
+    void ingest_NothingNewSkipsTheWriteTransaction() {
+        String token = account.getPlaidAccessToken();
+        plaid.add(token, token + "-0", "Cafe", "5.00", LocalDate.now().toString());
+        plaidService.fetchAndStoreTransactions(token, account);
+        long persisted = stageCount("persist");
+
+        plaidService.fetchAndStoreTransactions(token, account);
+
+        assertEquals(persisted, stageCount("persist"));
+        assertEquals("1", accountRepository.findById(account.getId()).orElseThrow().getPlaidSyncCursor());
+    }
+
+    private long stageCount(String stage) {
+        return meterRegistry.find("pathwise.ingest.stage").tag("stage", stage).timer().count();
+    }
+}
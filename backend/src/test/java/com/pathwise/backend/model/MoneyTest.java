@@ -0,0 +1,68 @@
+package com.pathwise.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that fils arithmetic matches the BigDecimal arithmetic it replaced.
+ */
+class MoneyTest {
+
+    @Test
+    void toFils_RoundTripsThreeDecimalAmounts() {
+        BigDecimal amount = new BigDecimal("1234.567");
+        assertEquals(1_234_567L, Money.toFils(amount));
+        assertEquals(amount, Money.toBigDecimal(Money.toFils(amount)));
+    }
+
+    @Test
+    void toFils_RoundsHalfUpAndTreatsNullAsZero() {
+        assertEquals(1_235L, Money.toFils(new BigDecimal("1.2345")));
+        assertEquals(-1_235L, Money.toFils(new BigDecimal("-1.2345")));
+        assertEquals(5_000L, Money.toFils(new BigDecimal("5")));
+        assertEquals(0L, Money.toFils(null));
+    }
+
+    @Test
+    void add_ThrowsOnOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1L));
+    }
+
+    @Test
+    void scale_RoundsHalfUpToTheFils() {
+        // 10.000 BD over 3 months = 3.333 BD; 20.000 over 3 = 6.667
+        assertEquals(3_333L, Money.scale(10_000L, 1, 3));
+        assertEquals(6_667L, Money.scale(20_000L, 1, 3));
+        assertEquals(-6_667L, Money.scale(-20_000L, 1, 3));
+    }
+
+    @Test
+    void ceilDiv_CountsWholePeriods() {
+        assertEquals(4L, Money.ceilDiv(1_000_000L, 300_000L));
+        assertEquals(5L, Money.ceilDiv(1_500_000L, 300_000L));
+    }
+
+    @Test
+    void ratio_MatchesBigDecimalDivisionToFourPlaces() {
+        assertEquals(1.6667, Money.ratio(250_000L, 150_000L));
+        assertEquals(0.5, Money.ratio(1_000L, 2_000L));
+    }
+
+    @Test
+    void summing_MatchesBigDecimalReduction() {
+        List<BigDecimal> amounts = List.of(
+                new BigDecimal("12.345"), new BigDecimal("0.001"), new BigDecimal("999.999"));
+        BigDecimal expected = amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Map<String, Long> fils = amounts.stream()
+                .collect(Collectors.groupingBy(a -> "all", Money.summing(Money::toFils)));
+
+        assertEquals(expected, Money.toAmounts(fils).get("all"));
+    }
+}
@@ -0,0 +1,372 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.enums.GoalCategory;
+import com.pathwise.backend.enums.GoalPriority;
+import com.pathwise.backend.enums.GoalStatus;
+import com.pathwise.backend.enums.ExpenseCategory;
+import com.pathwise.backend.enums.SeverityLevel;
+import com.pathwise.backend.enums.TokenPurpose;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.*;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query-plan regression suite.
+ *
+ * Seeds a few thousand rows, calls every repository query the application uses,
+ * captures the SQL Hibernate generates and runs EXPLAIN on it. The test fails if
+ * any statement falls back to a full table scan, which means an index is missing.
+ *
+ * Runs on an H2 database of its own by default. To check the plans production
+ * gets, run it against an empty PostgreSQL 16+ database (EXPLAIN (GENERIC_PLAN),
+ * "Seq Scan"):
+ *
+ *   mvn test -Dtest=QueryPlanTest -Dplans.postgres.url=jdbc:postgresql://localhost/plans \
+ *            -Dplans.postgres.username=... -Dplans.postgres.password=...
+ *
+ * Queries that join transactions to both accounts and categories are only checked
+ * there: H2 keeps the written join order around the outer join and scans
+ * transactions, while PostgreSQL reorders the joins and drives them from
+ * idx_accounts_user_id. Those queries still run on H2.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(QueryPlanTest.CaptureConfig.class)
+class QueryPlanTest {
+
+    private static final String POSTGRES_URL = System.getProperty("plans.postgres.url", "");
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        if (POSTGRES_URL.isBlank()) {
+            // Not the shared test database: create-drop here would drop the tables under other contexts
+            registry.add("spring.datasource.url", () -> "jdbc:h2:mem:queryplans;DB_CLOSE_DELAY=-1");
+            return;
+        }
+        registry.add("spring.datasource.url", () -> POSTGRES_URL);
+        registry.add("spring.datasource.username", () -> System.getProperty("plans.postgres.username", ""));
+        registry.add("spring.datasource.password", () -> System.getProperty("plans.postgres.password", ""));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    private static final int USERS = 20;
+    private static final int TRANSACTIONS_PER_USER = 300;
+    private static final int ROWS_PER_USER = 20;
+
+    @Autowired private TestEntityManager em;
+    @Autowired private CapturingInspector inspector;
+
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private AnomalyRepository anomalyRepository;
+    @Autowired private AdviceHistoryRepository adviceHistoryRepository;
+    @Autowired private EmailVerificationTokenRepository tokenRepository;
+    @Autowired private GoalRepository goalRepository;
+    @Autowired private MonthlyExpenseRepository expenseRepository;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+    @Autowired private CategorySpendStatsRepository statsRepository;
+    @Autowired private ReportRepository reportRepository;
+    @Autowired private SimulationRepository simulationRepository;
+    @Autowired private MilestoneRepository milestoneRepository;
+    @Autowired private TransactionCategoryRepository categoryRepository;
+    @Autowired private UserRepository userRepository;
+
+    private final List<String> violations = new ArrayList<>();
+
+    private User user;
+    private Account account;
+    private Goal goal;
+
+    @BeforeEach
+    void seed() {
+        TransactionCategory category = em.persist(TransactionCategory.builder()
+                .name("SHOPPING").icon("🛍️").colorHex("#45B7D1").build());
+
+        for (int u = 0; u < USERS; u++) {
+            User owner = em.persist(User.builder()
+                    .fullName("Plan User " + u)
+                    .email("plan" + u + "@test.com")
+                    .passwordHash("hash")
+                    .phone(String.format("3%07d", u))
+                    .monthlySalary(new BigDecimal("1000.000"))
+                    .createdAt(LocalDateTime.now())
+                    .updatedAt(LocalDateTime.now())
+                    .build());
+            Account ownerAccount = em.persist(Account.builder()
+                    .user(owner)
+                    .plaidAccountId("acc-" + u)
+                    .balance(BigDecimal.ZERO)
+                    .currency("BHD")
+                    .build());
+
+            for (int i = 0; i < TRANSACTIONS_PER_USER; i++) {
+                em.persist(Transaction.builder()
+                        .account(ownerAccount)
+                        .category(category)
+                        .plaidTransactionId("txn-" + u + "-" + i)
+                        .merchantName("Merchant " + (i % 40))
+                        .amount(BigDecimal.valueOf(i % 97 + 1))
+                        .type(i % 10 == 0 ? TransactionType.CREDIT : TransactionType.DEBIT)
+                        .currency("BHD")
+                        .transactionDate(LocalDate.now().minusDays(i))
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            }
+
+            Goal ownerGoal = null;
+            for (int i = 0; i < ROWS_PER_USER; i++) {
+                em.persist(Anomaly.builder().user(owner).category(category)
+                        .severity(SeverityLevel.LOW).message("a").isDismissed(i % 2 == 0)
+                        .createdAt(LocalDateTime.now().minusDays(i)).build());
+                em.persist(AdviceHistory.builder().user(owner).role("user").message("m")
+                        .createdAt(LocalDateTime.now().minusMinutes(i)).build());
+                em.persist(EmailVerificationToken.builder().user(owner).email(owner.getEmail())
+                        .code("123456").purpose(TokenPurpose.EMAIL_VERIFICATION).used(i > 0)
+                        .expiresAt(LocalDateTime.now().plusMinutes(15))
+                        .createdAt(LocalDateTime.now()).build());
+                em.persist(Report.builder().user(owner).title("r")
+                        .createdAt(LocalDateTime.now().minusDays(i)).build());
+                em.persist(MonthlyExpense.builder().user(owner).category(ExpenseCategory.FOOD)
+                        .amount(BigDecimal.ONE).build());
+                ownerGoal = em.persist(Goal.builder().user(owner).name("g")
+                        .category(GoalCategory.EMERGENCY_FUND).targetAmount(BigDecimal.TEN)
+                        .savedAmount(BigDecimal.ONE).monthlySavingsTarget(BigDecimal.ONE)
+                        .deadline(YearMonth.now().plusYears(1)).priority(GoalPriority.HIGH)
+                        .status(GoalStatus.ON_TRACK).build());
+                em.persist(Simulation.builder().user(owner).goal(ownerGoal)
+                        .adjustments(Map.of("food", 0.1)).build());
+                em.persist(Milestone.builder().goal(ownerGoal).title("m").build());
+                em.persist(MonthlySpendRollup.builder().user(owner)
+                        .monthStart(LocalDate.now().withDayOfMonth(1).minusMonths(i / 2))
+                        .category("SHOPPING").type(i % 2 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT)
+                        .totalAmount(BigDecimal.TEN).transactionCount(1).build());
+            }
+
+            for (String statsCategory : List.of("SHOPPING", "FOOD", "OTHER")) {
+                em.persist(CategorySpendStats.builder().user(owner).category(statsCategory)
+                        .sampleCount(10).mean(5).m2(20).ewma(5)
+                        .monthStart(LocalDate.now().withDayOfMonth(1)).monthCount(2)
+                        .monthPeakScore(1.0).build());
+            }
+
+            if (u == 0) {
+                user = owner;
+                account = ownerAccount;
+                goal = ownerGoal;
+            }
+            em.flush();
+            em.clear();
+        }
+
+        user = em.find(User.class, user.getId());
+        account = em.find(Account.class, account.getId());
+        goal = em.find(Goal.class, goal.getId());
+    }
+
+    @Test
+    void transactionQueries_UseIndexes() {
+        LocalDate end = LocalDate.now();
+        LocalDate start = end.minusMonths(3);
+
+        assertIndexedOnPostgres("findByAccountUserId", () -> transactionRepository.findByAccountUserId(user.getId()));
+        assertIndexedOnPostgres("findByAccountUserIdAndTransactionDateBetween", () ->
+                transactionRepository.findByAccountUserIdAndTransactionDateBetween(user.getId(), start, end));
+        assertIndexed("findByAccountAndTransactionDateBetween", () ->
+                transactionRepository.findByAccountAndTransactionDateBetween(account, start, end));
+        assertIndexed("existsByPlaidTransactionId", () ->
+                transactionRepository.existsByPlaidTransactionId("txn-0-5"));
+        assertIndexed("findByAccountIdAndPlaidTransactionIdIn", () ->
+                transactionRepository.findByAccountIdAndPlaidTransactionIdIn(account.getId(), List.of("txn-0-5", "txn-1-7")));
+        assertIndexed("findExistingPlaidTransactionIds", () ->
+                transactionRepository.findExistingPlaidTransactionIds(List.of("txn-0-5", "txn-1-7")));
+        assertIndexed("existsByAccountAndTypeAndTransactionDateBetween", () ->
+                transactionRepository.existsByAccountAndTypeAndTransactionDateBetween(
+                        account, TransactionType.CREDIT, start, end));
+        assertIndexed("findTopByAccountOrderByTransactionDateDesc", () ->
+                transactionRepository.findTopByAccountOrderByTransactionDateDesc(account));
+        assertIndexed("countByAccountId", () -> transactionRepository.countByAccountId(account.getId()));
+        assertIndexedOnPostgres("sumByUserIdGroupedByMonthCategoryAndType", () ->
+                transactionRepository.sumByUserIdGroupedByMonthCategoryAndType(user.getId()));
+        assertIndexedOnPostgres("findDebitSamplesByUserId", () ->
+                transactionRepository.findDebitSamplesByUserId(user.getId()));
+        assertIndexed("sumDebitsByUserIdGroupedByMerchant", () ->
+                transactionRepository.sumDebitsByUserIdGroupedByMerchant(user.getId()));
+        assertIndexedOnPostgres("findSpendTotals", () ->
+                transactionRepository.findSpendTotals(user.getId(), LocalDate.now().minusMonths(6), LocalDate.now(),
+                        LocalDate.now().minusDays(29), LocalDate.now()));
+        assertIndexed("findAll(list specification)", () -> transactionRepository.findAll(
+                TransactionSpecifications.belongsToUser(user.getId())
+                        .and(TransactionSpecifications.hasType("DEBIT")),
+                PageRequest.of(3, 8, TransactionSpecifications.sortOf(null, null))));
+    }
+
+    @Test
+    void userScopedQueries_UseIndexes() {
+        assertIndexed("accounts.findByUserId", () -> accountRepository.findByUserId(user.getId()));
+        assertIndexed("accounts.existsByPlaidAccountId", () -> accountRepository.existsByPlaidAccountId("acc-3"));
+        assertIndexed("accounts.findUserIdsAfter", () ->
+                accountRepository.findUserIdsAfter(new UUID(0, 0), PageRequest.of(0, 500)));
+        assertIndexed("anomalies.findByUserIdAndIsDismissedFalseOrderByCreatedAtDesc", () ->
+                anomalyRepository.findByUserIdAndIsDismissedFalseOrderByCreatedAtDesc(user.getId()));
+        assertIndexed("anomalies.findFlaggedCategoryNamesSince", () ->
+                anomalyRepository.findFlaggedCategoryNamesSince(user.getId(), LocalDate.now().withDayOfMonth(1).atStartOfDay()));
+        assertIndexed("anomalies.findByUserIdOrderByCreatedAtDesc", () ->
+                anomalyRepository.findByUserIdOrderByCreatedAtDesc(user.getId()));
+        assertIndexed("advice.findTop10ByUserIdOrderByCreatedAtDesc", () ->
+                adviceHistoryRepository.findTop10ByUserIdOrderByCreatedAtDesc(user.getId()));
+        assertIndexed("goals.findByUserId", () -> goalRepository.findByUserId(user.getId()));
+        assertIndexed("goals.findByUserIdAndStatus", () ->
+                goalRepository.findByUserIdAndStatus(user.getId(), GoalStatus.ON_TRACK));
+        assertIndexed("goals.sumMonthlySavingsTargetByUserId", () ->
+                goalRepository.sumMonthlySavingsTargetByUserId(user.getId()));
+        assertIndexed("expenses.findByUserId", () -> expenseRepository.findByUserId(user.getId()));
+        assertIndexed("expenses.sumByUserId", () -> expenseRepository.sumByUserId(user.getId()));
+        assertIndexed("rollup.findByUserIdAndMonthStartBetween", () ->
+                rollupRepository.findByUserIdAndMonthStartBetween(
+                        user.getId(), LocalDate.now().minusMonths(6), LocalDate.now()));
+        assertIndexed("rollup.findByUserIdAndTypeAndMonthStartBetween", () ->
+                rollupRepository.findByUserIdAndTypeAndMonthStartBetween(
+                        user.getId(), TransactionType.DEBIT, LocalDate.now().minusMonths(2), LocalDate.now()));
+        assertIndexed("stats.findByUserId", () -> statsRepository.findByUserId(user.getId()));
+        assertIndexed("stats.findScoredByUserIdAndMonthStart", () ->
+                statsRepository.findScoredByUserIdAndMonthStart(user.getId(), LocalDate.now().withDayOfMonth(1)));
+        assertIndexed("reports.findByUserIdOrderByCreatedAtDesc", () ->
+                reportRepository.findByUserIdOrderByCreatedAtDesc(user.getId()));
+        assertIndexed("reports.countByUserIdAndCreatedAtGreaterThanEqual", () ->
+                reportRepository.countByUserIdAndCreatedAtGreaterThanEqual(
+                        user.getId(), LocalDateTime.now().minusDays(7)));
+        assertIndexed("simulations.findByGoalId", () -> simulationRepository.findByGoalId(goal.getId()));
+        assertIndexed("milestones.findByGoalId", () -> milestoneRepository.findByGoalId(goal.getId()));
+        assertIndexed("categories.findByName", () -> categoryRepository.findByName("SHOPPING"));
+        assertIndexed("users.findByEmail", () -> userRepository.findByEmail("plan3@test.com"));
+        assertIndexed("users.existsByPhone", () -> userRepository.existsByPhone("30000003"));
+    }
+
+    @Test
+    void tokenQueries_UseIndexes() {
+        assertIndexed("tokens.findActiveToken", () ->
+                tokenRepository.findActiveToken(user.getEmail(), TokenPurpose.EMAIL_VERIFICATION));
+        assertIndexed("tokens.findActiveResetToken", () ->
+                tokenRepository.findActiveResetToken(UUID.randomUUID().toString()));
+        assertIndexed("tokens.invalidateAll", () ->
+                tokenRepository.invalidateAll(user.getEmail(), TokenPurpose.EMAIL_VERIFICATION));
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private void assertIndexedOnPostgres(String method, Runnable call) {
+        if (POSTGRES_URL.isBlank()) {
+            call.run();
+            return;
+        }
+        assertIndexed(method, call);
+    }
+
+    private void assertIndexed(String method, Runnable call) {
+        inspector.statements.clear();
+        call.run();
+        em.flush();
+
+        List<String> statements = new ArrayList<>(inspector.statements);
+        assertFalse(statements.isEmpty(), method + " issued no SQL");
+
+        for (String sql : statements) {
+            String plan = explain(sql);
+            if (isSequentialScan(plan)) {
+                violations.add(method + " falls back to a sequential scan:\n" + sql + "\n" + plan);
+            }
+        }
+    }
+
+    @AfterEach
+    void assertNoSequentialScans() {
+        assertTrue(violations.isEmpty(), () -> String.join("\n", violations));
+    }
+
+    private String explain(String sql) {
+        return em.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            boolean postgres = connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+            String explain = postgres ? "EXPLAIN (GENERIC_PLAN) " + numberParameters(sql) : "EXPLAIN " + sql;
+            StringBuilder plan = new StringBuilder();
+            try (PreparedStatement ps = connection.prepareStatement(explain); ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        });
+    }
+
+    private static boolean isSequentialScan(String plan) {
+        return plan.contains(".tableScan") || plan.contains("Seq Scan");
+    }
+
+    /** Rewrites JDBC '?' markers into PostgreSQL '$n' parameters for EXPLAIN (GENERIC_PLAN). */
+    private static String numberParameters(String sql) {
+        StringBuilder out = new StringBuilder();
+        int n = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') out.append('$').append(++n);
+            else out.append(c);
+        }
+        return out.toString();
+    }
+
+    /** Records every SQL statement Hibernate prepares. */
+    static class CapturingInspector implements StatementInspector {
+        final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            String trimmed = sql.trim().toLowerCase();
+            if (trimmed.startsWith("select") || trimmed.startsWith("update") || trimmed.startsWith("delete")) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        CapturingInspector capturingInspector() {
+            return new CapturingInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(CapturingInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+}
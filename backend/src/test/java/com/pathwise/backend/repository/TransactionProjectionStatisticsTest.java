@@ -0,0 +1,167 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the entity-based and the projection-based transaction reads using
+ * Hibernate statistics: statements, joins, entities loaded and bytes allocated
+ * on the calling thread. The numbers are printed for each case.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(QueryPlanTest.CaptureConfig.class)
+class TransactionProjectionStatisticsTest {
+
+    private static final int TRANSACTIONS = 400;
+
+    @Autowired private TestEntityManager em;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private QueryPlanTest.CapturingInspector inspector;
+
+    private UUID userId;
+    private Statistics statistics;
+
+    record Measurement(long statements, long joins, long entitiesLoaded, long bytesAllocated) {}
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User user = TestDataFactory.createTestUser();
+        user.setId(null);
+        em.persist(user);
+        userId = user.getId();
+
+        Account account = em.persist(Account.builder().user(user).balance(BigDecimal.ZERO).currency("BHD").build());
+        List<TransactionCategory> categories = Stream.of("PROJ-FOOD", "PROJ-TRANSPORT", "PROJ-SHOPPING")
+                .map(name -> em.persist(TransactionCategory.builder().name(name).icon("*").colorHex("#000000").build()))
+                .toList();
+
+        LocalDate start = LocalDate.now().minusMonths(6);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            em.persist(Transaction.builder()
+                    .account(account)
+                    .category(i % 4 == 0 ? null : categories.get(i % categories.size()))
+                    .merchantName("Merchant " + (i % 25))
+                    .amount(new BigDecimal(i % 50 + ".250"))
+                    .type(i % 10 == 0 ? TransactionType.CREDIT : TransactionType.DEBIT)
+                    .currency("BHD")
+                    .transactionDate(start.plusDays(i % 180))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void listPage_ProjectionSkipsEntityHydration() {
+        Specification<Transaction> spec = TransactionSpecifications.belongsToUser(userId);
+        PageRequest page = PageRequest.of(0, 50, TransactionSpecifications.sortOf(null, null));
+
+        Measurement entities = measure("list/entities", () ->
+                transactionRepository.findAll(spec, page).getContent()
+                        .forEach(t -> consume(t.getCategory() != null ? t.getCategory().getName() : "OTHER")));
+        Measurement projection = measure("list/projection", () ->
+                transactionRepository.findResponses(spec, page).getContent()
+                        .forEach(r -> consume(r.getCategory())));
+
+        assertEquals(0, projection.entitiesLoaded());
+        assertTrue(entities.entitiesLoaded() >= 50, entities.toString());
+        assertEquals(2, projection.statements(), "page query + count query");
+        assertTrue(projection.statements() < entities.statements(), entities.toString());
+        // Secondary selects for the eager account/user/category links count as table accesses too
+        assertTrue(projection.statements() + projection.joins() < entities.statements() + entities.joins(),
+                entities + " vs " + projection);
+    }
+
+    @Test
+    void analyticsRange_ProjectionSkipsEntityHydration() {
+        LocalDate from = LocalDate.now().minusMonths(6);
+        LocalDate to = LocalDate.now();
+
+        Measurement entities = measure("analytics/entities", () ->
+                transactionRepository.findByAccountUserIdAndTransactionDateBetween(userId, from, to)
+                        .forEach(t -> consume(t.getAmount())));
+        Measurement projection = measure("analytics/projection", () ->
+                transactionRepository.findResponsesByUserIdAndTransactionDateBetween(userId, from, to)
+                        .forEach(r -> consume(r.getAmount())));
+
+        assertEquals(0, projection.entitiesLoaded());
+        assertTrue(entities.entitiesLoaded() >= TRANSACTIONS, entities.toString());
+        assertEquals(1, projection.statements());
+        assertTrue(projection.bytesAllocated() < entities.bytesAllocated(), entities + " vs " + projection);
+    }
+
+    @Test
+    void exportPage_ProjectionLoadsNoEntities() {
+        Specification<Transaction> owned = TransactionSpecifications.belongsToUser(userId);
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "transactionDate", "id");
+
+        Measurement projection = measure("export/projection", () ->
+                assertEquals(TRANSACTIONS, transactionRepository.findResponses(owned, newestFirst, TRANSACTIONS).size()));
+
+        assertEquals(0, projection.entitiesLoaded());
+        assertEquals(1, projection.statements());
+        assertEquals(2, projection.joins(), "only the account and category joins are expected");
+    }
+
+    /**
+     * Runs the action once to warm up query plans, then measures a second run
+     * against an empty persistence context.
+     */
+    private Measurement measure(String label, Runnable action) {
+        action.run();
+        em.clear();
+        statistics.clear();
+        inspector.statements.clear();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        action.run();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        long joins = inspector.statements.stream()
+                .mapToLong(sql -> sql.toLowerCase().split(" join ", -1).length - 1)
+                .sum();
+        Measurement m = new Measurement(statistics.getPrepareStatementCount(), joins,
+                statistics.getEntityLoadCount(), allocated);
+        System.out.printf("%-22s statements=%d joins=%d entities=%d allocated=%,d bytes%n",
+                label, m.statements(), m.joins(), m.entitiesLoaded(), m.bytesAllocated());
+        em.clear();
+        return m;
+    }
+
+    private static void consume(Object value) {
+        assertNotNull(value);
+    }
+}
@@ -0,0 +1,225 @@
+package com.pathwise.backend.repository;
+
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.dto.TransactionResponse;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the transaction list filters, ordering and paging
+ * are applied by the database through TransactionSpecifications.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class TransactionSpecificationsTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private TransactionRepository transactionRepository;
+
+    private User user;
+    private Account account;
+    private TransactionCategory food;
+
+    @BeforeEach
+    void setUp() {
+        user = TestDataFactory.createTestUser();
+        user.setId(null);
+        em.persist(user);
+
+        User other = TestDataFactory.createOtherUser();
+        other.setId(null);
+        em.persist(other);
+
+        account = em.persist(Account.builder().user(user).balance(BigDecimal.ZERO).currency("BHD").build());
+        Account otherAccount = em.persist(Account.builder().user(other).balance(BigDecimal.ZERO).currency("BHD").build());
+
+        food = em.persist(TransactionCategory.builder().name("FOOD & DINING").icon("🍔").colorHex("#FF6B6B").build());
+
+        persist(account, food, "Starbucks", "4.500", TransactionType.DEBIT, LocalDate.of(2025, 1, 5));
+        persist(account, food, "Talabat", "12.000", TransactionType.DEBIT, LocalDate.of(2025, 1, 20));
+        persist(account, null, "Payroll", "800.000", TransactionType.CREDIT, LocalDate.of(2025, 2, 1));
+        persist(account, null, null, "30.000", TransactionType.DEBIT, LocalDate.of(2025, 2, 3));
+        persist(otherAccount, food, "Starbucks", "9.000", TransactionType.DEBIT, LocalDate.of(2025, 1, 6));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void belongsToUser_ExcludesOtherUsersTransactions() {
+        assertEquals(4, transactionRepository.count(TransactionSpecifications.belongsToUser(user.getId())));
+    }
+
+    @Test
+    void merchantContains_IsCaseInsensitive() {
+        Specification<Transaction> spec = TransactionSpecifications.belongsToUser(user.getId())
+                .and(TransactionSpecifications.merchantContains("STAR"));
+
+        assertEquals(1, transactionRepository.count(spec));
+    }
+
+    @Test
+    void merchantContains_EscapesLikeWildcards() {
+        Specification<Transaction> spec = TransactionSpecifications.belongsToUser(user.getId())
+                .and(TransactionSpecifications.merchantContains("%"));
+
+        assertEquals(0, transactionRepository.count(spec));
+    }
+
+    @Test
+    void hasCategory_Other_MatchesUncategorizedTransactions() {
+        Specification<Transaction> spec = TransactionSpecifications.belongsToUser(user.getId())
+                .and(TransactionSpecifications.hasCategory("OTHER"));
+
+        assertEquals(2, transactionRepository.count(spec));
+    }
+
+    @Test
+    void hasType_IgnoresUnknownValues() {
+        assertNull(TransactionSpecifications.hasType("BOTH"));
+
+        Specification<Transaction> spec = TransactionSpecifications.belongsToUser(user.getId())
+                .and(TransactionSpecifications.hasType("CREDIT"));
+        assertEquals(1, transactionRepository.count(spec));
+    }
+
+    @Test
+    void findAll_PagesAndCountsInDatabase() {
+        Specification<Transaction> spec = TransactionSpecifications.belongsToUser(user.getId())
+                .and(TransactionSpecifications.hasType("DEBIT"));
+
+        Page<Transaction> page = transactionRepository.findAll(spec,
+                PageRequest.of(1, 2, TransactionSpecifications.sortOf("amount", "DESC")));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(1, page.getNumberOfElements());
+        assertEquals(0, new BigDecimal("4.500").compareTo(page.getContent().get(0).getAmount()));
+    }
+
+    @Test
+    void sortOf_DefaultsToNewestFirst() {
+        Page<Transaction> page = transactionRepository.findAll(
+                TransactionSpecifications.belongsToUser(user.getId()),
+                PageRequest.of(0, 10, TransactionSpecifications.sortOf(null, null)));
+
+        assertEquals(LocalDate.of(2025, 2, 3), page.getContent().get(0).getTransactionDate());
+        assertEquals(LocalDate.of(2025, 1, 5), page.getContent().get(3).getTransactionDate());
+    }
+
+    @Test
+    void findResponses_SortsMerchantNameWithNullsLast() {
+        Page<TransactionResponse> page = transactionRepository.findResponses(
+                TransactionSpecifications.belongsToUser(user.getId()),
+                PageRequest.of(0, 10, TransactionSpecifications.sortOf("merchantName", "ASC")));
+
+        assertEquals(4, page.getTotalElements());
+        assertEquals("Payroll", page.getContent().get(0).getMerchantName());
+        assertNull(page.getContent().get(3).getMerchantName());
+        assertEquals("OTHER", page.getContent().get(3).getCategory());
+        assertEquals("DEBIT", page.getContent().get(3).getType());
+    }
+
+    @Test
+    void findResponses_SortsMerchantNameDescendingWithNullsFirst() {
+        Page<TransactionResponse> page = transactionRepository.findResponses(
+                TransactionSpecifications.belongsToUser(user.getId()),
+                PageRequest.of(0, 10, TransactionSpecifications.sortOf("merchantName", "DESC")));
+
+        assertNull(page.getContent().get(0).getMerchantName());
+        assertEquals(List.of("Talabat", "Starbucks", "Payroll"),
+                page.getContent().subList(1, 4).stream().map(TransactionResponse::getMerchantName).toList());
+    }
+
+    @Test
+    void sortOf_MerchantNameIsAcceptedBySpecificationQueries() {
+        // Spring Data rejects null handling on Specification sorts; sortOf must carry none
+        Page<Transaction> page = transactionRepository.findAll(
+                TransactionSpecifications.belongsToUser(user.getId())
+                        .and(TransactionSpecifications.merchantContains("a")),
+                PageRequest.of(0, 10, TransactionSpecifications.sortOf("merchantName", "ASC")));
+
+        assertEquals(List.of("Payroll", "Starbucks", "Talabat"),
+                page.getContent().stream().map(Transaction::getMerchantName).toList());
+    }
+
+    @Test
+    void seekAfter_WalksAllRowsWithoutGapsOrDuplicates() {
+        Sort sort = Sort.by(Sort.Order.desc("transactionDate"), Sort.Order.desc("id"));
+        Specification<Transaction> base = TransactionSpecifications.belongsToUser(user.getId());
+
+        List<Transaction> firstPage = transactionRepository.findBy(base, q -> q.sortBy(sort).limit(2).all());
+        Transaction last = firstPage.get(1);
+        List<Transaction> secondPage = transactionRepository.findBy(
+                base.and(TransactionSpecifications.seekAfter(
+                        "transactionDate", Sort.Direction.DESC, last.getTransactionDate(), last.getId())),
+                q -> q.sortBy(sort).limit(2).all());
+
+        assertEquals(2, secondPage.size());
+        assertEquals(LocalDate.of(2025, 1, 20), secondPage.get(0).getTransactionDate());
+        assertEquals(LocalDate.of(2025, 1, 5), secondPage.get(1).getTransactionDate());
+    }
+
+    @Test
+    void seekAfter_BreaksTiesOnId() {
+        persistAndReturn(account, food, "Cafe A", "4.500", LocalDate.of(2025, 3, 1));
+        persistAndReturn(account, food, "Cafe B", "4.500", LocalDate.of(2025, 3, 1));
+        em.flush();
+        // UUID ordering is defined by the database, not by UUID.compareTo
+        Transaction lower = transactionRepository.findBy(
+                TransactionSpecifications.dateBetween(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 1)),
+                q -> q.sortBy(Sort.by("id")).first()).orElseThrow();
+
+        Specification<Transaction> spec = TransactionSpecifications.belongsToUser(user.getId())
+                .and(TransactionSpecifications.seekAfter(
+                        "transactionDate", Sort.Direction.ASC, LocalDate.of(2025, 3, 1), lower.getId()));
+
+        assertEquals(1, transactionRepository.count(spec));
+    }
+
+    private void persist(Account owner, TransactionCategory category, String merchant,
+                         String amount, TransactionType type, LocalDate date) {
+        em.persist(Transaction.builder()
+                .account(owner)
+                .category(category)
+                .merchantName(merchant)
+                .amount(new BigDecimal(amount))
+                .type(type)
+                .currency("BHD")
+                .transactionDate(date)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private Transaction persistAndReturn(Account owner, TransactionCategory category, String merchant,
+                                         String amount, LocalDate date) {
+        return em.persist(Transaction.builder()
+                .account(owner)
+                .category(category)
+                .merchantName(merchant)
+                .amount(new BigDecimal(amount))
+                .type(TransactionType.DEBIT)
+                .currency("BHD")
+                .transactionDate(date)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,103 @@
+package com.pathwise.backend.security;
+
+import com.pathwise.backend.exception.InvalidWebhookException;
+import com.pathwise.backend.service.PlaidService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PlaidWebhookVerifier's key fetches: kids Plaid rejects are
+ * remembered, fetches are capped per minute, and a failure to reach Plaid rejects
+ * the webhook instead of failing the request.
+ */
+class PlaidWebhookVerifierTest {
+
+    private static final byte[] BODY = "{\"webhook_type\":\"TRANSACTIONS\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final PlaidService plaidService = mock(PlaidService.class);
+    private final KeyPair keyPair = keyPair();
+
+    @Test
+    void unknownKey_IsFetchedOnce() {
+        when(plaidService.fetchWebhookVerificationKey(anyString()))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "unknown key", null, null, null));
+        PlaidWebhookVerifier verifier = verifier(10);
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(InvalidWebhookException.class, () -> verifier.verify(BODY, sign("made-up")));
+        }
+        verify(plaidService, times(1)).fetchWebhookVerificationKey("made-up");
+    }
+
+    @Test
+    void keyFetches_AreCappedPerMinute() {
+        when(plaidService.fetchWebhookVerificationKey(anyString()))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "unknown key", null, null, null));
+        PlaidWebhookVerifier verifier = verifier(3);
+
+        for (int i = 0; i < 10; i++) {
+            String keyId = "made-up-" + i;
+            assertThrows(InvalidWebhookException.class, () -> verifier.verify(BODY, sign(keyId)));
+        }
+        verify(plaidService, times(3)).fetchWebhookVerificationKey(anyString());
+    }
+
+    @Test
+    void plaidUnreachable_RejectsWithoutRememberingTheKey() {
+        when(plaidService.fetchWebhookVerificationKey(anyString()))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "down", null, null, null))
+                .thenThrow(new ResourceAccessException("timed out"));
+        PlaidWebhookVerifier verifier = verifier(10);
+
+        assertThrows(InvalidWebhookException.class, () -> verifier.verify(BODY, sign("plaid-key")));
+        assertThrows(InvalidWebhookException.class, () -> verifier.verify(BODY, sign("plaid-key")));
+        // Both failures were transient, so each webhook tried again
+        verify(plaidService, times(2)).fetchWebhookVerificationKey("plaid-key");
+    }
+
+    private PlaidWebhookVerifier verifier(int maxFetchesPerMinute) {
+        return new PlaidWebhookVerifier(plaidService, Duration.ofMinutes(5), maxFetchesPerMinute);
+    }
+
+    private String sign(String keyId) {
+        try {
+            return Jwts.builder()
+                    .setHeaderParam("kid", keyId)
+                    .setIssuedAt(new Date())
+                    .claim("request_body_sha256",
+                            HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(BODY)))
+                    .signWith(keyPair.getPrivate(), SignatureAlgorithm.ES256)
+                    .compact();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static KeyPair keyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.dto.AnalyticsResponse;
+import com.pathwise.backend.enums.VersionedResource;
+import com.pathwise.backend.security.AuthenticatedUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AnalyticsCache: hits, version- and date-based invalidation and metrics.
+ */
+class AnalyticsCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicReference<LocalDate> today;
+    private AnalyticsCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        today = new AtomicReference<>(LocalDate.of(2026, 1, 31));
+        cache = new AnalyticsCache(meterRegistry, 100, Duration.ofMinutes(10), today::get);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_SameUserAndMonths_LoadsOnce() {
+        AuthenticatedUser user = user();
+
+        AnalyticsResponse first = cache.get(user, 3, this::load);
+        AnalyticsResponse second = cache.get(user, 3, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_DifferentMonths_LoadsSeparately() {
+        AuthenticatedUser user = user();
+
+        cache.get(user, 3, this::load);
+        cache.get(user, 12, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void analyticsVersionBump_ReloadsOnlyThatUser() {
+        AuthenticatedUser user = user();
+        AuthenticatedUser otherUser = user();
+        cache.get(user, 3, this::load);
+        cache.get(otherUser, 3, this::load);
+
+        // Their next request loads them with the bumped version
+        cache.get(withVersion(user, 1), 3, this::load);
+        cache.get(otherUser, 3, this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_NextDay_LoadsAgain() {
+        AuthenticatedUser user = user();
+        cache.get(user, 1, this::load);
+
+        // Past midnight, and here into the next month, the same window covers other days
+        today.set(today.get().plusDays(1));
+        cache.get(user, 1, this::load);
+        cache.getAll(user, Set.of(1), missing -> Map.of(1, load()));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_RecordsHitAndMissMetrics() {
+        AuthenticatedUser user = user();
+
+        cache.get(user, 3, this::load);
+        cache.get(user, 3, this::load);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "analytics").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "analytics").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void getAll_LoadsOnlyMissingWindowsInOneCall() {
+        AuthenticatedUser user = user();
+        cache.get(user, 3, this::load);
+        List<Set<Integer>> batches = new ArrayList<>();
+
+        Map<Integer, AnalyticsResponse> responses = cache.getAll(user, Set.of(1, 3, 12), missing -> {
+            batches.add(missing);
+            Map<Integer, AnalyticsResponse> loaded = new HashMap<>();
+            missing.forEach(months -> loaded.put(months, load()));
+            return loaded;
+        });
+
+        assertEquals(Set.of(1, 3, 12), responses.keySet());
+        assertEquals(List.of(Set.of(1, 12)), batches);
+        assertSame(responses.get(12), cache.get(user, 12, this::load));
+    }
+
+    private static AuthenticatedUser user() {
+        return new AuthenticatedUser(UUID.randomUUID(), "cache@test.com", "hash", List.of(),
+                Map.of(VersionedResource.ANALYTICS, 0L));
+    }
+
+    private static AuthenticatedUser withVersion(AuthenticatedUser user, long analyticsVersion) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), List.of(),
+                Map.of(VersionedResource.ANALYTICS, analyticsVersion));
+    }
+
+    private AnalyticsResponse load() {
+        loads.incrementAndGet();
+        return AnalyticsResponse.builder().totalBalance(BigDecimal.TEN).build();
+    }
+}
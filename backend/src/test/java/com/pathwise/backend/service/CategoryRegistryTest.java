@@ -0,0 +1,161 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.repository.TransactionCategoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CategoryRegistry: held categories are served without queries, concurrent
+ * creates of one name end in one row, misses are remembered for a while, and
+ * categories created by another node are read through once they expire. Runs without a test transaction, as the registry commits.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "pathwise.categories.miss-ttl=300ms"})
+@ActiveProfiles("test")
+@Import(CategoryRegistry.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CategoryRegistryTest {
+
+    private static final Duration MISS_TTL = Duration.ofMillis(300);
+
+    @Autowired private CategoryRegistry registry;
+    @Autowired private TransactionCategoryRepository categoryRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void loadedCategories_AreServedWithoutQueries() {
+        TransactionCategory stored = categoryRepository.save(category("REG-LOADED-" + UUID.randomUUID()));
+        registry.load();
+        statistics.clear();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(stored.getId(), registry.getOrCreate(stored.getName()).getId());
+            assertEquals(stored.getId(), registry.find(stored.getName()).orElseThrow().getId());
+        }
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void concurrentCreates_EndInOneRow() throws Exception {
+        String name = "REG-RACE-" + UUID.randomUUID();
+        // Separate registries stand for separate nodes, which share only the table
+        List<CategoryRegistry> nodes = List.of(registry,
+                new CategoryRegistry(categoryRepository, transactionManager, MISS_TTL),
+                new CategoryRegistry(categoryRepository, transactionManager, MISS_TTL),
+                new CategoryRegistry(categoryRepository, transactionManager, MISS_TTL));
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<TransactionCategory>> creates = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                CategoryRegistry node = nodes.get(i % nodes.size());
+                creates.add(executor.submit(() -> {
+                    start.await();
+                    return node.getOrCreate(name);
+                }));
+            }
+            start.countDown();
+
+            Set<UUID> ids = creates.stream().map(this::get).map(TransactionCategory::getId).collect(Collectors.toSet());
+            assertEquals(1, ids.size());
+        }
+        assertTrue(categoryRepository.findByName(name).isPresent());
+    }
+
+    @Test
+    void missingCategory_IsLookedUpOnce() {
+        String name = "REG-MISS-" + UUID.randomUUID();
+        statistics.clear();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(registry.find(name).isEmpty());
+        }
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void createdCategory_ReplacesItsMiss() {
+        String name = "REG-CREATED-" + UUID.randomUUID();
+        assertTrue(registry.find(name).isEmpty());
+
+        TransactionCategory created = registry.getOrCreate(name);
+        assertEquals(created.getId(), registry.find(name).orElseThrow().getId());
+    }
+
+    @Test
+    void categoryCreatedElsewhere_IsReadThroughOnceTheMissExpires() throws InterruptedException {
+        String name = "REG-ELSEWHERE-" + UUID.randomUUID();
+        assertTrue(registry.find(name).isEmpty());
+
+        TransactionCategory stored = categoryRepository.save(category(name));
+        assertTrue(registry.find(name).isEmpty());
+        Thread.sleep(MISS_TTL.toMillis() + 100);
+        assertEquals(stored.getId(), registry.find(name).orElseThrow().getId());
+
+        statistics.clear();
+        registry.find(name);
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void find_DoesNotCreate() {
+        String name = "REG-MISSING-" + UUID.randomUUID();
+        assertTrue(registry.find(name).isEmpty());
+        assertTrue(categoryRepository.findByName(name).isEmpty());
+    }
+
+    @Test
+    void newCategory_GetsItsIconAndColor() {
+        TransactionCategory travel = registry.getOrCreate("travel");
+        assertEquals("✈️", travel.getIcon());
+        assertEquals("#A29BFE", travel.getColorHex());
+
+        TransactionCategory other = registry.getOrCreate("REG-OTHER-" + UUID.randomUUID());
+        assertEquals("💳", other.getIcon());
+        assertEquals("#95A5A6", other.getColorHex());
+    }
+
+    private static TransactionCategory category(String name) {
+        return TransactionCategory.builder().name(name).icon("*").colorHex("#000000").build();
+    }
+
+    private TransactionCategory get(Future<TransactionCategory> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
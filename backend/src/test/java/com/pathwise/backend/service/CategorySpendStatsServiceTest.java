@@ -0,0 +1,144 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.model.CategorySpendStats;
+import com.pathwise.backend.repository.SpendSample;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming statistics: Welford and EWMA updates, month
+ * counters and the deviation score.
+ */
+class CategorySpendStatsServiceTest {
+
+    private static final LocalDate MARCH = LocalDate.of(2025, 3, 1);
+
+    private CategorySpendStats stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = CategorySpendStats.builder().category("FOOD").build();
+    }
+
+    @Test
+    void add_WelfordMatchesTwoPassMeanAndVariance() {
+        Random random = new Random(7);
+        double[] amounts = new double[500];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = random.nextInt(100_000) / 1000.0;
+            add(String.valueOf(amounts[i]), MARCH);
+        }
+
+        double mean = 0;
+        for (double a : amounts) mean += a;
+        mean /= amounts.length;
+        double squares = 0;
+        for (double a : amounts) squares += (a - mean) * (a - mean);
+
+        assertEquals(amounts.length, stats.getSampleCount());
+        assertEquals(mean, stats.getMean(), 1e-9);
+        assertEquals(squares / (amounts.length - 1), CategorySpendStatsService.variance(stats), 1e-6);
+    }
+
+    @Test
+    void add_EwmaWeightsRecentAmounts() {
+        add("10.000", MARCH);
+        add("20.000", MARCH);
+
+        // 0.2 × 20 + 0.8 × 10
+        assertEquals(12.0, stats.getEwma(), 1e-9);
+    }
+
+    @Test
+    void add_MonthCountersResetOnANewMonthAndIgnoreLateArrivals() {
+        add("10.000", MARCH);
+        add("5.500", MARCH.plusDays(3));
+        add("7.000", MARCH.plusMonths(1));
+        add("99.000", MARCH.plusDays(20));
+
+        assertEquals(MARCH.plusMonths(1), stats.getMonthStart());
+        assertEquals(1, stats.getMonthCount());
+        assertEquals(0, new BigDecimal("7.000").compareTo(stats.getMonthTotal()));
+        // The late March amount still counts towards the running statistics
+        assertEquals(4, stats.getSampleCount());
+    }
+
+    @Test
+    void score_IsUndefinedUntilEnoughSamples() {
+        for (int i = 0; i < CategorySpendStatsService.MIN_SAMPLES - 1; i++) add("10.000", MARCH);
+
+        assertTrue(Double.isNaN(CategorySpendStatsService.score(stats, 100)));
+        assertNull(stats.getMonthPeakScore());
+    }
+
+    @Test
+    void add_RecordsTheMonthsMostDeviatingTransaction() {
+        for (int i = 0; i < 20; i++) add(i % 2 == 0 ? "9.000" : "11.000", MARCH);
+        UUID spike = add("40.000", MARCH.plusDays(10));
+        add("12.000", MARCH.plusDays(11));
+
+        assertEquals(spike, stats.getMonthPeakTransactionId());
+        assertEquals(0, new BigDecimal("40.000").compareTo(stats.getMonthPeakAmount()));
+        assertTrue(stats.getMonthPeakScore() > 4, "score was " + stats.getMonthPeakScore());
+    }
+
+    @Test
+    void score_UsesTheHigherOfMeanAndEwmaAsTheUsualLevel() {
+        // Long history around 10, then a run around 30: the EWMA has caught up, the mean has not
+        for (int i = 0; i < 40; i++) add(i % 2 == 0 ? "9.000" : "11.000", MARCH);
+        for (int i = 0; i < 20; i++) add("30.000", MARCH);
+
+        double againstMean = (30 - stats.getMean()) / Math.sqrt(CategorySpendStatsService.variance(stats));
+        assertTrue(againstMean > 1);
+        assertTrue(CategorySpendStatsService.score(stats, 30) < 0.5,
+                "score was " + CategorySpendStatsService.score(stats, 30));
+    }
+
+    @Test
+    void remove_ReversesMeanVarianceAndMonthCounters() {
+        add("10.000", MARCH);
+        add("14.000", MARCH.plusDays(1));
+        CategorySpendStats expected = CategorySpendStats.builder().category("FOOD").build();
+        CategorySpendStatsService.add(expected, new SpendSample(UUID.randomUUID(), "FOOD", new BigDecimal("10.000"), MARCH));
+        CategorySpendStatsService.add(expected, new SpendSample(UUID.randomUUID(), "FOOD", new BigDecimal("14.000"), MARCH.plusDays(1)));
+
+        SpendSample later = new SpendSample(UUID.randomUUID(), "FOOD", new BigDecimal("31.500"), MARCH.plusDays(2));
+        CategorySpendStatsService.add(stats, later);
+        CategorySpendStatsService.remove(stats, later);
+
+        assertEquals(expected.getSampleCount(), stats.getSampleCount());
+        assertEquals(expected.getMean(), stats.getMean(), 1e-9);
+        assertEquals(CategorySpendStatsService.variance(expected), CategorySpendStatsService.variance(stats), 1e-9);
+        assertEquals(2, stats.getMonthCount());
+        assertEquals(0, new BigDecimal("24.000").compareTo(stats.getMonthTotal()));
+    }
+
+    @Test
+    void remove_ClearsThePeakWhenItIsTheRemovedTransaction() {
+        for (int i = 0; i < 20; i++) add(i % 2 == 0 ? "9.000" : "11.000", MARCH);
+        UUID spike = add("40.000", MARCH.plusDays(10));
+        assertEquals(spike, stats.getMonthPeakTransactionId());
+
+        CategorySpendStatsService.remove(stats, new SpendSample(UUID.randomUUID(), "FOOD", new BigDecimal("9.000"), MARCH));
+        assertEquals(spike, stats.getMonthPeakTransactionId());
+
+        CategorySpendStatsService.remove(stats, new SpendSample(spike, "FOOD", new BigDecimal("40.000"), MARCH.plusDays(10)));
+        assertNull(stats.getMonthPeakTransactionId());
+        assertNull(stats.getMonthPeakScore());
+        assertNull(stats.getMonthPeakAmount());
+        assertEquals(19, stats.getSampleCount());
+    }
+
+    private UUID add(String amount, LocalDate date) {
+        UUID id = UUID.randomUUID();
+        CategorySpendStatsService.add(stats, new SpendSample(id, "FOOD", new BigDecimal(amount), date));
+        return id;
+    }
+}
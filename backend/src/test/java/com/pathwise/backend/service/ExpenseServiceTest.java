@@ -3,6 +3,7 @@ package com.pathwise.backend.service;
 import com.pathwise.backend.config.TestDataFactory;
 import com.pathwise.backend.dto.RegisterRequest;
 import com.pathwise.backend.enums.ExpenseCategory;
+import com.pathwise.backend.enums.VersionedResource;
 import com.pathwise.backend.model.MonthlyExpense;
 import com.pathwise.backend.model.User;
 import com.pathwise.backend.repository.GoalRepository;
@@ -41,6 +42,9 @@ class ExpenseServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ResourceVersions resourceVersions;
+
     @InjectMocks
     private FinancialProfileService financialProfileService;
 
@@ -118,6 +122,7 @@ class ExpenseServiceTest {
         // Old expenses deleted first, then new ones saved
         verify(expenseRepository).deleteByUserId(testUser.getId());
         verify(expenseRepository).saveAll(anyList());
+        verify(resourceVersions).bump(testUser.getId(), VersionedResource.GOALS, VersionedResource.PROFILE);
     }
 
     @Test
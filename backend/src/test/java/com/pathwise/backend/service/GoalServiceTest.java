@@ -41,6 +41,7 @@ class GoalServiceTest {
     @Mock private GoalRepository           goalRepository;
     @Mock private UserRepository           userRepository;
     @Mock private FinancialProfileService  financialProfileService;
+    @Mock private ResourceVersions         resourceVersions;
 
     @InjectMocks
     private GoalService goalService;
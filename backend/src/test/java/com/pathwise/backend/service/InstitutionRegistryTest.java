@@ -0,0 +1,136 @@
+package com.pathwise.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InstitutionRegistry: single-flight loads, stale-while-revalidate,
+ * the snapshot file and the fallback when Plaid fails.
+ */
+class InstitutionRegistryTest {
+
+    private static final List<InstitutionRegistry.Institution> FALLBACK =
+            List.of(institution("ins_fallback", "Fallback Bank"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentFirstReads_ShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        InstitutionRegistry registry = registry(() -> {
+            loads.incrementAndGet();
+            await(release);
+            return List.of(institution("ins_1", "First Bank"));
+        }, Duration.ofHours(1));
+
+        List<Future<List<InstitutionRegistry.Institution>>> reads = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) reads.add(executor.submit(registry::all));
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<List<InstitutionRegistry.Institution>> read : reads) {
+                assertEquals("ins_1", read.get().get(0).id());
+            }
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void staleList_IsServedWhileOneRefreshRuns() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        InstitutionRegistry registry = registry(() -> {
+            if (loads.incrementAndGet() == 1) return List.of(institution("ins_old", "Old Bank"));
+            await(release);
+            return List.of(institution("ins_new", "New Bank"));
+        }, Duration.ofMillis(50));
+
+        assertEquals("ins_old", registry.all().get(0).id());
+        Thread.sleep(100);
+
+        // Stale reads return at once, however many arrive during the refresh
+        for (int i = 0; i < 10; i++) {
+            assertEquals("ins_old", registry.all().get(0).id());
+        }
+        release.countDown();
+        awaitFirstId(registry, "ins_new");
+        assertEquals(2, loads.get());
+        assertTrue(registry.byId("ins_new").isPresent());
+        assertTrue(registry.byId("ins_old").isEmpty());
+    }
+
+    @Test
+    void restartedRegistry_ServesTheSnapshotWithoutLoading() {
+        registry(() -> List.of(institution("ins_1", "First Bank")), Duration.ofHours(1)).all();
+        assertTrue(Files.exists(snapshotFile()));
+
+        InstitutionRegistry restarted = registry(() -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("Plaid is down");
+        }, Duration.ofHours(1));
+
+        assertEquals("First Bank", restarted.byId("ins_1").orElseThrow().name());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void failedLoad_ServesTheFallbackAndRetriesLater() {
+        InstitutionRegistry registry = registry(() -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("Plaid is down");
+        }, Duration.ofHours(1));
+
+        assertEquals(FALLBACK, registry.all());
+        assertEquals(FALLBACK, registry.all());
+        assertEquals(1, loads.get());
+        assertFalse(Files.exists(snapshotFile()));
+    }
+
+    private InstitutionRegistry registry(Supplier<List<InstitutionRegistry.Institution>> loader,
+                                         Duration ttl) {
+        return new InstitutionRegistry(loader, () -> FALLBACK, snapshotFile(), objectMapper, ttl);
+    }
+
+    private Path snapshotFile() {
+        return directory.resolve("institutions.json");
+    }
+
+    private static InstitutionRegistry.Institution institution(String id, String name) {
+        return new InstitutionRegistry.Institution(id, name, List.of("transactions"), List.of("US"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitFirstId(InstitutionRegistry registry, String id) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!id.equals(registry.all().get(0).id()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(id, registry.all().get(0).id());
+    }
+}
@@ -0,0 +1,52 @@
+package com.pathwise.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the in-memory merchant similarity against the values PostgreSQL pg_trgm returns.
+ */
+class MerchantTrigramsTest {
+
+    @Test
+    void trigrams_MatchPgTrgmPadding() {
+        assertEquals(List.of("  c", " ca", "cat", "at "), MerchantTrigrams.trigrams("Cat"));
+    }
+
+    @Test
+    void trigrams_IgnorePunctuationAndCase() {
+        assertEquals(MerchantTrigrams.trigrams("starbucks coffee"), MerchantTrigrams.trigrams("STARBUCKS, COFFEE!"));
+    }
+
+    @Test
+    void wordSimilarity_MatchesPostgresDocumentationExample() {
+        // SELECT word_similarity('word', 'two words') = 0.8
+        assertEquals(0.8, MerchantTrigrams.wordSimilarity("word", "two words"), 1e-6);
+    }
+
+    @Test
+    void wordSimilarity_ToleratesTypos() {
+        double score = MerchantTrigrams.wordSimilarity("starbuks", "STARBUCKS COFFEE #1024");
+        assertTrue(score >= MerchantTrigrams.WORD_SIMILARITY_THRESHOLD, "score was " + score);
+    }
+
+    @Test
+    void wordSimilarity_RejectsUnrelatedMerchants() {
+        double score = MerchantTrigrams.wordSimilarity("starbuks", "Talabat");
+        assertTrue(score < MerchantTrigrams.WORD_SIMILARITY_THRESHOLD, "score was " + score);
+    }
+
+    @Test
+    void wordSimilarity_ExactWordScoresOne() {
+        assertEquals(1.0, MerchantTrigrams.wordSimilarity("talabat", "Talabat Order 55"), 1e-6);
+    }
+
+    @Test
+    void wordSimilarity_EmptyInputScoresZero() {
+        assertEquals(0.0, MerchantTrigrams.wordSimilarity("", "Talabat"));
+        assertEquals(0.0, MerchantTrigrams.wordSimilarity("talabat", null));
+    }
+}
@@ -0,0 +1,136 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.MonthlySpendRollup;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that incremental rollup updates on ingest agree with a full rebuild.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(MonthlySpendRollupService.class)
+class MonthlySpendRollupServiceTest {
+
+    private static final LocalDate JAN = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FEB = LocalDate.of(2025, 2, 1);
+
+    @Autowired private TestEntityManager em;
+    @Autowired private MonthlySpendRollupService rollupService;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+
+    private User user;
+    private Account account;
+    private TransactionCategory food;
+
+    @BeforeEach
+    void setUp() {
+        user = TestDataFactory.createTestUser();
+        user.setId(null);
+        em.persist(user);
+        account = em.persist(Account.builder().user(user).balance(BigDecimal.ZERO).currency("BHD").build());
+        food = em.persist(TransactionCategory.builder().name("ROLLUP-FOOD").icon("*").colorHex("#000000").build());
+    }
+
+    @Test
+    void addTransactions_AccumulatesIntoExistingRows() {
+        rollupService.addTransactions(user, List.of(
+                persist(food, "4.500", TransactionType.DEBIT, JAN.plusDays(4)),
+                persist(food, "5.500", TransactionType.DEBIT, JAN.plusDays(20))));
+        rollupService.addTransactions(user, List.of(
+                persist(food, "2.000", TransactionType.DEBIT, JAN.plusDays(25)),
+                persist(null, "30.000", TransactionType.DEBIT, FEB.plusDays(2)),
+                persist(null, "800.000", TransactionType.CREDIT, FEB)));
+        em.flush();
+        em.clear();
+
+        List<MonthlySpendRollup> rows = rollupRepository.findByUserIdAndMonthStartBetween(user.getId(), JAN, FEB);
+
+        assertEquals(3, rows.size());
+        MonthlySpendRollup janFood = find(rows, JAN, "ROLLUP-FOOD", TransactionType.DEBIT);
+        assertEquals(0, new BigDecimal("12.000").compareTo(janFood.getTotalAmount()));
+        assertEquals(3, janFood.getTransactionCount());
+        assertEquals(1, find(rows, FEB, "OTHER", TransactionType.DEBIT).getTransactionCount());
+        assertEquals(0, new BigDecimal("800").compareTo(
+                find(rows, FEB, "OTHER", TransactionType.CREDIT).getTotalAmount()));
+    }
+
+    @Test
+    void rebuild_MatchesIncrementalTotals() {
+        List<Transaction> transactions = List.of(
+                persist(food, "4.500", TransactionType.DEBIT, JAN.plusDays(4)),
+                persist(food, "7.250", TransactionType.DEBIT, FEB.plusDays(9)),
+                persist(null, "30.000", TransactionType.DEBIT, FEB.plusDays(2)),
+                persist(null, "800.000", TransactionType.CREDIT, FEB));
+        rollupService.addTransactions(user, transactions);
+        em.flush();
+        em.clear();
+        List<MonthlySpendRollup> incremental = snapshot();
+
+        int written = rollupService.rebuild(user.getId());
+        em.flush();
+        em.clear();
+        List<MonthlySpendRollup> rebuilt = snapshot();
+
+        assertEquals(4, written);
+        assertEquals(incremental.size(), rebuilt.size());
+        for (int i = 0; i < incremental.size(); i++) {
+            MonthlySpendRollup a = incremental.get(i);
+            MonthlySpendRollup b = rebuilt.get(i);
+            assertEquals(a.getMonthStart(), b.getMonthStart());
+            assertEquals(a.getCategory(), b.getCategory());
+            assertEquals(a.getType(), b.getType());
+            assertEquals(0, a.getTotalAmount().compareTo(b.getTotalAmount()));
+            assertEquals(a.getTransactionCount(), b.getTransactionCount());
+        }
+    }
+
+    private List<MonthlySpendRollup> snapshot() {
+        return rollupRepository.findByUserIdAndMonthStartBetween(user.getId(), JAN, FEB).stream()
+                .sorted(Comparator.comparing(MonthlySpendRollup::getMonthStart)
+                        .thenComparing(MonthlySpendRollup::getCategory)
+                        .thenComparing(MonthlySpendRollup::getType))
+                .toList();
+    }
+
+    private static MonthlySpendRollup find(List<MonthlySpendRollup> rows, LocalDate month,
+                                           String category, TransactionType type) {
+        return rows.stream()
+                .filter(r -> r.getMonthStart().equals(month) && r.getCategory().equals(category) && r.getType() == type)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No rollup row for " + month + " " + category + " " + type));
+    }
+
+    private Transaction persist(TransactionCategory category, String amount, TransactionType type, LocalDate date) {
+        return em.persist(Transaction.builder()
+                .account(account)
+                .category(category)
+                .merchantName("Merchant")
+                .amount(new BigDecimal(amount))
+                .type(type)
+                .currency("BHD")
+                .transactionDate(date)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
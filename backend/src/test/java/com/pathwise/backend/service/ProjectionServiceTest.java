@@ -35,6 +35,7 @@ class ProjectionServiceTest {
     @Mock private GoalRepository            goalRepository;
     @Mock private UserRepository            userRepository;
     @Mock private FinancialProfileService   financialProfileService;
+    @Mock private ResourceVersions          resourceVersions;
 
     @InjectMocks
     private ProjectionService projectionService;
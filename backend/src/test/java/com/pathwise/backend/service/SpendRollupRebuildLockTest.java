@@ -0,0 +1,162 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.MonthlySpendRollup;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AccountRepository;
+import com.pathwise.backend.repository.CategorySpendStatsRepository;
+import com.pathwise.backend.repository.MonthlySpendRollupRepository;
+import com.pathwise.backend.repository.TransactionRepository;
+import com.pathwise.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The weekly rebuilds of the spend rollup and the category statistics wait for a
+ * sync holding one of the user's accounts, and then include what it stored.
+ * Runs without a test transaction, as the lock only matters between committed ones.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({MonthlySpendRollupService.class, CategorySpendStatsService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SpendRollupRebuildLockTest {
+
+    private static final LocalDate JAN = LocalDate.of(2025, 1, 1);
+    private static final long HELD_MS = 300;
+
+    @Autowired private MonthlySpendRollupService rollupService;
+    @Autowired private CategorySpendStatsService statsService;
+    @Autowired private MonthlySpendRollupRepository rollupRepository;
+    @Autowired private CategorySpendStatsRepository statsRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private User user;
+    private Account account;
+    private final List<Transaction> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        user = TestDataFactory.createTestUser();
+        user.setId(null);
+        user = userRepository.save(user);
+        account = accountRepository.save(Account.builder().user(user).balance(BigDecimal.ZERO).currency("BHD").build());
+        tx.executeWithoutResult(status -> {
+            Transaction first = store("5.000", JAN.plusDays(3));
+            rollupService.addTransactions(user, List.of(first));
+            statsService.addTransactions(user, List.of(first));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        tx.executeWithoutResult(status -> {
+            rollupRepository.deleteByUserId(user.getId());
+            statsRepository.deleteByUserId(user.getId());
+        });
+        transactionRepository.deleteAll(stored);
+        accountRepository.delete(account);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void rollupRebuild_WaitsForTheSyncHoldingAnAccount() throws Exception {
+        assertWaitsForSync(() -> rollupService.rebuild(user.getId()));
+
+        List<MonthlySpendRollup> rows = rollupRepository.findByUserIdAndMonthStartBetween(user.getId(), JAN, JAN);
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(0).getTransactionCount());
+        assertEquals(0, new BigDecimal("15.000").compareTo(rows.get(0).getTotalAmount()));
+    }
+
+    @Test
+    void statsRebuild_WaitsForTheSyncHoldingAnAccount() throws Exception {
+        assertWaitsForSync(() -> statsService.rebuild(user.getId()));
+
+        assertEquals(2, statsRepository.findByUserId(user.getId()).get(0).getSampleCount());
+    }
+
+    /**
+     * Holds the account lock the ingest writer takes while storing a second
+     * transaction, and checks the rebuild neither finishes nor fails until that
+     * sync commits. Without the lock the rebuild would miss the uncommitted row
+     * and the sync would then add it to rows the rebuild had just written.
+     */
+    private void assertWaitsForSync(Callable<Integer> rebuild) throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> sync = executor.submit(() -> tx.executeWithoutResult(status -> {
+                accountRepository.findByIdForUpdate(account.getId()).orElseThrow();
+                // Inserted but not yet added to the totals, as between the writer's two steps
+                Transaction second = store("10.000", JAN.plusDays(10));
+                locked.countDown();
+                await(release);
+                rollupService.addTransactions(user, List.of(second));
+                statsService.addTransactions(user, List.of(second));
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            Future<Integer> rebuilt = executor.submit(rebuild);
+            assertThrows(TimeoutException.class, () -> rebuilt.get(HELD_MS, TimeUnit.MILLISECONDS));
+            release.countDown();
+
+            sync.get(5, TimeUnit.SECONDS);
+            assertEquals(1, rebuilt.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private Transaction store(String amount, LocalDate date) {
+        Transaction transaction = transactionRepository.save(Transaction.builder()
+                .account(account)
+                .merchantName("Merchant")
+                .amount(new BigDecimal(amount))
+                .type(TransactionType.DEBIT)
+                .currency("BHD")
+                .transactionDate(date)
+                .createdAt(LocalDateTime.now())
+                .build());
+        stored.add(transaction);
+        return transaction;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.SeverityLevel;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.Anomaly;
+import com.pathwise.backend.model.CategorySpendStats;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.AnomalyRepository;
+import com.pathwise.backend.repository.CategorySpendStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * STATISTICAL anomaly mode end to end: statistics updated on ingest, then detection
+ * from the month's peak score.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "pathwise.anomalies.mode=STATISTICAL")
+@Import({CategorySpendStatsService.class, AnomalyService.class, ResourceVersions.class, CategoryRegistry.class})
+class StatisticalAnomalyDetectionTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private CategorySpendStatsService statsService;
+    @Autowired private CategorySpendStatsRepository statsRepository;
+    @Autowired private AnomalyService anomalyService;
+    @Autowired private AnomalyRepository anomalyRepository;
+    @Autowired private CategoryRegistry categoryRegistry;
+
+    private User user;
+    private Account account;
+    private TransactionCategory food;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        user = TestDataFactory.createTestUser();
+        user.setId(null);
+        em.persist(user);
+        account = em.persist(Account.builder().user(user).balance(BigDecimal.ZERO).currency("BHD").build());
+        // Committed outside the test transaction: the registry holds categories for good
+        food = categoryRegistry.getOrCreate("STATS-FOOD");
+        today = LocalDate.now();
+    }
+
+    @Test
+    void spikeAgainstRunningStatistics_IsFlaggedOnceWithItsTransaction() {
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            history.add(persist(i % 2 == 0 ? "9.000" : "11.000", today.minusMonths(2).plusDays(i % 28)));
+        }
+        statsService.addTransactions(user, history);
+        Transaction spike = persist("45.000", today);
+        statsService.addTransactions(user, List.of(spike, persist("10.000", today)));
+
+        assertEquals(1, anomalyService.detectAnomalies(user.getId()));
+        assertEquals(0, anomalyService.detectAnomalies(user.getId()));
+
+        em.flush();
+        em.clear();
+        Anomaly anomaly = anomalyRepository.findByUserIdAndIsDismissedFalseOrderByCreatedAtDesc(user.getId()).get(0);
+        assertEquals(SeverityLevel.HIGH, anomaly.getSeverity());
+        assertEquals(spike.getId(), anomaly.getTransaction().getId());
+        assertEquals(0, new BigDecimal("45.000").compareTo(anomaly.getActualAmount()));
+    }
+
+    @Test
+    void ordinaryAmounts_AreNotFlagged() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            transactions.add(persist(i % 2 == 0 ? "9.000" : "11.000", today.minusDays(29 - i)));
+        }
+        statsService.addTransactions(user, transactions);
+
+        assertEquals(0, anomalyService.detectAnomalies(user.getId()));
+    }
+
+    @Test
+    void rebuild_MatchesIncrementalStatistics() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            transactions.add(persist(String.valueOf(5 + (i * 7) % 13), today.minusDays(40 - i)));
+        }
+        statsService.addTransactions(user, transactions.subList(0, 10));
+        statsService.addTransactions(user, transactions.subList(10, 25));
+        em.flush();
+        CategorySpendStats incremental = copy(statsRepository.findByUserId(user.getId()).get(0));
+        em.clear();
+
+        statsService.rebuild(user.getId());
+        em.flush();
+        em.clear();
+        CategorySpendStats rebuilt = statsRepository.findByUserId(user.getId()).get(0);
+
+        assertEquals(incremental.getSampleCount(), rebuilt.getSampleCount());
+        assertEquals(incremental.getMean(), rebuilt.getMean(), 1e-9);
+        assertEquals(incremental.getM2(), rebuilt.getM2(), 1e-6);
+        assertEquals(incremental.getEwma(), rebuilt.getEwma(), 1e-9);
+        assertEquals(incremental.getMonthCount(), rebuilt.getMonthCount());
+    }
+
+    private CategorySpendStats copy(CategorySpendStats s) {
+        return CategorySpendStats.builder().sampleCount(s.getSampleCount()).mean(s.getMean()).m2(s.getM2())
+                .ewma(s.getEwma()).monthCount(s.getMonthCount()).build();
+    }
+
+    private Transaction persist(String amount, LocalDate date) {
+        return em.persist(Transaction.builder()
+                .account(account).category(food).merchantName("Merchant")
+                .amount(new BigDecimal(amount)).type(TransactionType.DEBIT).currency("BHD")
+                .transactionDate(date).createdAt(LocalDateTime.now())
+                .build());
+    }
+}
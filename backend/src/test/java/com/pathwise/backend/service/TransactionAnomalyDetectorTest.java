@@ -0,0 +1,174 @@
+package com.pathwise.backend.service;
+
+import com.pathwise.backend.config.TestDataFactory;
+import com.pathwise.backend.enums.AnomalyKind;
+import com.pathwise.backend.enums.SeverityLevel;
+import com.pathwise.backend.enums.TransactionType;
+import com.pathwise.backend.model.Account;
+import com.pathwise.backend.model.Anomaly;
+import com.pathwise.backend.model.Transaction;
+import com.pathwise.backend.model.TransactionCategory;
+import com.pathwise.backend.model.User;
+import com.pathwise.backend.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Transaction-level detectors: duplicate charge, merchant amount outlier and new
+ * merchant, against history loaded from the database or built up in memory, and
+ * the bound on how long a history misses charges ingested on another node.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(TransactionAnomalyDetector.class)
+class TransactionAnomalyDetectorTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private TransactionAnomalyDetector detector;
+    @Autowired private TransactionRepository transactionRepository;
+
+    private User user;
+    private Account account;
+    private TransactionCategory food;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        user = TestDataFactory.createTestUser();
+        user.setId(null);
+        em.persist(user);
+        account = em.persist(Account.builder().user(user).balance(BigDecimal.ZERO).currency("BHD").build());
+        food = em.persist(TransactionCategory.builder().name("DETECT-FOOD").icon("*").colorHex("#000000").build());
+        today = LocalDate.now();
+    }
+
+    @Test
+    void outlierAtAKnownMerchant_IsFlaggedFromHistoryInTheDatabase() {
+        for (int i = 0; i < 10; i++) persist("Cafe", i % 2 == 0 ? "4.000" : "6.000", today.minusDays(60 + i));
+        em.flush();
+        detector.prepare(user.getId());
+
+        Transaction spike = persist(" CAFE ", "40.000", today);
+        List<Anomaly> anomalies = detector.detect(user, List.of(spike, persist("Cafe", "5.500", today)));
+
+        assertEquals(1, anomalies.size());
+        Anomaly anomaly = anomalies.get(0);
+        assertEquals(AnomalyKind.AMOUNT_OUTLIER, anomaly.getKind());
+        assertEquals(SeverityLevel.HIGH, anomaly.getSeverity());
+        assertSame(spike, anomaly.getTransaction());
+        assertEquals(0, new BigDecimal("5.000").compareTo(anomaly.getBaselineAmount()));
+    }
+
+    @Test
+    void sameMerchantAndAmountWithinTheWindow_IsADuplicateCharge() {
+        for (int i = 0; i < 10; i++) persist("Gym", "25.000", today.minusMonths(i + 1));
+        em.flush();
+        detector.prepare(user.getId());
+
+        List<Anomaly> anomalies = detector.detect(user, List.of(
+                persist("Gym", "25.000", today.minusDays(1)),
+                persist("Gym", "25.000", today),
+                persist("Gym", "25.000", today.plusDays(5))));
+
+        assertEquals(1, anomalies.size());
+        assertEquals(AnomalyKind.DUPLICATE_CHARGE, anomalies.get(0).getKind());
+        assertEquals(today, anomalies.get(0).getTransaction().getTransactionDate());
+    }
+
+    @Test
+    void firstLargePaymentToAMerchant_IsFlaggedOnce() {
+        detector.prepare(user.getId());
+
+        List<Anomaly> first = detector.detect(user, List.of(
+                persist("Electronics Store", "180.000", today.minusDays(3)),
+                persist("Bakery", "2.000", today.minusDays(3))));
+        List<Anomaly> second = detector.detect(user, List.of(persist("Electronics Store", "120.000", today)));
+
+        assertEquals(1, first.size());
+        assertEquals(AnomalyKind.NEW_MERCHANT, first.get(0).getKind());
+        assertTrue(second.isEmpty());
+    }
+
+    @Test
+    void historyBuiltInMemory_MatchesHistoryReloadedFromTheDatabase() {
+        detector.prepare(user.getId());
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) batch.add(persist("Grocer", String.valueOf(10 + i % 4), today.minusDays(90 - i)));
+        detector.detect(user, batch);
+        Transaction probe = persist("Grocer", "30.000", today);
+        List<Anomaly> inMemory = detector.detect(user, List.of(probe));
+
+        em.flush();
+        em.remove(probe);
+        em.flush();
+        detector.forget(user.getId());
+        detector.prepare(user.getId());
+        List<Anomaly> reloaded = detector.detect(user, List.of(persist("Grocer", "30.000", today)));
+
+        assertEquals(1, inMemory.size());
+        assertEquals(1, reloaded.size());
+        assertEquals(inMemory.get(0).getSeverity(), reloaded.get(0).getSeverity());
+        assertEquals(inMemory.get(0).getMessage(), reloaded.get(0).getMessage());
+    }
+
+    @Test
+    void creditsAndSmallFirstPayments_AreIgnored() {
+        detector.prepare(user.getId());
+
+        Transaction salary = em.persist(Transaction.builder()
+                .account(account).category(food).merchantName("Employer")
+                .amount(new BigDecimal("900.000")).type(TransactionType.CREDIT).currency("BHD")
+                .transactionDate(today).createdAt(LocalDateTime.now())
+                .build());
+
+        assertTrue(detector.detect(user, List.of(salary, persist("Kiosk", "1.500", today))).isEmpty());
+    }
+
+    @Test
+    void chargesIngestedOnAnotherNode_AreSeenOnceTheHistoryExpires() {
+        Duration historyTtl = Duration.ofMinutes(10);
+        AtomicLong nanos = new AtomicLong();
+        TransactionAnomalyDetector node = new TransactionAnomalyDetector(
+                transactionRepository, 100, 1, new BigDecimal("50"), historyTtl, nanos::get);
+        node.prepare(user.getId());
+
+        // Stored by another node's ingest after this node loaded the history
+        persist("Gym", "60.000", today.minusDays(3));
+        persist("Pool", "60.000", today.minusDays(3));
+        em.flush();
+
+        nanos.addAndGet(historyTtl.minusSeconds(1).toNanos());
+        node.prepare(user.getId());
+        List<Anomaly> stale = node.detect(user, List.of(persist("Gym", "60.000", today)));
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        node.prepare(user.getId());
+        List<Anomaly> reloaded = node.detect(user, List.of(persist("Pool", "60.000", today)));
+
+        assertEquals(1, stale.size());
+        assertEquals(AnomalyKind.NEW_MERCHANT, stale.get(0).getKind());
+        assertTrue(reloaded.isEmpty());
+    }
+
+    private Transaction persist(String merchant, String amount, LocalDate date) {
+        return em.persist(Transaction.builder()
+                .account(account).category(food).merchantName(merchant)
+                .amount(new BigDecimal(amount)).type(TransactionType.DEBIT).currency("BHD")
+                .transactionDate(date).createdAt(LocalDateTime.now())
+                .build());
+    }
+}
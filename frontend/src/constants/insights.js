@@ -145,6 +145,11 @@ export const ANOMALY_SEVERITY = {
  */
 export const TRANSACTIONS_PER_PAGE = 8;
 
+/**
+ * Delay between status checks while a card link job runs on the server
+ */
+export const LINK_POLL_INTERVAL_MS = 1500;
+
 /**
  * Number of recent transactions to show on the dashboard preview
  */
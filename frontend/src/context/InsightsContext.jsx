@@ -10,10 +10,10 @@
 // - Paginated transaction management
 // ─────────────────────────────────────────────────────────────────────────────
 
-import { createContext, useContext, useState, useCallback, useEffect } from "react";
+import { createContext, useContext, useState, useCallback, useEffect, useRef } from "react";
 import { useAuth } from "./AuthContext.jsx";
 import { insightsService } from "../services/insightsService.js";
-import { TRANSACTIONS_PER_PAGE } from "../constants/insights.js";
+import { TRANSACTIONS_PER_PAGE, ANALYTICS_RANGES, LINK_POLL_INTERVAL_MS } from "../constants/insights.js";
 
 const InsightsContext = createContext(null);
 
@@ -32,6 +32,7 @@ export const InsightsProvider = ({ children }) => {
   const [analytics, setAnalytics] = useState(null);
   const [analyticsLoading, setAnalyticsLoading] = useState(true);
   const [analyticsError, setAnalyticsError] = useState(null);
+  const analyticsByRange = useRef({});
 
   // ── Transactions (paginated) ───────────────────────────────────────────────
   const [transactions, setTransactions] = useState([]);
@@ -66,8 +67,11 @@ export const InsightsProvider = ({ children }) => {
     setAnalyticsLoading(true);
     setAnalyticsError(null);
     try {
-      const data = await insightsService.getAnalytics(token, months);
-      setAnalytics(data);
+      // Every range tab in one round trip, so switching ranges needs no request
+      const windows = [...new Set([months, ...ANALYTICS_RANGES.map((r) => r.value)])];
+      const data = await insightsService.getAnalyticsBatch(token, windows);
+      analyticsByRange.current = data;
+      setAnalytics(data[months]);
     } catch (err) {
       setAnalyticsError(err.message || "Failed to load analytics");
     } finally {
@@ -75,6 +79,19 @@ export const InsightsProvider = ({ children }) => {
     }
   }, [token]);
 
+  /**
+   * Shows the analytics of a range, from the prefetched ranges when available.
+   * @param {number} months - Number of months to analyze
+   */
+  const showAnalyticsRange = useCallback((months) => {
+    const prefetched = analyticsByRange.current[months];
+    if (prefetched) {
+      setAnalytics(prefetched);
+      return Promise.resolve();
+    }
+    return fetchAnalytics(months);
+  }, [fetchAnalytics]);
+
   // ── fetchTransactions ──────────────────────────────────────────────────────
   /**
    * Fetches paginated transactions with optional filters.
@@ -246,13 +263,19 @@ export const InsightsProvider = ({ children }) => {
 
   // ── linkCard ───────────────────────────────────────────────────────────────
   /**
-   * Links a new card for the current user.
+   * Links a new card for the current user, waiting for the server-side link
+   * job to finish.
    * @param {Object} cardData - Card details from form
-   * @returns {Promise} Result of linking operation
+   * @returns {Promise} Final job status; rejects if linking failed
    */
   const linkCard = useCallback(async (cardData) => {
-    const result = await insightsService.linkCard(token, cardData);
+    let result = await insightsService.linkCard(token, cardData);
+    while (result.status === "PENDING") {
+      await new Promise((resolve) => setTimeout(resolve, LINK_POLL_INTERVAL_MS));
+      result = await insightsService.getLinkStatus(token, result.jobId);
+    }
     await fetchAccounts();
+    if (result.status === "FAILED") throw new Error(result.error || "Failed to link card");
     await fetchTransactions({ page: 0 });
     return result;
   }, [token, fetchAccounts, fetchTransactions]);
@@ -281,6 +304,7 @@ export const InsightsProvider = ({ children }) => {
     
     // Actions
     fetchAnalytics,
+    showAnalyticsRange,
     fetchTransactions,
     fetchAnomalies,
     fetchReports,
@@ -490,7 +490,7 @@ const InsightsPage = () => {
     anomalies, anomaliesLoading,
     reports, reportsLoading,
     hasLinkedCard,
-    dismissAnomaly, fetchAnalytics, fetchReports,
+    dismissAnomaly, showAnalyticsRange, fetchReports,
     currentMonthName,
   } = useInsights();
 
@@ -539,7 +539,7 @@ const InsightsPage = () => {
    */
   const handleRangeChange = (m) => {
     setMonths(m);
-    fetchAnalytics(m);
+    showAnalyticsRange(m);
   };
 
   const pieLabel = months === 1 ? `${currentMonthName} Spending` : `Spending (last ${months} months)`;
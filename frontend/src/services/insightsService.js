@@ -45,6 +45,17 @@ export const insightsService = {
       headers: authHeaders(token),
     }).then(handleResponse),
 
+  /**
+   * Fetches analytics for several ranges in one request.
+   * @param {string} token - JWT token
+   * @param {number[]} windows - Numbers of months, e.g. [1, 3, 6, 12]
+   * @returns {Promise<Object>} Analytics data keyed by number of months
+   */
+  getAnalyticsBatch: (token, windows) =>
+    fetch(`${BASE}/api/analytics/batch?windows=${windows.join(",")}`, {
+      headers: authHeaders(token),
+    }).then(handleResponse),
+
   // ── Transactions ───────────────────────────────────────────────────────────
   /**
    * Fetches paginated transactions with optional filters.
@@ -129,10 +140,10 @@ export const insightsService = {
 
   // ── Plaid / Card ──────────────────────────────────────────────────────────
   /**
-   * Links a new card for the user.
+   * Starts linking a new card; linking continues on the server.
    * @param {string} token - JWT token
    * @param {Object} cardData - Card details
-   * @returns {Promise<Object>} Result of linking
+   * @returns {Promise<Object>} Link job ({ jobId, status: "PENDING" })
    */
   linkCard: (token, cardData) =>
     fetch(`${BASE}/api/plaid/link-card`, {
@@ -141,6 +152,17 @@ export const insightsService = {
       body: JSON.stringify(cardData),
     }).then(handleResponse),
 
+  /**
+   * Fetches the status of a card link job.
+   * @param {string} token - JWT token
+   * @param {string} jobId - Job ID returned by linkCard
+   * @returns {Promise<Object>} { jobId, status: "PENDING" | "ACTIVE" | "FAILED", error }
+   */
+  getLinkStatus: (token, jobId) =>
+    fetch(`${BASE}/api/plaid/link-card/${jobId}`, {
+      headers: authHeaders(token),
+    }).then(handleResponse),
+
   /**
    * Manually triggers transaction sync.
    * @param {string} token - JWT token